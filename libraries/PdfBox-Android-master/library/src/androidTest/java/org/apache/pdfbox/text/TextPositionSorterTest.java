@@ -0,0 +1,78 @@
+package org.apache.pdfbox.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.util.PDFBoxResourceLoader;
+import org.apache.pdfbox.util.QuickSort;
+
+import android.test.InstrumentationTestCase;
+
+/**
+ * Checks that the text positions of the bundled documents are sorted into the same order as
+ * by sorting them with the TextPositionComparator.
+ */
+public class TextPositionSorterTest extends InstrumentationTestCase
+{
+    private static final String[] DOCUMENTS = { "dan.pdf", "encomenda.pdf", "yorn.pdf" };
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        PDFBoxResourceLoader.init(getInstrumentation().getTargetContext());
+    }
+
+    public void testSameOrderAsComparator() throws IOException
+    {
+        for (String name : DOCUMENTS)
+        {
+            InputStream input = getInstrumentation().getContext().getAssets().open(name);
+            PDDocument document = PDDocument.load(input);
+            try
+            {
+                ComparingStripper stripper = new ComparingStripper(name);
+                stripper.getText(document);
+                assertTrue(name + " has no text", stripper.compared > 0);
+            }
+            finally
+            {
+                document.close();
+                input.close();
+            }
+        }
+    }
+
+    /**
+     * Sorts the text of each article both ways before writing the page.
+     */
+    private static final class ComparingStripper extends PDFTextStripper
+    {
+        private final String name;
+        private int compared;
+
+        ComparingStripper(String name) throws IOException
+        {
+            this.name = name;
+            setSortByPosition(true);
+        }
+
+        @Override
+        protected void writePage() throws IOException
+        {
+            for (List<TextPosition> textList : charactersByArticle)
+            {
+                List<TextPosition> expected = new ArrayList<TextPosition>(textList);
+                QuickSort.sort(expected, new TextPositionComparator());
+                List<TextPosition> actual = new ArrayList<TextPosition>(textList);
+                TextPositionSorter.sort(actual);
+                assertEquals(name + " page " + getCurrentPageNo(), expected, actual);
+                compared += textList.size();
+            }
+            super.writePage();
+        }
+    }
+}
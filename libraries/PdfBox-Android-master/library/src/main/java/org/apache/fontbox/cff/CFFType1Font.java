@@ -24,6 +24,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.fontbox.ttf.Type1Equivalent;
 import org.apache.fontbox.type1.Type1CharStringReader;
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.pdfbox.rendering.GlyphPaths;
 
 import android.graphics.Path;
 
@@ -57,9 +59,16 @@ public class CFFType1Font extends CFFFont implements Type1Equivalent
     }
 
     @Override
+    @Deprecated
     public Path getPath(String name) throws IOException
     {
-        return getType1CharString(name).getPath();
+        return GlyphPaths.toPath(getOutline(name));
+    }
+
+    @Override
+    public GlyphOutline getOutline(String name) throws IOException
+    {
+        return getType1CharString(name).getOutline();
     }
 
     @Override
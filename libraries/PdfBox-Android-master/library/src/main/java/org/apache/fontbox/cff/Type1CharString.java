@@ -22,11 +22,11 @@ import java.util.List;
 
 import org.apache.fontbox.encoding.StandardEncoding;
 import org.apache.fontbox.type1.Type1CharStringReader;
-import org.apache.pdfbox.util.awt.AffineTransform;
+import org.apache.fontbox.util.BoundingBox;
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.pdfbox.rendering.GlyphPaths;
 
 import android.graphics.Path;
-import android.graphics.PointF;
-import android.graphics.RectF;
 import android.util.Log;
 
 /**
@@ -39,12 +39,13 @@ public class Type1CharString
 {
 	private Type1CharStringReader font;
 	private String fontName, glyphName;
-	private Path path = null;
+	private GlyphOutline path = null;
 	private int width = 0;
-	private PointF leftSideBearing = null;
-	private PointF current = null;
+	private float leftSideBearingX, leftSideBearingY;
+	private float currentX, currentY;
 	private boolean isFlex = false;
-	private List<PointF> flexPoints = new ArrayList<PointF>();
+	// the x/y pairs of the flex points
+	private List<float[]> flexPoints = new ArrayList<float[]>();
 	protected List<Object> type1Sequence;
 	protected int commandCount;
 
@@ -69,7 +70,6 @@ public class Type1CharString
 		this.font = font;
 		this.fontName = fontName;
 		this.glyphName = glyphName;
-		this.current = new PointF(0, 0);
 	}
 
 	// todo: NEW name (or CID as hex)
@@ -80,24 +80,18 @@ public class Type1CharString
 
 	/**
 	 * Returns the bounds of the renderer path.
-	 * @return the bounds as Rectangle2D
+	 * @return the bounds
 	 */
-	public RectF getBounds()
+	public BoundingBox getBounds()
 	{
-		if (path == null)
-		{
-			render();
-		}
-		RectF retval = null;
-		path.computeBounds(retval, true);
-		return retval;
+		return getOutline().getBounds();
 	}
 
 	/**
 	 * Returns the advance width of the glyph.
 	 * @return the width
 	 */
-	public int getWidth()
+	public synchronized int getWidth()
 	{
 		if (path == null)
 		{
@@ -107,10 +101,11 @@ public class Type1CharString
 	}
 
 	/**
-	 * Returns the path of the character.
-	 * @return the path
+	 * Returns the outline of the character. The outline is kept by this char string and
+	 * must not be modified. The char string is rendered once, even if it is shared by threads.
+	 * @return the outline
 	 */
-	public Path getPath()
+	public synchronized GlyphOutline getOutline()
 	{
 		if (path == null)
 		{
@@ -119,6 +114,17 @@ public class Type1CharString
 		return path;
 	}
 
+	/**
+	 * Returns the path of the character.
+	 * @return the path
+	 * @deprecated Use {@link #getOutline()} instead, the path is created from it
+	 */
+	@Deprecated
+	public Path getPath()
+	{
+		return GlyphPaths.toPath(getOutline());
+	}
+
 	/**
 	 * Returns the Type 1 char string sequence.
 	 * @return the Type 1 sequence
@@ -129,12 +135,13 @@ public class Type1CharString
 	}
 
 	/**
-	 * Renders the Type 1 char string sequence to a GeneralPath.
+	 * Renders the Type 1 char string sequence to an outline.
 	 */
 	private void render() 
 	{
-		path = new Path();
-		leftSideBearing = new PointF(0, 0);
+		path = new GlyphOutline();
+		leftSideBearingX = 0;
+		leftSideBearingY = 0;
 		width = 0;
 		CharStringHandler handler = new CharStringHandler() {
 			@Override
@@ -144,6 +151,8 @@ public class Type1CharString
 			}
 		};
 		handler.handleSequence(type1Sequence);
+		// the outline is shared once it has been returned
+		path.trimToSize();
 	}
 
 	private List<Integer> handleCommand(List<Integer> numbers, CharStringCommand command)
@@ -155,7 +164,7 @@ public class Type1CharString
 		{
 			if (isFlex)
 			{
-				flexPoints.add(new PointF(numbers.get(0), numbers.get(1)));
+				flexPoints.add(new float[] { numbers.get(0), numbers.get(1) });
 			}
 			else
 			{
@@ -167,7 +176,7 @@ public class Type1CharString
 			if (isFlex)
 			{
 				// not in the Type 1 spec, but exists in some fonts
-				flexPoints.add(new PointF(0, numbers.get(0)));
+				flexPoints.add(new float[] { 0, numbers.get(0) });
 			}
 			else
 			{
@@ -179,7 +188,7 @@ public class Type1CharString
 			if (isFlex)
 			{
 				// not in the Type 1 spec, but exists in some fonts
-				flexPoints.add(new PointF(numbers.get(0), 0));
+				flexPoints.add(new float[] { numbers.get(0), 0 });
 			}
 			else
 			{
@@ -209,15 +218,19 @@ public class Type1CharString
 		}
 		else if ("sbw".equals(name))
 		{
-			leftSideBearing = new PointF(numbers.get(0), numbers.get(1));
+			leftSideBearingX = numbers.get(0);
+			leftSideBearingY = numbers.get(1);
 			width = numbers.get(2);
-			current.set(leftSideBearing);
+			currentX = leftSideBearingX;
+			currentY = leftSideBearingY;
 		}
 		else if ("hsbw".equals(name))
 		{
-			leftSideBearing = new PointF(numbers.get(0), 0);
+			leftSideBearingX = numbers.get(0);
+			leftSideBearingY = 0;
 			width = numbers.get(1);
-			current.set(leftSideBearing);
+			currentX = leftSideBearingX;
+			currentY = leftSideBearingY;
 		}
 		else if ("vhcurveto".equals(name))
 		{
@@ -282,7 +295,8 @@ public class Type1CharString
 	 */
 	private void setcurrentpoint(int x, int y)
 	{
-		current.set(x, y);
+		currentX = x;
+		currentY = y;
 	}
 
 	/**
@@ -304,24 +318,26 @@ public class Type1CharString
 			}
 
 			// reference point is relative to start point
-			PointF reference = flexPoints.get(0);
-			reference.set(current.x + reference.x,
-					current.y + reference.y);
+			float[] reference = flexPoints.get(0);
+			reference[0] = currentX + reference[0];
+			reference[1] = currentY + reference[1];
 
 			// first point is relative to reference point
-			PointF first = flexPoints.get(1);
-			first.set(reference.x + first.x, reference.y + first.y);
+			float[] first = flexPoints.get(1);
+			first[0] = reference[0] + first[0];
+			first[1] = reference[1] + first[1];
 
 			// make the first point relative to the start point
-			first.set(first.x - current.x, first.y - current.y);
+			first[0] = first[0] - currentX;
+			first[1] = first[1] - currentY;
 
-			rrcurveTo(flexPoints.get(1).x, flexPoints.get(1).y,
-					flexPoints.get(2).x, flexPoints.get(2).y,
-					flexPoints.get(3).x, flexPoints.get(3).y);
+			rrcurveTo(flexPoints.get(1)[0], flexPoints.get(1)[1],
+					flexPoints.get(2)[0], flexPoints.get(2)[1],
+					flexPoints.get(3)[0], flexPoints.get(3)[1]);
 
-			rrcurveTo(flexPoints.get(4).x, flexPoints.get(4).y,
-					flexPoints.get(5).x, flexPoints.get(5).y,
-					flexPoints.get(6).x, flexPoints.get(6).y);
+			rrcurveTo(flexPoints.get(4)[0], flexPoints.get(4)[1],
+					flexPoints.get(5)[0], flexPoints.get(5)[1],
+					flexPoints.get(6)[0], flexPoints.get(6)[1]);
 
 			flexPoints.clear();
 		}
@@ -342,10 +358,11 @@ public class Type1CharString
 	 */
 	private void rmoveTo(Number dx, Number dy)
 	{
-		float x = (float)current.x + dx.floatValue();
-		float y = (float)current.y + dy.floatValue();
+		float x = currentX + dx.floatValue();
+		float y = currentY + dy.floatValue();
 		path.moveTo(x, y);
-		current.set(x, y);
+		currentX = x;
+		currentY = y;
 	}
 
 	/**
@@ -353,9 +370,8 @@ public class Type1CharString
 	 */
 	private void rlineTo(Number dx, Number dy)
 	{
-		float x = (float)current.x + dx.floatValue();
-		float y = (float)current.y + dy.floatValue();
-		//        if (path.getCurrentPoint() == null) TODO: Patch for now
+		float x = currentX + dx.floatValue();
+		float y = currentY + dy.floatValue();
 		if(path.isEmpty())
 		{
 			Log.w("PdfBoxAndroid", "rlineTo without initial moveTo in font " + fontName + ", glyph " + glyphName);
@@ -365,7 +381,8 @@ public class Type1CharString
 		{
 			path.lineTo(x, y);
 		}
-		current.set(x, y);
+		currentX = x;
+		currentY = y;
 	}
 
 	/**
@@ -374,13 +391,12 @@ public class Type1CharString
 	private void rrcurveTo(Number dx1, Number dy1, Number dx2, Number dy2,
 			Number dx3, Number dy3)
 	{
-		float x1 = (float) current.x + dx1.floatValue();
-		float y1 = (float) current.y + dy1.floatValue();
+		float x1 = currentX + dx1.floatValue();
+		float y1 = currentY + dy1.floatValue();
 		float x2 = x1 + dx2.floatValue();
 		float y2 = y1 + dy2.floatValue();
 		float x3 = x2 + dx3.floatValue();
 		float y3 = y2 + dy3.floatValue();
-		//      if (path.getCurrentPoint() == null) TODO: Patch for now
 		if(path.isEmpty())
 		{
 			Log.w("PdfBoxAndroid", "rrcurveTo without initial moveTo in font " + fontName + ", glyph " + glyphName);
@@ -388,9 +404,10 @@ public class Type1CharString
 		}
 		else
 		{
-			path.cubicTo(x1, y1, x2, y2, x3, y3); // TODO: Should this be relative?
+			path.curveTo(x1, y1, x2, y2, x3, y3);
 		}
-		current.set(x3, y3);
+		currentX = x3;
+		currentY = y3;
 	}
 
 	/**
@@ -398,16 +415,15 @@ public class Type1CharString
 	 */
 	private void closepath()
 	{
-		//      if (path.getCurrentPoint() == null) TODO: Patch for now
 		if(path.isEmpty())
 		{
 			Log.w("PdfBoxAndroid", "closepath without initial moveTo in font " + fontName + ", glyph " + glyphName);
 		}
 		else
 		{
-			path.close();
+			path.closePath();
 		}
-		path.moveTo(current.x, current.y);
+		path.moveTo(currentX, currentY);
 	}
 
 	/**
@@ -425,8 +441,7 @@ public class Type1CharString
 			try
 			{
 				Type1CharString base = font.getType1CharString(baseName);
-//				path.append(base.getPath().getPathIterator(null), false); TODO: check this
-				path.op(base.getPath(), Path.Op.UNION);
+				path.append(base.getOutline(), 0, 0);
 			}
 			catch (IOException e)
 			{
@@ -440,11 +455,8 @@ public class Type1CharString
 			try
 			{
 				Type1CharString accent = font.getType1CharString(accentName);
-				AffineTransform at = AffineTransform.getTranslateInstance(
-						leftSideBearing.x + adx.floatValue(),
-						leftSideBearing.y + ady.floatValue());
-//				path.append(accent.getPath().getPathIterator(at), false); TODO: Check this
-				path.op(accent.getPath(), Path.Op.UNION);
+				path.append(accent.getOutline(), leftSideBearingX + adx.floatValue(),
+						leftSideBearingY + ady.floatValue());
 			}
 			catch (IOException e)
 			{
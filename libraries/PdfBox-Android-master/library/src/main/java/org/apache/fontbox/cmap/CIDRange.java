@@ -36,6 +36,30 @@ class CIDRange
         this.cid = cid;
     }
 
+    /**
+     * Returns the first character of this range.
+     */
+    char getFrom()
+    {
+        return from;
+    }
+
+    /**
+     * Returns the last character of this range.
+     */
+    char getTo()
+    {
+        return to;
+    }
+
+    /**
+     * Returns the CID of the first character of this range.
+     */
+    int getCID()
+    {
+        return cid;
+    }
+
     /**
      * Maps the given Unicode character to the corresponding CID in this range.
      *
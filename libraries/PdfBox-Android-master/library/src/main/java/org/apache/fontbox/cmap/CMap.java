@@ -16,13 +16,15 @@
  */
 package org.apache.fontbox.cmap;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This class represents a CMap file.
@@ -44,11 +46,22 @@ public class CMap
     private final List<CodespaceRange> codespaceRanges = new ArrayList<CodespaceRange>();
 
     // Unicode mappings
-    private final Map<Integer,String> charToUnicode = new HashMap<Integer,String>();
+    private final IntObjectMap<String> charToUnicode = new IntObjectMap<String>();
 
     // CID mappings
-    private final Map<Integer,Integer> codeToCid = new HashMap<Integer,Integer>();
-    private final List<CIDRange> codeToCidRanges = new LinkedList<CIDRange>();
+    private final IntIntMap codeToCid = new IntIntMap();
+
+    // CID ranges in ascending order of precedence, i.e. later ranges override earlier ones
+    private final List<CIDRange> codeToCidRanges = new ArrayList<CIDRange>();
+
+    // the CID ranges sorted by their first character for binary search, or in descending order
+    // of precedence if they overlap; created on first use
+    private volatile CIDRange[] cidRangeTable;
+    private volatile boolean cidRangesOverlap;
+
+    // identifies the compact form written by writeCompact
+    private static final int COMPACT_MAGIC = 0x434d6170; // "CMap"
+    private static final int COMPACT_VERSION = 1;
 
     private static final String SPACE = " ";
     private int spaceMapping = -1;
@@ -166,6 +179,102 @@ public class CMap
         throw new IOException("CMap is invalid");
     }
 
+    /**
+     * Returns the length of the character code at the given offset of a string in the content
+     * stream, using the same algorithm as {@link #readCode(InputStream)}. Bytes beyond the end
+     * of the string are taken to be 0xff, just like the -1 returned by a stream at its end.
+     *
+     * @param string the string
+     * @param offset offset of the character code
+     * @return length of the character code in bytes
+     * @throws IOException if the CMap is invalid
+     */
+    public int getCodeLength(byte[] string, int offset) throws IOException
+    {
+        // mapping algorithm
+        for (int length = 1; length <= 4; length++)
+        {
+            for (CodespaceRange range : codespaceRanges)
+            {
+                if (isFullMatch(range, string, offset, length))
+                {
+                    return length;
+                }
+            }
+        }
+
+        // modified mapping algorithm
+        for (int i = 0; i < 4; i++)
+        {
+            byte b = byteAt(string, offset + i);
+            CodespaceRange match = null;
+            CodespaceRange shortest = null;
+            for (CodespaceRange range : codespaceRanges)
+            {
+                if (range.isPartialMatch(b, i))
+                {
+                    if (match == null)
+                    {
+                        match = range;
+                    }
+                    else if (range.getStart().length < match.getStart().length)
+                    {
+                        // for multiple matches, choose the codespace with the shortest codes
+                        match = range;
+                    }
+                }
+
+                // find shortest range
+                if (shortest == null || range.getStart().length < shortest.getStart().length)
+                {
+                    shortest = range;
+                }
+            }
+
+            // if there are no matches, the range with the shortest codes is chosen
+            if (match == null)
+            {
+                match = shortest;
+            }
+
+            // we're done when we have enough bytes for the matched range
+            if (match != null && match.getStart().length == i + 1)
+            {
+                return i + 1;
+            }
+        }
+
+        throw new IOException("CMap is invalid");
+    }
+
+    /**
+     * Returns true if the given code bytes of a string fully match the given codespace range.
+     */
+    private static boolean isFullMatch(CodespaceRange range, byte[] string, int offset, int length)
+    {
+        // code must be the same length as the bounding codes
+        if (length < range.getStart().length || length > range.getEnd().length)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (!range.isPartialMatch(byteAt(string, offset + i), i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the byte at the given index of a string, or 0xff if the index is beyond its end.
+     */
+    private static byte byteAt(byte[] string, int index)
+    {
+        return index < string.length ? string[index] : (byte) -1;
+    }
+
     /**
      * Returns an int given a List<Byte>
      */
@@ -190,18 +299,93 @@ public class CMap
     {
         if (codeToCid.containsKey(code))
         {
-            return codeToCid.get(code);
+            return codeToCid.get(code, 0);
         }
-        for (CIDRange range : codeToCidRanges)
+        CIDRange[] ranges = cidRangeTable;
+        if (ranges == null)
+        {
+            ranges = createCIDRangeTable();
+        }
+        char ch = (char) code;
+        if (cidRangesOverlap)
+        {
+            for (CIDRange range : ranges)
+            {
+                int cid = range.map(ch);
+                if (cid != -1)
+                {
+                    return cid;
+                }
+            }
+            return 0;
+        }
+
+        // find the last range starting at or before the character
+        int low = 0;
+        int high = ranges.length - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            if (ranges[mid].getFrom() <= ch)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        if (high >= 0)
         {
-        	int ch = range.map((char)code);
-        	if (ch != -1)
-        	{
-        		return ch;
-        	}
+            int cid = ranges[high].map(ch);
+            if (cid != -1)
+            {
+                return cid;
+            }
         }
         return 0;
     }
+
+    /**
+     * Creates the lookup table of the CID ranges. Overlapping ranges can't be searched by
+     * their first character, they are kept in order of precedence and searched linearly.
+     */
+    private synchronized CIDRange[] createCIDRangeTable()
+    {
+        CIDRange[] ranges = cidRangeTable;
+        if (ranges != null)
+        {
+            return ranges;
+        }
+        ranges = codeToCidRanges.toArray(new CIDRange[codeToCidRanges.size()]);
+        Arrays.sort(ranges, new Comparator<CIDRange>()
+        {
+            @Override
+            public int compare(CIDRange r1, CIDRange r2)
+            {
+                return r1.getFrom() - r2.getFrom();
+            }
+        });
+        boolean overlap = false;
+        for (int i = 1; i < ranges.length; i++)
+        {
+            if (ranges[i].getFrom() <= ranges[i - 1].getTo())
+            {
+                overlap = true;
+                break;
+            }
+        }
+        if (overlap)
+        {
+            for (int i = 0; i < ranges.length; i++)
+            {
+                ranges[i] = codeToCidRanges.get(ranges.length - 1 - i);
+            }
+        }
+        cidRangesOverlap = overlap;
+        cidRangeTable = ranges;
+        return ranges;
+    }
     
     /**
      * Convert the given part of a byte array to an integer.
@@ -260,7 +444,8 @@ public class CMap
      */
     void addCIDRange(char from, char to, int cid)
     {
-        codeToCidRanges.add(0, new CIDRange(from, to, cid));
+        codeToCidRanges.add(new CIDRange(from, to, cid));
+        cidRangeTable = null;
     }
 
     /**
@@ -284,7 +469,143 @@ public class CMap
         this.codespaceRanges.addAll(cmap.codespaceRanges);
         this.charToUnicode.putAll(cmap.charToUnicode);
         this.codeToCid.putAll(cmap.codeToCid);
-        this.codeToCidRanges.addAll(cmap.codeToCidRanges);
+        // the used CMap's ranges take the lowest precedence
+        this.codeToCidRanges.addAll(0, cmap.codeToCidRanges);
+        this.cidRangeTable = null;
+    }
+
+    /**
+     * Writes this CMap in a compact binary form, which can be read back by
+     * {@link #readCompact(InputStream)} much faster than the CMap can be parsed. Used CMaps
+     * are included, so the compact form is self-contained.
+     *
+     * @param out the stream to write to, it is not closed
+     * @throws IOException if the stream can't be written
+     */
+    public void writeCompact(OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(COMPACT_MAGIC);
+        data.writeInt(COMPACT_VERSION);
+
+        writeString(data, cmapName);
+        writeString(data, cmapVersion);
+        writeString(data, registry);
+        writeString(data, ordering);
+        data.writeInt(wmode);
+        data.writeInt(cmapType);
+        data.writeInt(supplement);
+        data.writeInt(spaceMapping);
+
+        data.writeInt(codespaceRanges.size());
+        for (CodespaceRange range : codespaceRanges)
+        {
+            data.writeByte(range.getStart().length);
+            data.write(range.getStart());
+            data.writeByte(range.getEnd().length);
+            data.write(range.getEnd());
+        }
+
+        int[] codes = charToUnicode.keys();
+        data.writeInt(codes.length);
+        for (int code : codes)
+        {
+            data.writeInt(code);
+            data.writeUTF(charToUnicode.get(code));
+        }
+
+        codes = codeToCid.keys();
+        data.writeInt(codes.length);
+        for (int code : codes)
+        {
+            data.writeInt(code);
+            data.writeInt(codeToCid.get(code, 0));
+        }
+
+        data.writeInt(codeToCidRanges.size());
+        for (CIDRange range : codeToCidRanges)
+        {
+            data.writeChar(range.getFrom());
+            data.writeChar(range.getTo());
+            data.writeInt(range.getCID());
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a CMap written by {@link #writeCompact(OutputStream)}.
+     *
+     * @param in the stream to read from, it is not closed
+     * @return the CMap
+     * @throws IOException if the stream can't be read or doesn't contain a compact CMap
+     */
+    public static CMap readCompact(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != COMPACT_MAGIC || data.readInt() != COMPACT_VERSION)
+        {
+            throw new IOException("Not a compact CMap of version " + COMPACT_VERSION);
+        }
+
+        CMap cmap = new CMap();
+        cmap.cmapName = readString(data);
+        cmap.cmapVersion = readString(data);
+        cmap.registry = readString(data);
+        cmap.ordering = readString(data);
+        cmap.wmode = data.readInt();
+        cmap.cmapType = data.readInt();
+        cmap.supplement = data.readInt();
+        cmap.spaceMapping = data.readInt();
+
+        int count = data.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            CodespaceRange range = new CodespaceRange();
+            byte[] start = new byte[data.readUnsignedByte()];
+            data.readFully(start);
+            range.setStart(start);
+            byte[] end = new byte[data.readUnsignedByte()];
+            data.readFully(end);
+            range.setEnd(end);
+            cmap.codespaceRanges.add(range);
+        }
+
+        count = data.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            int code = data.readInt();
+            cmap.charToUnicode.put(code, data.readUTF());
+        }
+
+        count = data.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            int code = data.readInt();
+            cmap.codeToCid.put(code, data.readInt());
+        }
+
+        count = data.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            char from = data.readChar();
+            char to = data.readChar();
+            cmap.codeToCidRanges.add(new CIDRange(from, to, data.readInt()));
+        }
+        return cmap;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException
+    {
+        data.writeBoolean(value != null);
+        if (value != null)
+        {
+            data.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream data) throws IOException
+    {
+        return data.readBoolean() ? data.readUTF() : null;
     }
     
     /**
@@ -95,6 +95,47 @@ public class CMapParser
         }
     }
 
+    /**
+     * Returns true if a predefined CMap with the given name is bundled. Names which could
+     * refer to a resource outside of the CMap directory are rejected.
+     *
+     * @param name CMap name.
+     * @return true if the CMap can be parsed by {@link #parsePredefined(String)}
+     */
+    public boolean isPredefined(String name)
+    {
+        if (name == null || name.length() == 0 || name.indexOf('/') >= 0
+                || name.indexOf('\\') >= 0 || name.indexOf(File.separatorChar) >= 0
+                || name.contains(".."))
+        {
+            return false;
+        }
+        InputStream input = null;
+        try
+        {
+            input = getExternalCMap(name);
+            return input != null;
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+        finally
+        {
+            if (input != null)
+            {
+                try
+                {
+                    input.close();
+                }
+                catch (IOException e)
+                {
+                    // the stream was only opened to find out whether it exists
+                }
+            }
+        }
+    }
+
     /**
      * This will parse the stream and create a cmap object.
      *
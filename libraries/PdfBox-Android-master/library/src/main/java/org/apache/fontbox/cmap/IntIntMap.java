@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cmap;
+
+/**
+ * Map from int keys to int values using open addressing, so that neither keys nor values are
+ * boxed. Used for the large code tables of CJK CMaps.
+ */
+class IntIntMap
+{
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     */
+    IntIntMap()
+    {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map which can hold the given number of entries without growing.
+     *
+     * @param expectedSize expected number of entries
+     */
+    IntIntMap(int expectedSize)
+    {
+        allocate(IntObjectMap.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns true if there are no entries.
+     */
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Returns true if there is an entry for the given key.
+     */
+    boolean containsKey(int key)
+    {
+        return used[indexOf(key)];
+    }
+
+    /**
+     * Returns the value for the given key, or the given default value if there is no entry.
+     */
+    int get(int key, int defaultValue)
+    {
+        int index = indexOf(key);
+        return used[index] ? values[index] : defaultValue;
+    }
+
+    /**
+     * Adds an entry, replacing the value of an existing entry with the same key.
+     */
+    void put(int key, int value)
+    {
+        int index = indexOf(key);
+        if (!used[index])
+        {
+            if ((size + 1) * 4 > keys.length * 3)
+            {
+                rehash(keys.length * 2);
+                index = indexOf(key);
+            }
+            keys[index] = key;
+            used[index] = true;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Adds all entries of the given map, replacing the values of existing entries.
+     */
+    void putAll(IntIntMap map)
+    {
+        for (int i = 0; i < map.keys.length; i++)
+        {
+            if (map.used[i])
+            {
+                put(map.keys[i], map.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of all entries, in no particular order.
+     */
+    int[] keys()
+    {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (used[i])
+            {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    // returns the slot of the given key, or the free slot where it would be inserted
+    private int indexOf(int key)
+    {
+        int mask = keys.length - 1;
+        int index = IntObjectMap.hash(key) & mask;
+        while (used[index] && keys[index] != key)
+        {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity)
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldUsed[i])
+            {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cmap;
+
+/**
+ * Map from int keys to objects using open addressing, so that the keys are not boxed. Used for
+ * the large Unicode tables of CJK CMaps.
+ *
+ * @param <V> the type of the values
+ */
+class IntObjectMap<V>
+{
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     */
+    IntObjectMap()
+    {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map which can hold the given number of entries without growing.
+     *
+     * @param expectedSize expected number of entries
+     */
+    IntObjectMap(int expectedSize)
+    {
+        int capacity = tableSize(expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Returns the size of a power of two table which holds the given number of entries while
+     * staying at most 3/4 full.
+     */
+    static int tableSize(int expectedSize)
+    {
+        int capacity = 16;
+        while (capacity * 3 < expectedSize * 4 + 4)
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of the given key, as character codes tend to be dense.
+     */
+    static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns true if there are no entries.
+     */
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value for the given key, or null if there is no entry. Null values are not
+     * supported.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key)
+    {
+        return (V) values[indexOf(key)];
+    }
+
+    /**
+     * Adds an entry, replacing the value of an existing entry with the same key.
+     */
+    void put(int key, V value)
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        int index = indexOf(key);
+        if (values[index] == null)
+        {
+            if ((size + 1) * 4 > keys.length * 3)
+            {
+                rehash(keys.length * 2);
+                index = indexOf(key);
+            }
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Adds all entries of the given map, replacing the values of existing entries.
+     */
+    @SuppressWarnings("unchecked")
+    void putAll(IntObjectMap<? extends V> map)
+    {
+        for (int i = 0; i < map.keys.length; i++)
+        {
+            if (map.values[i] != null)
+            {
+                put(map.keys[i], (V) map.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of all entries, in no particular order.
+     */
+    int[] keys()
+    {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (values[i] != null)
+            {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    // returns the slot of the given key, or the free slot where it would be inserted
+    private int indexOf(int key)
+    {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null && keys[index] != key)
+        {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash(int capacity)
+    {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldValues[i] != null)
+            {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
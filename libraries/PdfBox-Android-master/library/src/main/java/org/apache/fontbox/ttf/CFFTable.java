@@ -32,9 +32,11 @@ public class CFFTable extends TTFTable
     public static final String TAG = "CFF ";
 
     private CFFFont cffFont;
+    private TrueTypeFont font;
 
     /**
-     * This will read the required data from the stream.
+     * This will read the required data from the stream. The CFF data is parsed when the font
+     * is used for the first time, see {@link #getFont()}.
      *
      * @param ttf The font that is being read.
      * @param data The stream to read the data from.
@@ -42,19 +44,25 @@ public class CFFTable extends TTFTable
      */
     public void read(TrueTypeFont ttf, TTFDataStream data) throws IOException
     {
-        byte[] bytes = data.read((int)getLength());
-
-        CFFParser parser = new CFFParser();
-        cffFont = parser.parse(bytes).get(0);
-
+        font = ttf;
         initialized = true;
     }
 
     /**
      * Returns the CFF font, which is a compact representation of a PostScript Type 1, or CIDFont
+     *
+     * @throws IOException If there is an error parsing the CFF data.
      */
-    public CFFFont getFont()
+    public synchronized CFFFont getFont() throws IOException
     {
+        if (cffFont == null && font != null)
+        {
+            byte[] bytes = font.getTableBytes(this);
+            CFFParser parser = new CFFParser();
+            cffFont = parser.parse(bytes).get(0);
+            // the font program isn't needed anymore
+            font = null;
+        }
         return cffFont;
     }
 }
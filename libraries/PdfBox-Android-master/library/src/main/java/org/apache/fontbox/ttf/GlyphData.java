@@ -19,6 +19,8 @@ package org.apache.fontbox.ttf;
 import java.io.IOException;
 
 import org.apache.fontbox.util.BoundingBox;
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.pdfbox.rendering.GlyphPaths;
 
 import android.graphics.Path;
 
@@ -106,13 +108,24 @@ public class GlyphData
         return glyphDescription;
     }
 
+    /**
+     * Returns the outline of the glyph.
+     * @return the outline
+     */
+    public GlyphOutline getOutline()
+    {
+        return new GlyphRenderer(glyphDescription).getOutline();
+    }
+
     /**
      * Returns the path of the glyph.
      * @return the path
+     * @deprecated Use {@link #getOutline()} instead, the path is created from it
      */
+    @Deprecated
     public Path getPath()
     {
-        return new GlyphRenderer(glyphDescription).getPath();
+        return GlyphPaths.toPath(getOutline());
     }
 
     /**
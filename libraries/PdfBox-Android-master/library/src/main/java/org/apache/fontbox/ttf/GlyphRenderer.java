@@ -19,11 +19,10 @@ package org.apache.fontbox.ttf;
 import java.util.ArrayList;
 import java.util.List;
 
-import android.graphics.Path;
-import android.util.Log;
+import org.apache.fontbox.util.GlyphOutline;
 
 /**
- * This class provides a glyph to GeneralPath conversion for true type fonts.
+ * This class provides a glyph to outline conversion for true type fonts.
  * Based on code from Apache Batik, a subproject of Apache XMLGraphics.
  *
  * @see
@@ -44,13 +43,15 @@ class GlyphRenderer
     }
 
     /**
-     * Returns the path of the glyph.
-     * @return the path
+     * Returns the outline of the glyph. The outline is trimmed, so that it can be shared.
+     * @return the outline
      */
-    public Path getPath()
+    public GlyphOutline getOutline()
     {
         Point[] points = describe(glyphDescription);
-        return calculatePath(points);
+        GlyphOutline outline = calculateOutline(points);
+        outline.trimToSize();
+        return outline;
     }
 
     /**
@@ -74,15 +75,15 @@ class GlyphRenderer
     }
 
     /**
-     * Use the given points to calculate a GeneralPath.
+     * Use the given points to calculate an outline.
      *
-     * @param points the points to be used to generate the GeneralPath
+     * @param points the points to be used to generate the outline
      *
-     * @return the calculated GeneralPath
+     * @return the calculated outline
      */
-    private Path calculatePath(Point[] points)
+    private GlyphOutline calculateOutline(Point[] points)
     {
-        Path path = new Path();
+        GlyphOutline path = new GlyphOutline();
         int start = 0;
         for (int p = 0, len = points.length; p < len; ++p)
         {
@@ -136,23 +137,19 @@ class GlyphRenderer
         return path;
     }
 
-    private void moveTo(Path path, Point point)
+    private void moveTo(GlyphOutline path, Point point)
     {
         path.moveTo(point.x, point.y);
-        Log.v("PdfBoxAndroid", "moveTo: " + String.format("%d,%d", point.x, point.y));
     }
 
-    private void lineTo(Path path, Point point)
+    private void lineTo(GlyphOutline path, Point point)
     {
         path.lineTo(point.x, point.y);
-        Log.v("PdfBoxAndroid", "lineTo: " + String.format("%d,%d", point.x, point.y));
     }
 
-    private void quadTo(Path path, Point ctrlPoint, Point point)
+    private void quadTo(GlyphOutline path, Point ctrlPoint, Point point)
     {
         path.quadTo(ctrlPoint.x, ctrlPoint.y, point.x, point.y);
-        Log.v("PdfBoxAndroid", "quadTo: " + String.format("%d,%d %d,%d", ctrlPoint.x, ctrlPoint.y,
-                    point.x, point.y));
     }
 
     private int midValue(int a, int b)
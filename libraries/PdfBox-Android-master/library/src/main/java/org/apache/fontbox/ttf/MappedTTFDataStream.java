@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.ttf;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An implementation of the TTFDataStream which maps the font file into memory. Reading from
+ * the mapped file doesn't need a system call, the operating system pages in only the parts of
+ * the file which are actually read, e.g. the glyphs used by a document.
+ */
+public class MappedTTFDataStream extends TTFDataStream
+{
+    private ByteBuffer data;
+    private final int size;
+    private final File ttfFile;
+    private int currentPosition = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param file The font file.
+     *
+     * @throws IOException If the file can't be opened or mapped.
+     */
+    public MappedTTFDataStream(File file) throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE)
+            {
+                throw new IOException("Font file too large to be mapped: " + file);
+            }
+            // the mapping stays valid after the channel has been closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            size = (int) fileSize;
+        }
+        finally
+        {
+            raf.close();
+        }
+        ttfFile = file;
+    }
+
+    /**
+     * Read an unsigned byte.
+     * @return An unsigned byte.
+     * @throws IOException If there is an error reading the data.
+     */
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (currentPosition >= size)
+        {
+            return -1;
+        }
+        return data.get(currentPosition++) & 0xff;
+    }
+
+    /**
+     * Read an unsigned short.
+     *
+     * @return An unsigned short.
+     * @throws IOException If there is an error reading the data.
+     */
+    @Override
+    public int readUnsignedShort() throws IOException
+    {
+        checkAvailable(2);
+        int value = data.getShort(currentPosition) & 0xffff;
+        currentPosition += 2;
+        return value;
+    }
+
+    /**
+     * Read an signed short.
+     *
+     * @return An signed short.
+     * @throws IOException If there is an error reading the data.
+     */
+    @Override
+    public short readSignedShort() throws IOException
+    {
+        checkAvailable(2);
+        short value = data.getShort(currentPosition);
+        currentPosition += 2;
+        return value;
+    }
+
+    /**
+     * Read an unsigned integer.
+     *
+     * @return An unsigned integer.
+     * @throws IOException If there is an error reading the data.
+     */
+    @Override
+    public long readUnsignedInt() throws IOException
+    {
+        checkAvailable(4);
+        long value = data.getInt(currentPosition) & 0xffffffffL;
+        currentPosition += 4;
+        return value;
+    }
+
+    /**
+     * Read a signed 64-bit integer.
+     *
+     * @return A signed 64-bit integer.
+     * @throws IOException If there is an error reading the data.
+     */
+    @Override
+    public long readLong() throws IOException
+    {
+        checkAvailable(8);
+        long value = data.getLong(currentPosition);
+        currentPosition += 8;
+        return value;
+    }
+
+    /**
+     * Read an unsigned short array.
+     *
+     * @param length The length of the array to read.
+     * @return An unsigned short array.
+     * @throws IOException If there is an error reading the data.
+     */
+    @Override
+    public int[] readUnsignedShortArray(int length) throws IOException
+    {
+        checkAvailable(2L * length);
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++)
+        {
+            array[i] = data.getShort(currentPosition) & 0xffff;
+            currentPosition += 2;
+        }
+        return array;
+    }
+
+    private void checkAvailable(long count) throws IOException
+    {
+        checkClosed();
+        if (size - currentPosition < count)
+        {
+            throw new EOFException();
+        }
+    }
+
+    private void checkClosed() throws IOException
+    {
+        if (data == null)
+        {
+            throw new IOException("stream closed");
+        }
+    }
+
+    /**
+     * Close the underlying resources. The mapping is released once it is garbage collected.
+     *
+     * @throws IOException If there is an error closing the resources.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        data = null;
+    }
+
+    /**
+     * Seek into the datasource.
+     *
+     * @param pos The position to seek to.
+     * @throws IOException If there is an error seeking to that position.
+     */
+    @Override
+    public void seek(long pos) throws IOException
+    {
+        checkClosed();
+        if (pos < 0)
+        {
+            throw new IOException("Negative seek offset: " + pos);
+        }
+        // seeking beyond the end is allowed, reading from there fails
+        currentPosition = (int) Math.min(pos, size);
+    }
+
+    /**
+     * @see java.io.InputStream#read( byte[], int, int )
+     *
+     * @param b The buffer to write to.
+     * @param off The offset into the buffer.
+     * @param len The length into the buffer.
+     *
+     * @return The number of bytes read, or -1 at the end of the stream
+     *
+     * @throws IOException If there is an error reading from the stream.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        checkClosed();
+        if (currentPosition >= size)
+        {
+            return -1;
+        }
+        int amountRead = Math.min(len, size - currentPosition);
+        // a duplicate has its own position, the mapping may be read by other streams as well
+        ByteBuffer source = data.duplicate();
+        source.position(currentPosition);
+        source.get(b, off, amountRead);
+        currentPosition += amountRead;
+        return amountRead;
+    }
+
+    /**
+     * Get the current position in the stream.
+     * @return The current position in the stream.
+     * @throws IOException If an error occurs while reading the stream.
+     */
+    @Override
+    public long getCurrentPosition() throws IOException
+    {
+        return currentPosition;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getOriginalData() throws IOException
+    {
+        return new FileInputStream(ttfFile);
+    }
+}
@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
+import android.util.Log;
+
 /**
  * TrueType font file parser.
  * 
@@ -81,7 +83,18 @@ public class TTFParser
      */
     public TrueTypeFont parse(File ttfFile) throws IOException
     {
-        return parse(new RAFDataStream(ttfFile, "r"));
+        TTFDataStream data;
+        try
+        {
+            data = new MappedTTFDataStream(ttfFile);
+        }
+        catch (IOException e)
+        {
+            // e.g. if the address space is exhausted, fall back to reading the file
+            Log.w("PdfBoxAndroid", "Could not map font file " + ttfFile + ", reading it instead", e);
+            data = new RAFDataStream(ttfFile, "r");
+        }
+        return parse(data);
     }
 
     /**
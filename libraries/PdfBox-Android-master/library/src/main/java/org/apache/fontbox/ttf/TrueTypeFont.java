@@ -24,7 +24,8 @@ import java.util.Map;
 
 import org.apache.fontbox.encoding.Encoding;
 import org.apache.fontbox.util.BoundingBox;
-import org.apache.pdfbox.util.awt.AffineTransform;
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.pdfbox.rendering.GlyphPaths;
 
 import android.graphics.Path;
 
@@ -520,7 +521,14 @@ public class TrueTypeFont implements Type1Equivalent
 	}
 
 	@Override
+	@Deprecated
 	public Path getPath(String name) throws IOException
+	{
+		return GlyphPaths.toPath(getOutline(name));
+	}
+
+	@Override
+	public GlyphOutline getOutline(String name) throws IOException
 	{
 		readPostScriptNames();
 		int gid = nameToGID(name);
@@ -533,18 +541,17 @@ public class TrueTypeFont implements Type1Equivalent
 		GlyphData glyph = getGlyph().getGlyph(gid);
 		if (glyph == null)
 		{
-			return new Path();
+			return new GlyphOutline();
 		}
 		else
 		{
-			Path path = glyph.getPath();
+			GlyphOutline outline = glyph.getOutline();
 
 			// scale to 1000upem, per PostScript convention
 			float scale = 1000f / getUnitsPerEm();
-			AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
-			path.transform(atScale.toMatrix());
+			outline.scale(scale);
 
-			return path;
+			return outline;
 		}
 	}
 
@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import org.apache.fontbox.encoding.Encoding;
 import org.apache.fontbox.util.BoundingBox;
+import org.apache.fontbox.util.GlyphOutline;
 
 import android.graphics.Path;
 
@@ -41,9 +42,19 @@ public interface Type1Equivalent
      *
      * @return glyph path
      * @throws IOException if the path could not be read
+     * @deprecated Use {@link #getOutline(String)} instead, the path is created from it
      */
+    @Deprecated
     Path getPath(String name) throws IOException;
 
+    /**
+     * Returns the outline of the character with the given name.
+     *
+     * @return glyph outline
+     * @throws IOException if the outline could not be read
+     */
+    GlyphOutline getOutline(String name) throws IOException;
+
     /**
      * Returns the advance width for the character with the given name.
      *
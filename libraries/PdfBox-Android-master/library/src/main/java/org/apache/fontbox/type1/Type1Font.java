@@ -32,6 +32,8 @@ import org.apache.fontbox.encoding.Encoding;
 import org.apache.fontbox.pfb.PfbParser;
 import org.apache.fontbox.ttf.Type1Equivalent;
 import org.apache.fontbox.util.BoundingBox;
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.pdfbox.rendering.GlyphPaths;
 
 import android.graphics.Path;
 
@@ -164,9 +166,16 @@ public final class Type1Font implements Type1CharStringReader, Type1Equivalent
     }
 
     @Override
+    @Deprecated
     public Path getPath(String name) throws IOException
     {
-        return getType1CharString(name).getPath();
+        return GlyphPaths.toPath(getOutline(name));
+    }
+
+    @Override
+    public GlyphOutline getOutline(String name) throws IOException
+    {
+        return getType1CharString(name).getOutline();
     }
 
     @Override
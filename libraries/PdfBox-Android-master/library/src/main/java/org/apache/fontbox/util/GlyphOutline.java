@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.util;
+
+/**
+ * The outline of a glyph, stored as segment types and a flat array of coordinates. An outline
+ * doesn't depend on any platform class, the renderer converts it to a path when it is drawn.
+ *
+ * An outline which has been shared, e.g. handed to the {@link GlyphOutlineCache}, must not be
+ * modified anymore, as it may be used by several threads. Its producer calls
+ * {@link #trimToSize()} before sharing it.
+ */
+public final class GlyphOutline
+{
+    /** A move to a point, followed by 2 coordinates. */
+    public static final int MOVE_TO = 0;
+    /** A line to a point, followed by 2 coordinates. */
+    public static final int LINE_TO = 1;
+    /** A quadratic curve, followed by 4 coordinates. */
+    public static final int QUAD_TO = 2;
+    /** A cubic curve, followed by 6 coordinates. */
+    public static final int CURVE_TO = 3;
+    /** Closes the current contour, without coordinates. */
+    public static final int CLOSE = 4;
+
+    private static final int[] COORDINATE_COUNTS = { 2, 2, 4, 6, 0 };
+
+    // rough size of the object headers and fields, used to estimate the memory usage
+    private static final int OVERHEAD = 64;
+
+    private byte[] types;
+    private int typeCount;
+    private float[] coordinates;
+    private int coordinateCount;
+
+    /**
+     * Constructor. Creates an empty outline.
+     */
+    public GlyphOutline()
+    {
+        types = new byte[16];
+        coordinates = new float[32];
+    }
+
+    /**
+     * Starts a new contour at the given point.
+     */
+    public void moveTo(float x, float y)
+    {
+        addSegment(MOVE_TO);
+        coordinates[coordinateCount++] = x;
+        coordinates[coordinateCount++] = y;
+    }
+
+    /**
+     * Adds a line from the current point to the given point.
+     */
+    public void lineTo(float x, float y)
+    {
+        addSegment(LINE_TO);
+        coordinates[coordinateCount++] = x;
+        coordinates[coordinateCount++] = y;
+    }
+
+    /**
+     * Adds a quadratic curve from the current point to the given point.
+     */
+    public void quadTo(float x1, float y1, float x2, float y2)
+    {
+        addSegment(QUAD_TO);
+        coordinates[coordinateCount++] = x1;
+        coordinates[coordinateCount++] = y1;
+        coordinates[coordinateCount++] = x2;
+        coordinates[coordinateCount++] = y2;
+    }
+
+    /**
+     * Adds a cubic curve from the current point to the given point.
+     */
+    public void curveTo(float x1, float y1, float x2, float y2, float x3, float y3)
+    {
+        addSegment(CURVE_TO);
+        coordinates[coordinateCount++] = x1;
+        coordinates[coordinateCount++] = y1;
+        coordinates[coordinateCount++] = x2;
+        coordinates[coordinateCount++] = y2;
+        coordinates[coordinateCount++] = x3;
+        coordinates[coordinateCount++] = y3;
+    }
+
+    /**
+     * Closes the current contour.
+     */
+    public void closePath()
+    {
+        addSegment(CLOSE);
+    }
+
+    private void addSegment(int type)
+    {
+        if (typeCount == types.length)
+        {
+            byte[] newTypes = new byte[Math.max(16, types.length * 2)];
+            System.arraycopy(types, 0, newTypes, 0, typeCount);
+            types = newTypes;
+        }
+        types[typeCount++] = (byte) type;
+        int needed = coordinateCount + COORDINATE_COUNTS[type];
+        if (needed > coordinates.length)
+        {
+            float[] newCoordinates = new float[Math.max(needed, coordinates.length * 2)];
+            System.arraycopy(coordinates, 0, newCoordinates, 0, coordinateCount);
+            coordinates = newCoordinates;
+        }
+    }
+
+    /**
+     * Appends the segments of the given outline, moved by the given distance.
+     *
+     * @param outline the outline to be appended
+     * @param dx the distance along the x axis
+     * @param dy the distance along the y axis
+     */
+    public void append(GlyphOutline outline, float dx, float dy)
+    {
+        int start = coordinateCount;
+        int segmentCount = outline.typeCount;
+        int count = outline.coordinateCount;
+        for (int i = 0; i < segmentCount; i++)
+        {
+            addSegment(outline.types[i]);
+        }
+        // adding the segments made room for their coordinates
+        for (int i = 0; i < count; i += 2)
+        {
+            coordinates[start + i] = outline.coordinates[i] + dx;
+            coordinates[start + i + 1] = outline.coordinates[i + 1] + dy;
+        }
+        coordinateCount = start + count;
+    }
+
+    /**
+     * Scales all coordinates of the outline.
+     *
+     * @param factor the scaling factor of both axes
+     */
+    public void scale(float factor)
+    {
+        for (int i = 0; i < coordinateCount; i++)
+        {
+            coordinates[i] *= factor;
+        }
+    }
+
+    /**
+     * Returns true if the outline has no segments at all.
+     */
+    public boolean isEmpty()
+    {
+        return typeCount == 0;
+    }
+
+    /**
+     * Returns the number of segments.
+     */
+    public int getSegmentCount()
+    {
+        return typeCount;
+    }
+
+    /**
+     * Returns the type of the given segment, e.g. {@link #LINE_TO}.
+     *
+     * @param index the index of the segment
+     */
+    public int getSegmentType(int index)
+    {
+        if (index < 0 || index >= typeCount)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + typeCount);
+        }
+        return types[index];
+    }
+
+    /**
+     * Returns a copy of the coordinates of all segments, as x/y pairs in segment order.
+     */
+    public float[] getCoordinates()
+    {
+        float[] copy = new float[coordinateCount];
+        System.arraycopy(coordinates, 0, copy, 0, coordinateCount);
+        return copy;
+    }
+
+    /**
+     * Returns the bounds of all points of the outline, including the control points of curves.
+     * The bounds of an empty outline are all zero.
+     */
+    public BoundingBox getBounds()
+    {
+        if (coordinateCount == 0)
+        {
+            return new BoundingBox();
+        }
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < coordinateCount; i += 2)
+        {
+            float x = coordinates[i];
+            float y = coordinates[i + 1];
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        return new BoundingBox(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Returns the estimated number of bytes used by this outline.
+     */
+    public int getMemoryUsage()
+    {
+        return OVERHEAD + types.length + 4 * coordinates.length;
+    }
+
+    /**
+     * Releases the unused capacity of the arrays. This modifies the outline, it must be called
+     * before the outline is shared.
+     */
+    public void trimToSize()
+    {
+        if (types.length != typeCount)
+        {
+            byte[] newTypes = new byte[typeCount];
+            System.arraycopy(types, 0, newTypes, 0, typeCount);
+            types = newTypes;
+        }
+        if (coordinates.length != coordinateCount)
+        {
+            float[] newCoordinates = new float[coordinateCount];
+            System.arraycopy(coordinates, 0, newCoordinates, 0, coordinateCount);
+            coordinates = newCoordinates;
+        }
+    }
+}
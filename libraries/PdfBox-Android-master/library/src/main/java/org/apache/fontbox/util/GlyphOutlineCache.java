@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the outlines of recently used glyphs, so that they are decoded only once for all pages
+ * and documents using the same font. A glyph is identified by the font object and either its
+ * glyph id or its name. Once the estimated size of the outlines exceeds the maximum size, the
+ * least recently used ones are evicted. The fonts are only weakly referenced, the outlines
+ * of a font are dropped once the font isn't used anymore.
+ *
+ * The outlines in the cache are shared and must not be modified. They should have been trimmed
+ * by their producer, see {@link GlyphOutline#trimToSize()}.
+ */
+public final class GlyphOutlineCache
+{
+    /** The default maximum size of the shared cache in bytes. */
+    public static final long DEFAULT_MAXIMUM_SIZE = 4 * 1024 * 1024;
+
+    private static final GlyphOutlineCache INSTANCE = new GlyphOutlineCache(DEFAULT_MAXIMUM_SIZE);
+
+    // outlines in the order of their last access
+    private final Map<Key, GlyphOutline> entries = new LinkedHashMap<Key, GlyphOutline>(256, 0.75f, true);
+    // receives the references of fonts which have been garbage collected
+    private final ReferenceQueue<Object> collectedFonts = new ReferenceQueue<Object>();
+
+    private long maximumSize;
+    private long size;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Returns the cache shared by all fonts of the process.
+     */
+    public static GlyphOutlineCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum estimated number of bytes of the outlines to be kept
+     */
+    public GlyphOutlineCache(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Sets the maximum estimated number of bytes of the outlines to be kept. Outlines are
+     * evicted immediately if the current size exceeds the new maximum.
+     *
+     * @param maximumSize the maximum number of bytes
+     */
+    public synchronized void setMaximumSize(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+        evict();
+    }
+
+    /**
+     * Returns the maximum estimated number of bytes of the outlines to be kept.
+     */
+    public synchronized long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the estimated number of bytes of the outlines currently kept.
+     */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of lookups which found an outline.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which didn't find an outline.
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of outlines which were evicted.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the outline of the given glyph, or null if it isn't cached.
+     *
+     * @param font the font the glyph belongs to
+     * @param gid the glyph id
+     */
+    public GlyphOutline get(Object font, int gid)
+    {
+        return get(new Key(font, gid, null));
+    }
+
+    /**
+     * Returns the outline of the given glyph, or null if it isn't cached.
+     *
+     * @param font the font the glyph belongs to
+     * @param name the glyph name
+     */
+    public GlyphOutline get(Object font, String name)
+    {
+        return get(new Key(font, -1, name));
+    }
+
+    /**
+     * Adds the outline of the given glyph. The outline must not be modified afterwards.
+     *
+     * @param font the font the glyph belongs to
+     * @param gid the glyph id
+     * @param outline the outline of the glyph
+     */
+    public void put(Object font, int gid, GlyphOutline outline)
+    {
+        put(new Key(font, gid, null), outline);
+    }
+
+    /**
+     * Adds the outline of the given glyph. The outline must not be modified afterwards.
+     *
+     * @param font the font the glyph belongs to
+     * @param name the glyph name
+     * @param outline the outline of the glyph
+     */
+    public void put(Object font, String name, GlyphOutline outline)
+    {
+        put(new Key(font, -1, name), outline);
+    }
+
+    /**
+     * Removes all outlines.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        size = 0;
+        while (collectedFonts.poll() != null)
+        {
+            // the entries of the collected fonts have been removed already
+        }
+    }
+
+    private synchronized GlyphOutline get(Key key)
+    {
+        GlyphOutline outline = entries.get(key);
+        if (outline != null)
+        {
+            hitCount++;
+        }
+        else
+        {
+            missCount++;
+        }
+        return outline;
+    }
+
+    private synchronized void put(Key key, GlyphOutline outline)
+    {
+        removeCollectedFonts();
+        Key storedKey = key.toStoredKey(collectedFonts);
+        GlyphOutline previous = entries.put(storedKey, outline);
+        if (previous != null)
+        {
+            size -= previous.getMemoryUsage();
+        }
+        size += outline.getMemoryUsage();
+        evict();
+    }
+
+    private void removeCollectedFonts()
+    {
+        FontReference reference;
+        while ((reference = (FontReference) collectedFonts.poll()) != null)
+        {
+            GlyphOutline outline = entries.remove(reference.key);
+            if (outline != null)
+            {
+                size -= outline.getMemoryUsage();
+            }
+        }
+    }
+
+    private void evict()
+    {
+        Iterator<GlyphOutline> iterator = entries.values().iterator();
+        while (size > maximumSize && iterator.hasNext())
+        {
+            GlyphOutline eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getMemoryUsage();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Identifies a glyph of a font. The key of a lookup references the font directly, the key of
+     * an entry references it weakly. Keys of fonts which have been garbage collected are only
+     * equal to themselves.
+     */
+    private static final class Key
+    {
+        private final Object font;
+        private final FontReference reference;
+        private final int gid;
+        private final String name;
+        private final int hash;
+
+        Key(Object font, int gid, String name)
+        {
+            this.font = font;
+            this.reference = null;
+            this.gid = gid;
+            this.name = name;
+            this.hash = computeHash(font, gid, name);
+        }
+
+        private Key(Key key, ReferenceQueue<Object> queue)
+        {
+            this.font = null;
+            this.reference = new FontReference(key.font, queue, this);
+            this.gid = key.gid;
+            this.name = key.name;
+            this.hash = key.hash;
+        }
+
+        Key toStoredKey(ReferenceQueue<Object> queue)
+        {
+            return new Key(this, queue);
+        }
+
+        private static int computeHash(Object font, int gid, String name)
+        {
+            int hash = System.identityHashCode(font);
+            hash = 31 * hash + gid;
+            return 31 * hash + (name != null ? name.hashCode() : 0);
+        }
+
+        private Object getFont()
+        {
+            return reference != null ? reference.get() : font;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            Object otherFont = other.getFont();
+            return hash == other.hash && gid == other.gid && otherFont != null
+                    && otherFont == getFont()
+                    && (name == null ? other.name == null : name.equals(other.name));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+
+    /**
+     * The weak reference of an entry to its font.
+     */
+    private static final class FontReference extends WeakReference<Object>
+    {
+        private final Key key;
+
+        FontReference(Object font, ReferenceQueue<Object> queue, Key key)
+        {
+            super(font, queue);
+            this.key = key;
+        }
+    }
+}
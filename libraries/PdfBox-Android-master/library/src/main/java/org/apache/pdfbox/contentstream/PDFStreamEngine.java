@@ -16,24 +16,20 @@
  */
 package org.apache.pdfbox.contentstream;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
 import org.apache.pdfbox.contentstream.operator.MissingOperandException;
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorProcessor;
 import org.apache.pdfbox.contentstream.operator.state.EmptyGraphicsStackException;
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
-import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.filter.MissingImageReaderException;
 import org.apache.pdfbox.pdfparser.PDFStreamParser;
@@ -71,10 +67,20 @@ import android.util.Log;
 public class PDFStreamEngine
 {
 	private final Map<String, OperatorProcessor> operators = new HashMap<String, OperatorProcessor>();
+	// the processors of the standard operators, indexed by operator id
+	private final OperatorProcessor[] operatorsById = new OperatorProcessor[Operator.STANDARD_COUNT];
+
+	// subclasses written against the list based processOperator get their operands as lists
+	private final boolean listOperatorOverridden = overridesListOperator(getClass());
 
 	private Matrix textMatrix;
 	private Matrix textLineMatrix;
 
+	// scratch matrices of the glyph loop in showText, null while borrowed by a running loop
+	private Matrix parametersScratch = new Matrix();
+	private Matrix textSpaceScratch = new Matrix();
+	private Matrix textRenderingScratch = new Matrix();
+
 	private Stack<PDGraphicsState> graphicsStack = new Stack<PDGraphicsState>();
 
 	private PDResources resources;
@@ -100,7 +106,7 @@ public class PDFStreamEngine
 	public void registerOperatorProcessor(String operator, OperatorProcessor op)
 	{
 		op.setContext(this);
-		operators.put(operator, op);
+		putOperator(operator, op);
 	}
 
 	/**
@@ -111,7 +117,17 @@ public class PDFStreamEngine
 	public final void addOperator(OperatorProcessor op)
 	{
 		op.setContext(this);
-		operators.put(op.getName(), op);
+		putOperator(op.getName(), op);
+	}
+
+	private void putOperator(String operator, OperatorProcessor op)
+	{
+		operators.put(operator, op);
+		int id = Operator.getId(operator);
+		if (id != Operator.UNKNOWN_ID)
+		{
+			operatorsById[id] = op;
+		}
 	}
 
 	/**
@@ -231,8 +247,8 @@ public class PDFStreamEngine
 		PDResources parent = pushResources(charProc);
 		saveGraphicsState();
 
-		// replace the CTM with the TRM
-		getGraphicsState().setCurrentTransformationMatrix(textRenderingMatrix);
+		// replace the CTM with the TRM, which may be a scratch matrix of showText
+		getGraphicsState().setCurrentTransformationMatrix(textRenderingMatrix.clone());
 
 		// transform the CTM using the stream's matrix (this is the FontMatrix)
 		getGraphicsState().getCurrentTransformationMatrix().concatenate(charProc.getMatrix());
@@ -447,27 +463,15 @@ public class PDFStreamEngine
 	 */
 	private void processStreamOperators(PDContentStream contentStream) throws IOException
 	{
-		List<COSBase> arguments = new ArrayList<COSBase>();
+		OperandStack operands = new OperandStack();
 		PDFStreamParser parser = new PDFStreamParser(contentStream.getContentStream());
 		try
 		{
-			Iterator<Object> iter = parser.getTokenIterator();
-			while (iter.hasNext())
+			Operator operator;
+			while ((operator = parser.parseOperands(operands)) != null)
 			{
-				Object token = iter.next();
-				if (token instanceof COSObject)
-				{
-					arguments.add(((COSObject) token).getObject());
-				}
-				else if (token instanceof Operator)
-				{
-					processOperator((Operator) token, arguments);
-					arguments = new ArrayList<COSBase>();
-				}
-				else
-				{
-					arguments.add((COSBase) token);
-				}
+				processOperator(operator, operands);
+				operands.clear();
 			}
 		}
 		finally
@@ -615,7 +619,7 @@ public class PDFStreamEngine
 	protected void applyTextAdjustment(float tx, float ty) throws IOException
 	{
 		// update the text matrix
-		textMatrix.concatenate(Matrix.getTranslateInstance(tx, ty));
+		textMatrix.translate(tx, ty);
 	}
 
 	/**
@@ -641,78 +645,122 @@ public class PDFStreamEngine
 		float fontSize = textState.getFontSize();
 		float horizontalScaling = textState.getHorizontalScaling() / 100f;
 		float charSpacing = textState.getCharacterSpacing();
+		boolean isVertical = font.isVertical();
+		boolean saveState = isGlyphStateSaved(font);
+
+		// borrow the scratch matrices, a nested call (e.g. from a Type 3 glyph) uses its own
+		Matrix parameters = parametersScratch != null ? parametersScratch : new Matrix();
+		Matrix textSpace = textSpaceScratch != null ? textSpaceScratch : new Matrix();
+		Matrix textRenderingMatrix = textRenderingScratch != null ? textRenderingScratch : new Matrix();
+		parametersScratch = null;
+		textSpaceScratch = null;
+		textRenderingScratch = null;
+		try
+		{
+			// put the text state parameters into matrix form
+			parameters.setValues(fontSize * horizontalScaling, 0, 0, fontSize, 0,
+					textState.getRise());
 
-		// put the text state parameters into matrix form
-		Matrix parameters = new Matrix(
-				fontSize * horizontalScaling, 0, // 0
-				0, fontSize,                     // 0
-				0, textState.getRise());         // 1
-
-		// read the stream until it is empty
-		InputStream in = new ByteArrayInputStream(string);
-		while (in.available() > 0)
-		{
-			// decode a character
-			int before = in.available();
-			int code = font.readCode(in);
-			int codeLength = before - in.available();
-			String unicode = font.toUnicode(code);
-
-			// Word spacing shall be applied to every occurrence of the single-byte character code
-			// 32 in a string when using a simple font or a composite font that defines code 32 as
-			// a single-byte code.
-			float wordSpacing = 0;
-			if (codeLength == 1 && code == 32)
+			// decode the string code by code
+			int offset = 0;
+			while (offset < string.length)
 			{
-				wordSpacing += textState.getWordSpacing();
-			}
+				// decode a character, missing trailing bytes of a code are read as 0xff
+				int length = font.getCodeLength(string, offset);
+				int code = 0;
+				for (int i = 0; i < length; i++)
+				{
+					int index = offset + i;
+					code = code << 8 | (index < string.length ? string[index] & 0xff : 0xff);
+				}
+				int codeLength = Math.min(length, string.length - offset);
+				offset += codeLength;
+				String unicode = font.toUnicode(code);
+
+				// Word spacing shall be applied to every occurrence of the single-byte character
+				// code 32 in a string when using a simple font or a composite font that defines
+				// code 32 as a single-byte code.
+				float wordSpacing = 0;
+				if (codeLength == 1 && code == 32)
+				{
+					wordSpacing += textState.getWordSpacing();
+				}
 
-			// text rendering matrix (text space -> device space)
-			Matrix ctm = state.getCurrentTransformationMatrix();
-			Matrix textRenderingMatrix = parameters.multiply(textMatrix).multiply(ctm);
+				// text rendering matrix (text space -> device space)
+				Matrix ctm = state.getCurrentTransformationMatrix();
+				parameters.multiply(textMatrix, textSpace).multiply(ctm, textRenderingMatrix);
 
-			// get glyph's position vector if this is vertical text
-			// changes to vertical text should be tested with PDFBOX-2294 and PDFBOX-1422
-			if (font.isVertical())
-			{
-				// position vector, in text space
-				Vector v = font.getPositionVector(code);
+				// get glyph's position vector if this is vertical text
+				// changes to vertical text should be tested with PDFBOX-2294 and PDFBOX-1422
+				if (isVertical)
+				{
+					// position vector, in text space
+					Vector v = font.getPositionVector(code);
 
-				// apply the position vector to the horizontal origin to get the vertical origin
-				textRenderingMatrix.translate(v);
-			}
+					// apply the position vector to the horizontal origin to get the vertical origin
+					textRenderingMatrix.translate(v);
+				}
 
-			// get glyph's horizontal and vertical displacements, in text space
-			Vector w = font.getDisplacement(code);
+				// get glyph's horizontal and vertical displacements, in text space
+				Vector w = font.getDisplacement(code);
 
-			// process the decoded glyph
-			saveGraphicsState();
-			showGlyph(textRenderingMatrix, font, code, unicode, w);
-			restoreGraphicsState();
+				// process the decoded glyph
+				if (saveState)
+				{
+					saveGraphicsState();
+					showGlyph(textRenderingMatrix, font, code, unicode, w);
+					restoreGraphicsState();
+				}
+				else
+				{
+					showGlyph(textRenderingMatrix, font, code, unicode, w);
+				}
 
-			// calculate the combined displacements
-			float tx, ty;
-			if (font.isVertical())
-			{
-				tx = 0;
-				ty = w.getY() * fontSize + charSpacing + wordSpacing;
-			}
-			else
-			{
-				tx = (w.getX() * fontSize + charSpacing + wordSpacing) * horizontalScaling;
-				ty = 0;
-			}
+				// calculate the combined displacements
+				float tx, ty;
+				if (isVertical)
+				{
+					tx = 0;
+					ty = w.getY() * fontSize + charSpacing + wordSpacing;
+				}
+				else
+				{
+					tx = (w.getX() * fontSize + charSpacing + wordSpacing) * horizontalScaling;
+					ty = 0;
+				}
 
-			// update the text matrix
-			textMatrix.concatenate(Matrix.getTranslateInstance(tx, ty));
+				// update the text matrix
+				textMatrix.translate(tx, ty);
+			}
 		}
+		finally
+		{
+			parametersScratch = parameters;
+			textSpaceScratch = textSpace;
+			textRenderingScratch = textRenderingMatrix;
+		}
+	}
+
+	/**
+	 * Returns true if the graphics state has to be saved and restored around each glyph shown
+	 * by {@link #showText(byte[])}, i.e. if processing a glyph may change the graphics state.
+	 * The default implementation returns false, as none of the glyph callbacks of this class
+	 * leave changes behind: Type 3 glyph procedures run in their own graphics state.
+	 *
+	 * @param font the current font
+	 * @return true if the graphics state is to be saved for each glyph
+	 */
+	protected boolean isGlyphStateSaved(PDFont font)
+	{
+		return false;
 	}
 
 	/**
 	 * Called when a glyph is to be processed.This method is intended for overriding in subclasses,
 	 * the default implementation does nothing.
 	 *
-	 * @param textRenderingMatrix the current text rendering matrix, T<sub>rm</sub>
+	 * @param textRenderingMatrix the current text rendering matrix, T<sub>rm</sub>; it is reused
+	 * for the next glyph, so it has to be cloned if it is kept beyond this call
 	 * @param font the current font
 	 * @param code internal PDF character code for the glyph
 	 * @param unicode the Unicode text for this glyph, or null if the PDF does provide it
@@ -792,24 +840,89 @@ public class PDFStreamEngine
 	 */
 	protected void processOperator(Operator operator, List<COSBase> operands) throws IOException
 	{
-		String name = operator.getName();
-		OperatorProcessor processor = operators.get(name);
+		dispatchOperator(operator, null, operands);
+	}
+
+	/**
+	 * This is used to handle an operation of a content stream. If a subclass overrides
+	 * {@link #processOperator(Operator, List)} the operands are passed to that method as a list.
+	 * 
+	 * @param operator The operation to perform.
+	 * @param operands The operands, only valid during this call.
+	 * @throws IOException If there is an error processing the operation.
+	 */
+	protected void processOperator(Operator operator, OperandStack operands) throws IOException
+	{
+		if (listOperatorOverridden)
+		{
+			processOperator(operator, operands.toList());
+		}
+		else
+		{
+			dispatchOperator(operator, operands, null);
+		}
+	}
+
+	/**
+	 * Passes an operation to its processor, either with the operand stack or, if that is null,
+	 * with the operand list.
+	 */
+	private void dispatchOperator(Operator operator, OperandStack operandStack,
+			List<COSBase> operandList) throws IOException
+	{
+		int id = operator.getId();
+		OperatorProcessor processor = id != Operator.UNKNOWN_ID ? operatorsById[id] : operators.get(operator.getName());
 		if (processor != null)
 		{
 			processor.setContext(this);
 			try
 			{
-				processor.process(operator, operands);
+				if (operandStack != null)
+				{
+					processor.process(operator, operandStack);
+				}
+				else
+				{
+					processor.process(operator, operandList);
+				}
 			}
 			catch (IOException e)
 			{
-				operatorException(operator, operands, e);
+				operatorException(operator,
+						operandStack != null ? operandStack.toList() : operandList, e);
 			}
 		}
 		else
 		{
-			unsupportedOperator(operator, operands);
+			unsupportedOperator(operator,
+					operandStack != null ? operandStack.asList() : operandList);
+		}
+	}
+
+	/**
+	 * Returns true if the given class or one of its superclasses below PDFStreamEngine
+	 * overrides {@link #processOperator(Operator, List)}.
+	 */
+	private static boolean overridesListOperator(Class<?> engineClass)
+	{
+		for (Class<?> c = engineClass; c != PDFStreamEngine.class; c = c.getSuperclass())
+		{
+			try
+			{
+				c.getDeclaredMethod("processOperator", Operator.class, List.class);
+				return true;
+			}
+			catch (NoSuchMethodException e)
+			{
+				// look at the superclass
+			}
+			catch (SecurityException e)
+			{
+				// assume an override, passing a list works in any case
+				return true;
+			}
 		}
+		return false;
 	}
 
 	/**
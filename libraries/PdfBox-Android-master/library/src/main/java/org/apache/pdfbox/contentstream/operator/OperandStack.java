@@ -0,0 +1,282 @@
+package org.apache.pdfbox.contentstream.operator;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.util.Charsets;
+
+/**
+ * The operands of a content stream operator. Numbers are kept as primitives, so that operator
+ * processors can read them without creating a {@link COSNumber} for each operand. All other
+ * operands are kept as objects.
+ *
+ * The stack is reused for all operators of a content stream, processors must not keep a
+ * reference to it.
+ */
+public final class OperandStack
+{
+    private static final byte OBJECT = 0;
+    private static final byte INTEGER = 1;
+    private static final byte REAL = 2;
+
+    private byte[] kinds = new byte[16];
+    private int[] integers = new int[16];
+    private float[] reals = new float[16];
+    // the object operands, as well as the objects created for number operands
+    private COSBase[] objects = new COSBase[16];
+    // the text of real operands read from a content stream, to keep its spelling
+    private byte[][] texts = new byte[16][];
+    private int[] textOffsets = new int[16];
+    private int[] textLengths = new int[16];
+    private int size;
+
+    private final List<COSBase> view = new AbstractList<COSBase>()
+    {
+        @Override
+        public COSBase get(int index)
+        {
+            return OperandStack.this.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    };
+
+    /**
+     * Returns the number of operands.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes all operands.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            objects[i] = null;
+            texts[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Adds an integer operand.
+     *
+     * @param value the value of the operand
+     */
+    public void pushInteger(int value)
+    {
+        int index = grow();
+        kinds[index] = INTEGER;
+        integers[index] = value;
+    }
+
+    /**
+     * Adds a real operand.
+     *
+     * @param value the value of the operand
+     */
+    public void pushReal(float value)
+    {
+        int index = grow();
+        kinds[index] = REAL;
+        reals[index] = value;
+    }
+
+    /**
+     * Adds a real operand read from the given text. The object created for the operand is
+     * created from the text, so that it is written with the same digits as it was read.
+     *
+     * @param value the value of the operand
+     * @param text the bytes containing the text of the operand
+     * @param offset the offset of the text
+     * @param length the length of the text
+     */
+    public void pushReal(float value, byte[] text, int offset, int length)
+    {
+        int index = grow();
+        kinds[index] = REAL;
+        reals[index] = value;
+        texts[index] = text;
+        textOffsets[index] = offset;
+        textLengths[index] = length;
+    }
+
+    /**
+     * Adds an operand.
+     *
+     * @param value the operand
+     */
+    public void push(COSBase value)
+    {
+        int index = grow();
+        kinds[index] = OBJECT;
+        objects[index] = value;
+    }
+
+    private int grow()
+    {
+        if (size == kinds.length)
+        {
+            int capacity = size * 2;
+            byte[] newKinds = new byte[capacity];
+            System.arraycopy(kinds, 0, newKinds, 0, size);
+            kinds = newKinds;
+            int[] newIntegers = new int[capacity];
+            System.arraycopy(integers, 0, newIntegers, 0, size);
+            integers = newIntegers;
+            float[] newReals = new float[capacity];
+            System.arraycopy(reals, 0, newReals, 0, size);
+            reals = newReals;
+            COSBase[] newObjects = new COSBase[capacity];
+            System.arraycopy(objects, 0, newObjects, 0, size);
+            objects = newObjects;
+            byte[][] newTexts = new byte[capacity][];
+            System.arraycopy(texts, 0, newTexts, 0, size);
+            texts = newTexts;
+            int[] newTextOffsets = new int[capacity];
+            System.arraycopy(textOffsets, 0, newTextOffsets, 0, size);
+            textOffsets = newTextOffsets;
+            int[] newTextLengths = new int[capacity];
+            System.arraycopy(textLengths, 0, newTextLengths, 0, size);
+            textLengths = newTextLengths;
+        }
+        texts[size] = null;
+        return size++;
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Returns true if the given operand is a number.
+     *
+     * @param index the index of the operand
+     */
+    public boolean isNumber(int index)
+    {
+        checkIndex(index);
+        return kinds[index] != OBJECT || objects[index] instanceof COSNumber;
+    }
+
+    /**
+     * Returns the float value of the given operand.
+     *
+     * @param index the index of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    public float getFloat(int index)
+    {
+        checkIndex(index);
+        switch (kinds[index])
+        {
+        case INTEGER:
+            return integers[index];
+        case REAL:
+            return reals[index];
+        default:
+            return ((COSNumber) objects[index]).floatValue();
+        }
+    }
+
+    /**
+     * Returns the int value of the given operand.
+     *
+     * @param index the index of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    public int getInt(int index)
+    {
+        checkIndex(index);
+        switch (kinds[index])
+        {
+        case INTEGER:
+            return integers[index];
+        case REAL:
+            return (int) reals[index];
+        default:
+            return ((COSNumber) objects[index]).intValue();
+        }
+    }
+
+    /**
+     * Returns the given operand as an object. A number operand is wrapped on first access.
+     *
+     * @param index the index of the operand
+     */
+    public COSBase get(int index)
+    {
+        checkIndex(index);
+        COSBase object = objects[index];
+        if (object == null)
+        {
+            if (kinds[index] == INTEGER)
+            {
+                object = COSInteger.get(integers[index]);
+            }
+            else
+            {
+                object = toReal(index);
+            }
+            objects[index] = object;
+        }
+        return object;
+    }
+
+    private COSFloat toReal(int index)
+    {
+        byte[] text = texts[index];
+        if (text != null)
+        {
+            try
+            {
+                return new COSFloat(new String(text, textOffsets[index], textLengths[index],
+                        Charsets.ISO_8859_1));
+            }
+            catch (IOException e)
+            {
+                // the text was already parsed as a number, use the value
+            }
+        }
+        return new COSFloat(reals[index]);
+    }
+
+    /**
+     * Returns a copy of the operands as a list.
+     */
+    public List<COSBase> toList()
+    {
+        List<COSBase> list = new ArrayList<COSBase>(size);
+        for (int i = 0; i < size; i++)
+        {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Returns a list view of the operands, which reflects later changes of the stack.
+     */
+    public List<COSBase> asList()
+    {
+        return view;
+    }
+}
@@ -1,9 +1,11 @@
 package org.apache.pdfbox.contentstream.operator;
 
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.util.Charsets;
 
 /**
  * An Operator in a PDF content stream.
@@ -12,27 +14,174 @@ import org.apache.pdfbox.cos.COSDictionary;
  */
 public final class Operator
 {
-    private final String theOperator;
-    private byte[] imageData;
-    private COSDictionary imageParameters;
+    /**
+     * The id of operators which aren't defined by the PDF specification.
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    /**
+     * The operators defined by the PDF specification, the id of an operator is its index.
+     */
+    private static final String[] STANDARD_NAMES = {
+        "b", "B", "b*", "B*", "BDC", "BI", "BMC", "BT", "BX", "c", "cm", "CS", "cs", "d", "d0",
+        "d1", "Do", "DP", "EI", "EMC", "ET", "EX", "f", "F", "f*", "G", "g", "gs", "h", "i", "ID",
+        "j", "J", "K", "k", "l", "m", "M", "MP", "n", "q", "Q", "re", "RG", "rg", "ri", "s", "S",
+        "SC", "sc", "SCN", "scn", "sh", "T*", "Tc", "Td", "TD", "Tf", "Tj", "TJ", "TL", "Tm", "Tr",
+        "Ts", "Tw", "Tz", "v", "w", "W", "W*", "y", "'", "\"" };
+
+    /**
+     * The number of operators defined by the PDF specification, all ids are below this value.
+     */
+    public static final int STANDARD_COUNT = STANDARD_NAMES.length;
+
+    // hash table of the standard operators, keyed on their up to 3 bytes packed into an int;
+    // the multiplier gives each of them its own slot, so a lookup needs a single probe
+    private static final int HASH_MULTIPLIER = 0x8091713f;
+    private static final int HASH_SHIFT = 24;
+    private static final int[] HASH_KEYS = new int[1 << (32 - HASH_SHIFT)];
+    private static final int[] HASH_IDS = new int[1 << (32 - HASH_SHIFT)];
 
     /** map for singleton operator objects; use {@link ConcurrentHashMap} for better scalability with multiple threads */
     private static final ConcurrentMap<String,Operator> operators = new ConcurrentHashMap<String, Operator>();
 
+    // singletons of the standard operators by id, BI and ID can't be cached
+    private static final Operator[] STANDARD_OPERATORS = new Operator[STANDARD_COUNT];
+
+    static
+    {
+        Arrays.fill(HASH_IDS, UNKNOWN_ID);
+        for (int id = 0; id < STANDARD_COUNT; id++)
+        {
+            String name = STANDARD_NAMES[id];
+            int key = 0;
+            for (int i = 0; i < name.length(); i++)
+            {
+                key |= name.charAt(i) << (i << 3);
+            }
+            int slot = (key * HASH_MULTIPLIER) >>> HASH_SHIFT;
+            while (HASH_IDS[slot] != UNKNOWN_ID)
+            {
+                slot = (slot + 1) & (HASH_IDS.length - 1);
+            }
+            HASH_KEYS[slot] = key;
+            HASH_IDS[slot] = id;
+
+            if (!name.equals("BI") && !name.equals("ID"))
+            {
+                STANDARD_OPERATORS[id] = new Operator(name, id);
+                operators.put(name, STANDARD_OPERATORS[id]);
+            }
+        }
+    }
+
+    private final String theOperator;
+    private final int id;
+    private byte[] imageData;
+    private COSDictionary imageParameters;
+
     /**
      * Constructor.
      *
      * @param aOperator The operator that this object will represent.
      */
     private Operator(String aOperator)
+    {
+        this( aOperator, getId( aOperator ) );
+    }
+
+    private Operator(String aOperator, int aId)
     {
         theOperator = aOperator;
+        id = aId;
         if( aOperator.startsWith( "/" ) )
         {
             throw new RuntimeException( "Operators are not allowed to start with / '" + aOperator + "'" );
         }
     }
 
+    /**
+     * Returns the id of the operator with the given name.
+     *
+     * @param operator the name of the operator
+     * @return the id of the operator or {@link #UNKNOWN_ID} if it isn't a standard operator
+     */
+    public static int getId( String operator )
+    {
+        int length = operator.length();
+        if( length == 0 || length > 3 )
+        {
+            return UNKNOWN_ID;
+        }
+        int key = 0;
+        for( int i = 0; i < length; i++ )
+        {
+            char c = operator.charAt( i );
+            if( c > 0xff )
+            {
+                return UNKNOWN_ID;
+            }
+            key |= c << (i << 3);
+        }
+        return getId( key );
+    }
+
+    /**
+     * Returns the id of the operator with the given spelling.
+     *
+     * @param bytes the bytes holding the operator
+     * @param offset the offset of the operator
+     * @param length the length of the operator
+     * @return the id of the operator or {@link #UNKNOWN_ID} if it isn't a standard operator
+     */
+    public static int getId( byte[] bytes, int offset, int length )
+    {
+        if( length == 0 || length > 3 )
+        {
+            return UNKNOWN_ID;
+        }
+        int key = 0;
+        for( int i = 0; i < length; i++ )
+        {
+            key |= (bytes[offset + i] & 0xff) << (i << 3);
+        }
+        return getId( key );
+    }
+
+    private static int getId( int key )
+    {
+        int slot = (key * HASH_MULTIPLIER) >>> HASH_SHIFT;
+        int id;
+        while( (id = HASH_IDS[slot]) != UNKNOWN_ID )
+        {
+            if( HASH_KEYS[slot] == key )
+            {
+                return id;
+            }
+            slot = (slot + 1) & (HASH_IDS.length - 1);
+        }
+        return UNKNOWN_ID;
+    }
+
+    /**
+     * This is used to create/cache operators in the system. In contrast to
+     * {@link #getOperator(String)} no string is created for standard operators.
+     *
+     * @param bytes the bytes holding the operator keyword
+     * @param offset the offset of the operator keyword
+     * @param length the length of the operator keyword
+     *
+     * @return The operator that matches the operator keyword.
+     */
+    public static Operator getOperator( byte[] bytes, int offset, int length )
+    {
+        int operatorId = getId( bytes, offset, length );
+        if( operatorId != UNKNOWN_ID && STANDARD_OPERATORS[operatorId] != null )
+        {
+            return STANDARD_OPERATORS[operatorId];
+        }
+        return getOperator( new String( bytes, offset, length, Charsets.ISO_8859_1 ) );
+    }
+
     /**
      * This is used to create/cache operators in the system.
      *
@@ -76,6 +225,17 @@ public final class Operator
         return theOperator;
     }
 
+    /**
+     * This will get the id of the operator, which can be used to index arrays.
+     *
+     * @return the id of a standard operator, between 0 and {@link #STANDARD_COUNT}, or
+     * {@link #UNKNOWN_ID}
+     */
+    public int getId()
+    {
+        return id;
+    }
+
     /**
      * This will print a string rep of this class.
      *
@@ -48,6 +48,19 @@ public abstract class OperatorProcessor
      */
     public abstract void process(Operator operator, List<COSBase> operands) throws IOException;
 
+    /**
+     * Process the operator. Processors which read their operands as primitives override this
+     * method, by default the operands are copied to a list and passed to
+     * {@link #process(Operator, List)}.
+     * @param operator the operator to process
+     * @param operands the operands to use when processing, only valid during this call
+     * @throws IOException if the operator cannot be processed
+     */
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+        process(operator, operands.toList());
+    }
+
     /**
      * Returns the name of this operator, e.g. "BI".
      */
@@ -3,6 +3,7 @@ package org.apache.pdfbox.contentstream.operator.graphics;
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
@@ -39,6 +40,24 @@ public final class AppendRectangleToPath extends GraphicsOperatorProcessor
         context.appendRectangle(p0, p1, p2, p3);
     }
 
+    @Override
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+        float x1 = operands.getFloat(0);
+        float y1 = operands.getFloat(1);
+
+        // create a pair of coordinates for the transformation
+        float x2 = operands.getFloat(2) + x1;
+        float y2 = operands.getFloat(3) + y1;
+
+        PointF p0 = context.transformedPoint(x1, y1);
+        PointF p1 = context.transformedPoint(x2, y1);
+        PointF p2 = context.transformedPoint(x2, y2);
+        PointF p3 = context.transformedPoint(x1, y2);
+
+        context.appendRectangle(p0, p1, p2, p3);
+    }
+
     @Override
     public String getName()
     {
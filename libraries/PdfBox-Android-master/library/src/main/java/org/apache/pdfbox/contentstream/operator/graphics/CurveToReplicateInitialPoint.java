@@ -3,6 +3,7 @@ package org.apache.pdfbox.contentstream.operator.graphics;
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
@@ -34,6 +35,19 @@ public class CurveToReplicateInitialPoint extends GraphicsOperatorProcessor
                         point3.x, point3.y);
     }
 
+    @Override
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+        PointF currentPoint = context.getCurrentPoint();
+
+        PointF point2 = context.transformedPoint(operands.getFloat(0), operands.getFloat(1));
+        PointF point3 = context.transformedPoint(operands.getFloat(2), operands.getFloat(3));
+
+        context.curveTo(currentPoint.x, currentPoint.y,
+                        point2.x, point2.y,
+                        point3.x, point3.y);
+    }
+
     @Override
     public String getName()
     {
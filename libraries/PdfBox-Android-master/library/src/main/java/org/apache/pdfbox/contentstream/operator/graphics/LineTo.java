@@ -3,6 +3,7 @@ package org.apache.pdfbox.contentstream.operator.graphics;
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
@@ -27,6 +28,13 @@ public class LineTo extends GraphicsOperatorProcessor
         context.lineTo(pos.x, pos.y);
     }
 
+    @Override
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+        PointF pos = context.transformedPoint(operands.getFloat(0), operands.getFloat(1));
+        context.lineTo(pos.x, pos.y);
+    }
+
     @Override
     public String getName()
     {
@@ -3,6 +3,7 @@ package org.apache.pdfbox.contentstream.operator.state;
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorProcessor;
 import org.apache.pdfbox.cos.COSBase;
@@ -33,6 +34,16 @@ public class Concatenate extends OperatorProcessor
         context.getGraphicsState().getCurrentTransformationMatrix().concatenate(matrix);
     }
 
+    @Override
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+        // concatenate matrix to current transformation matrix
+        Matrix matrix = new Matrix(operands.getFloat(0), operands.getFloat(1), operands.getFloat(2),
+        		operands.getFloat(3), operands.getFloat(4), operands.getFloat(5));
+
+        context.getGraphicsState().getCurrentTransformationMatrix().concatenate(matrix);
+    }
+
     @Override
     public String getName()
     {
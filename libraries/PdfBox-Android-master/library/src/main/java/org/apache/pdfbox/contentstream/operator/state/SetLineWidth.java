@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.List;
 
 import org.apache.pdfbox.contentstream.operator.MissingOperandException;
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorProcessor;
 import org.apache.pdfbox.cos.COSBase;
@@ -27,6 +28,16 @@ public class SetLineWidth extends OperatorProcessor
         context.getGraphicsState().setLineWidth(width.floatValue());
     }
 
+    @Override
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+    	if (operands.size() < 1)
+    	{
+    		throw new MissingOperandException(operator, operands.toList());
+    	}
+        context.getGraphicsState().setLineWidth(operands.getFloat(0));
+    }
+
     @Override
     public String getName()
     {
@@ -1,7 +1,9 @@
 package org.apache.pdfbox.contentstream.operator.state;
 
+import java.io.IOException;
 import java.util.List;
 
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorProcessor;
 import org.apache.pdfbox.cos.COSBase;
@@ -32,6 +34,16 @@ public class SetMatrix extends OperatorProcessor
         context.setTextLineMatrix(matrix.clone());
     }
 
+    @Override
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+        Matrix matrix = new Matrix(operands.getFloat(0), operands.getFloat(1), operands.getFloat(2),
+        		operands.getFloat(3), operands.getFloat(4), operands.getFloat(5));
+
+        context.setTextMatrix(matrix);
+        context.setTextLineMatrix(matrix.clone());
+    }
+
     @Override
     public String getName()
     {
@@ -1,7 +1,9 @@
 package org.apache.pdfbox.contentstream.operator.text;
 
+import java.io.IOException;
 import java.util.List;
 
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorProcessor;
 import org.apache.pdfbox.cos.COSBase;
@@ -25,6 +27,14 @@ public class MoveText extends OperatorProcessor
     	context.setTextMatrix(context.getTextLineMatrix().clone());
     }
 
+    @Override
+    public void process(Operator operator, OperandStack operands) throws IOException
+    {
+    	Matrix matrix = new Matrix(1, 0, 0, 1, operands.getFloat(0), operands.getFloat(1));
+    	context.getTextLineMatrix().concatenate(matrix);
+    	context.setTextMatrix(context.getTextLineMatrix().clone());
+    }
+
     @Override
     public String getName()
     {
@@ -28,6 +28,8 @@ public class COSDocument extends COSBase implements Closeable
 	/**
 	 * Maps ObjectKeys to a COSObject. Note that references to these objects
 	 * are also stored in COSDictionary objects that map a name to a specific object.
+	 * Access is synchronized on the map, as lazily loaded objects may be added while
+	 * several threads read the document.
 	 */
 	private final Map<COSObjectKey, COSObject> objectPool =
 			new HashMap<COSObjectKey, COSObject>();
@@ -60,6 +62,16 @@ public class COSDocument extends COSBase implements Closeable
 
 	private final boolean useScratchFile;
 
+	/**
+	 * Limits the memory used by the decoded copies of the streams of this document.
+	 */
+	private final DecodedStreamCache decodedStreamCache = new DecodedStreamCache();
+
+	/**
+	 * Loads the objects which haven't been parsed yet, if the document is loaded lazily.
+	 */
+	private ICOSParser parser;
+
 	/**
 	 * Constructor.
 	 *
@@ -102,7 +114,9 @@ public class COSDocument extends COSBase implements Closeable
 	 */
 	public COSStream createCOSStream()
 	{
-		return new COSStream( useScratchFile, scratchDirectory);
+		COSStream stream = new COSStream( useScratchFile, scratchDirectory);
+		stream.setDecodedStreamCache(decodedStreamCache);
+		return stream;
 	}
 
 	/**
@@ -114,7 +128,43 @@ public class COSDocument extends COSBase implements Closeable
 	 */
 	public COSStream createCOSStream(COSDictionary dictionary)
 	{
-		return new COSStream( dictionary, useScratchFile, scratchDirectory );
+		COSStream stream = new COSStream( dictionary, useScratchFile, scratchDirectory );
+		stream.setDecodedStreamCache(decodedStreamCache);
+		return stream;
+	}
+
+	/**
+	 * Returns the cache of the decoded streams of this document. Its maximum size is
+	 * unlimited by default, setting a maximum size lets least recently used decoded streams
+	 * be evicted and decoded again when needed.
+	 * 
+	 * @return the decoded stream cache
+	 */
+	public DecodedStreamCache getDecodedStreamCache()
+	{
+		return decodedStreamCache;
+	}
+
+	/**
+	 * Sets the parser which loads the objects of this document lazily. The objects which
+	 * haven't been parsed yet, and all objects added to the pool later on, are parsed when
+	 * they are accessed for the first time.
+	 * 
+	 * @param cosParser the parser of this document
+	 */
+	public void setParser(ICOSParser cosParser)
+	{
+		parser = cosParser;
+		synchronized (objectPool)
+		{
+			for (COSObject object : objectPool.values())
+			{
+				if (object.isObjectNull())
+				{
+					object.setParser(cosParser);
+				}
+			}
+		}
 	}
 
 	/**
@@ -127,7 +177,8 @@ public class COSDocument extends COSBase implements Closeable
 	 */
 	public COSObject getObjectByType( COSName type ) throws IOException
 	{
-		for( COSObject object : objectPool.values() )
+		// iterate over a copy, as lazily loaded objects may add new objects to the pool
+		for( COSObject object : getObjects() )
 		{
 			COSBase realObject = object.getObject();
 			if( realObject instanceof COSDictionary )
@@ -182,7 +233,8 @@ public class COSDocument extends COSBase implements Closeable
 	public List<COSObject> getObjectsByType( COSName type ) throws IOException
 	{
 		List<COSObject> retval = new ArrayList<COSObject>();
-		for( COSObject object : objectPool.values() )
+		// iterate over a copy, as lazily loaded objects may add new objects to the pool
+		for( COSObject object : getObjects() )
 		{
 			COSBase realObject = object.getObject();
 			if( realObject instanceof COSDictionary )
@@ -391,6 +443,15 @@ public class COSDocument extends COSBase implements Closeable
 	 */
 	public COSObject getCatalog() throws IOException
 	{
+		if (parser != null && trailer != null)
+		{
+			// don't load all objects of a lazily loaded document to find the catalog
+			COSBase root = trailer.getItem(COSName.ROOT);
+			if (root instanceof COSObject && ((COSObject) root).getObject() instanceof COSDictionary)
+			{
+				return (COSObject) root;
+			}
+		}
 		COSObject catalog = getObjectByType( COSName.CATALOG );
 		if( catalog == null )
 		{
@@ -406,7 +467,10 @@ public class COSDocument extends COSBase implements Closeable
 	 */
 	public List<COSObject> getObjects()
 	{
-		return new ArrayList<COSObject>(objectPool.values());
+		synchronized (objectPool)
+		{
+			return new ArrayList<COSObject>(objectPool.values());
+		}
 	}
 
 	/**
@@ -459,6 +523,11 @@ public class COSDocument extends COSBase implements Closeable
 			{
 				for (COSObject object : list) 
 				{
+					if (object.isObjectNull())
+					{
+						// never loaded
+						continue;
+					}
 					COSBase cosObject = object.getObject();
 					if (cosObject instanceof COSStream)
 					{
@@ -556,23 +625,30 @@ public class COSDocument extends COSBase implements Closeable
 	 */
 	public COSObject getObjectFromPool(COSObjectKey key) throws IOException
 	{
-		COSObject obj = null;
-		if( key != null )
-		{
-			obj = objectPool.get(key);
-		}
-		if (obj == null)
+		synchronized (objectPool)
 		{
-			// this was a forward reference, make "proxy" object
-			obj = new COSObject(null);
+			COSObject obj = null;
 			if( key != null )
 			{
-				obj.setObjectNumber(key.getNumber());
-				obj.setGenerationNumber(key.getGeneration());
-				objectPool.put(key, obj);
+				obj = objectPool.get(key);
 			}
+			if (obj == null)
+			{
+				// this was a forward reference, make "proxy" object
+				obj = new COSObject(null);
+				if( key != null )
+				{
+					obj.setObjectNumber(key.getNumber());
+					obj.setGenerationNumber(key.getGeneration());
+					objectPool.put(key, obj);
+					if (parser != null)
+					{
+						obj.setParser(parser);
+					}
+				}
+			}
+			return obj;
 		}
-		return obj;
 	}
 
 	/**
@@ -582,7 +658,10 @@ public class COSDocument extends COSBase implements Closeable
 	 */
 	public COSObject removeObject(COSObjectKey key)
 	{
-		return objectPool.remove(key);
+		synchronized (objectPool)
+		{
+			return objectPool.remove(key);
+		}
 	}
 
 	/**
@@ -2,7 +2,8 @@ package org.apache.pdfbox.cos;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.math.BigDecimal;
+
+import org.apache.pdfbox.util.Charsets;
 
 /**
  * This class represents a floating point number in a PDF document.
@@ -11,7 +12,8 @@ import java.math.BigDecimal;
  */
 public class COSFloat extends COSNumber
 {
-    private BigDecimal value;
+    private final float value;
+    // the string read from the document, or the formatted value once it is needed
     private String valueAsString;
 
     /**
@@ -21,10 +23,8 @@ public class COSFloat extends COSNumber
      */
     public COSFloat( float aFloat )
     {
-    	// use a BigDecimal as intermediate state to avoid
-    	// a floating point string representation of the float value
-    	value = new BigDecimal(String.valueOf(aFloat));
-    	valueAsString = removeNullDigits(value.toPlainString());
+        // there is no negative zero in a PDF
+        value = aFloat == 0 ? 0f : aFloat;
     }
 
     /**
@@ -38,8 +38,10 @@ public class COSFloat extends COSNumber
     {
         try
         {
+            checkCharacters( aFloat );
             valueAsString = aFloat; 
-            value = new BigDecimal( valueAsString );
+            float parsed = Float.parseFloat( valueAsString );
+            value = parsed == 0 ? 0f : parsed;
         }
         catch( NumberFormatException e )
         {
@@ -47,6 +49,76 @@ public class COSFloat extends COSNumber
         }
     }
 
+    // only plain decimal numbers are valid, unlike for Float.parseFloat
+    private static void checkCharacters( String aFloat )
+    {
+        for( int i = 0; i < aFloat.length(); i++ )
+        {
+            char c = aFloat.charAt( i );
+            if( (c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E' )
+            {
+                throw new NumberFormatException( aFloat );
+            }
+        }
+    }
+
+    /**
+     * Returns the string representation of the value, without an exponent and without
+     * trailing zero fraction digits.
+     */
+    private String getValueAsString()
+    {
+        if (valueAsString == null)
+        {
+            valueAsString = removeNullDigits(toPlainString(String.valueOf(value)));
+        }
+        return valueAsString;
+    }
+
+    // converts a number in computerized scientific notation like "1.0E-5" to a plain number
+    private static String toPlainString(String floatString)
+    {
+        int exponentIndex = floatString.indexOf('E');
+        if (exponentIndex == -1)
+        {
+            return floatString;
+        }
+        int exponent = Integer.parseInt(floatString.substring(exponentIndex + 1));
+        boolean negative = floatString.charAt(0) == '-';
+        String mantissa = floatString.substring(negative ? 1 : 0, exponentIndex);
+        int pointIndex = mantissa.indexOf('.');
+        String digits = mantissa.substring(0, pointIndex) + mantissa.substring(pointIndex + 1);
+        // the new position of the decimal point within the digits
+        int point = pointIndex + exponent;
+        StringBuilder plain = new StringBuilder(digits.length() + Math.abs(exponent) + 3);
+        if (negative)
+        {
+            plain.append('-');
+        }
+        if (point <= 0)
+        {
+            plain.append("0.");
+            for (int i = point; i < 0; i++)
+            {
+                plain.append('0');
+            }
+            plain.append(digits);
+        }
+        else if (point >= digits.length())
+        {
+            plain.append(digits);
+            for (int i = digits.length(); i < point; i++)
+            {
+                plain.append('0');
+            }
+        }
+        else
+        {
+            plain.append(digits, 0, point).append('.').append(digits, point, digits.length());
+        }
+        return plain.toString();
+    }
+
     private static String removeNullDigits(String plainStringValue)
     {
         // remove fraction digit "0" only
@@ -68,7 +140,7 @@ public class COSFloat extends COSNumber
     @Override
     public float floatValue()
     {
-        return value.floatValue();
+        return value;
     }
 
     /**
@@ -79,7 +151,8 @@ public class COSFloat extends COSNumber
     @Override
     public double doubleValue()
     {
-        return value.doubleValue();
+        // the string keeps the precision of the document
+        return Double.parseDouble(getValueAsString());
     }
 
     /**
@@ -90,7 +163,7 @@ public class COSFloat extends COSNumber
     @Override
     public long longValue()
     {
-        return value.longValue();
+        return (long) value;
     }
 
     /**
@@ -101,7 +174,7 @@ public class COSFloat extends COSNumber
     @Override
     public int intValue()
     {
-        return value.intValue();
+        return (int) value;
     }
 
     /**
@@ -111,7 +184,7 @@ public class COSFloat extends COSNumber
     public boolean equals( Object o )
     {
         return o instanceof COSFloat &&
-        		Float.floatToIntBits(((COSFloat)o).value.floatValue()) == Float.floatToIntBits(value.floatValue());
+        		Float.floatToIntBits(((COSFloat)o).value) == Float.floatToIntBits(value);
     }
 
     /**
@@ -120,7 +193,7 @@ public class COSFloat extends COSNumber
     @Override
     public int hashCode()
     {
-        return value.hashCode();
+        return Float.floatToIntBits(value);
     }
 
     /**
@@ -129,7 +202,7 @@ public class COSFloat extends COSNumber
     @Override
     public String toString()
     {
-        return "COSFloat{" + valueAsString + "}";
+        return "COSFloat{" + getValueAsString() + "}";
     }
 
     /**
@@ -153,6 +226,6 @@ public class COSFloat extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(valueAsString.getBytes("ISO-8859-1"));
+        output.write(getValueAsString().getBytes(Charsets.ISO_8859_1));
     }
 }
\ No newline at end of file
@@ -179,7 +179,22 @@ public final class COSInteger extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(String.valueOf(value).getBytes("ISO-8859-1"));
+        // format the digits from the least significant one into a buffer and write them at once;
+        // a negative value stays negative so that Long.MIN_VALUE needs no special case
+        byte[] buffer = new byte[20];
+        int pos = buffer.length;
+        long remaining = value;
+        do
+        {
+            buffer[--pos] = (byte) ('0' + Math.abs(remaining % 10));
+            remaining /= 10;
+        }
+        while (remaining != 0);
+        if (value < 0)
+        {
+            buffer[--pos] = '-';
+        }
+        output.write(buffer, pos, buffer.length - pos);
     }
 
 }
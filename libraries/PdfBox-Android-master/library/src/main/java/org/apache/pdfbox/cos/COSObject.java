@@ -2,6 +2,8 @@ package org.apache.pdfbox.cos;
 
 import java.io.IOException;
 
+import android.util.Log;
+
 /**
  * This class represents a PDF object.
  *
@@ -14,6 +16,10 @@ public class COSObject extends COSBase implements COSUpdateInfo
     private int generationNumber;
     private boolean needToBeUpdated;
 
+    // parser which loads the object on first access, null once it has been loaded
+    private volatile ICOSParser parser;
+    private boolean dereferencing;
+
     /**
      * Constructor.
      *
@@ -37,9 +43,10 @@ public class COSObject extends COSBase implements COSUpdateInfo
     public COSBase getDictionaryObject( COSName key )
     {
         COSBase retval =null;
-        if( baseObject instanceof COSDictionary )
+        COSBase object = getObject();
+        if( object instanceof COSDictionary )
         {
-            retval = ((COSDictionary)baseObject).getDictionaryObject( key );
+            retval = ((COSDictionary)object).getDictionaryObject( key );
         }
         return retval;
     }
@@ -54,9 +61,10 @@ public class COSObject extends COSBase implements COSUpdateInfo
     public COSBase getItem( COSName key )
     {
         COSBase retval =null;
-        if( baseObject instanceof COSDictionary )
+        COSBase object = getObject();
+        if( object instanceof COSDictionary )
         {
-            retval = ((COSDictionary)baseObject).getItem( key );
+            retval = ((COSDictionary)object).getItem( key );
         }
         return retval;
     }
@@ -68,9 +76,65 @@ public class COSObject extends COSBase implements COSUpdateInfo
      */
     public COSBase getObject()
     {
+        ICOSParser objectParser = parser;
+        if (objectParser != null)
+        {
+            dereference(objectParser);
+        }
         return baseObject;
     }
 
+    /**
+     * Returns true if the encapsulated object is null. In contrast to {@link #getObject()} an
+     * object which hasn't been loaded yet isn't loaded.
+     *
+     * @return true if there is no encapsulated object (yet)
+     */
+    public boolean isObjectNull()
+    {
+        return baseObject == null;
+    }
+
+    /**
+     * Sets the parser which loads the encapsulated object when it is accessed for the first time.
+     *
+     * @param objectParser the parser of the document
+     */
+    void setParser(ICOSParser objectParser)
+    {
+        parser = objectParser;
+    }
+
+    // loads the object; while the parser is at work getObject() returns null for this object
+    private void dereference(ICOSParser objectParser)
+    {
+        synchronized (objectParser)
+        {
+            if (parser == null || dereferencing)
+            {
+                return;
+            }
+            dereferencing = true;
+            try
+            {
+                COSBase object = objectParser.dereferenceCOSObject(this);
+                if (baseObject == null)
+                {
+                    baseObject = object;
+                }
+            }
+            catch (IOException e)
+            {
+                Log.e("PdfBoxAndroid", "Can't load object " + this, e);
+            }
+            finally
+            {
+                dereferencing = false;
+                parser = null;
+            }
+        }
+    }
+
     /**
      * This will set the object that this object encapsulates.
      *
@@ -81,6 +145,7 @@ public class COSObject extends COSBase implements COSUpdateInfo
     public final void setObject( COSBase object ) throws IOException
     {
         baseObject = object;
+        parser = null;
     }
 
     /**
@@ -43,7 +43,21 @@ public class COSStream extends COSDictionary implements Closeable
      * The stream with no filters, this contains the useful data.
      */
     private RandomAccessFileOutputStream unFilteredStream;
+    /**
+     * The buffer holding the stream with no filters. This is either the internal buffer
+     * or a separate buffer holding a decoded copy, which may be evicted at any time.
+     */
+    private RandomAccess unFilteredBuffer;
     private DecodeResult decodeResult;
+    private DecodedStreamCache decodedStreamCache;
+
+    /**
+     * The location of the stream data within the source of the document, as long as it
+     * hasn't been copied to the internal buffer.
+     */
+    private ICOSParser sourceParser;
+    private long sourceOffset;
+    private COSNumber sourceLength;
     
     private File scratchFile;
 
@@ -128,6 +142,53 @@ public class COSStream extends COSDictionary implements Closeable
         }
     }
 
+    /**
+     * Sets the cache which limits the memory used by the decoded copy of this stream.
+     *
+     * @param cache the cache of the enclosing document
+     */
+    void setDecodedStreamCache(DecodedStreamCache cache)
+    {
+        decodedStreamCache = cache;
+    }
+
+    /**
+     * Sets the location of the filtered stream data within the source of a lazily loaded
+     * document. The data is copied to this stream when it is read for the first time.
+     *
+     * @param parser the parser reading the source
+     * @param offset the offset of the stream data within the source
+     * @param length the length of the stream data
+     */
+    public void setFilteredSource(ICOSParser parser, long offset, COSNumber length)
+    {
+        sourceParser = parser;
+        sourceOffset = offset;
+        sourceLength = length;
+    }
+
+    /**
+     * Copies the stream data from the source of the document, if it hasn't been copied yet.
+     *
+     * @throws IOException If there is an error reading the stream data.
+     */
+    private void loadFilteredSource() throws IOException
+    {
+        if (sourceParser != null)
+        {
+            ICOSParser parser = sourceParser;
+            OutputStream output = createFilteredStream(sourceLength);
+            try
+            {
+                parser.readStreamData(sourceOffset, sourceLength.longValue(), output);
+            }
+            finally
+            {
+                output.close();
+            }
+        }
+    }
+
     /**
      * This will get the stream with all of the filters applied.
      *
@@ -135,7 +196,7 @@ public class COSStream extends COSDictionary implements Closeable
      *
      * @throws IOException when encoding/decoding causes an exception
      */
-    public InputStream getFilteredStream() throws IOException
+    public synchronized InputStream getFilteredStream() throws IOException
     {
     	if (buffer.isClosed())
     	{
@@ -143,6 +204,7 @@ public class COSStream extends COSDictionary implements Closeable
     				"Perhaps its enclosing PDDocument has been closed?");
     	}
     	
+        loadFilteredSource();
         if( filteredStream == null )
         {
             doEncode();
@@ -162,17 +224,48 @@ public class COSStream extends COSDictionary implements Closeable
      *
      * @throws IOException 
      */
-    public long getFilteredLength() throws IOException
+    public synchronized long getFilteredLength() throws IOException
     {
+        if (sourceParser != null)
+        {
+            return sourceLength.longValue();
+        }
         if (filteredStream == null)
         {
             doEncode();
         }
         return filteredStream.getLength();
     }
-    
+
     /**
-     * This will get the logical content stream with none of the filters.
+     * Returns true if the filters have to be applied before the encoded stream can be read,
+     * i.e. the stream was created or modified and hasn't been encoded yet.
+     *
+     * @return true if the stream needs to be encoded
+     */
+    public boolean isEncodingNeeded()
+    {
+        return sourceParser == null && filteredStream == null && unFilteredStream != null;
+    }
+
+    /**
+     * Applies the filters to the logical stream now, if needed. This allows to encode several
+     * streams in parallel, a single stream must not be accessed by other threads while it is
+     * being encoded.
+     *
+     * @throws IOException If there is an error applying a filter to the stream.
+     */
+    public void encode() throws IOException
+    {
+        if (isEncodingNeeded())
+        {
+            doEncode();
+        }
+    }
+
+    /**
+     * This will get the logical content stream with none of the filters. Several threads may
+     * read the same stream, it is decoded only once.
      *
      * @return the bytes of the logical (decoded) stream
      *
@@ -187,25 +280,39 @@ public class COSStream extends COSDictionary implements Closeable
     	}
     	
         InputStream retval;
-        if( unFilteredStream == null )
+        long decodedLength = -1;
+        boolean hit = false;
+        synchronized (this)
         {
-            doDecode();
-        }
+            if( unFilteredStream == null )
+            {
+                decodedLength = decodeUnfiltered();
+            }
+            else
+            {
+                hit = isDecodedCopy();
+            }
 
-        //if unFilteredStream is still null then this stream has not been
-        //created yet, so we should return null.
-        if( unFilteredStream != null )
-        {
-            long position = unFilteredStream.getPosition();
-            long length = unFilteredStream.getLengthWritten();
-            RandomAccessFileInputStream input =
-                new RandomAccessFileInputStream( buffer, position, length );
-            retval = new BufferedInputStream( input, BUFFER_SIZE );
+            //if unFilteredStream is still null then this stream has not been
+            //created yet, so we should return null.
+            if( unFilteredStream != null )
+            {
+                long position = unFilteredStream.getPosition();
+                long length = unFilteredStream.getLengthWritten();
+                RandomAccessFileInputStream input =
+                    new RandomAccessFileInputStream( unFilteredBuffer, position, length );
+                retval = new BufferedInputStream( input, BUFFER_SIZE );
+            }
+            else
+            {
+                retval = new ByteArrayInputStream( new byte[0] );
+            }
         }
-        else
+        if( hit && decodedStreamCache != null )
         {
-        	retval = new ByteArrayInputStream( new byte[0] );
+            decodedStreamCache.hit( this );
         }
+        registerDecoded(decodedLength);
         return retval;
     }
 
@@ -217,12 +324,22 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public DecodeResult getDecodeResult() throws IOException
     {
-        if (unFilteredStream == null)
+        long decodedLength = -1;
+        DecodeResult result = null;
+        synchronized (this)
         {
-            doDecode();
+            if (unFilteredStream == null)
+            {
+                decodedLength = decodeUnfiltered();
+            }
+            if (unFilteredStream != null)
+            {
+                result = decodeResult;
+            }
         }
+        registerDecoded(decodedLength);
 
-        if (unFilteredStream == null || decodeResult == null)
+        if (result == null)
         {
         	StringBuilder filterInfo = new StringBuilder();
         	COSBase filters = getFilters();
@@ -249,7 +366,7 @@ public class COSStream extends COSDictionary implements Closeable
         	String subtype = getNameAsString(COSName.SUBTYPE);
         	throw new IOException(subtype + " stream was not read" + filterInfo);
         }
-        return decodeResult;
+        return result;
     }
 
     @Override
@@ -258,6 +375,85 @@ public class COSStream extends COSDictionary implements Closeable
         return visitor.visitFromStream(this);
     }
 
+    /**
+     * Decodes the stream, the caller holds the lock of this stream.
+     *
+     * @return the length of the decoded copy, or -1 if the stream isn't a decoded copy
+     * @throws IOException If there is an error applying a filter to the stream.
+     */
+    private long decodeUnfiltered() throws IOException
+    {
+        doDecode();
+        return isDecodedCopy() ? unFilteredStream.getLengthWritten() : -1;
+    }
+
+    /**
+     * Registers a freshly decoded copy with the cache, if any. The cache may evict other
+     * streams, so this must not be called while this stream is locked.
+     *
+     * @param decodedLength the length of the decoded copy, or -1 if there is none
+     */
+    private void registerDecoded(long decodedLength)
+    {
+        if (decodedStreamCache != null && decodedLength >= 0)
+        {
+            decodedStreamCache.put(this, decodedLength);
+        }
+    }
+
+    /**
+     * Returns true if the unfiltered stream is a decoded copy which can be recreated
+     * from the filtered stream.
+     */
+    private boolean isDecodedCopy()
+    {
+        return unFilteredStream != null && filteredStream != null && unFilteredBuffer != buffer;
+    }
+
+    /**
+     * Drops the decoded copy of this stream, it will be decoded again when it is read
+     * the next time. The buffer isn't closed as it may still be read by previously
+     * returned input streams.
+     */
+    synchronized void evictUnfiltered()
+    {
+        if (isDecodedCopy())
+        {
+            unFilteredStream = null;
+            unFilteredBuffer = null;
+        }
+    }
+
+    /**
+     * Copies a decoded copy of this stream to the internal buffer, as it can't be recreated
+     * from the filtered stream anymore.
+     *
+     * @throws IOException If there is an error copying the stream.
+     */
+    private void keepUnfiltered() throws IOException
+    {
+        if (unFilteredStream != null && unFilteredBuffer != buffer)
+        {
+            InputStream input = new RandomAccessFileInputStream(unFilteredBuffer,
+                    unFilteredStream.getPosition(), unFilteredStream.getLengthWritten());
+            RandomAccessFileOutputStream output = new RandomAccessFileOutputStream(buffer);
+            try
+            {
+                IOUtils.copy(input, output);
+            }
+            finally
+            {
+                IOUtils.closeQuietly(input);
+            }
+            unFilteredStream = output;
+            unFilteredBuffer = buffer;
+        }
+        if (decodedStreamCache != null)
+        {
+            decodedStreamCache.remove(this);
+        }
+    }
+
     /**
      * This will decode the physical byte stream applying all of the filters to the stream.
      *
@@ -265,8 +461,10 @@ public class COSStream extends COSDictionary implements Closeable
      */
     private void doDecode() throws IOException
     {
+        loadFilteredSource();
 // FIXME: We shouldn't keep the same reference?
         unFilteredStream = filteredStream;
+        unFilteredBuffer = buffer;
 
         COSBase filters = getFilters();
         if( filters == null )
@@ -307,6 +505,7 @@ public class COSStream extends COSDictionary implements Closeable
 
         boolean done = false;
         IOException exception = null;
+        RandomAccess source = unFilteredBuffer;
         long position = unFilteredStream.getPosition();
         long length = unFilteredStream.getLength();
         // in case we need it later
@@ -319,6 +518,7 @@ public class COSStream extends COSDictionary implements Closeable
             //with a zero length stream.  See zlib_error_01.pdf
             IOUtils.closeQuietly(unFilteredStream);
             unFilteredStream = new RandomAccessFileOutputStream( buffer );
+            unFilteredBuffer = buffer;
             done = true;
         }
         else
@@ -330,7 +530,7 @@ public class COSStream extends COSDictionary implements Closeable
             {
                 try
                 {
-                	attemptDecode(position, length, filter, filterIndex);
+                	attemptDecode(source, position, length, filter, filterIndex);
                     done = true;
                 }
                 catch (IOException io)
@@ -349,7 +549,7 @@ public class COSStream extends COSDictionary implements Closeable
                 {
                     try
                     {
-                    	attemptDecode(position, length, filter, filterIndex);
+                    	attemptDecode(source, position, length, filter, filterIndex);
                         done = true;
                     }
                     catch (IOException io)
@@ -367,15 +567,18 @@ public class COSStream extends COSDictionary implements Closeable
     }
 
     // attempts to decode the stream at the given position and length
-    private void attemptDecode(long position, long length, Filter filter, int filterIndex) throws IOException
+    // in-memory streams are decoded into a separate buffer, so that the decoded copy can be evicted
+    private void attemptDecode(RandomAccess source, long position, long length, Filter filter,
+    		int filterIndex) throws IOException
     {
     	InputStream input = null;
     	try
     	{
     		input = new BufferedInputStream(
-    				new RandomAccessFileInputStream(buffer, position, length), BUFFER_SIZE);
+    				new RandomAccessFileInputStream(source, position, length), BUFFER_SIZE);
     		IOUtils.closeQuietly(unFilteredStream);
-    		unFilteredStream = new RandomAccessFileOutputStream(buffer);
+    		unFilteredBuffer = buffer instanceof RandomAccessBuffer ? new RandomAccessBuffer() : buffer;
+    		unFilteredStream = new RandomAccessFileOutputStream(unFilteredBuffer);
     		decodeResult = filter.decode(input, unFilteredStream, this, filterIndex);
     	}
     	finally
@@ -460,8 +663,14 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public OutputStream createFilteredStream() throws IOException
     {
+        sourceParser = null;
         IOUtils.closeQuietly(unFilteredStream);
         unFilteredStream = null;
+        unFilteredBuffer = null;
+        if (decodedStreamCache != null)
+        {
+            decodedStreamCache.remove(this);
+        }
         IOUtils.closeQuietly(filteredStream);
         filteredStream = new RandomAccessFileOutputStream( buffer );
         return new BufferedOutputStream( filteredStream, BUFFER_SIZE );
@@ -499,6 +708,7 @@ public class COSStream extends COSDictionary implements Closeable
             // don't lose stream contents
             doDecode();
         }
+        keepUnfiltered();
         setItem(COSName.FILTER, filters);
         // kill cached filtered streams
         IOUtils.closeQuietly(filteredStream);
@@ -514,16 +724,31 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public OutputStream createUnfilteredStream() throws IOException
     {
+        sourceParser = null;
         IOUtils.closeQuietly(filteredStream);
         filteredStream = null;
         IOUtils.closeQuietly(unFilteredStream);
         unFilteredStream = new RandomAccessFileOutputStream( buffer );
+        unFilteredBuffer = buffer;
+        if (decodedStreamCache != null)
+        {
+            decodedStreamCache.remove(this);
+        }
         return new BufferedOutputStream( unFilteredStream, BUFFER_SIZE );
     }
     
     @Override
     public void close() throws IOException
     {
+    	sourceParser = null;
+    	if (decodedStreamCache != null)
+    	{
+    		decodedStreamCache.remove(this);
+    	}
+    	if (unFilteredBuffer != null && unFilteredBuffer != buffer)
+    	{
+    		unFilteredBuffer.close();
+    	}
     	if (buffer != null)
         {
     		buffer.close();
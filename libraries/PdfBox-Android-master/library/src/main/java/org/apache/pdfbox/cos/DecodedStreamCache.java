@@ -0,0 +1,178 @@
+package org.apache.pdfbox.cos;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the decoded copies of the streams of a document. Once the total size of
+ * these copies exceeds the maximum size, the least recently used ones are evicted. An evicted
+ * stream is decoded again when it is read the next time.
+ *
+ * The counters can be used to choose a suitable maximum size: a hit is a read of a stream
+ * whose decoded copy was still available, a miss is a read which had to decode the stream.
+ *
+ * The cache may be used by several threads. It never locks a stream while it is locked itself,
+ * so a stream must not call it while the stream is locked.
+ */
+public class DecodedStreamCache
+{
+    // decoded streams and their decoded length in the order of their last access
+    private final Map<COSStream, Long> entries = new LinkedHashMap<COSStream, Long>(16, 0.75f, true);
+
+    private long maximumSize;
+    private long size;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructor. The decoded streams are never evicted.
+     */
+    public DecodedStreamCache()
+    {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of decoded bytes to be kept
+     */
+    public DecodedStreamCache(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Sets the maximum number of decoded bytes to be kept. Streams are evicted immediately
+     * if the current size exceeds the new maximum.
+     *
+     * @param maximumSize the maximum number of decoded bytes
+     */
+    public void setMaximumSize(long maximumSize)
+    {
+        List<COSStream> evicted;
+        synchronized (this)
+        {
+            this.maximumSize = maximumSize;
+            evicted = evict(null);
+        }
+        evictUnfiltered(evicted);
+    }
+
+    /**
+     * Returns the maximum number of decoded bytes to be kept.
+     */
+    public synchronized long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of decoded bytes currently kept.
+     */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of reads which were served by a decoded copy.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of reads which had to decode the stream.
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of decoded copies which were evicted.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Marks the decoded copy of the given stream as used.
+     */
+    synchronized void hit(COSStream stream)
+    {
+        if (entries.get(stream) != null)
+        {
+            hitCount++;
+        }
+    }
+
+    /**
+     * Adds the freshly decoded copy of the given stream and evicts other streams if necessary.
+     */
+    void put(COSStream stream, long length)
+    {
+        List<COSStream> evicted;
+        synchronized (this)
+        {
+            missCount++;
+            Long previous = entries.put(stream, length);
+            if (previous != null)
+            {
+                size -= previous;
+            }
+            size += length;
+            evicted = evict(stream);
+        }
+        evictUnfiltered(evicted);
+    }
+
+    /**
+     * Removes the given stream, e.g. because its decoded data can't be recreated anymore.
+     */
+    synchronized void remove(COSStream stream)
+    {
+        Long previous = entries.remove(stream);
+        if (previous != null)
+        {
+            size -= previous;
+        }
+    }
+
+    // removes the least recently used entries and returns their streams
+    private List<COSStream> evict(COSStream keep)
+    {
+        List<COSStream> evicted = new ArrayList<COSStream>();
+        Iterator<Map.Entry<COSStream, Long>> iterator = entries.entrySet().iterator();
+        while (size > maximumSize && iterator.hasNext())
+        {
+            Map.Entry<COSStream, Long> eldest = iterator.next();
+            if (eldest.getKey() == keep)
+            {
+                continue;
+            }
+            iterator.remove();
+            size -= eldest.getValue();
+            evictionCount++;
+            evicted.add(eldest.getKey());
+        }
+        return evicted;
+    }
+
+    // drops the decoded copies of evicted streams, called without holding the lock of the cache
+    private static void evictUnfiltered(List<COSStream> evicted)
+    {
+        for (COSStream stream : evicted)
+        {
+            stream.evictUnfiltered();
+        }
+    }
+}
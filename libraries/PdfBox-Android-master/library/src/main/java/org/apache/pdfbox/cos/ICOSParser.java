@@ -0,0 +1,32 @@
+package org.apache.pdfbox.cos;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Loads the objects and the stream data of a document on demand, when the document is
+ * loaded lazily.
+ */
+public interface ICOSParser
+{
+    /**
+     * Parses the given object.
+     *
+     * @param obj the object to be parsed
+     * @return the parsed object
+     *
+     * @throws IOException If there is an error parsing the object.
+     */
+    COSBase dereferenceCOSObject(COSObject obj) throws IOException;
+
+    /**
+     * Copies stream data from the source of the document.
+     *
+     * @param offset the offset of the stream data within the source
+     * @param length the length of the stream data
+     * @param out the stream the data is written to
+     *
+     * @throws IOException If there is an error reading the stream data.
+     */
+    void readStreamData(long offset, long length, OutputStream out) throws IOException;
+}
@@ -1,10 +1,10 @@
 package org.apache.pdfbox.filter;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.zip.DataFormatException;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
@@ -25,6 +25,13 @@ final class FlateFilter extends Filter
 {
     private static final int BUFFER_SIZE = 16348;
 
+    // size of the input and output buffers of an inflater
+    private static final int INFLATE_BUFFER_SIZE = 32768;
+
+    // inflaters hold native memory until end() is called, a few of them are kept for reuse
+    private static final int INFLATER_POOL_SIZE = 4;
+    private static final List<InflaterContext> INFLATER_POOL = new ArrayList<InflaterContext>();
+
     @Override
     public DecodeResult decode(InputStream encoded, OutputStream decoded,
                                          COSDictionary parameters, int index) throws IOException
@@ -44,13 +51,8 @@ final class FlateFilter extends Filter
                 int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
                 int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
                 int columns = decodeParams.getInt(COSName.COLUMNS, 1);
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                decompress(encoded, baos);
-                ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-                Predictor.decodePredictor(predictor, colors, bitsPerPixel, columns, bais, decoded);
-                decoded.flush();
-                baos.reset();
-                bais.reset();
+                decompress(encoded,
+                        Predictor.wrapPredictor(decoded, predictor, colors, bitsPerPixel, columns));
             }
             else
             {
@@ -72,31 +74,85 @@ final class FlateFilter extends Filter
     // missing Z_STREAM_END, see PDFBOX-1232 for details
     private static void decompress(InputStream in, OutputStream out) throws IOException, DataFormatException 
     { 
-        byte[] buf = new byte[2048]; 
-        int read = in.read(buf); 
-        if (read > 0) 
-        { 
-            Inflater inflater = new Inflater(); 
-            inflater.setInput(buf,0,read); 
-            byte[] res = new byte[2048]; 
-            while (true) 
+        InflaterContext context = acquireInflater();
+        try
+        {
+            Inflater inflater = context.inflater;
+            byte[] buf = context.input;
+            byte[] res = context.output;
+            int read = in.read(buf); 
+            if (read > 0) 
             { 
-                int resRead = inflater.inflate(res); 
-                if (resRead != 0) 
-                { 
-                    out.write(res,0,resRead); 
-                    continue; 
-                } 
-                if (inflater.finished() || inflater.needsDictionary() || in.available() == 0) 
-                {
-                    break;
-                } 
-                read = in.read(buf); 
                 inflater.setInput(buf,0,read); 
+                while (true) 
+                { 
+                    int resRead = inflater.inflate(res); 
+                    if (resRead != 0) 
+                    { 
+                        out.write(res,0,resRead); 
+                        continue; 
+                    } 
+                    if (inflater.finished() || inflater.needsDictionary() || in.available() == 0) 
+                    {
+                        break;
+                    } 
+                    read = in.read(buf); 
+                    if (read <= 0)
+                    {
+                        break;
+                    }
+                    inflater.setInput(buf,0,read); 
+                }
             }
         }
+        finally
+        {
+            releaseInflater(context);
+        }
         out.flush();
     }
+
+    /**
+     * Takes an inflater with its buffers from the pool, or creates a new one.
+     */
+    private static InflaterContext acquireInflater()
+    {
+        synchronized (INFLATER_POOL)
+        {
+            if (!INFLATER_POOL.isEmpty())
+            {
+                return INFLATER_POOL.remove(INFLATER_POOL.size() - 1);
+            }
+        }
+        return new InflaterContext();
+    }
+
+    /**
+     * Returns an inflater to the pool, or releases its native memory if the pool is full.
+     */
+    private static void releaseInflater(InflaterContext context)
+    {
+        context.inflater.reset();
+        synchronized (INFLATER_POOL)
+        {
+            if (INFLATER_POOL.size() < INFLATER_POOL_SIZE)
+            {
+                INFLATER_POOL.add(context);
+                return;
+            }
+        }
+        context.inflater.end();
+    }
+
+    /**
+     * An inflater together with its input and output buffers.
+     */
+    private static final class InflaterContext
+    {
+        final Inflater inflater = new Inflater();
+        final byte[] input = new byte[INFLATE_BUFFER_SIZE];
+        final byte[] output = new byte[INFLATE_BUFFER_SIZE];
+    }
     
     @Override
     protected void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
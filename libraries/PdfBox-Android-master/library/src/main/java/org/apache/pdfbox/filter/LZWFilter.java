@@ -15,18 +15,12 @@
  */
 package org.apache.pdfbox.filter;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
-import org.apache.javax.imageio.stream.MemoryCacheImageInputStream;
-import org.apache.javax.imageio.stream.MemoryCacheImageOutputStream;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 
@@ -51,7 +45,17 @@ public class LZWFilter extends Filter
      */
     public static final long EOD = 257;
     
-    //BEWARE: codeTable must be local to each method, because there is only
+    // size of the code table, codes are at most 12 bits long
+    private static final int TABLE_SIZE = 4096;
+
+    // first code after the single bytes, CLEAR_TABLE and EOD
+    private static final int FIRST_CODE = 258;
+
+    // size of the encoder's hash table, twice the code table to keep the probe chains short
+    private static final int HASH_BITS = 13;
+    private static final int HASH_SIZE = 1 << HASH_BITS;
+
+    //BEWARE: code tables must be local to each method, because there is only
     // one instance of each filter
 
     /**
@@ -79,13 +83,9 @@ public class LZWFilter extends Filter
             int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
             int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
             int columns = decodeParams.getInt(COSName.COLUMNS, 1);
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            doLZWDecode(encoded, baos, earlyChange);
-            ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-            Predictor.decodePredictor(predictor, colors, bitsPerPixel, columns, bais, decoded);
-            decoded.flush();
-            baos.reset();
-            bais.reset();
+            doLZWDecode(encoded,
+                    Predictor.wrapPredictor(decoded, predictor, colors, bitsPerPixel, columns),
+                    earlyChange);
         }
         else
         {
@@ -96,11 +96,24 @@ public class LZWFilter extends Filter
 
     private static void doLZWDecode(InputStream encoded, OutputStream decoded, int earlyChange) throws IOException
     {
-        List<byte[]> codeTable = new ArrayList<byte[]>();
+        // the code table as flat arrays, each entry is its prefix entry plus one suffix byte
+        int[] prefix = new int[TABLE_SIZE];
+        byte[] suffix = new byte[TABLE_SIZE];
+        int[] length = new int[TABLE_SIZE];
+        for (int i = 0; i < 256; i++)
+        {
+            prefix[i] = -1;
+            suffix[i] = (byte) i;
+            length[i] = 1;
+        }
+        int tableSize = FIRST_CODE;
+        // an entry plus one byte, the longest entry is shorter than the table
+        byte[] buffer = new byte[TABLE_SIZE + 1];
+
         int chunk = 9;
-        final MemoryCacheImageInputStream in = new MemoryCacheImageInputStream(encoded);
+        final CodeReader in = new CodeReader(encoded);
         long nextCommand;
-        long prevCommand = -1;
+        int prevCommand = -1;
 
         try
         {
@@ -109,35 +122,58 @@ public class LZWFilter extends Filter
                 if (nextCommand == CLEAR_TABLE)
                 {
                     chunk = 9;
-                    codeTable = createCodeTable();
+                    tableSize = FIRST_CODE;
                     prevCommand = -1;
                 }
                 else
                 {
-                    if (nextCommand < codeTable.size())
+                    int code = (int) nextCommand;
+                    if (prevCommand >= tableSize)
+                    {
+                        throw new IOException("Invalid LZW code " + prevCommand);
+                    }
+                    int entryCode;
+                    int len;
+                    if (code < tableSize)
+                    {
+                        entryCode = code;
+                        len = length[code];
+                    }
+                    else if (prevCommand != -1)
                     {
-                        byte[] data = codeTable.get((int) nextCommand);
-                        byte firstByte = data[0];
-                        decoded.write(data);
-                        if (prevCommand != -1)
-                        {
-                            data = codeTable.get((int) prevCommand);
-                            byte[] newData = Arrays.copyOf(data, data.length + 1);
-                            newData[data.length] = firstByte;
-                            codeTable.add(newData);
-                        }
+                        // the entry which is about to be added: previous entry plus its first byte
+                        entryCode = prevCommand;
+                        len = length[prevCommand] + 1;
                     }
                     else
                     {
-                        byte[] data = codeTable.get((int) prevCommand);
-                        byte[] newData = Arrays.copyOf(data, data.length + 1);
-                        newData[data.length] = data[0];
-                        decoded.write(newData);
-                        codeTable.add(newData);
+                        throw new IOException("Invalid LZW code " + code + " without preceding code");
+                    }
+
+                    // spell out the entry backwards from its last byte
+                    for (int i = length[entryCode] - 1, c = entryCode; i >= 0; i--)
+                    {
+                        buffer[i] = suffix[c];
+                        c = prefix[c];
+                    }
+                    byte firstByte = buffer[0];
+                    if (len > length[entryCode])
+                    {
+                        buffer[len - 1] = firstByte;
+                    }
+                    decoded.write(buffer, 0, len);
+
+                    if (prevCommand != -1 && tableSize < TABLE_SIZE)
+                    {
+                        prefix[tableSize] = prevCommand;
+                        suffix[tableSize] = firstByte;
+                        length[tableSize] = length[prevCommand] + 1;
+                        tableSize++;
                     }
-                    
-                    chunk = calculateChunk(codeTable.size(), earlyChange);
-                    prevCommand = nextCommand;
+
+                    // codes beyond a full table can't be read anyway, the chunk stays at 12 bits
+                    chunk = calculateChunk(tableSize, earlyChange);
+                    prevCommand = code;
                 }
             }
         }
@@ -155,54 +191,63 @@ public class LZWFilter extends Filter
     protected void encode(InputStream rawData, OutputStream encoded, COSDictionary parameters)
             throws IOException
     {
-        List<byte[]> codeTable = createCodeTable();
+        // the entries added to the code table, hashed by prefix code and suffix byte: a pattern
+        // which extends the current match by one byte is found without comparing any bytes
+        int[] hashKeys = new int[HASH_SIZE];
+        int[] hashCodes = new int[HASH_SIZE];
+        Arrays.fill(hashKeys, -1);
+        int tableSize = FIRST_CODE;
         int chunk = 9;
 
-        byte[] inputPattern = null;
-        final MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(encoded);
+        final CodeWriter out = new CodeWriter(encoded);
         out.writeBits(CLEAR_TABLE, chunk);
         int foundCode = -1;
-        int r;
-        while ((r = rawData.read()) != -1)
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = rawData.read(buffer)) != -1)
         {
-            byte by = (byte) r;
-            if (inputPattern == null)
-            {
-            	inputPattern = new byte[] { by };
-                foundCode = by & 0xff;
-            }
-            else
+            for (int i = 0; i < n; i++)
             {
-                inputPattern = Arrays.copyOf(inputPattern, inputPattern.length + 1);
-                inputPattern[inputPattern.length - 1] = by;
-                int newFoundCode = findPatternCode(codeTable, inputPattern);
-                if (newFoundCode == -1)
+                int by = buffer[i] & 0xff;
+                if (foundCode == -1)
+                {
+                    foundCode = by;
+                    continue;
+                }
+                int key = foundCode << 8 | by;
+                int slot = (key * 0x9E3779B1) >>> (32 - HASH_BITS);
+                while (hashKeys[slot] != -1 && hashKeys[slot] != key)
+                {
+                    slot = (slot + 1) & (HASH_SIZE - 1);
+                }
+                if (hashKeys[slot] == key)
+                {
+                    foundCode = hashCodes[slot];
+                }
+                else
                 {
                     // use previous
-                    chunk = calculateChunk(codeTable.size() - 1, 1);
+                    chunk = calculateChunk(tableSize - 1, 1);
                     out.writeBits(foundCode, chunk);
                     // create new table entry
-                    codeTable.add(inputPattern);
+                    hashKeys[slot] = key;
+                    hashCodes[slot] = tableSize++;
 
-                    if (codeTable.size() == 4096)
+                    if (tableSize == TABLE_SIZE)
                     {
                         // code table is full
                         out.writeBits(CLEAR_TABLE, chunk);
-                        codeTable = createCodeTable();
+                        Arrays.fill(hashKeys, -1);
+                        tableSize = FIRST_CODE;
                     }
 
-                    inputPattern = new byte[] { by };
-                    foundCode = by & 0xff;
-                }
-                else
-                {
-                    foundCode = newFoundCode;
+                    foundCode = by;
                 }
             }
         }
         if (foundCode != -1)
         {
-            chunk = calculateChunk(codeTable.size() - 1, 1);
+            chunk = calculateChunk(tableSize - 1, 1);
             out.writeBits(foundCode, chunk);
         }
 
@@ -211,69 +256,99 @@ public class LZWFilter extends Filter
         // possibly adjusted the chunk. Therefore, the encoder must behave as 
         // if the code table had just grown and thus it must be checked it is
         // needed to adjust the chunk, based on an increased table size parameter
-        chunk = calculateChunk(codeTable.size(), 1);
+        chunk = calculateChunk(tableSize, 1);
 
         out.writeBits(EOD, chunk);
         // pad with 0
         out.writeBits(0, 7);
 
-        // must do or file will be empty :-(
         out.flush();
-//        out.close();
     }
 
     /**
-     * Find the longest matching pattern in the code table.
-     *
-     * @param codeTable The LZW code table.
-     * @param pattern The pattern to be searched for.
-     * @return The index of the longest matching pattern or -1 if nothing is
-     * found.
+     * Unpacks codes from bytes, most significant bit first.
      */
-    private static int findPatternCode(List<byte[]> codeTable, byte[] pattern)
+    private static final class CodeReader
     {
-        int foundCode = -1;
-        int foundLen = 0;
-        for (int i = codeTable.size() - 1; i >= 0; --i)
+        private final InputStream in;
+        private final byte[] buffer = new byte[4096];
+        private int pos;
+        private int count;
+
+        // bits which have been read but not consumed yet, right aligned
+        private int bits;
+        private int bitCount;
+
+        CodeReader(InputStream in)
         {
-            if (i <= EOD)
+            this.in = in;
+        }
+
+        long readBits(int numBits) throws IOException
+        {
+            while (bitCount < numBits)
             {
-                // we're in the single byte area
-                if (foundCode != -1)
+                if (pos == count)
                 {
-                    // we already found pattern with size > 1
-                	return foundCode;
-                }
-                else if (pattern.length > 1)
-                {
-                    // we won't find anything here anyway
-                	return -1;
+                    count = in.read(buffer);
+                    pos = 0;
+                    if (count <= 0)
+                    {
+                        count = 0;
+                        throw new EOFException();
+                    }
                 }
+                bits = bits << 8 | buffer[pos++] & 0xff;
+                bitCount += 8;
             }
-            byte[] tryPattern = codeTable.get(i);
-            if ((foundCode != -1 || tryPattern.length > foundLen) && Arrays.equals(tryPattern, pattern))
-            {
-            	foundCode = i;
-            	foundLen = tryPattern.length;
-            }
+            bitCount -= numBits;
+            int code = bits >>> bitCount & ((1 << numBits) - 1);
+            bits &= (1 << bitCount) - 1;
+            return code;
         }
-        return foundCode;
     }
 
     /**
-     * Init the code table with 1 byte entries and the EOD and CLEAR_TABLE
-     * markers.
+     * Packs codes into bytes, most significant bit first. Only complete bytes are written, which
+     * is why the encoder pads the EOD code with zero bits.
      */
-    private static List<byte[]> createCodeTable()
+    private static final class CodeWriter
     {
-        List<byte[]> codeTable = new ArrayList<byte[]>(4096);
-        for (int i = 0; i < 256; ++i)
+        private final OutputStream out;
+        private final byte[] buffer = new byte[4096];
+        private int count;
+
+        // bits which don't make up a complete byte yet, right aligned
+        private int bits;
+        private int bitCount;
+
+        CodeWriter(OutputStream out)
+        {
+            this.out = out;
+        }
+
+        void writeBits(long code, int numBits) throws IOException
+        {
+            bits = bits << numBits | (int) code & ((1 << numBits) - 1);
+            bitCount += numBits;
+            while (bitCount >= 8)
+            {
+                bitCount -= 8;
+                if (count == buffer.length)
+                {
+                    out.write(buffer, 0, count);
+                    count = 0;
+                }
+                buffer[count++] = (byte) (bits >> bitCount);
+            }
+            bits &= (1 << bitCount) - 1;
+        }
+
+        void flush() throws IOException
         {
-        	codeTable.add(new byte[] { (byte) (i & 0xFF) });
+            out.write(buffer, 0, count);
+            count = 0;
         }
-        codeTable.add(null); // 256 EOD
-        codeTable.add(null); // 257 CLEAR_TABLE
-        return codeTable;
     }
 
     /**
@@ -1,11 +1,9 @@
 package org.apache.pdfbox.filter;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 
-import org.apache.pdfbox.io.IOUtils;
-
 /**
  * Helper class to contain predictor decoding used by Flate and LZW filter. 
  * To see the history, look at the FlateFilter class.
@@ -16,147 +14,237 @@ public final class Predictor
 	{
 	}
 	
-	static void decodePredictor(int predictor, int colors, int bitsPerComponent, int columns, InputStream in, OutputStream out)
-			throws IOException
+	/**
+	 * Wraps the given stream in a stage which decodes the predictor row by row while the
+	 * predicted data is written to it, so that the data never has to be buffered as a whole.
+	 * Flushing the stage writes a pending incomplete row as the last row, the stage must not
+	 * be written to afterwards.
+	 *
+	 * @param out the stream receiving the decoded rows
+	 * @param predictor the predictor, 1 means no prediction
+	 * @param colors number of color components per pixel
+	 * @param bitsPerComponent number of bits per color component
+	 * @param columns number of pixels per row
+	 * @return the stream to write the predicted data to
+	 */
+	static OutputStream wrapPredictor(OutputStream out, int predictor, int colors,
+			int bitsPerComponent, int columns)
 	{
 		if (predictor == 1)
 		{
 			// no prediction
-			IOUtils.copy(in, out);
+			return out;
 		}
-		else
+		return new PredictorOutputStream(out, predictor, colors, bitsPerComponent, columns);
+	}
+
+	/**
+	 * Decodes a single row in place.
+	 *
+	 * @param linepredictor the predictor of the row, PNG predictors are 10 to 14
+	 * @param bitsPerComponent number of bits per color component
+	 * @param bytesPerPixel number of bytes per pixel, at least 1
+	 * @param actline the row to be decoded
+	 * @param lastline the previous decoded row, all zero for the first row
+	 * @throws IOException if the predictor isn't supported
+	 */
+	private static void decodePredictorRow(int linepredictor, int bitsPerComponent,
+			int bytesPerPixel, byte[] actline, byte[] lastline) throws IOException
+	{
+		final int rowlength = actline.length;
+		// do prediction as specified in PNG-Specification 1.2
+		switch (linepredictor)
 		{
+		case 2:
+			// PRED TIFF SUB
+			// TODO decode tiff with bpc smaller 8
+			// e.g. for 4 bpc each nibble must be subtracted separately
+			if (bitsPerComponent == 16)
+			{
+				for (int p = 0; p < rowlength; p += 2)
+				{
+					int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
+					int left = p - bytesPerPixel >= 0
+							? (((actline[p - bytesPerPixel] & 0xff) << 8)
+								+ (actline[p - bytesPerPixel + 1] & 0xff))
+							: 0;
+					actline[p] = (byte) (((sub + left) >> 8) & 0xff);
+					actline[p + 1] = (byte) ((sub + left) & 0xff);
+				}
+				break;
+			}
+			if (bitsPerComponent < 8)
+			{
+				throw new IOException("TIFF-Predictor with " + bitsPerComponent
+						+ " bits per component not supported; please open JIRA issue with sample PDF");
+			}
+			// for 8 bits per component it is the same algorithm as PRED SUB of PNG format
+			for (int p = 0; p < rowlength; p++)
+			{
+				int sub = actline[p] & 0xff;
+				int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+				actline[p] = (byte) (sub + left);
+			}
+			break;
+		case 10:
+			// PRED NONE
+			// do nothing
+			break;
+		case 11:
+			// PRED SUB
+			for (int p = 0; p < rowlength; p++)
+			{
+				int sub = actline[p];
+				int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] : 0;
+				actline[p] = (byte) (sub + left);
+			}
+			break;
+		case 12:
+			// PRED UP
+			for (int p = 0; p < rowlength; p++)
+			{
+				int up = actline[p] & 0xff;
+				int prior = lastline[p] & 0xff;
+				actline[p] = (byte) ((up + prior) & 0xff);
+			}
+			break;
+		case 13:
+			// PRED AVG
+			for (int p = 0; p < rowlength; p++)
+			{
+				int avg = actline[p] & 0xff;
+				int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+				int up = lastline[p] & 0xff;
+				actline[p] = (byte) ((avg + ((left + up) / 2)) & 0xff);
+			}
+			break;
+		case 14:
+			// PRED PAETH
+			for (int p = 0; p < rowlength; p++)
+			{
+				int paeth = actline[p] & 0xff;
+				int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
+				int b = lastline[p] & 0xff;// upper
+				int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
+				int value = a + b - c;
+				int absa = Math.abs(value - a);
+				int absb = Math.abs(value - b);
+				int absc = Math.abs(value - c);
+
+				if (absa <= absb && absa <= absc)
+				{
+					actline[p] = (byte) ((paeth + a) & 0xff);
+				}
+				else if (absb <= absc)
+				{
+					actline[p] = (byte) ((paeth + b) & 0xff);
+				}
+				else
+				{
+					actline[p] = (byte) ((paeth + c) & 0xff);
+				}
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Output stream stage which collects the predicted data into rows and decodes them.
+	 */
+	private static final class PredictorOutputStream extends FilterOutputStream
+	{
+		private final boolean isPNG;
+		private final int predictor;
+		private final int bitsPerComponent;
+		private final int bytesPerPixel;
+		private final byte[] actline;
+		private final byte[] lastline;
+		// scratch buffer of write(int)
+		private final byte[] singleByte = new byte[1];
+
+		// predictor of the current row, and the number of its bytes received so far
+		private int linepredictor;
+		private boolean rowStarted;
+		private int offset;
+
+		PredictorOutputStream(OutputStream out, int predictor, int colors,
+				int bitsPerComponent, int columns)
+		{
+			super(out);
+			// test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
+			this.isPNG = predictor >= 10;
+			this.predictor = predictor;
+			this.bitsPerComponent = bitsPerComponent;
 			// calculate sizes
 			final int bitsPerPixel = colors * bitsPerComponent;
-			final int bytesPerPixel = (bitsPerPixel + 7) / 8;
+			this.bytesPerPixel = (bitsPerPixel + 7) / 8;
 			final int rowlength = (columns * bitsPerPixel + 7) / 8;
-			byte[] actline = new byte[rowlength];
-			byte[] lastline = new byte[rowlength];
+			actline = new byte[rowlength];
+			lastline = new byte[rowlength];
+			linepredictor = predictor;
+		}
 
-			int linepredictor = predictor;
+		@Override
+		public void write(int b) throws IOException
+		{
+			singleByte[0] = (byte) b;
+			write(singleByte, 0, 1);
+		}
 
-			while (in.available() > 0)
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			while (len > 0)
 			{
-				// test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
-				if (predictor >= 10)
+				if (!rowStarted)
 				{
-					// PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
-					// read per line predictor
-					linepredictor = in.read();
-					if (linepredictor == -1)
+					rowStarted = true;
+					if (isPNG)
 					{
-						return;
+						// PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
+						// add 10 to tread value 0 as 10, 1 as 11, ...
+						linepredictor = (b[off] & 0xff) + 10;
+						off++;
+						len--;
+						continue;
 					}
-					// add 10 to tread value 0 as 10, 1 as 11, ...
-					linepredictor += 10;
 				}
-
-				// read line
-				int i, offset = 0;
-				while (offset < rowlength && ((i = in.read(actline, offset, rowlength - offset)) != -1))
+				int n = Math.min(len, actline.length - offset);
+				System.arraycopy(b, off, actline, offset, n);
+				offset += n;
+				off += n;
+				len -= n;
+				if (offset == actline.length)
 				{
-					offset += i;
+					writeRow();
 				}
+			}
+		}
 
-				// do prediction as specified in PNG-Specification 1.2
-				switch (linepredictor)
-				{
-				case 2:
-					// PRED TIFF SUB
-					// TODO decode tiff with bpc smaller 8
-					// e.g. for 4 bpc each nibble must be subtracted separately
-					if (bitsPerComponent == 16)
-					{
-						for (int p = 0; p < rowlength; p += 2)
-						{
-							int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
-							int left = p - bytesPerPixel >= 0
-									? (((actline[p - bytesPerPixel] & 0xff) << 8)
-											+ (actline[p - bytesPerPixel + 1] & 0xff))
-											: 0;
-									actline[p] = (byte) (((sub + left) >> 8) & 0xff);
-									actline[p + 1] = (byte) ((sub + left) & 0xff);
-						}
-						break;
-					}
-					if (bitsPerComponent < 8)
-					{
-						throw new IOException("TIFF-Predictor with " + bitsPerComponent
-								+ " bits per component not supported; please open JIRA issue with sample PDF");
-					}
-					// for 8 bits per component it is the same algorithm as PRED SUB of PNG format
-					for (int p = 0; p < rowlength; p++)
-					{
-						int sub = actline[p] & 0xff;
-						int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-						actline[p] = (byte) (sub + left);
-					}
-					break;
-				case 10:
-					// PRED NONE
-					// do nothing
-					break;
-				case 11:
-					// PRED SUB
-					for (int p = 0; p < rowlength; p++)
-					{
-						int sub = actline[p];
-						int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] : 0;
-						actline[p] = (byte) (sub + left);
-					}
-					break;
-				case 12:
-					// PRED UP
-					for (int p = 0; p < rowlength; p++)
-					{
-						int up = actline[p] & 0xff;
-						int prior = lastline[p] & 0xff;
-						actline[p] = (byte) ((up + prior) & 0xff);
-					}
-					break;
-				case 13:
-					// PRED AVG
-					for (int p = 0; p < rowlength; p++)
-					{
-						int avg = actline[p] & 0xff;
-						int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-						int up = lastline[p] & 0xff;
-						actline[p] = (byte) ((avg + ((left + up) / 2)) & 0xff);
-					}
-					break;
-				case 14:
-					// PRED PAETH
-					for (int p = 0; p < rowlength; p++)
-					{
-						int paeth = actline[p] & 0xff;
-						int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
-						int b = lastline[p] & 0xff;// upper
-						int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
-						int value = a + b - c;
-						int absa = Math.abs(value - a);
-						int absb = Math.abs(value - b);
-						int absc = Math.abs(value - c);
-
-						if (absa <= absb && absa <= absc)
-						{
-							actline[p] = (byte) ((paeth + a) & 0xff);
-						}
-						else if (absb <= absc)
-						{
-							actline[p] = (byte) ((paeth + b) & 0xff);
-						}
-						else
-						{
-							actline[p] = (byte) ((paeth + c) & 0xff);
-						}
-					}
-					break;
-				default:
-					break;
-				}
-				System.arraycopy(actline, 0, lastline, 0, rowlength);
-				out.write(actline);
+		/**
+		 * Writes the pending incomplete row, the rest of which still holds the previous row,
+		 * and flushes the underlying stream.
+		 */
+		@Override
+		public void flush() throws IOException
+		{
+			if (rowStarted)
+			{
+				writeRow();
 			}
+			super.flush();
+		}
+
+		private void writeRow() throws IOException
+		{
+			decodePredictorRow(linepredictor, bitsPerComponent, bytesPerPixel, actline, lastline);
+			System.arraycopy(actline, 0, lastline, 0, actline.length);
+			out.write(actline);
+			rowStarted = false;
+			offset = 0;
+			linepredictor = predictor;
 		}
 	}
 
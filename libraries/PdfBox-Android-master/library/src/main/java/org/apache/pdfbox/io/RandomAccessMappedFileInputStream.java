@@ -0,0 +1,187 @@
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Provides {@link InputStream} access to a file which is memory mapped. Start of next
+ * bytes to read can be set via seek method.
+ *
+ * In contrast to {@link RandomAccessBufferedFileInputStream} no pages are copied into
+ * the heap; seeking only moves the read position and bytes are read straight from the
+ * mapping. The file is mapped in windows of fixed size, which are created on first
+ * access, so that files larger than 2 GB can be read as well.
+ */
+public class RandomAccessMappedFileInputStream
+extends InputStream implements RandomAccessRead
+{
+    /** Default size of a mapped window (64 MB). */
+    private static final int DEFAULT_WINDOW_SHIFT = 26;
+
+    private final int windowShift;
+    private final long windowSize;
+
+    private final MappedByteBuffer[] windows;
+    private MappedByteBuffer curWindow;
+    private int curWindowIndex = -1;
+
+    private final RandomAccessFile raFile;
+    private final FileChannel channel;
+    private final long fileLength;
+    private long fileOffset = 0;
+    private boolean isClosed;
+
+    /** Create input stream instance for given file. */
+    public RandomAccessMappedFileInputStream( File file ) throws IOException
+    {
+        this( file, DEFAULT_WINDOW_SHIFT );
+    }
+
+    /**
+     * Create input stream instance for given file.
+     *
+     * @param file the file to be mapped
+     * @param windowShift the size of a mapped window as a power of two, between 12 and 30
+     *
+     * @throws IOException if the file can't be opened
+     */
+    public RandomAccessMappedFileInputStream( File file, int windowShift ) throws IOException
+    {
+        if ( windowShift < 12 || windowShift > 30 )
+        {
+            throw new IllegalArgumentException( "Window shift out of range: " + windowShift );
+        }
+        this.windowShift = windowShift;
+        windowSize = 1L << windowShift;
+
+        raFile = new RandomAccessFile( file, "r" );
+        channel = raFile.getChannel();
+        fileLength = channel.size();
+        windows = new MappedByteBuffer[(int) ( ( fileLength + windowSize - 1 ) >> windowShift )];
+    }
+
+    /** Returns offset in file at which next byte would be read. */
+    @Override
+    public long getPosition()
+    {
+        return fileOffset;
+    }
+
+    /**
+     * Seeks to new position. No data is read, the window containing the new
+     * position is mapped with the next read operation.
+     */
+    @Override
+    public void seek( final long newOffset ) throws IOException
+    {
+        if ( isClosed )
+        {
+            throw new IOException( "RandomAccessMappedFileInputStream already closed" );
+        }
+        fileOffset = newOffset;
+    }
+
+    /**
+     * Makes the window containing the current file offset the current window
+     * and returns the offset within this window.
+     */
+    private int selectWindow() throws IOException
+    {
+        final int index = (int) ( fileOffset >> windowShift );
+        if ( index != curWindowIndex )
+        {
+            MappedByteBuffer window = windows[index];
+            if ( window == null )
+            {
+                long windowStart = (long) index << windowShift;
+                window = channel.map( FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min( windowSize, fileLength - windowStart ) );
+                windows[index] = window;
+            }
+            curWindow = window;
+            curWindowIndex = index;
+        }
+        return (int) ( fileOffset & ( windowSize - 1 ) );
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if ( fileOffset >= fileLength || fileOffset < 0 )
+        {
+            return -1;
+        }
+        int offsetWithinWindow = selectWindow();
+        fileOffset++;
+        return curWindow.get( offsetWithinWindow ) & 0xff;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException
+    {
+        if ( fileOffset >= fileLength || fileOffset < 0 )
+        {
+            return -1;
+        }
+        if ( len == 0 )
+        {
+            return 0;
+        }
+        int offsetWithinWindow = selectWindow();
+        int commonLen = Math.min( len, curWindow.limit() - offsetWithinWindow );
+
+        curWindow.position( offsetWithinWindow );
+        curWindow.get( b, off, commonLen );
+
+        fileOffset += commonLen;
+        return commonLen;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return (int) Math.max( 0, Math.min( fileLength - fileOffset, Integer.MAX_VALUE ) );
+    }
+
+    @Override
+    public long skip( long n ) throws IOException
+    {
+        // test if we have to reduce skip count because of EOF
+        long toSkip = Math.max( 0, Math.min( n, fileLength - fileOffset ) );
+        fileOffset += toSkip;
+        return toSkip;
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        return fileLength;
+    }
+
+    /**
+     * Closes the underlying file. The mapped windows are released by the garbage
+     * collector once they are no longer referenced.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        raFile.close();
+        for ( int i = 0; i < windows.length; i++ )
+        {
+            windows[i] = null;
+        }
+        curWindow = null;
+        curWindowIndex = -1;
+        isClosed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed;
+    }
+}
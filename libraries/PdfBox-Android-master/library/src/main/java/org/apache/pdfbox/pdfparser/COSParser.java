@@ -30,6 +30,7 @@ import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSObjectKey;
 import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.ICOSParser;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdfparser.XrefTrailerResolver.XRefType;
 import org.apache.pdfbox.pdmodel.encryption.SecurityHandler;
@@ -46,7 +47,7 @@ import android.util.Log;
  * This class is a much enhanced version of <code>QuickParser</code> presented in <a
  * href="https://issues.apache.org/jira/browse/PDFBOX-1104">PDFBOX-1104</a> by Jeremy Villalobos.
  */
-public class COSParser extends BaseParser
+public class COSParser extends BaseParser implements ICOSParser
 {
 	private static final String PDF_HEADER = "%PDF-";
 	private static final String FDF_HEADER = "%FDF-";
@@ -63,7 +64,10 @@ public class COSParser extends BaseParser
 	private static final int X = 'x';
 
 	/**
-	 * Only parse the PDF file minimally allowing access to basic information.
+	 * Only parse the PDF file minimally allowing access to basic information, all other
+	 * objects are parsed when they are accessed for the first time.
+	 * 
+	 * @see #setLazyLoading(boolean)
 	 */
 	public static final String SYSPROP_PARSEMINIMAL = 
 			"org.apache.pdfbox.pdfparser.nonSequentialPDFParser.parseMinimal";
@@ -121,11 +125,11 @@ public class COSParser extends BaseParser
 	private int readTrailBytes = DEFAULT_TRAIL_BYTECOUNT;
 
 	/**
-	 * If <code>true</code> object references in catalog are not followed; pro: page objects will be only parsed when
-	 * needed; cons: some information of catalog might not be available (e.g. outline). Catalog parsing without pages is
-	 * not an option since a number of entries will also refer to page objects (like OpenAction).
+	 * If <code>true</code> object references in catalog are not followed, objects are parsed when they are accessed
+	 * for the first time and stream data is only copied from the source when it is read; pro: page objects and streams
+	 * of pages which aren't used are never parsed; cons: the source is kept open until the document is closed.
 	 */
-	private final boolean parseMinimalCatalog = "true".equals(System.getProperty(SYSPROP_PARSEMINIMAL));
+	private boolean lazyLoading = "true".equals(System.getProperty(SYSPROP_PARSEMINIMAL));
 	
 	/**
 	 * Collects all Xref/trailer objects and resolves them into single
@@ -450,6 +454,72 @@ public class COSParser extends BaseParser
 		this.isLenient = lenient;
 	}
 
+	/**
+	 * Return true if the objects of the document are parsed when they are accessed for the first time.
+	 *
+	 * @return true if the document is loaded lazily
+	 */
+	public boolean isLazyLoading()
+	{
+		return lazyLoading;
+	}
+
+	/**
+	 * Change the lazy loading flag. By default it is set by the system property {@link #SYSPROP_PARSEMINIMAL}.
+	 * A lazily loaded document reads from its source until it is closed.
+	 *
+	 * This method can only be called before the parsing of the file.
+	 *
+	 * @param lazy parse objects when they are accessed for the first time.
+	 */
+	public void setLazyLoading(boolean lazy)
+	{
+		if (initialParseDone)
+		{
+			throw new IllegalArgumentException("Cannot change lazy loading after parsing");
+		}
+		this.lazyLoading = lazy;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized COSBase dereferenceCOSObject(COSObject obj) throws IOException
+	{
+		return parseObjectDynamically(obj, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void readStreamData(long offset, long length, OutputStream out) throws IOException
+	{
+		final long curFileOffset = pdfSource.getOffset();
+		try
+		{
+			pdfSource.seek(offset);
+			long remainBytes = length;
+			while (remainBytes > 0)
+			{
+				final int readBytes = pdfSource.read(streamCopyBuf, 0,
+						(remainBytes > STREAMCOPYBUFLEN) ? STREAMCOPYBUFLEN : (int) remainBytes);
+				if (readBytes <= 0)
+				{
+					throw new IOException("Stream data at offset " + offset + " ends after "
+							+ (length - remainBytes) + " of " + length + " bytes");
+				}
+				out.write(streamCopyBuf, 0, readBytes);
+				remainBytes -= readBytes;
+			}
+		}
+		finally
+		{
+			pdfSource.seek(curFileOffset);
+		}
+	}
+
 	/**
 	 * Creates a unique object id using object number and object generation
 	 * number. (requires object number &lt; 2^31))
@@ -655,7 +725,7 @@ public class COSParser extends BaseParser
 		final COSObjectKey objKey = new COSObjectKey(objNr, objGenNr);
 		final COSObject pdfObject = document.getObjectFromPool(objKey);
 
-		if (pdfObject.getObject() == null)
+		if (pdfObject.isObjectNull())
 		{
 			// not previously parsed
 			// ---- read offset or object stream object number from xref table
@@ -824,7 +894,7 @@ public class COSParser extends BaseParser
 			else if (lengthBaseObj instanceof COSObject)
 			{
 				COSObject lengthObj = (COSObject) lengthBaseObj;
-				if (lengthObj.getObject() == null)
+				if (lengthObj.isObjectNull())
 				{
 					// not read so far, keep current stream position
 					final long curFileOffset = pdfSource.getOffset();
@@ -932,8 +1002,19 @@ public class COSParser extends BaseParser
 			// get output stream to copy data to
 			if (streamLengthObj != null && validateStreamLength(streamLengthObj.longValue()))
 			{
-				out = stream.createFilteredStream(streamLengthObj);
 				long remainBytes = streamLengthObj.longValue();
+				if (lazyLoading && securityHandler == null)
+				{
+					// keep the location of the data only, it is copied when the stream is read
+					long streamOffset = pdfSource.getOffset();
+					stream.setFilteredSource(this, streamOffset, streamLengthObj);
+					pdfSource.seek(streamOffset + remainBytes);
+					remainBytes = 0;
+				}
+				else
+				{
+					out = stream.createFilteredStream(streamLengthObj);
+				}
 				int bytesRead = 0;
 				while (remainBytes > 0)
 				{
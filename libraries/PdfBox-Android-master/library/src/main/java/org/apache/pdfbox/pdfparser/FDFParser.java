@@ -83,6 +83,8 @@ public class FDFParser extends COSParser
             			+ " does not contain an integer value, but: '" + eofLookupRangeStr + "'");
             }
         }
+        // the source is closed after parsing, so everything has to be loaded up front
+        setLazyLoading(false);
         document = new COSDocument(false);
         pdfSource = new PushBackInputStream(raStream, 4096);
     }
@@ -15,6 +15,7 @@ import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.PushBackInputStream;
 import org.apache.pdfbox.io.RandomAccessBufferedFileInputStream;
+import org.apache.pdfbox.io.RandomAccessMappedFileInputStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
 import org.apache.pdfbox.pdmodel.encryption.DecryptionMaterial;
@@ -26,7 +27,7 @@ import android.util.Log;
 
 public class PDFParser extends COSParser
 {
-    private final RandomAccessBufferedFileInputStream raStream;
+    private final InputStream raStream;
     private String password = "";
     private InputStream keyStoreInputStream = null;
     private String keyAlias = null;
@@ -146,10 +147,35 @@ public class PDFParser extends COSParser
      */
     public PDFParser(File file, String decryptionPassword, InputStream keyStore, String alias,
             boolean useScratchFiles) throws IOException
+    {
+        this(file, decryptionPassword, keyStore, alias, useScratchFiles, false);
+    }
+
+    /**
+     * Constructs parser for given file using given buffer for temporary storage.
+     * 
+     * @param file the pdf to be parsed.
+     * @param decryptionPassword password to be used for decryption.
+     * @param keyStore key store to be used for decryption when using public key security 
+     * @param alias alias to be used for decryption when using public key security
+     * @param useScratchFiles use a buffer for temporary storage.
+     * @param useMemoryMapping read the file through a memory mapping instead of a page cache.
+     * 
+     * @throws IOException If something went wrong.
+     */
+    public PDFParser(File file, String decryptionPassword, InputStream keyStore, String alias,
+            boolean useScratchFiles, boolean useMemoryMapping) throws IOException
     {
         super(EMPTY_INPUT_STREAM);
         fileLen = file.length();
-        raStream = new RandomAccessBufferedFileInputStream(file);
+        if (useMemoryMapping)
+        {
+            raStream = new RandomAccessMappedFileInputStream(file);
+        }
+        else
+        {
+            raStream = new RandomAccessBufferedFileInputStream(file);
+        }
         password = decryptionPassword;
         keyStoreInputStream = keyStore;
         keyAlias = alias;
@@ -282,7 +308,8 @@ public class PDFParser extends COSParser
     /**
      * The initial parse will first parse only the trailer, the xrefstart and all xref tables to have a pointer (offset)
      * to all the pdf's objects. It can handle linearized pdfs, which will have an xref at the end pointing to an xref
-     * at the beginning of the file. Last the root object is parsed.
+     * at the beginning of the file. Last the root object is parsed, and unless the document is loaded lazily all
+     * objects referenced by it.
      * 
      * @throws IOException If something went wrong.
      */
@@ -322,10 +349,19 @@ public class PDFParser extends COSParser
     
         parseObjectDynamically(root, false);
     
+        if (isLazyLoading())
+        {
+            // all other objects are parsed when they are accessed for the first time
+            document.setParser(this);
+        }
+    
         COSObject catalogObj = document.getCatalog();
         if (catalogObj != null && catalogObj.getObject() instanceof COSDictionary)
         {
-            parseDictObjects((COSDictionary) catalogObj.getObject(), (COSName[]) null);
+            if (!isLazyLoading())
+            {
+                parseDictObjects((COSDictionary) catalogObj.getObject(), (COSName[]) null);
+            }
             document.setDecrypted();
         }
         initialParseDone = true;
@@ -358,10 +394,18 @@ public class PDFParser extends COSParser
         }
         finally
         {
-            IOUtils.closeQuietly(pdfSource);
+            // a lazily loaded document reads from the source until it is closed
+            boolean keepSource = !exceptionOccurred && isLazyLoading();
+            if (!keepSource)
+            {
+                IOUtils.closeQuietly(pdfSource);
+            }
             IOUtils.closeQuietly(keyStoreInputStream);
     
-            deleteTempFile();
+            if (!keepSource)
+            {
+                deleteTempFile();
+            }
     
             if (exceptionOccurred && document != null)
             {
@@ -377,6 +421,24 @@ public class PDFParser extends COSParser
         }
     }
 
+    /**
+     * Closes the source and removes the temporary file, if any.
+     *
+     * @throws IOException If there is an error closing the source.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            super.close();
+        }
+        finally
+        {
+            deleteTempFile();
+        }
+    }
+
     /**
      * Remove the temporary file. A temporary file is created if this class is instantiated with an InputStream
      */
@@ -395,6 +457,7 @@ public class PDFParser extends COSParser
             {
             	Log.w("PdfBoxAndroid", "Temporary file '" + tempPDFFile.getName() + "' can't be deleted", e);
             }
+            tempPDFFile = null;
         }
     }
 
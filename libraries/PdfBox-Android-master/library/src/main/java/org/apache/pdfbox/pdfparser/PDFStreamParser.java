@@ -9,22 +9,35 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.apache.pdfbox.contentstream.operator.OperandStack;
 import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSBoolean;
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSNull;
 import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
 import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.PushBackInputStream;
+import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.util.Charsets;
 
 import android.util.Log;
 
 /**
  * This will parse a PDF byte stream and extract operands and such.
  *
+ * The decoded stream is held in a byte array. Operators, numbers, names, arrays and simple
+ * strings are scanned from the array directly, the rarer tokens are parsed by the methods of
+ * {@link BaseParser}, which read the same array through {@link #pdfSource}.
+ *
  * @author Ben Litchfield
  */
 public class PDFStreamParser extends BaseParser
@@ -34,6 +47,24 @@ public class PDFStreamParser extends BaseParser
 	private static final int    MAX_BIN_CHAR_TEST_LENGTH = 10;
 	private final byte[] binCharTestArr = new byte[MAX_BIN_CHAR_TEST_LENGTH];
 
+	private static final int PUSHBACK_SIZE = 4096;
+
+	// the longest integer which can't overflow a long
+	private static final int MAX_LONG_DIGITS = 18;
+
+	private static final int NOT_DECIMAL = -2;
+
+	// the powers of ten which are exact floats
+	private static final float[] POWERS_OF_TEN = { 1f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f,
+		1e7f, 1e8f, 1e9f, 1e10f };
+
+	// the digits of the number parsed last by parseDecimal
+	private long decimalMantissa;
+
+	private final ContentSource source;
+	private final byte[] data;
+	private final int length;
+
 	/**
 	 * Constructor that takes a stream to parse.
 	 *
@@ -42,7 +73,34 @@ public class PDFStreamParser extends BaseParser
 	 */
 	public PDFStreamParser(InputStream stream) throws IOException 
 	{
-		super(stream);
+		this(readStream(stream));
+	}
+
+	/**
+	 * Constructor that takes the bytes to parse.
+	 *
+	 * @param bytes The bytes of the stream.
+	 * @throws IOException If there is an error initializing the parser.
+	 */
+	public PDFStreamParser(byte[] bytes) throws IOException
+	{
+		super();
+		source = new ContentSource(bytes);
+		data = bytes;
+		length = bytes.length;
+		pdfSource = new PushBackInputStream(source, PUSHBACK_SIZE);
+	}
+
+	private static byte[] readStream(InputStream stream) throws IOException
+	{
+		try
+		{
+			return IOUtils.toByteArray(stream);
+		}
+		finally
+		{
+			stream.close();
+		}
 	}
 
 	/**
@@ -159,6 +217,119 @@ public class PDFStreamParser extends BaseParser
 				};
 	}
 
+	/**
+	 * Parses the operands up to the next operator and adds them to the given stack. Numbers
+	 * are added as primitives.
+	 *
+	 * @param operands the stack receiving the operands
+	 * @return the operator following the operands, or null if there are no more operators
+	 * @throws IOException If an io error occurs while parsing the stream.
+	 */
+	public Operator parseOperands( OperandStack operands ) throws IOException
+	{
+		while( true )
+		{
+			skipBlanks();
+			int pos = source.position;
+			if( pos < length && isNumberStart( data[pos] ) )
+			{
+				int end = scanNumber();
+				pushNumber( operands, pos, end );
+				continue;
+			}
+			Object token = parseNextToken();
+			if( token == null || token instanceof Operator )
+			{
+				return (Operator)token;
+			}
+			if( token instanceof COSObject )
+			{
+				operands.push( ((COSObject)token).getObject() );
+			}
+			else
+			{
+				operands.push( (COSBase)token );
+			}
+		}
+	}
+
+	private static boolean isNumberStart( byte b )
+	{
+		return isDigit( b ) || b == '-' || b == '+' || b == '.';
+	}
+
+	/**
+	 * Adds the number scanned from the given range to the stack. Integers which fit into an
+	 * int and reals which can be computed exactly in float arithmetic are added as
+	 * primitives, all other numbers are added as objects.
+	 */
+	private void pushNumber( OperandStack operands, int start, int end ) throws IOException
+	{
+		int fractionDigits = parseDecimal( start, end );
+		long mantissa = decimalMantissa;
+		if( fractionDigits == -1 && mantissa >= Integer.MIN_VALUE && mantissa <= Integer.MAX_VALUE )
+		{
+			operands.pushInteger( (int)mantissa );
+		}
+		else if( fractionDigits >= 0 && fractionDigits < POWERS_OF_TEN.length &&
+				Math.abs( mantissa ) < 1 << 24 )
+		{
+			operands.pushReal( toFloat( mantissa, fractionDigits ), data, start, end - start );
+		}
+		else
+		{
+			operands.push( toNumber( start, end ) );
+		}
+	}
+
+	/**
+	 * Parses a plain decimal number of at most {@link #MAX_LONG_DIGITS} digits. The digits
+	 * are stored in {@link #decimalMantissa}.
+	 *
+	 * @return the number of fraction digits, -1 for an integer, or {@link #NOT_DECIMAL} if the
+	 * range contains something else
+	 */
+	private int parseDecimal( int start, int end )
+	{
+		boolean negative = data[start] == '-';
+		int pos = negative || data[start] == '+' ? start + 1 : start;
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for( ; pos < end; pos++ )
+		{
+			byte b = data[pos];
+			if( b == '.' && fractionDigits == -1 )
+			{
+				fractionDigits = 0;
+				continue;
+			}
+			if( !isDigit( b ) || digits == MAX_LONG_DIGITS )
+			{
+				return NOT_DECIMAL;
+			}
+			mantissa = mantissa * 10 + (b - '0');
+			digits++;
+			if( fractionDigits >= 0 )
+			{
+				fractionDigits++;
+			}
+		}
+		if( digits == 0 )
+		{
+			return NOT_DECIMAL;
+		}
+		decimalMantissa = negative ? -mantissa : mantissa;
+		return fractionDigits;
+	}
+
+	// the mantissa is below 2^24, so both values are exact floats and the quotient is correctly rounded
+	private static float toFloat( long mantissa, int fractionDigits )
+	{
+		float value = Math.abs( mantissa ) / POWERS_OF_TEN[fractionDigits];
+		return mantissa < 0 ? -value : value;
+	}
+
 	/**
 	 * This will parse the next token in the stream.
 	 *
@@ -170,27 +341,20 @@ public class PDFStreamParser extends BaseParser
 	{
 		Object retval;
 
-		skipSpaces();
-		int nextByte = pdfSource.peek();
-		if( ((byte)nextByte) == -1 )
+		skipBlanks();
+		int pos = source.position;
+		// a 0xff byte ends the stream as well
+		if( pos >= length || data[pos] == -1 )
 		{
 			return null;
 		}
-		char c = (char)nextByte;
+		char c = (char)data[pos];
 		switch(c)
 		{
 		case '<':
 		{
-			//pull off first left bracket
-			int leftBracket = pdfSource.read();
-			
 			//check for second left bracket
-			c = (char)pdfSource.peek();
-			
-			//put back first bracket
-			pdfSource.unread(leftBracket);
-			
-			if(c == '<')
+			if( pos + 1 < length && data[pos + 1] == '<' )
 			{
 				COSDictionary pod = parseCOSDictionary();
 				skipSpaces();
@@ -202,70 +366,70 @@ public class PDFStreamParser extends BaseParser
 				{
 					retval = pod;
 				}
+				syncPosition();
 			}
 			else
 			{
-				retval = parseCOSString();
+				retval = scanHexString();
 			}
 			break;
 		}
 		case '[':
 		{
 			// array
-			retval = parseCOSArray();
+			retval = scanArray();
 			break;
 		}
 		case '(':
 			// string
-			retval = parseCOSString();
+			retval = scanString();
 			break;
 		case '/':
 			// name
-			retval = parseCOSName();
+			retval = scanName();
 			break;
 		case 'n':
 		{
 			// null
-			String nullString = readString();
-			if( nullString.equals( "null") )
+			int wordLength = scanWord();
+			if( isWord( pos, wordLength, "null" ) )
 			{
 				retval = COSNull.NULL;
 			}
 			else
 			{
-				retval = Operator.getOperator(nullString);
+				retval = Operator.getOperator( data, pos, wordLength );
 			}
 			break;
 		}
 		case 't':
 		case 'f':
 		{
-			String next = readString();
-			if( next.equals( "true" ) )
+			int wordLength = scanWord();
+			if( isWord( pos, wordLength, "true" ) )
 			{
 				retval = COSBoolean.TRUE;
-				break;
 			}
-			else if( next.equals( "false" ) )
+			else if( isWord( pos, wordLength, "false" ) )
 			{
 				retval = COSBoolean.FALSE;
 			}
 			else
 			{
-				retval = Operator.getOperator(next);
+				retval = Operator.getOperator( data, pos, wordLength );
 			}
 			break;
 		}
 		case 'R':
 		{
-			String line = readString();
-			if( line.equals( "R" ) )
+			int wordLength = scanWord();
+			if( wordLength == 1 )
 			{
 				retval = new COSObject( null );
 			}
 			else
 			{
-				retval = Operator.getOperator(line);
+				retval = Operator.getOperator( data, pos, wordLength );
 			}
 			break;
 		}
@@ -283,31 +447,15 @@ public class PDFStreamParser extends BaseParser
 		case '+':
 		case '.':
 		{
-			/* We will be filling buf with the rest of the number.  Only
-			 * allow 1 "." and "-" and "+" at start of number. */
-			StringBuffer buf = new StringBuffer();
-			buf.append( c );
-			pdfSource.read();
-
-			boolean dotNotRead = c != '.';
-			while( Character.isDigit(c = (char)pdfSource.peek()) || dotNotRead && c == '.')
-			{
-				buf.append( c );
-				pdfSource.read();
-
-				if (dotNotRead && c == '.')
-				{
-					dotNotRead = false;
-				}
-			}
-			retval = COSNumber.get( buf.toString() );
+			int end = scanNumber();
+			retval = toNumber( pos, end );
 			break;
 		}
 		case 'B':
 		{
-			String next = readString();
-			retval = Operator.getOperator(next);
-			if( next.equals( "BI" ) )
+			int wordLength = scanWord();
+			retval = Operator.getOperator( data, pos, wordLength );
+			if( isWord( pos, wordLength, "BI" ) )
 			{
 				Operator beginImageOP = (Operator)retval;
 				COSDictionary imageParams = new COSDictionary();
@@ -326,45 +474,15 @@ public class PDFStreamParser extends BaseParser
 		}
 		case 'I':
 		{
-			//Special case for ID operator
-			String id = "" + (char)pdfSource.read() + (char)pdfSource.read();
-			if( !id.equals( "ID" ) )
-			{
-				throw new IOException( "Error: Expected operator 'ID' actual='" + id + "'" );
-			}
-			ByteArrayOutputStream imageData = new ByteArrayOutputStream();
-			if( isWhitespace() )
-			{
-				//pull off the whitespace character
-				pdfSource.read();
-			}
-			int lastByte = pdfSource.read();
-			int currentByte = pdfSource.read();
-			// PDF spec is kinda unclear about this. Should a whitespace
-			// always appear before EI? Not sure, so that we just read
-			// until EI<whitespace>.
-			// Be aware not all kind of whitespaces are allowed here. see PDFBOX-1561
-			while( !(lastByte == 'E' &&
-					currentByte == 'I' &&
-					hasNextSpaceOrReturn() &&
-					hasNoFollowingBinData( pdfSource )) &&
-					!pdfSource.isEOF() )
-			{
-				imageData.write( lastByte );
-				lastByte = currentByte;
-				currentByte = pdfSource.read();
-			}
-			// the EI operator isn't unread, as it won't be processed anyway
-			retval = Operator.getOperator("ID");
-			// save the image data to the operator, so that it can be accessed later
-			((Operator)retval).setImageData( imageData.toByteArray() );
+			retval = parseInlineImageData();
+			syncPosition();
 			break;
 		}
 		case ']':
 		{
 			// some ']' around without its previous '['
 			// this means a PDF is somewhat corrupt but we will continue to parse.
-			pdfSource.read();
+			source.position++;
 			
 			// must be a better solution than null...
 			retval = COSNull.NULL;
@@ -373,18 +491,459 @@ public class PDFStreamParser extends BaseParser
 		default:
 		{
 			//we must be an operator
-			String operator = readOperator();
-			if( operator.trim().length() == 0 )
+			int operatorLength = scanOperator();
+			if( isBlank( pos, operatorLength ) )
 			{
 				//we have a corrupt stream, stop reading here
 				retval = null;
 			}
 			else
 			{
-				retval = Operator.getOperator(operator);
+				retval = Operator.getOperator( data, pos, operatorLength );
+			}
+		}
+		}
+		return retval;
+	}
+
+	/**
+	 * Parses the data of an inline image, i.e. the ID operator and the bytes up to EI.
+	 */
+	private Operator parseInlineImageData() throws IOException
+	{
+		//Special case for ID operator
+		String id = "" + (char)pdfSource.read() + (char)pdfSource.read();
+		if( !id.equals( "ID" ) )
+		{
+			throw new IOException( "Error: Expected operator 'ID' actual='" + id + "'" );
+		}
+		ByteArrayOutputStream imageData = new ByteArrayOutputStream();
+		if( isWhitespace() )
+		{
+			//pull off the whitespace character
+			pdfSource.read();
+		}
+		int lastByte = pdfSource.read();
+		int currentByte = pdfSource.read();
+		// PDF spec is kinda unclear about this. Should a whitespace
+		// always appear before EI? Not sure, so that we just read
+		// until EI<whitespace>.
+		// Be aware not all kind of whitespaces are allowed here. see PDFBOX-1561
+		while( !(lastByte == 'E' &&
+				currentByte == 'I' &&
+				hasNextSpaceOrReturn() &&
+				hasNoFollowingBinData( pdfSource )) &&
+				!pdfSource.isEOF() )
+		{
+			imageData.write( lastByte );
+			lastByte = currentByte;
+			currentByte = pdfSource.read();
+		}
+		// the EI operator isn't unread, as it won't be processed anyway
+		Operator retval = Operator.getOperator("ID");
+		// save the image data to the operator, so that it can be accessed later
+		retval.setImageData( imageData.toByteArray() );
+		return retval;
+	}
+
+	/**
+	 * Continues scanning the array after bytes were read through {@link #pdfSource}, e.g. by
+	 * a method of {@link BaseParser}. Bytes which were pushed back are scanned again.
+	 */
+	private void syncPosition() throws IOException
+	{
+		int pushedBack = pdfSource.available() - source.available();
+		if( pushedBack > 0 )
+		{
+			pdfSource.seek( source.position - pushedBack );
+		}
+	}
+
+	/**
+	 * Skips whitespace and comments, like {@link #skipSpaces()}.
+	 */
+	private void skipBlanks()
+	{
+		int pos = source.position;
+		while( pos < length )
+		{
+			int c = data[pos] & 0xff;
+			if( isWhitespace( c ) )
+			{
+				pos++;
+			}
+			else if( c == '%' )
+			{
+				// skip past the comment section
+				pos++;
+				while( pos < length && !isEOL( data[pos] & 0xff ) )
+				{
+					pos++;
+				}
+			}
+			else
+			{
+				break;
+			}
+		}
+		source.position = pos;
+	}
+
+	/**
+	 * Scans a word up to the end of a name, like {@link #readString()}.
+	 *
+	 * @return the length of the word
+	 */
+	private int scanWord()
+	{
+		int start = source.position;
+		int pos = start;
+		while( pos < length && !isEndOfName( (char)(data[pos] & 0xff) ) )
+		{
+			pos++;
+		}
+		source.position = pos;
+		return pos - start;
+	}
+
+	/**
+	 * Scans an operator, like {@link #readOperator()}.
+	 *
+	 * @return the length of the operator
+	 */
+	private int scanOperator()
+	{
+		int start = source.position;
+		int pos = start;
+		while( pos < length )
+		{
+			int nextChar = data[pos] & 0xff;
+			if( isWhitespace( nextChar ) || isClosing( nextChar ) || nextChar == '[' ||
+					nextChar == '<' || nextChar == '(' || nextChar == '/' ||
+					(nextChar >= '0' && nextChar <= '9') )
+			{
+				break;
+			}
+			pos++;
+			// Type3 Glyph description has operators with a number in the name
+			if( nextChar == 'd' && pos < length && (data[pos] == '0' || data[pos] == '1') )
+			{
+				pos++;
+			}
+		}
+		source.position = pos;
+		return pos - start;
+	}
+
+	private boolean isWord( int offset, int wordLength, String word )
+	{
+		if( wordLength != word.length() )
+		{
+			return false;
+		}
+		for( int i = 0; i < wordLength; i++ )
+		{
+			if( data[offset + i] != word.charAt( i ) )
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// true if all bytes would be removed by String.trim()
+	private boolean isBlank( int offset, int blankLength )
+	{
+		for( int i = 0; i < blankLength; i++ )
+		{
+			if( (data[offset + i] & 0xff) > ' ' )
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigit( byte b )
+	{
+		return b >= '0' && b <= '9';
+	}
+
+	/**
+	 * Scans a number operand. Only one "." is allowed, and "-" and "+" only at the start of
+	 * the number.
+	 *
+	 * @return the end of the number
+	 */
+	private int scanNumber()
+	{
+		int pos = source.position;
+		boolean dotNotRead = data[pos] != '.';
+		int end = pos + 1;
+		while( end < length && (isDigit( data[end] ) || dotNotRead && data[end] == '.') )
+		{
+			if (data[end] == '.')
+			{
+				dotNotRead = false;
+			}
+			end++;
+		}
+		source.position = end;
+		return end;
+	}
+
+	/**
+	 * Returns the number scanned from the given range. Integers are computed directly, all
+	 * other numbers, including malformed ones, are handled by {@link COSNumber#get(String)},
+	 * so that reals keep their spelling.
+	 *
+	 * @param start the start of the number
+	 * @param end the end of the number
+	 */
+	private COSNumber toNumber( int start, int end ) throws IOException
+	{
+		int fractionDigits = parseDecimal( start, end );
+		if( fractionDigits == -1 )
+		{
+			return COSInteger.get( decimalMantissa );
+		}
+		return COSNumber.get( new String( data, start, end - start, Charsets.ISO_8859_1 ) );
+	}
+
+	/**
+	 * Scans a name, like {@link #parseCOSName()}.
+	 */
+	private COSName scanName() throws IOException
+	{
+		int start = source.position + 1;
+		int pos = start;
+		while( pos < length )
+		{
+			char ch = (char)(data[pos] & 0xff);
+			if( ch == '#' )
+			{
+				// escaped characters are left to the base parser
+				COSName name = parseCOSName();
+				syncPosition();
+				return name;
+			}
+			if( isEndOfName( ch ) )
+			{
+				break;
+			}
+			pos++;
+		}
+		source.position = pos;
+		return COSName.getPDFName( new String( data, start, pos - start, Charsets.ISO_8859_1 ) );
+	}
+
+	/**
+	 * Scans a literal string, like {@link #parseCOSString()}. Strings with escapes or
+	 * nested parentheses are left to the base parser.
+	 */
+	private COSString scanString() throws IOException
+	{
+		int start = source.position + 1;
+		for( int pos = start; pos < length; pos++ )
+		{
+			byte b = data[pos];
+			if( b == ')' )
+			{
+				byte[] bytes = new byte[pos - start];
+				System.arraycopy( data, start, bytes, 0, bytes.length );
+				source.position = pos + 1;
+				return new COSString( bytes );
+			}
+			if( b == '(' || b == '\\' )
+			{
+				break;
+			}
+		}
+		COSString string = parseCOSString();
+		syncPosition();
+		return string;
+	}
+
+	/**
+	 * Scans a hex string, like {@link #parseCOSString()}. Malformed strings are left to the
+	 * base parser.
+	 */
+	private COSString scanHexString() throws IOException
+	{
+		int start = source.position + 1;
+		int digits = 0;
+		int end = -1;
+		for( int pos = start; pos < length; pos++ )
+		{
+			byte b = data[pos];
+			if( b == '>' )
+			{
+				end = pos;
+				break;
+			}
+			if( hexValue( b ) >= 0 )
+			{
+				digits++;
+			}
+			else if( b != ' ' && b != '\n' && b != '\t' && b != '\r' && b != '\b' && b != '\f' )
+			{
+				break;
+			}
+		}
+		if( end == -1 )
+		{
+			COSString string = parseCOSString();
+			syncPosition();
+			return string;
+		}
+
+		// if odd number then the last hex digit is assumed to be 0
+		byte[] bytes = new byte[(digits + 1) / 2];
+		int digit = 0;
+		for( int pos = start; pos < end; pos++ )
+		{
+			int value = hexValue( data[pos] );
+			if( value >= 0 )
+			{
+				if( (digit & 1) == 0 )
+				{
+					bytes[digit >> 1] = (byte)(value << 4);
+				}
+				else
+				{
+					bytes[digit >> 1] |= value;
+				}
+				digit++;
+			}
+		}
+		source.position = end + 1;
+		return new COSString( bytes );
+	}
+
+	private static int hexValue( byte b )
+	{
+		if( b >= '0' && b <= '9' )
+		{
+			return b - '0';
+		}
+		if( b >= 'a' && b <= 'f' )
+		{
+			return b - 'a' + 10;
+		}
+		if( b >= 'A' && b <= 'F' )
+		{
+			return b - 'A' + 10;
+		}
+		return -1;
+	}
+
+	/**
+	 * Scans an array, like {@link #parseCOSArray()}.
+	 */
+	private COSArray scanArray() throws IOException
+	{
+		// read '['
+		source.position++;
+		COSArray po = new COSArray();
+		COSBase pbo;
+		skipBlanks();
+		int i;
+		while( source.position < length && (i = data[source.position] & 0xff) > 0 && (char)i != ']' )
+		{
+			pbo = scanDirObject();
+			if( pbo instanceof COSObject )
+			{
+				// We have to check if the expected values are there or not PDFBOX-385
+				if (po.get(po.size()-1) instanceof COSInteger)
+				{
+					COSInteger genNumber = (COSInteger)po.remove( po.size() -1 );
+					if (po.get(po.size()-1) instanceof COSInteger)
+					{
+						COSInteger number = (COSInteger)po.remove( po.size() -1 );
+						COSObjectKey key = new COSObjectKey(number.longValue(), genNumber.intValue());
+						pbo = document.getObjectFromPool(key);
+					}
+					else
+					{
+						// the object reference is somehow wrong
+						pbo = null;
+					}
+				}
+				else
+				{
+					pbo = null;
+				}
+			}
+			if( pbo != null )
+			{
+				po.add( pbo );
+			}
+			else
+			{
+				//it could be a bad object in the array which is just skipped
+				Log.w("PdfBoxAndroid", "Corrupt object reference at offset " + source.position);
+
+				// This could also be an "endobj" or "endstream" which means we can assume that
+				// the array has ended.
+				String isThisTheEnd = readString();
+				pdfSource.unread(isThisTheEnd.getBytes(ISO_8859_1));
+				syncPosition();
+				if(ENDOBJ_STRING.equals(isThisTheEnd) || ENDSTREAM_STRING.equals(isThisTheEnd))
+				{
+					return po;
+				}
 			}
+			skipBlanks();
+		}
+		//read ']'
+		if( source.position < length )
+		{
+			source.position++;
 		}
+		skipBlanks();
+		return po;
+	}
+
+	/**
+	 * Scans an array element, like {@link #parseDirObject()}.
+	 */
+	private COSBase scanDirObject() throws IOException
+	{
+		skipBlanks();
+		int pos = source.position;
+		char c = (char)(data[pos] & 0xff);
+		switch(c)
+		{
+		case '<':
+			if( pos + 1 < length && data[pos + 1] == '<' )
+			{
+				break;
+			}
+			return scanHexString();
+		case '[':
+			return scanArray();
+		case '(':
+			return scanString();
+		case '/':
+			return scanName();
+		case 'R':
+			source.position++;
+			return new COSObject(null);
+		default:
+			if( Character.isDigit(c) || c == '-' || c == '+' || c == '.' )
+			{
+				int end = pos;
+				while( end < length && (isDigit( data[end] ) || data[end] == '-' || data[end] == '+' ||
+						data[end] == '.' || data[end] == 'E' || data[end] == 'e') )
+				{
+					end++;
+				}
+				source.position = end;
+				return toNumber( pos, end );
+			}
 		}
+		COSBase retval = parseDirObject();
+		syncPosition();
 		return retval;
 	}
 
@@ -532,4 +1091,87 @@ public class PDFStreamParser extends BaseParser
 	{
 		return isSpaceOrReturn( pdfSource.peek() );
 	}
+
+	/**
+	 * The decoded stream, read by {@link #pdfSource} as well as scanned directly. Its position
+	 * is the position of the parser as long as no bytes are pushed back.
+	 */
+	private static final class ContentSource extends InputStream implements RandomAccessRead
+	{
+		private final byte[] bytes;
+		private int position;
+		private boolean isClosed;
+
+		private ContentSource(byte[] bytes)
+		{
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int read()
+		{
+			return position < bytes.length ? bytes[position++] & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int offset, int len)
+		{
+			if (len == 0)
+			{
+				return 0;
+			}
+			if (position >= bytes.length)
+			{
+				return -1;
+			}
+			int count = Math.min(len, bytes.length - position);
+			System.arraycopy(bytes, position, b, offset, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public long skip(long n)
+		{
+			int count = (int) Math.max(0, Math.min(n, bytes.length - position));
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available()
+		{
+			return bytes.length - position;
+		}
+
+		@Override
+		public long getPosition()
+		{
+			return position;
+		}
+
+		@Override
+		public void seek(long newPosition)
+		{
+			position = (int) Math.max(0, Math.min(newPosition, bytes.length));
+		}
+
+		@Override
+		public long length()
+		{
+			return bytes.length;
+		}
+
+		@Override
+		public void close()
+		{
+			isClosed = true;
+		}
+
+		@Override
+		public boolean isClosed()
+		{
+			return isClosed;
+		}
+	}
 }
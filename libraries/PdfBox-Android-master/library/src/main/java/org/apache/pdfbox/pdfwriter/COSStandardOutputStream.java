@@ -4,6 +4,8 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.apache.pdfbox.util.NumberFormatUtil;
+
 /**
  * simple output stream with some minor features for generating "pretty" PDF files.
  *
@@ -31,6 +33,9 @@ public class COSStandardOutputStream extends FilterOutputStream
 
     // flag to prevent generating two newlines in sequence
     private boolean onNewLine = false;
+
+    // buffer used to format numbers
+    private final byte[] numberBuffer = new byte[32];
     
     /**
      * COSOutputStream constructor comment.
@@ -148,4 +153,28 @@ public class COSStandardOutputStream extends FilterOutputStream
     {
         write(LF);
     }
+
+    /**
+     * This will write a number as decimal digits.
+     *
+     * @param value The number to write.
+     * @throws IOException If there is an error writing to the underlying stream.
+     */
+    public void writeNumber(long value) throws IOException
+    {
+        writeNumber(value, 0);
+    }
+
+    /**
+     * This will write a number as decimal digits, padded with leading zeros.
+     *
+     * @param value The number to write.
+     * @param minDigits The minimum number of digits, at most 30.
+     * @throws IOException If there is an error writing to the underlying stream.
+     */
+    public void writeNumber(long value, int minDigits) throws IOException
+    {
+        int length = NumberFormatUtil.formatLong(value, minDigits, numberBuffer);
+        write(numberBuffer, 0, length);
+    }
 }
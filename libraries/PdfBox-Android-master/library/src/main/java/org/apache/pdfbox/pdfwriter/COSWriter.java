@@ -5,23 +5,26 @@ import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
@@ -138,12 +141,19 @@ public class COSWriter implements ICOSVisitor, Closeable
 	 */
 	public static final byte[] ENDSTREAM = "endstream".getBytes(Charsets.US_ASCII);
 
-	private final NumberFormat formatXrefOffset = new DecimalFormat("0000000000");
+	// the number of digits of the xref offset data
+	private static final int XREF_OFFSET_DIGITS = 10;
 
-	// the decimal format for the xref object generation number data
-	private final NumberFormat formatXrefGeneration = new DecimalFormat("00000");
+	// the number of digits of the xref object generation number data
+	private static final int XREF_GENERATION_DIGITS = 5;
 
-	private final NumberFormat formatDecimal = NumberFormat.getNumberInstance( Locale.US );
+	/**
+	 * The default number of objects packed into an object stream.
+	 */
+	public static final int DEFAULT_OBJECT_STREAM_SIZE = 100;
+
+	// object streams and a cross reference stream require PDF 1.5
+	private static final float COMPRESSED_VERSION = 1.5f;
 
 	// the stream where we create the pdf output
 	private OutputStream output;
@@ -187,6 +197,18 @@ public class COSWriter implements ICOSVisitor, Closeable
 	private FDFDocument fdfDocument = null;
 	private boolean willEncrypt = false;
 
+	// pack objects into object streams and write a cross reference stream
+	private boolean compress = false;
+	private int objectStreamSize = DEFAULT_OBJECT_STREAM_SIZE;
+
+	// the object stream currently filled, null if objects aren't packed
+	private COSWriterObjectStream objectStream;
+
+	// encodes the streams ahead of the writer, null if they are encoded while being written
+	private Executor encodingExecutor;
+	private final Map<COSStream,FutureTask<Void>> pendingEncodings =
+			new HashMap<COSStream,FutureTask<Void>>();
+
 	// signing
 	private boolean incrementalUpdate = false;
 	private boolean reachedSignature = false;
@@ -206,8 +228,6 @@ public class COSWriter implements ICOSVisitor, Closeable
 		super();
 		setOutput(os);
 		setStandardOutput(new COSStandardOutputStream(output));
-		formatDecimal.setMaximumFractionDigits( 10 );
-		formatDecimal.setGroupingUsed( false );
 	}
 
 	/**
@@ -230,8 +250,64 @@ public class COSWriter implements ICOSVisitor, Closeable
 		incrementalOutput = outputStream;
 		incrementalUpdate = true;
 
-		formatDecimal.setMaximumFractionDigits( 10 );
-		formatDecimal.setGroupingUsed( false );
+	}
+
+	/**
+	 * Returns true if non-stream objects are packed into object streams and a cross reference
+	 * stream is written instead of a cross reference table.
+	 *
+	 * @return true if the output is compressed
+	 */
+	public boolean isCompress()
+	{
+		return compress;
+	}
+
+	/**
+	 * Sets whether non-stream objects are packed into Flate compressed object streams and a
+	 * cross reference stream is written instead of a cross reference table. The output is
+	 * marked as PDF 1.5 at least. This has no effect on incremental updates and FDF documents,
+	 * objects aren't packed if the document is encrypted.
+	 *
+	 * @param compress true if the output should be compressed
+	 */
+	public void setCompress(boolean compress)
+	{
+		this.compress = compress;
+	}
+
+	/**
+	 * Sets the maximum number of objects packed into a single object stream.
+	 *
+	 * @param objectStreamSize the maximum number of objects, the default is
+	 * {@link #DEFAULT_OBJECT_STREAM_SIZE}
+	 */
+	public void setObjectStreamSize(int objectStreamSize)
+	{
+		if (objectStreamSize < 1)
+		{
+			throw new IllegalArgumentException("Object stream size must be positive: " + objectStreamSize);
+		}
+		this.objectStreamSize = objectStreamSize;
+	}
+
+	/**
+	 * Sets the executor used to encode modified streams in parallel. A stream is submitted for
+	 * encoding as soon as the writer knows that it has to be written, the writer waits for it
+	 * once it reaches the stream. If the executor hasn't started the encoding by then, the
+	 * writer encodes the stream itself. The output is the same as without an executor.
+	 *
+	 * @param encodingExecutor the executor, or null to encode each stream when it is written
+	 */
+	public void setEncodingExecutor(Executor encodingExecutor)
+	{
+		this.encodingExecutor = encodingExecutor;
+	}
+
+	// compression is only used for complete PDF documents
+	private boolean isCompressing()
+	{
+		return compress && !incrementalUpdate && fdfDocument == null;
 	}
 
 	private void prepareIncrement(PDDocument doc)
@@ -290,6 +366,28 @@ public class COSWriter implements ICOSVisitor, Closeable
 	@Override
 	public void close() throws IOException
 	{
+		// streams which weren't written don't need to be encoded, but the ones being encoded
+		// must not be touched by the executor anymore once the writer is closed
+		for (FutureTask<Void> encoding : pendingEncodings.values())
+		{
+			if (!encoding.cancel(false))
+			{
+				try
+				{
+					encoding.get();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					break;
+				}
+				catch (ExecutionException e)
+				{
+					Log.w("PdfBoxAndroid", "Encoding of a stream which wasn't written failed", e);
+				}
+			}
+		}
+		pendingEncodings.clear();
 		if (getStandardOutput() != null)
 		{
 			getStandardOutput().close();
@@ -425,12 +523,20 @@ public class COSWriter implements ICOSVisitor, Closeable
 			addObjectToWrite( info );
 		}
 
+		// the strings of an object in an object stream can't be encrypted separately
+		if( isCompressing() && !willEncrypt )
+		{
+			objectStream = new COSWriterObjectStream();
+		}
 		while( objectsToWrite.size() > 0 )
 		{
 			COSBase nextObject = objectsToWrite.removeFirst();
 			objectsToWriteSet.remove(nextObject);
 			doWriteObject( nextObject );
 		}
+		// the encryption dictionary must not be packed
+		doWriteObjectStream();
+		objectStream = null;
 		willEncrypt = false;
 		if( encrypt != null )
 		{
@@ -480,6 +586,67 @@ public class COSWriter implements ICOSVisitor, Closeable
 			{
 				actualsAdded.add( actual );
 			}
+			if( encodingExecutor != null && actual instanceof COSStream )
+			{
+				startEncoding( (COSStream)actual );
+			}
+		}
+	}
+
+	private void startEncoding( final COSStream stream )
+	{
+		if( !stream.isEncodingNeeded() || pendingEncodings.containsKey( stream ) )
+		{
+			return;
+		}
+		FutureTask<Void> encoding = new FutureTask<Void>(new Callable<Void>()
+		{
+			@Override
+			public Void call() throws IOException
+			{
+				stream.encode();
+				return null;
+			}
+		});
+		pendingEncodings.put( stream, encoding );
+		encodingExecutor.execute( encoding );
+	}
+
+	// waits until the given stream has been encoded by the executor, or encodes it right away
+	// if the executor didn't start yet
+	private void finishEncoding( COSStream stream ) throws IOException
+	{
+		FutureTask<Void> encoding = pendingEncodings.remove( stream );
+		if( encoding == null )
+		{
+			return;
+		}
+		encoding.run();
+		try
+		{
+			encoding.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while encoding a stream");
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+			{
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
 		}
 	}
 
@@ -509,12 +676,17 @@ public class COSWriter implements ICOSVisitor, Closeable
 
 		 // find the physical reference
 		 currentObjectKey = getObjectKey( obj );
+		 if( objectStream != null && isPackable( obj ) )
+		 {
+			 packObject( obj );
+			 return;
+		 }
 		 // add a x ref entry
 		 addXRefEntry( new COSWriterXRefEntry(getStandardOutput().getPos(), obj, currentObjectKey));
 		 // write the object
-		 getStandardOutput().write(String.valueOf(currentObjectKey.getNumber()).getBytes(Charsets.ISO_8859_1));
+		 getStandardOutput().writeNumber(currentObjectKey.getNumber());
 		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(String.valueOf(currentObjectKey.getGeneration()).getBytes(Charsets.ISO_8859_1));
+		 getStandardOutput().writeNumber(currentObjectKey.getGeneration());
 		 getStandardOutput().write(SPACE);
 		 getStandardOutput().write(OBJ);
 		 getStandardOutput().writeEOL();
@@ -524,6 +696,52 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 getStandardOutput().writeEOL();
 	}
 
+	 // streams and objects with a generation number can't be stored in an object stream
+	 private boolean isPackable( COSBase obj )
+	 {
+		 COSBase actual = obj instanceof COSObject ? ((COSObject)obj).getObject() : obj;
+		 return !(actual instanceof COSStream) && currentObjectKey.getGeneration() == 0;
+	 }
+
+	 // writes the object into the current object stream
+	 private void packObject( COSBase obj ) throws IOException
+	 {
+		 objectStream.addObject(obj, currentObjectKey);
+		 COSStandardOutputStream output = getStandardOutput();
+		 setStandardOutput(objectStream.getOutput());
+		 try
+		 {
+			 obj.accept( this );
+		 }
+		 finally
+		 {
+			 setStandardOutput(output);
+		 }
+		 if (objectStream.size() >= objectStreamSize)
+		 {
+			 doWriteObjectStream();
+		 }
+	 }
+
+	 // writes the objects packed so far as an object stream
+	 private void doWriteObjectStream() throws IOException
+	 {
+		 if (objectStream == null || objectStream.size() == 0)
+		 {
+			 return;
+		 }
+		 COSStream stream = objectStream.createStream();
+		 long streamNumber = getObjectKey(stream).getNumber();
+		 for (COSWriterXRefEntry entry : objectStream.getEntries())
+		 {
+			 entry.setObjectStreamNumber(streamNumber);
+			 addXRefEntry(entry);
+		 }
+		 objectStream.reset();
+		 doWriteObject(stream);
+		 stream.close();
+	 }
+
 	 /**
 	  * This will write the header to the PDF document.
 	  *
@@ -540,7 +758,12 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 }
 		 else
 		 {
-			 headerString = "%PDF-"+ Float.toString(pdDocument.getDocument().getVersion());
+			 float version = pdDocument.getDocument().getVersion();
+			 if (isCompressing() && version < COMPRESSED_VERSION)
+			 {
+				 version = COMPRESSED_VERSION;
+			 }
+			 headerString = "%PDF-"+ Float.toString(version);
 		 }
 		 getStandardOutput().write( headerString.getBytes(Charsets.ISO_8859_1) );
 		 
@@ -628,6 +851,31 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 }
 	 }
 
+	 // writes a cross reference stream containing all objects
+	 private void doWriteXRefStream(COSDocument doc) throws IOException
+	 {
+		 addXRefEntry(COSWriterXRefEntry.getNullEntry());
+		 PDFXRefStream pdfxRefStream = new PDFXRefStream();
+		 for ( COSWriterXRefEntry entry : getXRefEntries() )
+		 {
+			 pdfxRefStream.addEntry(entry);
+		 }
+
+		 COSDictionary trailer = doc.getTrailer();
+		 trailer.removeItem( COSName.PREV );
+		 trailer.removeItem( COSName.XREF_STM );
+		 trailer.removeItem( COSName.DOC_CHECKSUM );
+		 pdfxRefStream.addTrailerInfo(trailer);
+
+		 // the xref stream gets the next object number and contains an entry for itself
+		 long streamNumber = getNumber() + 1;
+		 pdfxRefStream.setSize(streamNumber + 1);
+		 setStartxref(getStandardOutput().getPos());
+		 pdfxRefStream.addEntry(new COSWriterXRefEntry(getStartxref(), null,
+				 new COSObjectKey(streamNumber, 0)));
+		 doWriteObject(pdfxRefStream.getStream());
+	 }
+
 	 // writes the "xref" table
 	 private void doWriteXRefTable() throws IOException
 	 {
@@ -731,19 +979,17 @@ public class COSWriter implements ICOSVisitor, Closeable
 
 	 private void writeXrefRange(long x, long y) throws IOException
 	 {
-		 getStandardOutput().write(String.valueOf(x).getBytes());
+		 getStandardOutput().writeNumber(x);
 		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(String.valueOf(y).getBytes());
+		 getStandardOutput().writeNumber(y);
 		 getStandardOutput().writeEOL();
 	 }
 
 	 private void writeXrefEntry(COSWriterXRefEntry entry) throws IOException
 	 {
-		 String offset = formatXrefOffset.format(entry.getOffset());
-		 String generation = formatXrefGeneration.format(entry.getKey().getGeneration());
-		 getStandardOutput().write(offset.getBytes(Charsets.ISO_8859_1));
+		 getStandardOutput().writeNumber(entry.getOffset(), XREF_OFFSET_DIGITS);
 		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(generation.getBytes(Charsets.ISO_8859_1));
+		 getStandardOutput().writeNumber(entry.getKey().getGeneration(), XREF_GENERATION_DIGITS);
 		 getStandardOutput().write(SPACE);
 		 getStandardOutput().write(entry.isFree() ? XREF_FREE : XREF_USED);
 		 getStandardOutput().writeCRLF();
@@ -1022,7 +1268,11 @@ public class COSWriter implements ICOSVisitor, Closeable
 			 hybridPrev = trailer.getLong(COSName.XREF_STM);
 		 }
 
-		 if(incrementalUpdate || doc.isXRefStream())
+		 if(isCompressing())
+		 {
+			 doWriteXRefStream(doc);
+		 }
+		 else if(incrementalUpdate || doc.isXRefStream())
 		 {
 			 doWriteXRefInc(doc, hybridPrev);
 		 }
@@ -1035,7 +1285,7 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 // write endof
 		 getStandardOutput().write(STARTXREF);
 		 getStandardOutput().writeEOL();
-		 getStandardOutput().write(String.valueOf(getStartxref()).getBytes(Charsets.ISO_8859_1));
+		 getStandardOutput().writeNumber(getStartxref());
 		 getStandardOutput().writeEOL();
 		 getStandardOutput().write(EOF);
 		 getStandardOutput().writeEOL();
@@ -1058,7 +1308,7 @@ public class COSWriter implements ICOSVisitor, Closeable
 	 @Override
 	 public Object visitFromInt(COSInteger obj) throws IOException
 	 {
-		 obj.writePDF( getStandardOutput() );
+		 getStandardOutput().writeNumber( obj.longValue() );
 		 return null;
 	 }
 
@@ -1086,9 +1336,9 @@ public class COSWriter implements ICOSVisitor, Closeable
 	 public void writeReference(COSBase obj) throws IOException
 	 {
 		 COSObjectKey key = getObjectKey(obj);
-		 getStandardOutput().write(String.valueOf(key.getNumber()).getBytes(Charsets.ISO_8859_1));
+		 getStandardOutput().writeNumber(key.getNumber());
 		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(String.valueOf(key.getGeneration()).getBytes(Charsets.ISO_8859_1));
+		 getStandardOutput().writeNumber(key.getGeneration());
 		 getStandardOutput().write(SPACE);
 		 getStandardOutput().write(REFERENCE);
 	 }
@@ -1096,6 +1346,7 @@ public class COSWriter implements ICOSVisitor, Closeable
 	 @Override
 	 public Object visitFromStream(COSStream obj) throws IOException
 	 {
+		 finishEncoding(obj);
 		 if (willEncrypt)
 		 {
 			 pdDocument.getEncryption().getSecurityHandler()
@@ -1105,10 +1356,12 @@ public class COSWriter implements ICOSVisitor, Closeable
 
 		 COSObject lengthObject = null;
 		 // check if the length object is required to be direct, like in
-		 // a cross reference stream dictionary
+		 // a cross reference stream dictionary, a length packed into an object
+		 // stream can't be resolved by every reader either
 		 COSBase lengthEntry = obj.getDictionaryObject(COSName.LENGTH);
 		 String type = obj.getNameAsString(COSName.TYPE);
-		 if (lengthEntry != null && lengthEntry.isDirect() || "XRef".equals(type))
+		 if (lengthEntry != null && lengthEntry.isDirect() || "XRef".equals(type) || "ObjStm".equals(type)
+				 || objectStream != null)
 		 {
 			 // the length might be the non encoded length,
 			 // set the real one as direct object
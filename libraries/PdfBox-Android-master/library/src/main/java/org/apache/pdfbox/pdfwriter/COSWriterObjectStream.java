@@ -0,0 +1,119 @@
+package org.apache.pdfbox.pdfwriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSStream;
+
+/**
+ * Collects the objects which are packed into an object stream by the {@link COSWriter}.
+ * The objects are written to {@link #getOutput()}, the object stream is created once all
+ * objects have been added.
+ */
+final class COSWriterObjectStream
+{
+    private ByteArrayOutputStream data = new ByteArrayOutputStream();
+    private COSStandardOutputStream output = new COSStandardOutputStream(data);
+
+    // the xref entries of the objects, the offset of an entry is its index within the stream
+    private final List<COSWriterXRefEntry> entries = new ArrayList<COSWriterXRefEntry>();
+    // the offsets of the objects relative to the first object
+    private final List<Long> offsets = new ArrayList<Long>();
+
+    /**
+     * Returns the stream the current object is written to.
+     */
+    COSStandardOutputStream getOutput()
+    {
+        return output;
+    }
+
+    /**
+     * Starts a new object, which has to be written to {@link #getOutput()} afterwards.
+     *
+     * @param object the object
+     * @param key the key of the object
+     */
+    void addObject(COSBase object, COSObjectKey key) throws IOException
+    {
+        if (!entries.isEmpty())
+        {
+            output.writeEOL();
+        }
+        entries.add(new COSWriterXRefEntry(entries.size(), object, key));
+        offsets.add(output.getPos());
+    }
+
+    /**
+     * Returns the number of objects added since the last call of {@link #reset()}.
+     */
+    int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the xref entries of the objects added since the last call of {@link #reset()}.
+     */
+    List<COSWriterXRefEntry> getEntries()
+    {
+        return entries;
+    }
+
+    /**
+     * Creates the object stream containing the objects added so far. The stream is Flate
+     * compressed, its /Length has to be written as a direct object.
+     */
+    COSStream createStream() throws IOException
+    {
+        output.flush();
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        COSStandardOutputStream headerOutput = new COSStandardOutputStream(header);
+        for (int i = 0; i < entries.size(); i++)
+        {
+            if (i > 0)
+            {
+                headerOutput.write(' ');
+            }
+            headerOutput.writeNumber(entries.get(i).getKey().getNumber());
+            headerOutput.write(' ');
+            headerOutput.writeNumber(offsets.get(i));
+        }
+        headerOutput.write('\n');
+        headerOutput.flush();
+
+        COSStream stream = new COSStream();
+        stream.setItem(COSName.TYPE, COSName.OBJ_STM);
+        stream.setInt(COSName.N, entries.size());
+        stream.setInt(COSName.FIRST, header.size());
+        stream.setFilters(COSName.FLATE_DECODE);
+        OutputStream unfiltered = stream.createUnfilteredStream();
+        try
+        {
+            header.writeTo(unfiltered);
+            data.writeTo(unfiltered);
+        }
+        finally
+        {
+            unfiltered.close();
+        }
+        return stream;
+    }
+
+    /**
+     * Removes the collected objects and entries.
+     */
+    void reset()
+    {
+        data = new ByteArrayOutputStream();
+        output = new COSStandardOutputStream(data);
+        offsets.clear();
+        entries.clear();
+    }
+}
@@ -15,6 +15,7 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
     private COSBase object;
     private COSObjectKey key;
     private boolean free = false;
+    private long objectStreamNumber = -1;
     private static final COSWriterXRefEntry NULLENTRY;
 
     static
@@ -148,4 +149,36 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
     {
         object = newObject;
     }
+
+    /**
+     * Returns true if the object is stored in an object stream. The offset of such an entry is
+     * the index of the object within the object stream.
+     *
+     * @return true if the object is stored in an object stream
+     */
+    public boolean isInObjectStream()
+    {
+        return objectStreamNumber != -1;
+    }
+
+    /**
+     * This will get the object number of the object stream containing the object.
+     *
+     * @return The object number of the object stream, or -1 if the object isn't stored in an
+     * object stream.
+     */
+    public long getObjectStreamNumber()
+    {
+        return objectStreamNumber;
+    }
+
+    /**
+     * This will set the object number of the object stream containing the object.
+     *
+     * @param newObjectStreamNumber The object number of the object stream.
+     */
+    public void setObjectStreamNumber(long newObjectStreamNumber)
+    {
+        objectStreamNumber = newObjectStreamNumber;
+    }
 }
@@ -0,0 +1,78 @@
+package org.apache.pdfbox.pdmodel;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+
+/**
+ * A resource cache based on SoftReference, cached resources are released by the garbage
+ * collector when memory runs low. The cache may be accessed by several threads.
+ */
+public class DefaultResourceCache implements ResourceCache
+{
+    private final Map<COSObjectKey, SoftReference<PDFont>> fonts =
+            new HashMap<COSObjectKey, SoftReference<PDFont>>();
+
+    private final Map<COSObjectKey, SoftReference<PDColorSpace>> colorSpaces =
+            new HashMap<COSObjectKey, SoftReference<PDColorSpace>>();
+
+    private final Map<COSObjectKey, SoftReference<PDXObject>> xobjects =
+            new HashMap<COSObjectKey, SoftReference<PDXObject>>();
+
+    @Override
+    public synchronized PDFont getFont(COSObjectKey key)
+    {
+        return get(fonts, key);
+    }
+
+    @Override
+    public synchronized void put(COSObjectKey key, PDFont font)
+    {
+        fonts.put(key, new SoftReference<PDFont>(font));
+    }
+
+    @Override
+    public synchronized PDColorSpace getColorSpace(COSObjectKey key)
+    {
+        return get(colorSpaces, key);
+    }
+
+    @Override
+    public synchronized void put(COSObjectKey key, PDColorSpace colorSpace)
+    {
+        colorSpaces.put(key, new SoftReference<PDColorSpace>(colorSpace));
+    }
+
+    @Override
+    public synchronized PDXObject getXObject(COSObjectKey key)
+    {
+        return get(xobjects, key);
+    }
+
+    @Override
+    public synchronized void put(COSObjectKey key, PDXObject xobject)
+    {
+        xobjects.put(key, new SoftReference<PDXObject>(xobject));
+    }
+
+    // returns the referent and drops entries which have been cleared by the garbage collector
+    private static <T> T get(Map<COSObjectKey, SoftReference<T>> map, COSObjectKey key)
+    {
+        SoftReference<T> reference = map.get(key);
+        if (reference == null)
+        {
+            return null;
+        }
+        T value = reference.get();
+        if (value == null)
+        {
+            map.remove(key);
+        }
+        return value;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
@@ -87,6 +88,9 @@ public class PDDocument implements Closeable
 	// Signature interface
 	private SignatureInterface signInterface;
 
+	// document-wide cache for resources
+	private ResourceCache resourceCache = new DefaultResourceCache();
+
 	/**
 	 * Creates an empty PDF document.
 	 * You need to add at least one page for the document to be valid.
@@ -781,7 +785,29 @@ public class PDDocument implements Closeable
     public static PDDocument load(File file, String password, InputStream keyStore, String alias,
             boolean useScratchFiles) throws IOException
     {
-    	PDFParser parser = new PDFParser(file, password, keyStore, alias, useScratchFiles);
+        return load(file, password, keyStore, alias, useScratchFiles, false);
+    }
+
+    /**
+     * Parses PDF with non sequential parser.
+     * 
+     * @param file file to be loaded
+     * @param password password to be used for decryption
+     * @param keyStore key store to be used for decryption when using public key security 
+     * @param alias alias to be used for decryption when using public key security
+     * @param useScratchFiles enables the usage of a scratch file if set to true
+     * @param useMemoryMapping reads the file through a memory mapping if set to true, which
+     * avoids copying the file into heap pages when loading large documents
+     * 
+     * @return loaded document
+     * 
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument load(File file, String password, InputStream keyStore, String alias,
+            boolean useScratchFiles, boolean useMemoryMapping) throws IOException
+    {
+    	PDFParser parser = new PDFParser(file, password, keyStore, alias, useScratchFiles,
+    			useMemoryMapping);
     	parser.parse();
     	PDDocument doc = parser.getPDDocument();
     	doc.incrementalFile = file;
@@ -913,6 +939,20 @@ public class PDDocument implements Closeable
 		save(new FileOutputStream(file));
 	}
 
+	/**
+	 * Save the document to a file.
+	 * 
+	 * @param file The file to save as.
+	 * @param compress true to pack the objects into object streams and write a cross reference
+	 * stream, see {@link COSWriter#setCompress(boolean)}
+	 *
+	 * @throws IOException if the output could not be written
+	 */
+	public void save(File file, boolean compress) throws IOException
+	{
+		save(new FileOutputStream(file), compress);
+	}
+
 	/**
 	 * This will save the document to an output stream.
 	 * 
@@ -921,6 +961,37 @@ public class PDDocument implements Closeable
 	 * @throws IOException if the output could not be written
 	 */
 	public void save(OutputStream output) throws IOException
+	{
+		save(output, false);
+	}
+
+	/**
+	 * This will save the document to an output stream.
+	 * 
+	 * @param output The stream to write to.
+	 * @param compress true to pack the objects into object streams and write a cross reference
+	 * stream, see {@link COSWriter#setCompress(boolean)}
+	 *
+	 * @throws IOException if the output could not be written
+	 */
+	public void save(OutputStream output, boolean compress) throws IOException
+	{
+		save(output, compress, null);
+	}
+
+	/**
+	 * This will save the document to an output stream.
+	 * 
+	 * @param output The stream to write to.
+	 * @param compress true to pack the objects into object streams and write a cross reference
+	 * stream, see {@link COSWriter#setCompress(boolean)}
+	 * @param encodingExecutor the executor used to encode modified streams in parallel, or null
+	 * to encode them while writing, see {@link COSWriter#setEncodingExecutor(Executor)}
+	 *
+	 * @throws IOException if the output could not be written
+	 */
+	public void save(OutputStream output, boolean compress, Executor encodingExecutor)
+			throws IOException
 	{
 		if (document.isClosed())
 		{
@@ -935,6 +1006,8 @@ public class PDDocument implements Closeable
 
 		// save PDF
 		COSWriter writer = new COSWriter(output);
+		writer.setCompress(compress);
+		writer.setEncodingExecutor(encodingExecutor);
 		try
 		{
 			writer.write(this);
@@ -999,6 +1072,26 @@ public class PDDocument implements Closeable
 		return getDocumentCatalog().getPages().getCount();
 	}
 
+	/**
+	 * Returns the resource cache associated with this document, or null if there is none.
+	 * 
+	 * @return the resource cache
+	 */
+	public ResourceCache getResourceCache()
+	{
+		return resourceCache;
+	}
+
+	/**
+	 * Sets the resource cache associated with this document.
+	 * 
+	 * @param resourceCache A resource cache, or null.
+	 */
+	public void setResourceCache(ResourceCache resourceCache)
+	{
+		this.resourceCache = resourceCache;
+	}
+
 	/**
 	 * This will close the underlying COSDocument object.
 	 * 
@@ -37,6 +37,7 @@ public class PDDocumentCatalog implements COSObjectable
 	private final COSDictionary root;
 	private final PDDocument document;
 	private PDAcroForm cachedAcroForm;
+	private PDPageTree cachedPages;
 
 	/**
 	 * Constructor. Acroform.
@@ -104,8 +105,13 @@ public class PDDocumentCatalog implements COSObjectable
 	 */
 	public PDPageTree getPages()
 	{
-		// TODO cache me?
-		return new PDPageTree((COSDictionary)root.getDictionaryObject(COSName.PAGES));
+		// the page tree keeps a page index, so it is reused as long as /Pages is unchanged
+		COSDictionary pages = (COSDictionary)root.getDictionaryObject(COSName.PAGES);
+		if (cachedPages == null || cachedPages.getCOSObject() != pages)
+		{
+			cachedPages = new PDPageTree(pages, document);
+		}
+		return cachedPages;
 	}
 
 	/**
@@ -36,6 +36,7 @@ public class PDPage implements COSObjectable, PDContentStream
 	private final COSDictionary page;
 	private PDResources pageResources;
 	private PDRectangle mediaBox;
+	private final ResourceCache resourceCache;
 
 	/**
 	 * Creates a new PDPage instance for embedding, with a size of U.S. Letter (8.5 x 11 inches).
@@ -55,6 +56,7 @@ public class PDPage implements COSObjectable, PDContentStream
 		page = new COSDictionary();
 		page.setItem(COSName.TYPE, COSName.PAGE);
 		page.setItem(COSName.MEDIA_BOX, mediaBox);
+		resourceCache = null;
 	}
 
 	/**
@@ -63,8 +65,20 @@ public class PDPage implements COSObjectable, PDContentStream
 	 * @param pageDictionary A page dictionary in a PDF document.
 	 */
 	public PDPage(COSDictionary pageDictionary)
+	{
+		this(pageDictionary, null);
+	}
+
+	/**
+	 * Creates a new instance of PDPage for reading.
+	 * 
+	 * @param pageDictionary A page dictionary in a PDF document.
+	 * @param resourceCache The document's resource cache, may be null.
+	 */
+	public PDPage(COSDictionary pageDictionary, ResourceCache resourceCache)
 	{
 		page = pageDictionary;
+		this.resourceCache = resourceCache;
 	}
 
 	/**
@@ -107,7 +121,7 @@ public class PDPage implements COSObjectable, PDContentStream
 			// note: it's an error for resources to not be present
 			if (resources != null)
 			{
-				pageResources = new PDResources(resources);
+				pageResources = new PDResources(resources, resourceCache);
 			}
 		}
 		return pageResources;
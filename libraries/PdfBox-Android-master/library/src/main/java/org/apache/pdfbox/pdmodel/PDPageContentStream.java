@@ -26,6 +26,7 @@ import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
 import org.apache.pdfbox.util.Charsets;
 import org.apache.pdfbox.util.Matrix;
+import org.apache.pdfbox.util.NumberFormatUtil;
 import org.apache.pdfbox.util.awt.AWTColor;
 import org.apache.pdfbox.util.awt.AffineTransform;
 
@@ -51,6 +52,7 @@ public final class PDPageContentStream implements Closeable
 
 	// number format
 	private final NumberFormat formatDecimal = NumberFormat.getNumberInstance(Locale.US);
+	private final byte[] formatBuffer = new byte[32];
 
 	/**
 	 * Create a new PDPage content stream.
@@ -1871,7 +1873,7 @@ public final class PDPageContentStream implements Closeable
     @Deprecated
     public void appendRawCommands(float data) throws IOException
     {
-    	output.write(formatDecimal.format(data).getBytes(Charsets.US_ASCII));
+    	writeNumber(data);
     }
 
     /**
@@ -1892,7 +1894,8 @@ public final class PDPageContentStream implements Closeable
      */
     private void writeOperand(float real) throws IOException
     {
-    	writeOperator(formatDecimal.format(real));
+    	writeNumber(real);
+    	output.write('\n');
     	output.write(' ');
     }
 
@@ -1901,9 +1904,28 @@ public final class PDPageContentStream implements Closeable
      */
     private void writeOperand(int integer) throws IOException
     {
-    	writeOperator(formatDecimal.format(integer));
+    	output.write(formatBuffer, 0, NumberFormatUtil.formatLong(integer, 0, formatBuffer));
+    	output.write('\n');
     	output.write(' ');
     }
+
+    /**
+     * Writes a real number to the content stream, without creating a string unless the
+     * number is too large to be formatted directly.
+     */
+    private void writeNumber(float real) throws IOException
+    {
+    	int length = NumberFormatUtil.formatFloatFast(real, formatDecimal.getMaximumFractionDigits(),
+    			formatBuffer);
+    	if (length == -1)
+    	{
+    		output.write(formatDecimal.format(real).getBytes(Charsets.US_ASCII));
+    	}
+    	else
+    	{
+    		output.write(formatBuffer, 0, length);
+    	}
+    }
     
     /**
      * Writes a COSName to the content stream.
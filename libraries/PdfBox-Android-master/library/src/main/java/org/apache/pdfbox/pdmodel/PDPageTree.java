@@ -2,8 +2,10 @@ package org.apache.pdfbox.pdmodel;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 
 import org.apache.pdfbox.cos.COSArray;
@@ -21,6 +23,11 @@ import org.apache.pdfbox.pdmodel.common.COSObjectable;
 public class PDPageTree implements COSObjectable, Iterable<PDPage>
 {
     private final COSDictionary root;
+    private final PDDocument document;
+
+    // page index: the page offsets of the kids of each page tree node searched so far
+    private final Map<COSDictionary, KidOffsets> pageIndex =
+            new IdentityHashMap<COSDictionary, KidOffsets>();
 
     /**
      * Constructor for embedding.
@@ -31,6 +38,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
         root.setItem(COSName.TYPE, COSName.PAGES);
         root.setItem(COSName.KIDS, new COSArray());
         root.setItem(COSName.COUNT, COSInteger.ZERO);
+        document = null;
     }
 
     /**
@@ -39,12 +47,24 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
      * @param root A page tree root.
      */
     public PDPageTree(COSDictionary root)
+    {
+        this(root, null);
+    }
+
+    /**
+     * Constructor for reading.
+     *
+     * @param root A page tree root.
+     * @param document The document which contains "root", may be null.
+     */
+    PDPageTree(COSDictionary root, PDDocument document)
     {
         if (root == null)
         {
             throw new IllegalArgumentException("root cannot be null");
         }
         this.root = root;
+        this.document = document;
     }
 
     /**
@@ -149,7 +169,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
                 throw new IllegalStateException("Expected Page but got " + next);
             }
 
-            return new PDPage(next);
+            return new PDPage(next, getResourceCache());
         }
 
         @Override
@@ -174,11 +194,20 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
             throw new IllegalStateException("Expected Page but got " + dict);
         }
 
-        return new PDPage(dict);
+        return new PDPage(dict, getResourceCache());
     }
 
     /**
-     * Returns the given COS page using a depth-first search.
+     * Returns the resource cache of the document, or null if there is none.
+     */
+    private ResourceCache getResourceCache()
+    {
+        return document != null ? document.getResourceCache() : null;
+    }
+
+    /**
+     * Returns the given COS page. The kids holding the page are found using the page index, so
+     * only one path from the root to the page is visited.
      *
      * @param pageNum 1-based page number
      * @param node page tree node to search
@@ -187,62 +216,151 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
      */
     private COSDictionary get(int pageNum, COSDictionary node, int encountered)
     {
-        if (pageNum < 0)
+        if (pageNum < 1)
         {
             throw new IndexOutOfBoundsException("Index out of bounds: " + pageNum);
         }
 
-        if (isPageTreeNode(node))
+        while (isPageTreeNode(node))
         {
             int count = node.getInt(COSName.COUNT, 0);
-            if (pageNum <= encountered + count)
+            if (pageNum > encountered + count)
             {
-                // it's a kid of this node
-                for (COSDictionary kid : getKids(node))
-                {
-                    // which kid?
-                    if (isPageTreeNode(kid))
-                    {
-                        int kidCount = kid.getInt(COSName.COUNT, 0);
-                        if (pageNum <= encountered + kidCount)
-                        {
-                            // it's this kid
-                            return get(pageNum, kid, encountered);
-                        }
-                        else
-                        {
-                            encountered += kidCount;
-                        }
-                    }
-                    else
-                    {
-                        // single page
-                        encountered++;
-                        if (pageNum == encountered)
-                        {
-                            // it's this page
-                            return get(pageNum, kid, encountered);
-                        }
-                    }
-                }
+                throw new IndexOutOfBoundsException("Index out of bounds: " + pageNum);
+            }
 
+            // it's a kid of this node, which kid?
+            COSArray kids = (COSArray) node.getDictionaryObject(COSName.KIDS);
+            KidOffsets offsets = getKidOffsets(node, kids, count);
+            int kid = offsets.find(pageNum - encountered);
+            if (kid == -1)
+            {
                 throw new IllegalStateException();
             }
-            else
+            encountered += offsets.starts[kid];
+            node = (COSDictionary) kids.getObject(kid);
+            if (!isPageTreeNode(node))
             {
-                throw new IndexOutOfBoundsException("Index out of bounds: " + pageNum);
+                // single page
+                encountered++;
             }
         }
+
+        if (encountered == pageNum)
+        {
+            return node;
+        }
         else
         {
-            if (encountered == pageNum)
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Returns the page offsets of the kids of the given page tree node from the page index.
+     * They are computed from the /Count values of the kids when the node is searched for the
+     * first time, or when its /Count or number of kids changed since.
+     */
+    private KidOffsets getKidOffsets(COSDictionary node, COSArray kids, int count)
+    {
+        int size = kids != null ? kids.size() : 0;
+        synchronized (pageIndex)
+        {
+            KidOffsets offsets = pageIndex.get(node);
+            if (offsets == null || offsets.count != count || offsets.starts.length != size + 1)
             {
-                return node;
+                offsets = new KidOffsets(count, size);
+                for (int i = 0; i < size; i++)
+                {
+                    COSDictionary kid = (COSDictionary) kids.getObject(i);
+                    offsets.add(i, isPageTreeNode(kid) ? kid.getInt(COSName.COUNT, 0) : 1);
+                }
+                pageIndex.put(node, offsets);
             }
-            else
+            return offsets;
+        }
+    }
+
+    /**
+     * Drops the page index, e.g. after pages were added or removed.
+     */
+    private void clearPageIndex()
+    {
+        synchronized (pageIndex)
+        {
+            pageIndex.clear();
+        }
+    }
+
+    /**
+     * The number of pages before each kid of a page tree node.
+     */
+    private static final class KidOffsets
+    {
+        // /Count of the node when the offsets were computed
+        private final int count;
+
+        // starts[i] is the number of pages before kid i, the last element is the total
+        private final int[] starts;
+
+        // pages of each kid, a single page counts as 1 and a page tree node as its /Count
+        private final int[] pages;
+
+        // false if there are negative counts, which rule out a binary search
+        private boolean ascending = true;
+
+        private KidOffsets(int count, int size)
+        {
+            this.count = count;
+            starts = new int[size + 1];
+            pages = new int[size];
+        }
+
+        private void add(int index, int kidPages)
+        {
+            pages[index] = kidPages;
+            starts[index + 1] = starts[index] + kidPages;
+            ascending &= kidPages >= 0;
+        }
+
+        /**
+         * Returns the kid holding the given page, or -1 if there is none.
+         *
+         * @param pageNum 1-based page number relative to the node
+         */
+        private int find(int pageNum)
+        {
+            if (!ascending)
             {
-                throw new IllegalStateException();
+                // take the kids in turn, like a depth-first search
+                for (int i = 0; i < pages.length; i++)
+                {
+                    if (pageNum <= starts[i] + pages[i])
+                    {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
+            // first kid whose pages reach up to the page
+            int low = 0;
+            int high = pages.length - 1;
+            int found = -1;
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
+                if (pageNum <= starts[mid + 1])
+                {
+                    found = mid;
+                    high = mid - 1;
+                }
+                else
+                {
+                    low = mid + 1;
+                }
             }
+            return found;
         }
     }
 
@@ -262,30 +380,26 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
      */
     public int indexOf(PDPage page)
     {
+        // add up the pages before each node on the path from the page up to the root
         int num = 0;
         COSDictionary node = page.getCOSObject();
-        do
+        while (node != root)
         {
-            if (isPageTreeNode(node))
+            COSDictionary parent = (COSDictionary) node.getDictionaryObject(COSName.PARENT, COSName.P);
+            if (parent == null)
             {
-                // count kids up until this node
-                for (COSDictionary kid : getKids(node))
-                {
-                    if (kid == node)
-                    {
-                        break;
-                    }
-                    num++;
-                }
+                return -1;
             }
-            else
+            COSArray kids = (COSArray) parent.getDictionaryObject(COSName.KIDS);
+            int kid = kids != null ? kids.indexOfObject(node) : -1;
+            if (kid == -1)
             {
-                num++;
+                return -1;
             }
-            node = (COSDictionary) node.getDictionaryObject(COSName.PARENT, COSName.P);
+            num += getKidOffsets(parent, kids, parent.getInt(COSName.COUNT, 0)).starts[kid];
+            node = parent;
         }
-        while (node != null);
-        return num - 1;
+        return num;
     }
 
     /**
@@ -332,6 +446,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
         
         if (kids.removeObject(node))
         {
+        	clearPageIndex();
         	// update ancestor counts
         	do
         	{
@@ -359,6 +474,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
         // add to parent's kids
         COSArray kids = (COSArray)root.getDictionaryObject(COSName.KIDS);
         kids.add(node);
+        clearPageIndex();
         
         // update ancestor counts
         do
@@ -7,6 +7,7 @@ import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
 import org.apache.pdfbox.pdmodel.common.COSObjectable;
 import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
 import org.apache.pdfbox.pdmodel.font.PDFont;
@@ -29,6 +30,7 @@ import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 public final class PDResources implements COSObjectable
 {
 	private final COSDictionary resources;
+	private final ResourceCache cache;
 
 	/**
 	 * Constructor for embedding.
@@ -36,6 +38,7 @@ public final class PDResources implements COSObjectable
 	public PDResources()
 	{
 		resources = new COSDictionary();
+		cache = null;
 	}
 
 	/**
@@ -47,12 +50,24 @@ public final class PDResources implements COSObjectable
 	//       also it should probably take a COSBase so that it is indirect-object aware.
 	//       It might also want to have some context, e.g. knowing what the parent of the resources is?
 	public PDResources(COSDictionary resourceDictionary)
+	{
+		this(resourceDictionary, null);
+	}
+
+	/**
+	 * Constructor for reading.
+	 * 
+	 * @param resourceDictionary The cos dictionary for this resource.
+	 * @param resourceCache The document's resource cache, may be null.
+	 */
+	public PDResources(COSDictionary resourceDictionary, ResourceCache resourceCache)
 	{
 		if (resourceDictionary == null)
 		{
 			throw new IllegalArgumentException("resourceDictionary is null");
 		}
 		resources = resourceDictionary;
+		cache = resourceCache;
 	}
 
 	/**
@@ -68,12 +83,28 @@ public final class PDResources implements COSObjectable
 	 */
 	public PDFont getFont(COSName name) throws IOException
 	{
+		COSObjectKey key = getIndirectKey(COSName.FONT, name);
+		if (cache != null && key != null)
+		{
+			PDFont cached = cache.getFont(key);
+			if (cached != null)
+			{
+				return cached;
+			}
+		}
+
 		COSDictionary dict = (COSDictionary)get(COSName.FONT, name);
 		if (dict == null)
 		{
 			return null;
 		}
-		return PDFontFactory.createFont(dict);
+		PDFont font = PDFontFactory.createFont(dict);
+
+		if (cache != null && key != null)
+		{
+			cache.put(key, font);
+		}
+		return font;
 	}
 
 	/**
@@ -81,16 +112,33 @@ public final class PDResources implements COSObjectable
 	 */
 	public PDColorSpace getColorSpace(COSName name) throws IOException
 	{
+		COSObjectKey key = getIndirectKey(COSName.COLORSPACE, name);
+		if (cache != null && key != null)
+		{
+			PDColorSpace cached = cache.getColorSpace(key);
+			if (cached != null)
+			{
+				return cached;
+			}
+		}
+
 		// get the instance
+		PDColorSpace colorSpace;
 		COSBase object = get(COSName.COLORSPACE, name);
 		if (object != null)
 		{
-			return PDColorSpace.create(object, this);
+			colorSpace = PDColorSpace.create(object, this);
 		}
 		else
 		{
-			return PDColorSpace.create(name, this);
+			colorSpace = PDColorSpace.create(name, this);
 		}
+
+		if (cache != null && key != null)
+		{
+			cache.put(key, colorSpace);
+		}
+		return colorSpace;
 	}
 
 	/**
@@ -159,6 +207,17 @@ public final class PDResources implements COSObjectable
 	 */
 	public PDXObject getXObject(COSName name) throws IOException
 	{
+		COSObjectKey key = getIndirectKey(COSName.XOBJECT, name);
+		if (cache != null && key != null)
+		{
+			PDXObject cached = cache.getXObject(key);
+			if (cached != null)
+			{
+				return cached;
+			}
+		}
+
+		PDXObject xobject;
 		COSBase value = get(COSName.XOBJECT, name);
 		if (value == null)
 		{
@@ -170,12 +229,37 @@ public final class PDResources implements COSObjectable
 			// add the object number to create an unique identifier
 			String id = name.getName();
 			id += "#" + object.getObjectNumber();
-			return PDXObject.createXObject(object.getObject(), id, this);
+			xobject = PDXObject.createXObject(object.getObject(), id, this);
 		}
 		else
 		{
-			return PDXObject.createXObject(value, name.getName(), this);
+			xobject = PDXObject.createXObject(value, name.getName(), this);
+		}
+
+		if (cache != null && key != null)
+		{
+			cache.put(key, xobject);
 		}
+		return xobject;
+	}
+
+	/**
+	 * Returns the object key of the resource with the given name and kind, or null if the
+	 * resource isn't an indirect object.
+	 */
+	private COSObjectKey getIndirectKey(COSName kind, COSName name)
+	{
+		COSDictionary dict = (COSDictionary)resources.getDictionaryObject(kind);
+		if (dict == null)
+		{
+			return null;
+		}
+		COSBase value = dict.getItem(name);
+		if (value instanceof COSObject)
+		{
+			return new COSObjectKey((COSObject)value);
+		}
+		return null;
 	}
 
 	/**
@@ -191,6 +275,14 @@ public final class PDResources implements COSObjectable
 		return dict.getDictionaryObject(name);
 	}
 
+	/**
+	 * Returns the resource cache associated with these resources, or null if there is none.
+	 */
+	public ResourceCache getResourceCache()
+	{
+		return cache;
+	}
+
 	/**
 	 * Returns the names of the color space resources, if any.
 	 */
@@ -0,0 +1,46 @@
+package org.apache.pdfbox.pdmodel;
+
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+
+/**
+ * A document-wide cache for page resources, so that resources shared by many pages, such as
+ * fonts, are only created once. Only indirect objects are cached, they are identified by
+ * their object key.
+ *
+ * Implementations decide when cached resources are evicted, see {@link DefaultResourceCache}.
+ */
+public interface ResourceCache
+{
+    /**
+     * Returns the font resource for the given indirect object, if it is in the cache.
+     */
+    PDFont getFont(COSObjectKey key);
+
+    /**
+     * Returns the color space resource for the given indirect object, if it is in the cache.
+     */
+    PDColorSpace getColorSpace(COSObjectKey key);
+
+    /**
+     * Returns the XObject resource for the given indirect object, if it is in the cache.
+     */
+    PDXObject getXObject(COSObjectKey key);
+
+    /**
+     * Puts the given indirect font resource in the cache.
+     */
+    void put(COSObjectKey key, PDFont font);
+
+    /**
+     * Puts the given indirect color space resource in the cache.
+     */
+    void put(COSObjectKey key, PDColorSpace colorSpace);
+
+    /**
+     * Puts the given indirect XObject resource in the cache.
+     */
+    void put(COSObjectKey key, PDXObject xobject);
+}
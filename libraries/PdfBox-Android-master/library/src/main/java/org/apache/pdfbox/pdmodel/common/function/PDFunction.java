@@ -127,7 +127,7 @@ public abstract class PDFunction implements COSObjectable
         int functionType = functionDictionary.getInt( COSName.FUNCTION_TYPE );
         if( functionType == 0 )
         {
-//            retval = new PDFunctionType0(functionDictionary);TODO
+            retval = new PDFunctionType0(functionDictionary);
         }
         else if( functionType == 2 )
         {
@@ -261,6 +261,32 @@ public abstract class PDFunction implements COSObjectable
      * @throws IOException an IOExcpetion is thrown if something went wrong processing the function.  
      */
     public abstract float[] eval(float[] input) throws IOException;
+
+    /**
+     * Evaluates the function at several inputs. The input values of each evaluation follow
+     * each other in the input array, as do the output values in the output array. Subclasses
+     * override this to evaluate the function without allocating arrays for each input.
+     *
+     * @param input the input values, count times the number of input parameters
+     * @param output receives the output values, count times the number of output values
+     * @param count the number of evaluations
+     *
+     * @throws IOException if something went wrong processing the function.
+     */
+    public void eval(float[] input, float[] output, int count) throws IOException
+    {
+        int numberOfInputs = getNumberOfInputParameters();
+        // Range is optional for type 2 and 3 functions, the result tells their output count then
+        int numberOfOutputs = getRangeValues() != null ? getNumberOfOutputParameters() : -1;
+        float[] values = new float[numberOfInputs];
+        for (int i = 0; i < count; i++)
+        {
+            System.arraycopy(input, i * numberOfInputs, values, 0, numberOfInputs);
+            float[] result = eval(values);
+            int stride = numberOfOutputs >= 0 ? numberOfOutputs : result.length;
+            System.arraycopy(result, 0, output, i * stride, Math.min(stride, result.length));
+        }
+    }
     
     /**
      * Returns all ranges for the output values as COSArray .
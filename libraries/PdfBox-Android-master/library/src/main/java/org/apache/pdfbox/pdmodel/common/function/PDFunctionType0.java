@@ -0,0 +1,316 @@
+package org.apache.pdfbox.pdmodel.common.function;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.common.PDRange;
+
+/**
+ * This class represents a Type 0 (sampled) function in a PDF document.
+ * <p>
+ * The samples are decoded once into a packed array, 16 bits per sample if BitsPerSample is
+ * at most 16, 32 bits otherwise. The function is evaluated by multilinear interpolation
+ * between the samples of the surrounding grid points. Cubic spline interpolation (Order 3)
+ * isn't supported, the function is interpolated linearly instead, as the specification
+ * allows.
+ */
+public class PDFunctionType0 extends PDFunction
+{
+    private final int numberOfInputs;
+    private final int numberOfOutputs;
+    private final int bitsPerSample;
+
+    private final int[] size;
+    // the distance between the first samples of neighbouring grid points along each input
+    private final int[] strides;
+    private final float[] domain;
+    private final float[] encode;
+    private final float[] decode;
+    private final float[] range;
+
+    // the samples, one of them is null
+    private final char[] shortSamples;
+    private final int[] intSamples;
+
+    /**
+     * Constructor.
+     *
+     * @param function The function stream.
+     * @throws IOException if the samples can't be read
+     */
+    public PDFunctionType0(COSBase function) throws IOException
+    {
+        super(function);
+        if (getPDStream() == null)
+        {
+            throw new IOException("Type 0 function must be a stream");
+        }
+        if (getRangeValues() == null)
+        {
+            throw new IOException("Type 0 function has no Range");
+        }
+        numberOfInputs = getNumberOfInputParameters();
+        numberOfOutputs = getNumberOfOutputParameters();
+        bitsPerSample = getDictionary().getInt(COSName.BITS_PER_SAMPLE);
+        if (bitsPerSample != 1 && bitsPerSample != 2 && bitsPerSample != 4
+                && bitsPerSample != 8 && bitsPerSample != 12 && bitsPerSample != 16
+                && bitsPerSample != 24 && bitsPerSample != 32)
+        {
+            throw new IOException("Invalid BitsPerSample " + bitsPerSample
+                    + " of type 0 function");
+        }
+
+        COSArray sizeValues = (COSArray) getDictionary().getDictionaryObject(COSName.SIZE);
+        if (sizeValues == null || sizeValues.size() < numberOfInputs)
+        {
+            throw new IOException("Size of type 0 function is missing or too short");
+        }
+        size = new int[numberOfInputs];
+        strides = new int[numberOfInputs];
+        long numberOfSamples = numberOfOutputs;
+        for (int i = 0; i < numberOfInputs; i++)
+        {
+            size[i] = sizeValues.getInt(i);
+            if (size[i] < 1)
+            {
+                throw new IOException("Invalid Size " + size[i] + " of type 0 function");
+            }
+            strides[i] = (int) numberOfSamples;
+            numberOfSamples *= size[i];
+            if (numberOfSamples > Integer.MAX_VALUE)
+            {
+                throw new IOException("Type 0 function has too many samples");
+            }
+        }
+
+        domain = new float[2 * numberOfInputs];
+        float[] defaultEncode = new float[2 * numberOfInputs];
+        for (int i = 0; i < numberOfInputs; i++)
+        {
+            PDRange inputDomain = getDomainForInput(i);
+            domain[2 * i] = inputDomain.getMin();
+            domain[2 * i + 1] = inputDomain.getMax();
+            defaultEncode[2 * i + 1] = size[i] - 1;
+        }
+        range = new float[2 * numberOfOutputs];
+        for (int j = 0; j < numberOfOutputs; j++)
+        {
+            PDRange outputRange = getRangeForOutput(j);
+            range[2 * j] = outputRange.getMin();
+            range[2 * j + 1] = outputRange.getMax();
+        }
+        encode = getValues(COSName.ENCODE, defaultEncode);
+        decode = getValues(COSName.DECODE, range);
+
+        byte[] data = getPDStream().getByteArray();
+        if (bitsPerSample <= 16)
+        {
+            shortSamples = new char[(int) numberOfSamples];
+            intSamples = null;
+        }
+        else
+        {
+            shortSamples = null;
+            intSamples = new int[(int) numberOfSamples];
+        }
+        unpackSamples(data, (int) numberOfSamples);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFunctionType()
+    {
+        return 0;
+    }
+
+    /**
+     * Returns the number of samples along each input dimension.
+     *
+     * @return the Size array of the function
+     */
+    public int[] getSize()
+    {
+        return size.clone();
+    }
+
+    /**
+     * Returns the number of bits of each sample.
+     *
+     * @return the BitsPerSample of the function
+     */
+    public int getBitsPerSample()
+    {
+        return bitsPerSample;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float[] eval(float[] input) throws IOException
+    {
+        float[] output = new float[numberOfOutputs];
+        interpolate(input, 0, output, 0, new int[numberOfInputs], new float[numberOfInputs]);
+        return output;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void eval(float[] input, float[] output, int count) throws IOException
+    {
+        int[] offsets = new int[numberOfInputs];
+        float[] fractions = new float[numberOfInputs];
+        for (int i = 0; i < count; i++)
+        {
+            interpolate(input, i * numberOfInputs, output, i * numberOfOutputs, offsets,
+                    fractions);
+        }
+    }
+
+    /**
+     * Evaluates the function at one input by multilinear interpolation.
+     *
+     * @param offsets receives the offset of the next grid point along each input, 0 if the
+     * input lies on the last one
+     * @param fractions receives the position between the grid points along each input
+     */
+    private void interpolate(float[] input, int inputOffset, float[] output, int outputOffset,
+            int[] offsets, float[] fractions)
+    {
+        // the first sample of the grid point below the input
+        int base = 0;
+        for (int i = 0; i < numberOfInputs; i++)
+        {
+            float domainMin = domain[2 * i];
+            float domainMax = domain[2 * i + 1];
+            float x = clipToRange(input[inputOffset + i], domainMin, domainMax);
+            float e = domainMax == domainMin ? encode[2 * i]
+                    : interpolate(x, domainMin, domainMax, encode[2 * i], encode[2 * i + 1]);
+            e = clipToRange(e, 0, size[i] - 1);
+            int index = (int) e;
+            if (index >= size[i] - 1)
+            {
+                index = size[i] - 1;
+                offsets[i] = 0;
+                fractions[i] = 0;
+            }
+            else
+            {
+                offsets[i] = strides[i];
+                fractions[i] = e - index;
+            }
+            base += index * strides[i];
+        }
+
+        for (int j = 0; j < numberOfOutputs; j++)
+        {
+            output[outputOffset + j] = 0;
+        }
+        int corners = 1 << numberOfInputs;
+        for (int corner = 0; corner < corners; corner++)
+        {
+            float weight = 1;
+            int sample = base;
+            for (int i = 0; i < numberOfInputs && weight != 0; i++)
+            {
+                if ((corner & 1 << i) != 0)
+                {
+                    weight *= fractions[i];
+                    sample += offsets[i];
+                }
+                else
+                {
+                    weight *= 1 - fractions[i];
+                }
+            }
+            if (weight != 0)
+            {
+                for (int j = 0; j < numberOfOutputs; j++)
+                {
+                    output[outputOffset + j] += weight * getSample(sample + j);
+                }
+            }
+        }
+
+        float maxSample = (float) ((1L << bitsPerSample) - 1);
+        for (int j = 0; j < numberOfOutputs; j++)
+        {
+            float value = interpolate(output[outputOffset + j], 0, maxSample,
+                    decode[2 * j], decode[2 * j + 1]);
+            output[outputOffset + j] = clipToRange(value, range[2 * j], range[2 * j + 1]);
+        }
+    }
+
+    private float getSample(int index)
+    {
+        if (shortSamples != null)
+        {
+            return shortSamples[index];
+        }
+        return intSamples[index] & 0xffffffffL;
+    }
+
+    /**
+     * Unpacks the samples, which follow each other without padding, the most significant bit
+     * first. Samples missing at the end of the data are 0.
+     */
+    private void unpackSamples(byte[] data, int numberOfSamples)
+    {
+        long buffer = 0;
+        int bits = 0;
+        int position = 0;
+        for (int i = 0; i < numberOfSamples; i++)
+        {
+            while (bits < bitsPerSample)
+            {
+                int b = position < data.length ? data[position] & 0xff : 0;
+                position++;
+                buffer = buffer << 8 | b;
+                bits += 8;
+            }
+            bits -= bitsPerSample;
+            int sample = (int) (buffer >>> bits & (1L << bitsPerSample) - 1);
+            if (shortSamples != null)
+            {
+                shortSamples[i] = (char) sample;
+            }
+            else
+            {
+                intSamples[i] = sample;
+            }
+        }
+    }
+
+    /**
+     * Returns the values of an array entry, or the default values if it is missing or too
+     * short.
+     */
+    private float[] getValues(COSName key, float[] defaultValues)
+    {
+        COSBase base = getDictionary().getDictionaryObject(key);
+        if (base instanceof COSArray && ((COSArray) base).size() >= defaultValues.length)
+        {
+            float[] values = new float[defaultValues.length];
+            System.arraycopy(((COSArray) base).toFloatArray(), 0, values, 0, values.length);
+            return values;
+        }
+        return defaultValues.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "FunctionType0{"
+                + "Size: " + getDictionary().getDictionaryObject(COSName.SIZE) + " "
+                + "BitsPerSample: " + bitsPerSample + "}";
+    }
+}
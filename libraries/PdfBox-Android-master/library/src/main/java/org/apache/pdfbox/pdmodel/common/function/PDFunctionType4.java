@@ -2,6 +2,7 @@ package org.apache.pdfbox.pdmodel.common.function;
 
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.pdmodel.common.PDRange;
+import org.apache.pdfbox.pdmodel.common.function.type4.CompiledInstructionSequence;
 import org.apache.pdfbox.pdmodel.common.function.type4.ExecutionContext;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequence;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequenceBuilder;
@@ -19,7 +20,15 @@ public class PDFunctionType4 extends PDFunction
 
     private static final Operators OPERATORS = new Operators();
 
+    // the number of entries of the memoizing cache, a power of 2
+    private static final int CACHE_SIZE = 256;
+
     private final InstructionSequence instructions;
+    // null if the function has to be interpreted
+    private final CompiledInstructionSequence compiledInstructions;
+
+    // the results of a function with a single input, indexed by the bits of the clipped input
+    private volatile CacheEntry[] cache;
 
     /**
      * Constructor.
@@ -32,6 +41,41 @@ public class PDFunctionType4 extends PDFunction
         super( functionStream );
         this.instructions = InstructionSequenceBuilder.parse(
                 getPDStream().getInputStreamAsString());
+        this.compiledInstructions = CompiledInstructionSequence.compile(instructions);
+        if (getNumberOfInputParameters() == 1)
+        {
+            cache = new CacheEntry[CACHE_SIZE];
+        }
+    }
+
+    /**
+     * Enables or disables the memoizing of results. Functions with a single input, e.g. the
+     * tint transform of a separation color space, are typically evaluated for the same few
+     * values over and over again, so their results are cached by default. Functions with
+     * several inputs are never cached.
+     *
+     * @param memoizing true if the results of a function with a single input are to be cached
+     */
+    public void setMemoizing(boolean memoizing)
+    {
+        if (!memoizing)
+        {
+            cache = null;
+        }
+        else if (cache == null && getNumberOfInputParameters() == 1)
+        {
+            cache = new CacheEntry[CACHE_SIZE];
+        }
+    }
+
+    /**
+     * Returns true if the results of the function are cached.
+     *
+     * @return true if the results are cached
+     */
+    public boolean isMemoizing()
+    {
+        return cache != null;
     }
 
 
@@ -49,11 +93,47 @@ public class PDFunctionType4 extends PDFunction
     public float[] eval(float[] input) throws IOException
     {
         //Setup the input values
-        ExecutionContext context = new ExecutionContext(OPERATORS);
+        float[] clippedInput = new float[input.length];
         for (int i = 0; i < input.length; i++)
         {
             PDRange domain = getDomainForInput(i);
-            float value = clipToRange(input[i], domain.getMin(), domain.getMax());
+            clippedInput[i] = clipToRange(input[i], domain.getMin(), domain.getMax());
+        }
+
+        CacheEntry[] entries = cache;
+        if (entries == null || clippedInput.length != 1)
+        {
+            return evalClipped(clippedInput);
+        }
+        int bits = Float.floatToIntBits(clippedInput[0]);
+        int index = (bits ^ bits >>> 16) * 0x9E3779B9 >>> 24 & (CACHE_SIZE - 1);
+        CacheEntry entry = entries[index];
+        if (entry == null || entry.inputBits != bits)
+        {
+            // the entries are immutable, a lost update only costs another evaluation
+            entry = new CacheEntry(bits, evalClipped(clippedInput));
+            entries[index] = entry;
+        }
+        return entry.output.clone();
+    }
+
+    private float[] evalClipped(float[] input)
+    {
+        int numberOfOutputValues = getNumberOfOutputParameters();
+        if (compiledInstructions != null)
+        {
+            float[] outputValues = compiledInstructions.execute(input, numberOfOutputValues);
+            for (int i = numberOfOutputValues - 1; i >= 0; i--)
+            {
+                PDRange range = getRangeForOutput(i);
+                outputValues[i] = clipToRange(outputValues[i], range.getMin(), range.getMax());
+            }
+            return outputValues;
+        }
+
+        ExecutionContext context = new ExecutionContext(OPERATORS);
+        for (float value : input)
+        {
             context.getStack().push(value);
         }
 
@@ -61,7 +141,6 @@ public class PDFunctionType4 extends PDFunction
         instructions.execute(context);
 
         //Extract the output values
-        int numberOfOutputValues = getNumberOfOutputParameters();
         int numberOfActualOutputValues = context.getStack().size();
         if (numberOfActualOutputValues < numberOfOutputValues)
         {
@@ -81,4 +160,19 @@ public class PDFunctionType4 extends PDFunction
         //Return the resulting array
         return outputValues;
     }
+
+    /**
+     * The result of the function for an input.
+     */
+    private static final class CacheEntry
+    {
+        private final int inputBits;
+        private final float[] output;
+
+        CacheEntry(int inputBits, float[] output)
+        {
+            this.inputBits = inputBits;
+            this.output = output;
+        }
+    }
 }
@@ -29,6 +29,17 @@ public class PDFunctionTypeIdentity extends PDFunction
         return input;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void eval(float[] input, float[] output, int count) throws IOException
+    {
+        // there is no dictionary telling the number of values, each output equals its input
+        int length = count > 0 ? input.length / count * count : 0;
+        System.arraycopy(input, 0, output, 0, length);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,782 @@
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import java.util.EmptyStackException;
+import java.util.List;
+
+/**
+ * An instruction sequence compiled into a flat array of opcodes. The operators are resolved
+ * once, procedures of "if" and "ifelse" become conditional jumps, and the operands are kept
+ * on a primitive stack. The results are the same as those of {@link InstructionSequence}.
+ *
+ * The values on the stack are stored as doubles, which hold ints and reals exactly, together
+ * with their type. Real results are rounded to float, as the interpreter computes them.
+ */
+public final class CompiledInstructionSequence
+{
+    private static final int PUSH_INT = 0;
+    private static final int PUSH_REAL = 1;
+    private static final int PUSH_BOOL = 2;
+    private static final int JUMP = 3;
+    private static final int JUMP_IF_FALSE = 4;
+
+    private static final int ABS = 10;
+    private static final int ADD = 11;
+    private static final int ATAN = 12;
+    private static final int CEILING = 13;
+    private static final int COS = 14;
+    private static final int CVI = 15;
+    private static final int CVR = 16;
+    private static final int DIV = 17;
+    private static final int EXP = 18;
+    private static final int FLOOR = 19;
+    private static final int IDIV = 20;
+    private static final int LN = 21;
+    private static final int LOG = 22;
+    private static final int MOD = 23;
+    private static final int MUL = 24;
+    private static final int NEG = 25;
+    private static final int ROUND = 26;
+    private static final int SIN = 27;
+    private static final int SQRT = 28;
+    private static final int SUB = 29;
+    private static final int TRUNCATE = 30;
+    private static final int AND = 31;
+    private static final int BITSHIFT = 32;
+    private static final int EQ = 33;
+    private static final int FALSE = 34;
+    private static final int GE = 35;
+    private static final int GT = 36;
+    private static final int LE = 37;
+    private static final int LT = 38;
+    private static final int NE = 39;
+    private static final int NOT = 40;
+    private static final int OR = 41;
+    private static final int TRUE = 42;
+    private static final int XOR = 43;
+    private static final int COPY = 44;
+    private static final int DUP = 45;
+    private static final int EXCH = 46;
+    private static final int INDEX = 47;
+    private static final int POP = 48;
+    private static final int ROLL = 49;
+
+    private static final String[] OPERATOR_NAMES = { "abs", "add", "atan", "ceiling", "cos",
+        "cvi", "cvr", "div", "exp", "floor", "idiv", "ln", "log", "mod", "mul", "neg", "round",
+        "sin", "sqrt", "sub", "truncate", "and", "bitshift", "eq", "false", "ge", "gt", "le",
+        "lt", "ne", "not", "or", "true", "xor", "copy", "dup", "exch", "index", "pop", "roll" };
+
+    // the types of the values on the stack
+    private static final byte INT = 0;
+    private static final byte REAL = 1;
+    private static final byte BOOL = 2;
+
+    private final int[] opcodes;
+    private final int[] arguments;
+
+    private CompiledInstructionSequence(int[] opcodes, int[] arguments)
+    {
+        this.opcodes = opcodes;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Compiles the given instruction sequence.
+     *
+     * @param sequence the main sequence of a Type 4 function
+     * @return the compiled sequence, or null if the sequence uses procedures other than as
+     * operands of "if" and "ifelse" or names which aren't operators, it has to be interpreted
+     */
+    public static CompiledInstructionSequence compile(InstructionSequence sequence)
+    {
+        List<Object> instructions = sequence.getInstructions();
+        // the function body is a single procedure which is executed by the main sequence
+        if (instructions.size() == 1 && instructions.get(0) instanceof InstructionSequence)
+        {
+            instructions = ((InstructionSequence) instructions.get(0)).getInstructions();
+        }
+        Code code = new Code();
+        if (!code.add(instructions))
+        {
+            return null;
+        }
+        int[] opcodes = new int[code.size];
+        int[] arguments = new int[code.size];
+        System.arraycopy(code.opcodes, 0, opcodes, 0, code.size);
+        System.arraycopy(code.arguments, 0, arguments, 0, code.size);
+        return new CompiledInstructionSequence(opcodes, arguments);
+    }
+
+    /**
+     * Executes the sequence with the given input values on the stack.
+     *
+     * @param input the input values, pushed as reals
+     * @param numberOfOutputValues the number of values to be returned
+     * @return the values on top of the stack, the topmost value being the last one
+     * @throws IllegalStateException if there are less values on the stack than requested
+     */
+    public float[] execute(float[] input, int numberOfOutputValues)
+    {
+        Machine machine = new Machine(input.length + 16);
+        for (float value : input)
+        {
+            machine.push(value, REAL);
+        }
+        machine.run(opcodes, arguments);
+        if (machine.size < numberOfOutputValues)
+        {
+            throw new IllegalStateException("The type 4 function returned "
+                    + machine.size
+                    + " values but the Range entry indicates that "
+                    + numberOfOutputValues + " values be returned.");
+        }
+        float[] output = new float[numberOfOutputValues];
+        for (int i = numberOfOutputValues - 1; i >= 0; i--)
+        {
+            output[i] = (float) machine.popNumber();
+        }
+        return output;
+    }
+
+    private static int getOperatorOpcode(String name)
+    {
+        for (int i = 0; i < OPERATOR_NAMES.length; i++)
+        {
+            if (OPERATOR_NAMES[i].equals(name))
+            {
+                return ABS + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The code being compiled.
+     */
+    private static final class Code
+    {
+        private int[] opcodes = new int[32];
+        private int[] arguments = new int[32];
+        private int size;
+
+        // adds the instructions, returns false if they can't be compiled
+        boolean add(List<Object> instructions)
+        {
+            int count = instructions.size();
+            for (int i = 0; i < count; i++)
+            {
+                Object instruction = instructions.get(i);
+                if (instruction instanceof Integer)
+                {
+                    emit(PUSH_INT, (Integer) instruction);
+                }
+                else if (instruction instanceof Float)
+                {
+                    emit(PUSH_REAL, Float.floatToIntBits((Float) instruction));
+                }
+                else if (instruction instanceof Boolean)
+                {
+                    emit(PUSH_BOOL, (Boolean) instruction ? 1 : 0);
+                }
+                else if (instruction instanceof InstructionSequence)
+                {
+                    if (isOperator(instructions, i + 1, "if"))
+                    {
+                        // { proc } if
+                        int jump = emit(JUMP_IF_FALSE, 0);
+                        if (!add(((InstructionSequence) instruction).getInstructions()))
+                        {
+                            return false;
+                        }
+                        arguments[jump] = size;
+                        i++;
+                    }
+                    else if (i + 1 < count && instructions.get(i + 1) instanceof InstructionSequence
+                            && isOperator(instructions, i + 2, "ifelse"))
+                    {
+                        // { proc1 } { proc2 } ifelse
+                        int elseJump = emit(JUMP_IF_FALSE, 0);
+                        if (!add(((InstructionSequence) instruction).getInstructions()))
+                        {
+                            return false;
+                        }
+                        int endJump = emit(JUMP, 0);
+                        arguments[elseJump] = size;
+                        if (!add(((InstructionSequence) instructions.get(i + 1)).getInstructions()))
+                        {
+                            return false;
+                        }
+                        arguments[endJump] = size;
+                        i += 2;
+                    }
+                    else
+                    {
+                        return false;
+                    }
+                }
+                else
+                {
+                    int opcode = getOperatorOpcode((String) instruction);
+                    if (opcode < 0)
+                    {
+                        return false;
+                    }
+                    emit(opcode, 0);
+                }
+            }
+            return true;
+        }
+
+        private static boolean isOperator(List<Object> instructions, int index, String name)
+        {
+            return index < instructions.size() && name.equals(instructions.get(index));
+        }
+
+        private int emit(int opcode, int argument)
+        {
+            if (size == opcodes.length)
+            {
+                int[] newOpcodes = new int[size * 2];
+                int[] newArguments = new int[size * 2];
+                System.arraycopy(opcodes, 0, newOpcodes, 0, size);
+                System.arraycopy(arguments, 0, newArguments, 0, size);
+                opcodes = newOpcodes;
+                arguments = newArguments;
+            }
+            opcodes[size] = opcode;
+            arguments[size] = argument;
+            return size++;
+        }
+    }
+
+    /**
+     * The operand stack of a single execution.
+     */
+    private static final class Machine
+    {
+        private double[] values;
+        private byte[] types;
+        private int size;
+
+        Machine(int capacity)
+        {
+            values = new double[capacity];
+            types = new byte[capacity];
+        }
+
+        void run(int[] opcodes, int[] arguments)
+        {
+            int pc = 0;
+            int end = opcodes.length;
+            while (pc < end)
+            {
+                int opcode = opcodes[pc];
+                int argument = arguments[pc];
+                pc++;
+                switch (opcode)
+                {
+                case PUSH_INT:
+                    push(argument, INT);
+                    break;
+                case PUSH_REAL:
+                    push(Float.intBitsToFloat(argument), REAL);
+                    break;
+                case PUSH_BOOL:
+                    push(argument, BOOL);
+                    break;
+                case JUMP:
+                    pc = argument;
+                    break;
+                case JUMP_IF_FALSE:
+                    if (!popBoolean())
+                    {
+                        pc = argument;
+                    }
+                    break;
+                default:
+                    execute(opcode);
+                    break;
+                }
+            }
+        }
+
+        private void execute(int opcode)
+        {
+            switch (opcode)
+            {
+            case ABS:
+                if (topType() == INT)
+                {
+                    pushInt(Math.abs(popInt()));
+                }
+                else
+                {
+                    pushReal(Math.abs(popReal()));
+                }
+                break;
+            case ADD:
+            case SUB:
+            {
+                boolean ints = topType() == INT && typeAt(1) == INT;
+                double num2 = popNumber();
+                double num1 = popNumber();
+                if (ints)
+                {
+                    long result = opcode == ADD ? (long) num1 + (long) num2 : (long) num1 - (long) num2;
+                    pushLong(result);
+                }
+                else
+                {
+                    float real1 = (float) num1;
+                    float real2 = (float) num2;
+                    pushReal(opcode == ADD ? real1 + real2 : real1 - real2);
+                }
+                break;
+            }
+            case ATAN:
+            {
+                float den = popReal();
+                float num = popReal();
+                float atan = (float) Math.atan2(num, den);
+                atan = (float) Math.toDegrees(atan) % 360;
+                if (atan < 0)
+                {
+                    atan = atan + 360;
+                }
+                pushReal(atan);
+                break;
+            }
+            case CEILING:
+                if (topType() != INT)
+                {
+                    pushReal((float) Math.ceil(popNumber()));
+                }
+                else
+                {
+                    checkNumber(0);
+                }
+                break;
+            case COS:
+                pushReal((float) Math.cos(Math.toRadians(popReal())));
+                break;
+            case CVI:
+                if (topType() == INT)
+                {
+                    checkNumber(0);
+                }
+                else
+                {
+                    pushInt((int) popReal());
+                }
+                break;
+            case CVR:
+                pushReal(popReal());
+                break;
+            case DIV:
+            {
+                float num2 = popReal();
+                float num1 = popReal();
+                pushReal(num1 / num2);
+                break;
+            }
+            case EXP:
+            {
+                double exp = popNumber();
+                double base = popNumber();
+                pushReal((float) Math.pow(base, exp));
+                break;
+            }
+            case FLOOR:
+                if (topType() != INT)
+                {
+                    pushReal((float) Math.floor(popNumber()));
+                }
+                else
+                {
+                    checkNumber(0);
+                }
+                break;
+            case IDIV:
+            {
+                int num2 = popInt();
+                int num1 = popInt();
+                pushInt(num1 / num2);
+                break;
+            }
+            case LN:
+                pushReal((float) Math.log(popNumber()));
+                break;
+            case LOG:
+                pushReal((float) Math.log10(popNumber()));
+                break;
+            case MOD:
+            {
+                int int2 = popInt();
+                int int1 = popInt();
+                pushInt(int1 % int2);
+                break;
+            }
+            case MUL:
+            {
+                boolean ints = topType() == INT && typeAt(1) == INT;
+                double num2 = popNumber();
+                double num1 = popNumber();
+                if (ints)
+                {
+                    pushLong((long) num1 * (long) num2);
+                }
+                else
+                {
+                    pushReal((float) (num1 * num2));
+                }
+                break;
+            }
+            case NEG:
+                if (topType() == INT)
+                {
+                    int value = popInt();
+                    if (value == Integer.MIN_VALUE)
+                    {
+                        pushReal(-(float) value);
+                    }
+                    else
+                    {
+                        pushInt(-value);
+                    }
+                }
+                else
+                {
+                    pushReal(-popReal());
+                }
+                break;
+            case ROUND:
+                if (topType() != INT)
+                {
+                    pushReal((float) Math.round(popNumber()));
+                }
+                else
+                {
+                    checkNumber(0);
+                }
+                break;
+            case SIN:
+                pushReal((float) Math.sin(Math.toRadians(popReal())));
+                break;
+            case SQRT:
+            {
+                float num = popReal();
+                if (num < 0)
+                {
+                    throw new IllegalArgumentException("argument must be nonnegative");
+                }
+                pushReal((float) Math.sqrt(num));
+                break;
+            }
+            case TRUNCATE:
+                if (topType() != INT)
+                {
+                    pushReal((float) (int) popReal());
+                }
+                else
+                {
+                    checkNumber(0);
+                }
+                break;
+            case AND:
+            case OR:
+            case XOR:
+                logical(opcode);
+                break;
+            case BITSHIFT:
+            {
+                int shift = popInt();
+                int int1 = popInt();
+                pushInt(shift < 0 ? int1 >> Math.abs(shift) : int1 << shift);
+                break;
+            }
+            case EQ:
+            case NE:
+            {
+                boolean equal = isEqual();
+                push(equal == (opcode == EQ) ? 1 : 0, BOOL);
+                break;
+            }
+            case GE:
+            case GT:
+            case LE:
+            case LT:
+            {
+                float num2 = popReal();
+                float num1 = popReal();
+                boolean result;
+                if (opcode == GE)
+                {
+                    result = num1 >= num2;
+                }
+                else if (opcode == GT)
+                {
+                    result = num1 > num2;
+                }
+                else if (opcode == LE)
+                {
+                    result = num1 <= num2;
+                }
+                else
+                {
+                    result = num1 < num2;
+                }
+                push(result ? 1 : 0, BOOL);
+                break;
+            }
+            case FALSE:
+                push(0, BOOL);
+                break;
+            case TRUE:
+                push(1, BOOL);
+                break;
+            case NOT:
+                if (topType() == BOOL)
+                {
+                    push(popBoolean() ? 0 : 1, BOOL);
+                }
+                else if (topType() == INT)
+                {
+                    pushInt(-popInt());
+                }
+                else
+                {
+                    throw new ClassCastException("Operand must be bool or int");
+                }
+                break;
+            case COPY:
+            {
+                int n = (int) popNumber();
+                if (n > 0)
+                {
+                    if (n > size)
+                    {
+                        throw new IndexOutOfBoundsException("copy: " + n);
+                    }
+                    ensureCapacity(size + n);
+                    System.arraycopy(values, size - n, values, size, n);
+                    System.arraycopy(types, size - n, types, size, n);
+                    size += n;
+                }
+                break;
+            }
+            case DUP:
+                checkSize(1);
+                push(values[size - 1], types[size - 1]);
+                break;
+            case EXCH:
+            {
+                checkSize(2);
+                double value = values[size - 1];
+                byte type = types[size - 1];
+                values[size - 1] = values[size - 2];
+                types[size - 1] = types[size - 2];
+                values[size - 2] = value;
+                types[size - 2] = type;
+                break;
+            }
+            case INDEX:
+            {
+                int n = (int) popNumber();
+                if (n < 0)
+                {
+                    throw new IllegalArgumentException("rangecheck: " + n);
+                }
+                if (n >= size)
+                {
+                    throw new IndexOutOfBoundsException("index: " + n);
+                }
+                push(values[size - n - 1], types[size - n - 1]);
+                break;
+            }
+            case POP:
+                checkSize(1);
+                size--;
+                break;
+            case ROLL:
+                roll();
+                break;
+            default:
+                throw new IllegalStateException("Unknown opcode " + opcode);
+            }
+        }
+
+        // rolls the same way as StackOperators.Roll: the top group of values is moved below
+        // the group under it
+        private void roll()
+        {
+            int j = (int) popNumber();
+            int n = (int) popNumber();
+            if (j == 0)
+            {
+                return;
+            }
+            if (n < 0)
+            {
+                throw new IllegalArgumentException("rangecheck: " + n);
+            }
+            int top = j > 0 ? j : Math.max(0, n + j);
+            int below = j > 0 ? Math.max(0, n - j) : -j;
+            int count = top + below;
+            checkSize(count);
+            int start = size - count;
+            double[] rolledValues = new double[count];
+            byte[] rolledTypes = new byte[count];
+            System.arraycopy(values, size - top, rolledValues, 0, top);
+            System.arraycopy(types, size - top, rolledTypes, 0, top);
+            System.arraycopy(values, start, rolledValues, top, below);
+            System.arraycopy(types, start, rolledTypes, top, below);
+            System.arraycopy(rolledValues, 0, values, start, count);
+            System.arraycopy(rolledTypes, 0, types, start, count);
+        }
+
+        private void logical(int opcode)
+        {
+            checkSize(2);
+            byte type2 = types[size - 1];
+            byte type1 = types[size - 2];
+            if (type1 == BOOL && type2 == BOOL)
+            {
+                boolean bool2 = popBoolean();
+                boolean bool1 = popBoolean();
+                boolean result = opcode == AND ? bool1 & bool2 : opcode == OR ? bool1 | bool2
+                        : bool1 ^ bool2;
+                push(result ? 1 : 0, BOOL);
+            }
+            else if (type1 == INT && type2 == INT)
+            {
+                int int2 = popInt();
+                int int1 = popInt();
+                pushInt(opcode == AND ? int1 & int2 : opcode == OR ? int1 | int2 : int1 ^ int2);
+            }
+            else
+            {
+                throw new ClassCastException("Operands must be bool/bool or int/int");
+            }
+        }
+
+        // numbers are equal if their float values are, booleans if their values are
+        private boolean isEqual()
+        {
+            checkSize(2);
+            byte type2 = types[size - 1];
+            byte type1 = types[size - 2];
+            double value2 = values[--size];
+            double value1 = values[--size];
+            if (type1 != BOOL && type2 != BOOL)
+            {
+                return (float) value1 == (float) value2;
+            }
+            return type1 == type2 && value1 == value2;
+        }
+
+        private byte topType()
+        {
+            checkSize(1);
+            return types[size - 1];
+        }
+
+        // the type of the value below the given number of values, or BOOL if there is none
+        private byte typeAt(int depth)
+        {
+            return depth < size ? types[size - depth - 1] : BOOL;
+        }
+
+        private void checkSize(int count)
+        {
+            if (size < count)
+            {
+                throw new EmptyStackException();
+            }
+        }
+
+        // checks that the value at the given depth is a number
+        private void checkNumber(int depth)
+        {
+            checkSize(depth + 1);
+            if (types[size - depth - 1] == BOOL)
+            {
+                throw new ClassCastException("Operand must be a number");
+            }
+        }
+
+        double popNumber()
+        {
+            checkNumber(0);
+            return values[--size];
+        }
+
+        private float popReal()
+        {
+            return (float) popNumber();
+        }
+
+        private int popInt()
+        {
+            checkSize(1);
+            if (types[size - 1] != INT)
+            {
+                throw new ClassCastException("Operand must be an int");
+            }
+            return (int) values[--size];
+        }
+
+        private boolean popBoolean()
+        {
+            checkSize(1);
+            if (types[size - 1] != BOOL)
+            {
+                throw new ClassCastException("Operand must be a bool");
+            }
+            return values[--size] != 0;
+        }
+
+        private void pushInt(int value)
+        {
+            push(value, INT);
+        }
+
+        private void pushReal(float value)
+        {
+            push(value, REAL);
+        }
+
+        // pushes an int result, or a real if it exceeds the int range
+        private void pushLong(long value)
+        {
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            {
+                pushReal((float) value);
+            }
+            else
+            {
+                pushInt((int) value);
+            }
+        }
+
+        void push(double value, byte type)
+        {
+            ensureCapacity(size + 1);
+            values[size] = value;
+            types[size] = type;
+            size++;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (capacity > values.length)
+            {
+                int newCapacity = Math.max(capacity, values.length * 2);
+                double[] newValues = new double[newCapacity];
+                byte[] newTypes = new byte[newCapacity];
+                System.arraycopy(values, 0, newValues, 0, size);
+                System.arraycopy(types, 0, newTypes, 0, size);
+                values = newValues;
+                types = newTypes;
+            }
+        }
+    }
+}
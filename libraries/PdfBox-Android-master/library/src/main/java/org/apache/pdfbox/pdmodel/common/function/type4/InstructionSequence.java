@@ -56,6 +56,15 @@ public class InstructionSequence
         this.instructions.add(child);
     }
 
+    /**
+     * Returns the instructions: names, Integer, Float and Boolean values and nested procs.
+     * @return the instructions
+     */
+    List<Object> getInstructions()
+    {
+        return this.instructions;
+    }
+
     /**
      * Executes the instruction sequence.
      * @param context the execution context
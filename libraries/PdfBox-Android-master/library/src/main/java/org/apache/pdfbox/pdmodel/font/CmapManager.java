@@ -2,9 +2,18 @@ package org.apache.pdfbox.pdmodel.font;
 
 import org.apache.fontbox.cmap.CMap;
 import org.apache.fontbox.cmap.CMapParser;
+import org.apache.pdfbox.io.IOUtils;
 
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,13 +25,17 @@ final class CMapManager
 {
     protected static Map<String, CMap> cMapCache =
             Collections.synchronizedMap(new HashMap<String, CMap>());
+
+    // directory below the font cache directory which holds the compact predefined CMaps
+    private static final String COMPACT_CMAP_DIR = ".pdfbox.cmaps";
     
     private CMapManager()
     {
     }
 
     /**
-     * Fetches the predefined CMap from disk (or cache).
+     * Fetches the predefined CMap from disk (or cache). A predefined CMap is parsed only once,
+     * afterwards it is loaded from its compact form in the font cache directory.
      *
      * @param cMapName CMap name
      */
@@ -34,14 +47,90 @@ final class CMapManager
             return cmap;
         }
 
+        // the name comes from the PDF, it is used as a file name only if it is a bundled CMap
         CMapParser parser = new CMapParser();
-        CMap targetCmap = parser.parsePredefined(cMapName);
+        if (!parser.isPredefined(cMapName))
+        {
+            throw new IOException("Unknown predefined CMap " + cMapName);
+        }
+        File compactFile = new File(new File(FileSystemFontProvider.getCacheDirectory(),
+                COMPACT_CMAP_DIR), cMapName);
+        CMap targetCmap = readCompactCMap(compactFile);
+        if (targetCmap == null)
+        {
+            targetCmap = parser.parsePredefined(cMapName);
+            writeCompactCMap(targetCmap, compactFile);
+        }
 
         // limit the cache to predefined CMaps
         cMapCache.put(targetCmap.getName(), targetCmap);
         return targetCmap;
     }
 
+    /**
+     * Reads the compact form of a predefined CMap, returns null if it is missing or unusable.
+     */
+    private static CMap readCompactCMap(File file)
+    {
+        if (!file.isFile())
+        {
+            return null;
+        }
+        InputStream input = null;
+        try
+        {
+            input = new BufferedInputStream(new FileInputStream(file));
+            return CMap.readCompact(input);
+        }
+        catch (IOException e)
+        {
+            Log.w("PdfBoxAndroid", "Ignoring compact CMap " + file, e);
+            return null;
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Writes the compact form of a predefined CMap. The file is written under a unique temporary
+     * name and renamed afterwards, so that concurrent readers never see a partial file and
+     * concurrent writers don't write into the same file.
+     */
+    private static void writeCompactCMap(CMap cmap, File file)
+    {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs())
+        {
+            return;
+        }
+        File tempFile = null;
+        OutputStream output = null;
+        try
+        {
+            // the prefix must have at least 3 characters, some CMaps are named "H" or "V"
+            tempFile = File.createTempFile("cmap-" + file.getName(), ".tmp", dir);
+            output = new BufferedOutputStream(new FileOutputStream(tempFile));
+            cmap.writeCompact(output);
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(file))
+            {
+                tempFile.delete();
+            }
+        }
+        catch (IOException e)
+        {
+            Log.w("PdfBoxAndroid", "Could not write compact CMap " + file, e);
+            IOUtils.closeQuietly(output);
+            if (tempFile != null)
+            {
+                tempFile.delete();
+            }
+        }
+    }
+
     /**
      * Parse the given CMap.
      *
@@ -1,11 +1,20 @@
 package org.apache.pdfbox.pdmodel.font;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -18,6 +27,7 @@ import org.apache.fontbox.ttf.TrueTypeFont;
 import org.apache.fontbox.type1.Type1Font;
 import org.apache.fontbox.util.autodetect.FontFileFinder;
 import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.util.PDFBoxResourceLoader;
 
 import android.util.Log;
 
@@ -28,10 +38,21 @@ import android.util.Log;
  */
 final class FileSystemFontProvider extends FontProvider
 {
-    // cache of font files on the system (populated in constructor)
+    // name of the index file and the header identifying its format
+    private static final String CACHE_FILE_NAME = ".pdfbox.cache";
+    private static final String CACHE_HEADER = "#PDFBox font index 1";
+
+    // font kinds as written to the index
+    private static final String KIND_TTF = "TTF";
+    private static final String KIND_OTF = "OTF";
+    private static final String KIND_PFB = "PFB";
+    private static final String KIND_NONE = "-";
+
+    // cache of font files on the system (populated on first lookup)
     private final Map<String, File> ttfFontFiles = new HashMap<String, File>();
     private final Map<String, File> cffFontFiles = new HashMap<String, File>();
     private final Map<String, File> type1FontFiles =  new HashMap<String, File>();
+    private boolean indexed;
 
     // cache of loaded fonts which are in use (populated on-the-fly)
     private final Map<String, TrueTypeFont> ttfFonts = new HashMap<String, TrueTypeFont>();
@@ -39,11 +60,52 @@ final class FileSystemFontProvider extends FontProvider
     private final Map<String, Type1Font> type1Fonts = new HashMap<String, Type1Font>();
 
     /**
-     * Constructor.
+     * A font file on the system, as stored in the index.
+     */
+    private static final class FontFileInfo
+    {
+        private final File file;
+        private final long length;
+        private final long lastModified;
+        private final String kind;
+        private final Set<String> names;
+
+        private FontFileInfo(File file, long length, long lastModified, String kind,
+                Set<String> names)
+        {
+            this.file = file;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.kind = kind;
+            this.names = names;
+        }
+    }
+
+    /**
+     * Constructor. The local system is searched for fonts on the first lookup.
      */
     FileSystemFontProvider()
     {
-    	Log.v("PdfBoxAndroid", "Will search the local system for fonts");
+    }
+
+    /**
+     * Builds the font file cache, unless this has been done already. The PostScript names of
+     * the fonts are read from the index file, only new or changed font files are parsed.
+     */
+    private void ensureIndexed()
+    {
+        if (indexed)
+        {
+            return;
+        }
+        indexed = true;
+
+        Log.v("PdfBoxAndroid", "Will search the local system for fonts");
+
+        File cacheFile = getCacheFile();
+        Map<String, FontFileInfo> cachedInfos = readCache(cacheFile);
+        List<FontFileInfo> infos = new ArrayList<FontFileInfo>();
+        boolean changed = false;
 
         int count = 0;
         FontFileFinder fontFileFinder = new FontFileFinder();
@@ -52,102 +114,154 @@ final class FileSystemFontProvider extends FontProvider
         {
             count++;
             File fontFile = new File(font);
-            try
+            String path = fontFile.getPath().toLowerCase();
+            if (!path.endsWith(".ttf") && !path.endsWith(".otf") && !path.endsWith(".pfb"))
             {
-                if (fontFile.getPath().toLowerCase().endsWith(".ttf") ||
-                    fontFile.getPath().toLowerCase().endsWith(".otf"))
-                {
-                    addOpenTypeFont(fontFile);
-                }
-                else if (fontFile.getPath().toLowerCase().endsWith(".pfb"))
-                {
-                    addType1Font(fontFile);
-                }
+                continue;
             }
-            catch (IOException e)
+
+            FontFileInfo info = cachedInfos.remove(fontFile.getAbsolutePath());
+            if (info == null || info.length != fontFile.length() ||
+                info.lastModified != fontFile.lastModified())
             {
-            	Log.e("PdfBoxAndroid", "Error parsing font " + fontFile.getPath(), e);
+                info = parseFontFile(fontFile);
+                changed = true;
             }
+            addFontFile(info);
+            infos.add(info);
+        }
+
+        // fonts which have been removed from the system
+        if (changed || !cachedInfos.isEmpty())
+        {
+            writeCache(cacheFile, infos);
         }
 
         Log.v("PdfBoxAndroid", "Found " + count + " fonts on the local system");
     }
 
     /**
-     * Adds an OTF or TTF font to the file cache. To reduce memory, the parsed font is not cached.
+     * Adds the given font file to the file cache.
      */
-    private void addOpenTypeFont(File otfFile) throws IOException
+    private void addFontFile(FontFileInfo info)
     {
-        TTFParser ttfParser = new TTFParser(false, true);
-        TrueTypeFont ttf = null;
-        try
+        if (KIND_TTF.equals(info.kind))
         {
-            ttf = ttfParser.parse(otfFile);
+            ttfFontFiles.putAll(toMap(info.names, info.file));
         }
-        catch (NullPointerException e) // TTF parser is buggy
+        else if (KIND_OTF.equals(info.kind))
         {
-        	Log.e("PdfBoxAndroid", "Could not load font file: " + otfFile, e);
+            cffFontFiles.putAll(toMap(info.names, info.file));
         }
-        catch (IOException e)
+        else if (KIND_PFB.equals(info.kind))
         {
-        	Log.e("PdfBoxAndroid", "Could not load font file: " + otfFile, e);
+            type1FontFiles.putAll(toMap(info.names, info.file));
         }
+    }
 
+    /**
+     * Parses the given font file to determine its kind and names. Fonts which can't be used
+     * are recorded as well, so that they aren't parsed again as long as they are unchanged.
+     */
+    private FontFileInfo parseFontFile(File fontFile)
+    {
+        String kind = KIND_NONE;
+        Set<String> names = Collections.emptySet();
         try
         {
-        	// check for 'name' table
-        	NamingTable nameTable = null;
-
-        	// ttf could still be null
-        	if (ttf != null)
-        	{
-        		nameTable = ttf.getNaming();
-        	}
-            if (nameTable == null)
+            if (fontFile.getPath().toLowerCase().endsWith(".pfb"))
             {
-            	Log.w("PdfBoxAndroid", "Missing 'name' table in font " + otfFile);
+                names = getType1FontNames(fontFile);
+                kind = KIND_PFB;
             }
             else
             {
-                // read PostScript name, if any
-                if (nameTable.getPostScriptName() != null)
+                TrueTypeFont ttf = parseOpenTypeFont(fontFile);
+                if (ttf != null)
                 {
-                    String psName = nameTable.getPostScriptName();
-
-                    String format;
-                    if (ttf.getTableMap().get("CFF ") != null)
+                    try
                     {
-                        format = "OTF";
-                        cffFontFiles.putAll(toMap(getNames(ttf), otfFile));
+                        names = getOpenTypeFontNames(ttf, fontFile);
+                        if (names != null)
+                        {
+                            kind = ttf.getTableMap().get("CFF ") != null ? KIND_OTF : KIND_TTF;
+                        }
+                        else
+                        {
+                            names = Collections.emptySet();
+                        }
                     }
-                    else
+                    finally
                     {
-                        format = "TTF";
-                        ttfFontFiles.putAll(toMap(getNames(ttf), otfFile));
+                        ttf.close();
                     }
-
-                    Log.v("PdfBoxAndroid", format +": '" + psName + "' / '" + nameTable.getFontFamily() +
-                    		"' / '" + nameTable.getFontSubFamily() + "'");
-                }
-                else
-                {
-                	Log.w("PdfBoxAndroid", "Missing 'name' entry for PostScript name in font " + otfFile);
                 }
             }
         }
-        finally
+        catch (IOException e)
+        {
+            Log.e("PdfBoxAndroid", "Error parsing font " + fontFile.getPath(), e);
+        }
+        return new FontFileInfo(fontFile.getAbsoluteFile(), fontFile.length(),
+                fontFile.lastModified(), kind, names);
+    }
+
+    /**
+     * Parses an OTF or TTF font, returns null if it can't be parsed.
+     */
+    private TrueTypeFont parseOpenTypeFont(File otfFile)
+    {
+        TTFParser ttfParser = new TTFParser(false, true);
+        try
+        {
+            return ttfParser.parse(otfFile);
+        }
+        catch (NullPointerException e) // TTF parser is buggy
+        {
+        	Log.e("PdfBoxAndroid", "Could not load font file: " + otfFile, e);
+        }
+        catch (IOException e)
+        {
+        	Log.e("PdfBoxAndroid", "Could not load font file: " + otfFile, e);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the names of an OTF or TTF font, or null if it has no PostScript name.
+     */
+    private Set<String> getOpenTypeFontNames(TrueTypeFont ttf, File otfFile) throws IOException
+    {
+        // check for 'name' table
+        NamingTable nameTable = ttf.getNaming();
+        if (nameTable == null)
         {
-            if (ttf != null)
+        	Log.w("PdfBoxAndroid", "Missing 'name' table in font " + otfFile);
+        }
+        else
+        {
+            // read PostScript name, if any
+            if (nameTable.getPostScriptName() != null)
             {
-                ttf.close();
+                String psName = nameTable.getPostScriptName();
+                String format = ttf.getTableMap().get("CFF ") != null ? "OTF" : "TTF";
+
+                Log.v("PdfBoxAndroid", format +": '" + psName + "' / '" + nameTable.getFontFamily() +
+                		"' / '" + nameTable.getFontSubFamily() + "'");
+                return getNames(ttf);
+            }
+            else
+            {
+            	Log.w("PdfBoxAndroid", "Missing 'name' entry for PostScript name in font " + otfFile);
             }
         }
+        return null;
     }
 
     /**
-     * Adds a Type 1 font to the file cache. To reduce memory, the parsed font is not cached.
+     * Returns the names of a Type 1 font.
      */
-    private void addType1Font(File pfbFile) throws IOException
+    private Set<String> getType1FontNames(File pfbFile) throws IOException
     {
         InputStream input = new FileInputStream(pfbFile);
         try
@@ -155,10 +269,9 @@ final class FileSystemFontProvider extends FontProvider
             Type1Font type1 = Type1Font.createWithPFB(input);
 
             String psName = type1.getFontName();
-            type1FontFiles.putAll(toMap(getNames(type1), pfbFile));
-
             Log.v("PdfBoxAndroid", "PFB: '" + psName + "' / '" + type1.getFamilyName() + "' / '" +
             		type1.getWeight() + "'");
+            return getNames(type1);
         }
         finally
         {
@@ -166,9 +279,133 @@ final class FileSystemFontProvider extends FontProvider
         }
     }
 
+    /**
+     * Returns the location of the font index.
+     */
+    private static File getCacheFile()
+    {
+        return new File(getCacheDirectory(), CACHE_FILE_NAME);
+    }
+
+    /**
+     * Returns the directory for cached font data. The directory can be set using the system
+     * property "pdfbox.fontcache", otherwise the app's cache directory is used if available.
+     */
+    static File getCacheDirectory()
+    {
+        String path = System.getProperty("pdfbox.fontcache");
+        File dir = path != null ? new File(path) : PDFBoxResourceLoader.getCacheDir();
+        if (dir == null)
+        {
+            dir = new File(System.getProperty("java.io.tmpdir"));
+        }
+        return dir;
+    }
+
+    /**
+     * Reads the font index, the result is keyed by the absolute path of the font files.
+     * Returns an empty map if there is no usable index.
+     */
+    private static Map<String, FontFileInfo> readCache(File cacheFile)
+    {
+        Map<String, FontFileInfo> infos = new HashMap<String, FontFileInfo>();
+        if (!cacheFile.isFile())
+        {
+            return infos;
+        }
+        BufferedReader reader = null;
+        try
+        {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), "UTF-8"));
+            if (!CACHE_HEADER.equals(reader.readLine()))
+            {
+                return infos;
+            }
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                // kind, length, last modified, path, names...
+                String[] parts = line.split("\t");
+                if (parts.length < 4)
+                {
+                    throw new IOException("Invalid entry: " + line);
+                }
+                Set<String> names = new HashSet<String>();
+                for (int i = 4; i < parts.length; i++)
+                {
+                    names.add(parts[i]);
+                }
+                File file = new File(parts[3]);
+                infos.put(file.getPath(), new FontFileInfo(file, Long.parseLong(parts[1]),
+                        Long.parseLong(parts[2]), parts[0], names));
+            }
+        }
+        catch (IOException e)
+        {
+            Log.w("PdfBoxAndroid", "Could not read font index " + cacheFile, e);
+            infos.clear();
+        }
+        catch (NumberFormatException e)
+        {
+            Log.w("PdfBoxAndroid", "Could not read font index " + cacheFile, e);
+            infos.clear();
+        }
+        finally
+        {
+            IOUtils.closeQuietly(reader);
+        }
+        return infos;
+    }
+
+    /**
+     * Writes the font index. The index is written to a temporary file first, so that a
+     * concurrent reader never sees a partial index.
+     */
+    private static void writeCache(File cacheFile, List<FontFileInfo> infos)
+    {
+        File tmpFile = new File(cacheFile.getPath() + ".tmp");
+        Writer writer = null;
+        try
+        {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmpFile), "UTF-8"));
+            writer.write(CACHE_HEADER);
+            writer.write('\n');
+            for (FontFileInfo info : infos)
+            {
+                writer.write(info.kind);
+                writer.write('\t');
+                writer.write(Long.toString(info.length));
+                writer.write('\t');
+                writer.write(Long.toString(info.lastModified));
+                writer.write('\t');
+                writer.write(info.file.getPath());
+                for (String name : info.names)
+                {
+                    writer.write('\t');
+                    writer.write(name);
+                }
+                writer.write('\n');
+            }
+            writer.close();
+            writer = null;
+            if (!tmpFile.renameTo(cacheFile))
+            {
+                Log.w("PdfBoxAndroid", "Could not write font index " + cacheFile);
+                tmpFile.delete();
+            }
+        }
+        catch (IOException e)
+        {
+            Log.w("PdfBoxAndroid", "Could not write font index " + cacheFile, e);
+            IOUtils.closeQuietly(writer);
+            tmpFile.delete();
+        }
+    }
+
     @Override
     public synchronized TrueTypeFont getTrueTypeFont(String postScriptName)
     {
+        ensureIndexed();
         TrueTypeFont ttf = ttfFonts.get(postScriptName);
         if (ttf != null)
         {
@@ -205,6 +442,7 @@ final class FileSystemFontProvider extends FontProvider
     @Override
     public synchronized CFFFont getCFFFont(String postScriptName)
     {
+        ensureIndexed();
         CFFFont cff = cffFonts.get(postScriptName);
         if (cff != null)
         {
@@ -243,6 +481,7 @@ final class FileSystemFontProvider extends FontProvider
     @Override
     public synchronized Type1Font getType1Font(String postScriptName)
     {
+        ensureIndexed();
         Type1Font type1 = type1Fonts.get(postScriptName);
         if (type1 != null)
         {
@@ -290,8 +529,9 @@ final class FileSystemFontProvider extends FontProvider
     }
 
     @Override
-    public String toDebugString()
+    public synchronized String toDebugString()
     {
+        ensureIndexed();
         StringBuilder sb = new StringBuilder();
         for (Map.Entry<String, File> entry : ttfFontFiles.entrySet())
         {
@@ -290,7 +290,7 @@ public class PDCIDFontType0 extends PDCIDFont
 		float height = 0;
 		if (!glyphHeights.containsKey(cid))
 		{
-			height =  (float) getType2CharString(cid).getBounds().height();
+			height =  (float) getType2CharString(cid).getBounds().getHeight();
 			glyphHeights.put(cid, height);
 		}
 		return height;
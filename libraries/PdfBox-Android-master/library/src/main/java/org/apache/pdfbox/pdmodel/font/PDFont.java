@@ -342,6 +342,21 @@ public abstract class PDFont implements COSObjectable, PDFontLike
 	 */
 	public abstract int readCode(InputStream in) throws IOException;
 
+	/**
+	 * Returns the length of the character code at the given offset of a content stream string,
+	 * so that the string can be decoded without wrapping it in a stream. Simple fonts always use
+	 * single-byte codes, fonts with multi-byte codes override this method.
+	 *
+	 * @param string the encoded text
+	 * @param offset offset of the character code
+	 * @return length of the character code in bytes
+	 * @throws IOException if the CMap cannot be read
+	 */
+	public int getCodeLength(byte[] string, int offset) throws IOException
+	{
+		return 1;
+	}
+
 	/**
 	 * Returns the Unicode character sequence which corresponds to the given character code.
 	 *
@@ -357,6 +357,12 @@ public class PDType0Font extends PDFont
 		return cMap.readCode(in);
 	}
 
+	@Override
+	public int getCodeLength(byte[] string, int offset) throws IOException
+	{
+		return cMap.getCodeLength(string, offset);
+	}
+
 	/**
 	 * Returns the CID for the given character code. If not found then CID 0 is returned.
 	 *
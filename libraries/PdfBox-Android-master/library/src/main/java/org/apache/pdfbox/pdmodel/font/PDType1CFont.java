@@ -10,12 +10,14 @@ import org.apache.fontbox.cff.CFFParser;
 import org.apache.fontbox.cff.CFFType1Font;
 import org.apache.fontbox.ttf.Type1Equivalent;
 import org.apache.fontbox.util.BoundingBox;
+import org.apache.fontbox.util.GlyphOutline;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.font.encoding.Encoding;
 import org.apache.pdfbox.pdmodel.font.encoding.Type1Encoding;
+import org.apache.pdfbox.rendering.GlyphPaths;
 import org.apache.pdfbox.util.Matrix;
 import org.apache.pdfbox.util.awt.AffineTransform;
 
@@ -125,16 +127,23 @@ public class PDType1CFont extends PDSimpleFont implements PDType1Equivalent
 	}
 
 	@Override
+	@Deprecated
 	public Path getPath(String name) throws IOException
+	{
+		return GlyphPaths.toPath(getOutline(name));
+	}
+
+	@Override
+	public GlyphOutline getOutline(String name) throws IOException
 	{
 		// Acrobat only draws .notdef for embedded or "Standard 14" fonts, see PDFBOX-2372
 		if (isEmbedded() && name.equals(".notdef") && !isEmbedded() && !isStandard14())
 		{
-			return new Path();
+			return new GlyphOutline();
 		}
 		else
 		{
-			return type1Equivalent.getPath(name);
+			return type1Equivalent.getOutline(name);
 		}
 	}
 
@@ -223,7 +232,7 @@ public class PDType1CFont extends PDSimpleFont implements PDType1Equivalent
 		float height = 0;
 		if (!glyphHeights.containsKey(name))
 		{
-			height = (float)cffFont.getType1CharString(name).getBounds().height(); // todo: cffFont could be null
+			height = (float)cffFont.getType1CharString(name).getBounds().getHeight(); // todo: cffFont could be null
 			glyphHeights.put(name, height);
 		}
 		return height;
@@ -3,6 +3,7 @@ package org.apache.pdfbox.pdmodel.font;
 import java.io.IOException;
 
 import org.apache.fontbox.ttf.Type1Equivalent;
+import org.apache.fontbox.util.GlyphOutline;
 
 import android.graphics.Path;
 
@@ -32,9 +33,18 @@ public interface PDType1Equivalent extends PDFontLike
      * Returns the glyph path for the given character code.
      * @param name PostScript glyph name
      * @throws java.io.IOException if the font could not be read
+     * @deprecated Use {@link #getOutline(String)} instead, the path is created from it
      */
+    @Deprecated
     Path getPath(String name) throws IOException;
 
+    /**
+     * Returns the glyph outline for the given glyph name.
+     * @param name PostScript glyph name
+     * @throws java.io.IOException if the font could not be read
+     */
+    GlyphOutline getOutline(String name) throws IOException;
+
     /**
      * Returns the embedded or system font for rendering. This font is a Type 1-equivalent, but
      * may not be a Type 1 font, it could be a CFF font or TTF font. If there is no suitable font
@@ -11,6 +11,7 @@ import org.apache.fontbox.ttf.Type1Equivalent;
 import org.apache.fontbox.type1.DamagedFontException;
 import org.apache.fontbox.type1.Type1Font;
 import org.apache.fontbox.util.BoundingBox;
+import org.apache.fontbox.util.GlyphOutline;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
@@ -20,10 +21,10 @@ import org.apache.pdfbox.pdmodel.font.encoding.Encoding;
 import org.apache.pdfbox.pdmodel.font.encoding.StandardEncoding;
 import org.apache.pdfbox.pdmodel.font.encoding.Type1Encoding;
 import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
+import org.apache.pdfbox.rendering.GlyphPaths;
 import org.apache.pdfbox.util.Matrix;
 
 import android.graphics.Path;
-import android.graphics.RectF;
 import android.util.Log;
 
 /**
@@ -267,9 +268,7 @@ public class PDType1Font extends PDSimpleFont implements PDType1Equivalent
 		}
 		else
 		{
-			RectF bounds = new RectF();
-			type1Equivalent.getPath(name).computeBounds(bounds, true);
-			return (float)bounds.height();
+			return type1Equivalent.getOutline(name).getBounds().getHeight();
 		}
 	}
 
@@ -449,17 +448,24 @@ public class PDType1Font extends PDSimpleFont implements PDType1Equivalent
 	}
 
 	@Override
+	@Deprecated
 	public Path getPath(String name) throws IOException
+	{
+		return GlyphPaths.toPath(getOutline(name));
+	}
+
+	@Override
+	public GlyphOutline getOutline(String name) throws IOException
 	{
 		// Acrobat does not draw .notdef for Type 1 fonts, see PDFBOX-2421
 		// I suspect that it does do this for embedded fonts though, but this is untested
 		if (name.equals(".notdef") && !isEmbedded)
 		{
-			return new Path();
+			return new GlyphOutline();
 		}
 		else
 		{
-			return type1Equivalent.getPath(name);
+			return type1Equivalent.getOutline(name);
 		}
 	}
 
@@ -7,6 +7,7 @@ import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.COSObjectable;
 import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
@@ -50,7 +51,8 @@ public class PDXObject implements COSObjectable
         }
         if (COSName.FORM.getName().equals(subtype))
         {
-            return new PDFormXObject(new PDStream(stream), name);
+            ResourceCache cache = resources != null ? resources.getResourceCache() : null;
+            return new PDFormXObject(new PDStream(stream), name, cache);
         }
         else if (COSName.PS.getName().equals(subtype))
         {
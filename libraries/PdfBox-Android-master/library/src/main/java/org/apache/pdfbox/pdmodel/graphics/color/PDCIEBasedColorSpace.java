@@ -0,0 +1,17 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+/**
+ * CIE-based colour spaces specify colours in a way that is independent of the characteristics
+ * of any particular output device. They are based on an international standard for colour
+ * specification created by the Commission Internationale de l'Eclairage (CIE).
+ *
+ * @author John Hewson
+ */
+public abstract class PDCIEBasedColorSpace extends PDColorSpace
+{
+    @Override
+    public String toString()
+    {
+        return getName();
+    }
+}
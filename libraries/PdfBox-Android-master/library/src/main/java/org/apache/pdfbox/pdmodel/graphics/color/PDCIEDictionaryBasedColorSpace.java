@@ -0,0 +1,122 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+
+/**
+ * CIE-based colour spaces that use a dictionary, i.e. CalGray, CalRGB and Lab.
+ *
+ * Colours are converted through CIE XYZ to sRGB. The white point of the colour space is
+ * mapped to the D65 white point of sRGB by scaling X, Y and Z.
+ *
+ * @author Ben Litchfield
+ * @author John Hewson
+ */
+public abstract class PDCIEDictionaryBasedColorSpace extends PDCIEBasedColorSpace
+{
+    // the white point of sRGB
+    private static final float D65_X = 0.9505f;
+    private static final float D65_Y = 1.0f;
+    private static final float D65_Z = 1.089f;
+
+    protected final COSDictionary dictionary;
+
+    // the white point, read once as it is needed for each conversion
+    protected final float whitePointX;
+    protected final float whitePointY;
+    protected final float whitePointZ;
+
+    /**
+     * Creates a new CIE-based colour space from the given color space array.
+     *
+     * @param colorSpaceArray the color space array, with the dictionary at index 1
+     */
+    protected PDCIEDictionaryBasedColorSpace(COSArray colorSpaceArray)
+    {
+        array = colorSpaceArray;
+        COSBase base = array.size() > 1 ? array.getObject(1) : null;
+        dictionary = base instanceof COSDictionary ? (COSDictionary) base : new COSDictionary();
+        float[] whitePoint = getWhitePointValues();
+        whitePointX = whitePoint[0];
+        whitePointY = whitePoint[1];
+        whitePointZ = whitePoint[2];
+    }
+
+    /**
+     * Returns the white point tristimulus, 1, 1, 1 if the entry is missing or invalid.
+     *
+     * @return the white point tristimulus
+     */
+    public final PDTristimulus getWhitepoint()
+    {
+        return new PDTristimulus(getWhitePointValues());
+    }
+
+    /**
+     * Returns the black point tristimulus, 0, 0, 0 if the entry is missing.
+     *
+     * @return the black point tristimulus
+     */
+    public final PDTristimulus getBlackPoint()
+    {
+        COSBase blackPoint = dictionary.getDictionaryObject(COSName.BLACK_POINT);
+        if (blackPoint instanceof COSArray && ((COSArray) blackPoint).size() >= 3)
+        {
+            return new PDTristimulus((COSArray) blackPoint);
+        }
+        return new PDTristimulus();
+    }
+
+    private float[] getWhitePointValues()
+    {
+        COSBase whitePoint = dictionary.getDictionaryObject(COSName.WHITE_POINT);
+        if (whitePoint instanceof COSArray && ((COSArray) whitePoint).size() >= 3)
+        {
+            float[] values = ((COSArray) whitePoint).toFloatArray();
+            if (values[0] > 0 && values[1] > 0 && values[2] > 0)
+            {
+                return new float[] { values[0], values[1], values[2] };
+            }
+        }
+        return new float[] { 1, 1, 1 };
+    }
+
+    /**
+     * Converts a CIE XYZ color relative to the white point of this colour space to sRGB.
+     *
+     * @param x the X component
+     * @param y the Y component
+     * @param z the Z component
+     * @return the red, green and blue components between 0 and 1
+     */
+    protected float[] convXYZtoRGB(float x, float y, float z)
+    {
+        float adaptedX = x * D65_X / whitePointX;
+        float adaptedY = y * D65_Y / whitePointY;
+        float adaptedZ = z * D65_Z / whitePointZ;
+        float r = 3.2406f * adaptedX - 1.5372f * adaptedY - 0.4986f * adaptedZ;
+        float g = -0.9689f * adaptedX + 1.8758f * adaptedY + 0.0415f * adaptedZ;
+        float b = 0.0557f * adaptedX - 0.2040f * adaptedY + 1.0570f * adaptedZ;
+        return new float[] { toSRGB(r), toSRGB(g), toSRGB(b) };
+    }
+
+    // applies the sRGB transfer function to a linear component
+    private static float toSRGB(float linear)
+    {
+        if (!(linear > 0))
+        {
+            return 0;
+        }
+        if (linear >= 1)
+        {
+            return 1;
+        }
+        if (linear <= 0.0031308f)
+        {
+            return 12.92f * linear;
+        }
+        return (float) (1.055 * Math.pow(linear, 1 / 2.4) - 0.055);
+    }
+}
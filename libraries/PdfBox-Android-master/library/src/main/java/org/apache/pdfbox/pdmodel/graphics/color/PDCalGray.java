@@ -0,0 +1,69 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+
+/**
+ * A CalGray colour space is a special case of a single-component CIE-based
+ * colour space, the A component is mapped to X, Y and Z of the white point by a gamma.
+ *
+ * @author John Hewson
+ * @author Ben Litchfield
+ */
+public final class PDCalGray extends PDCIEDictionaryBasedColorSpace
+{
+    private final PDColor initialColor = new PDColor(new float[] { 0 }, this);
+    private final float gamma;
+
+    /**
+     * Creates a new CalGray color space using the given COS array.
+     *
+     * @param array the COS array which represents this color space
+     */
+    public PDCalGray(COSArray array)
+    {
+        super(array);
+        gamma = dictionary.getFloat(COSName.GAMMA, 1.0f);
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.CALGRAY.getName();
+    }
+
+    @Override
+    public int getNumberOfComponents()
+    {
+        return 1;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        return new float[] { 0, 1 };
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    @Override
+    public float[] toRGB(float[] value)
+    {
+        float a = (float) Math.pow(Math.max(0, value[0]), gamma);
+        return convXYZtoRGB(whitePointX * a, whitePointY * a, whitePointZ * a);
+    }
+
+    /**
+     * Returns the gamma value, 1 if the entry is missing.
+     *
+     * @return the gamma value
+     */
+    public float getGamma()
+    {
+        return gamma;
+    }
+}
@@ -0,0 +1,104 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+
+/**
+ * A CalRGB colour space is a CIE-based colour space with one transformation stage instead of
+ * two. In this type of space, A, B, and C represent calibrated red, green, and blue colour
+ * values.
+ *
+ * @author Ben Litchfield
+ * @author John Hewson
+ */
+public class PDCalRGB extends PDCIEDictionaryBasedColorSpace
+{
+    private final PDColor initialColor = new PDColor(new float[] { 0, 0, 0 }, this);
+
+    private final float[] gamma;
+    // XA, YA, ZA, XB, YB, ZB, XC, YC, ZC
+    private final float[] matrix;
+
+    /**
+     * Creates a new CalRGB color space using the given COS array.
+     *
+     * @param rgb the cos array which represents this color space
+     */
+    public PDCalRGB(COSArray rgb)
+    {
+        super(rgb);
+        gamma = getValues(COSName.GAMMA, new float[] { 1, 1, 1 });
+        matrix = getValues(COSName.MATRIX, new float[] { 1, 0, 0, 0, 1, 0, 0, 0, 1 });
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.CALRGB.getName();
+    }
+
+    @Override
+    public int getNumberOfComponents()
+    {
+        return 3;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        return new float[] { 0, 1, 0, 1, 0, 1 };
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    @Override
+    public float[] toRGB(float[] value)
+    {
+        float a = (float) Math.pow(Math.max(0, value[0]), gamma[0]);
+        float b = (float) Math.pow(Math.max(0, value[1]), gamma[1]);
+        float c = (float) Math.pow(Math.max(0, value[2]), gamma[2]);
+        float x = matrix[0] * a + matrix[3] * b + matrix[6] * c;
+        float y = matrix[1] * a + matrix[4] * b + matrix[7] * c;
+        float z = matrix[2] * a + matrix[5] * b + matrix[8] * c;
+        return convXYZtoRGB(x, y, z);
+    }
+
+    /**
+     * Returns the gamma value for the "r", "g" and "b" components, 1 if the entry is missing.
+     *
+     * @return the gamma value
+     */
+    public final PDGamma getGamma()
+    {
+        COSArray values = new COSArray();
+        values.setFloatArray(gamma);
+        return new PDGamma(values);
+    }
+
+    /**
+     * Returns the linear interpretation matrix, which is an array of nine numbers, the identity
+     * matrix if the entry is missing.
+     *
+     * @return the linear interpretation matrix
+     */
+    public final float[] getMatrix()
+    {
+        return matrix.clone();
+    }
+
+    // returns the values of an array entry, or the default values if it is missing or invalid
+    private float[] getValues(COSName key, float[] defaultValues)
+    {
+        COSBase base = dictionary.getDictionaryObject(key);
+        if (base instanceof COSArray && ((COSArray) base).size() == defaultValues.length)
+        {
+            return ((COSArray) base).toFloatArray();
+        }
+        return defaultValues;
+    }
+}
@@ -65,9 +65,9 @@ public abstract class PDColorSpace implements COSObjectable {
             }
 
             // built-in color spaces
-            /*if (name == COSName.DEVICECMYK || name == COSName.CMYK) {
+            if (name == COSName.DEVICECMYK || name == COSName.CMYK) {
                 return PDDeviceCMYK.INSTANCE;
-            } else*/ if (name == COSName.DEVICERGB || name == COSName.RGB) {
+            } else if (name == COSName.DEVICERGB || name == COSName.RGB) {
                 return PDDeviceRGB.INSTANCE;
             } else if (name == COSName.DEVICEGRAY || name == COSName.G) {
                 return PDDeviceGray.INSTANCE;
@@ -84,44 +84,43 @@ public abstract class PDColorSpace implements COSObjectable {
         } else if (colorSpace instanceof COSArray) {
             COSArray array = (COSArray) colorSpace;
             COSName name = (COSName) array.get(0);
-//
-//            // TODO cache these returned color spaces?
-//
-//            if (name == COSName.CALGRAY) {
-//                return new PDCalGray(array);
-//            } else if (name == COSName.CALRGB) {
-//                return new PDCalRGB(array);
-//            } else if (name == COSName.DEVICEN) {
-//                return new PDDeviceN(array);
-//            } else if (name == COSName.INDEXED || name == COSName.I) {
-//                return new PDIndexed(array);
-//            } else if (name == COSName.SEPARATION) {
-//                return new PDSeparation(array);
-//            } else if (name == COSName.ICCBASED) {
-//                return new PDICCBased(array);
-//            } else if (name == COSName.LAB) {
-//                return new PDLab(array);
-//            } else if (name == COSName.PATTERN) {
-//                if (array.size() == 1) {
-//                    return new PDPattern(resources);
-//                } else {
-//                    return new PDPattern(resources, PDColorSpace.create(array.get(1)));
-//                }
-//            } else if (name == COSName.DEVICECMYK || name == COSName.CMYK ||
-//                    name == COSName.DEVICERGB || name == COSName.RGB ||
-//                    name == COSName.DEVICEGRAY || name == COSName.PATTERN) {
-//                // not allowed in an array, but we sometimes encounter these regardless
-//                return create(name, resources);
-//            } else {
-//                throw new IOException("Invalid color space kind: " + name);
-//            }
-
-            throw new IOException("Invalid color space kind: " + name);
+
+            if (name == COSName.CALGRAY) {
+                return new PDCalGray(array);
+            } else if (name == COSName.CALRGB) {
+                return new PDCalRGB(array);
+            } else if (name == COSName.DEVICEN) {
+                return new PDDeviceN(array);
+            } else if (name == COSName.INDEXED || name == COSName.I) {
+                return new PDIndexed(array);
+            } else if (name == COSName.SEPARATION) {
+                return new PDSeparation(array);
+            } else if (name == COSName.ICCBASED) {
+                return new PDICCBased(array);
+            } else if (name == COSName.LAB) {
+                return new PDLab(array);
+            } /*else if (name == COSName.PATTERN) {
+                if (array.size() == 1) {
+                    return new PDPattern(resources);
+                } else {
+                    return new PDPattern(resources, PDColorSpace.create(array.get(1)));
+                }
+            } */else if (name == COSName.DEVICECMYK || name == COSName.CMYK ||
+                    name == COSName.DEVICERGB || name == COSName.RGB ||
+                    name == COSName.DEVICEGRAY) {
+                // not allowed in an array, but we sometimes encounter these regardless
+                return create(name, resources);
+            } else {
+                throw new IOException("Invalid color space kind: " + name);
+            }
         } else {
             throw new IOException("Expected a name or array but got: " + colorSpace);
         }
     }
 
+    // the number of entries of the color cache of toRGBImage, a power of 2
+    private static final int COLOR_CACHE_SIZE = 4096;
+
     // array for the given parameters
     protected COSArray array;
 
@@ -162,6 +161,80 @@ public abstract class PDColorSpace implements COSObjectable {
      */
     public abstract float[] toRGB(float[] value) throws IOException;
 
+    /**
+     * Converts the pixels of an image with 8 bits per component to packed ARGB values. Each
+     * sample is scaled from 0-255 to the range of its component given by
+     * {@link #getDefaultDecode(int) getDefaultDecode(8)}, for an indexed color space the
+     * samples are the indexes into the color table.
+     *
+     * This implementation converts each distinct color once using {@link #toRGB(float[])}.
+     * Color spaces which can convert samples by table lookups override it.
+     *
+     * @param samples the samples, getNumberOfComponents() per pixel
+     * @param argbOut receives the ARGB value of each pixel
+     * @throws IOException if the color conversion fails
+     */
+    public void toRGBImage(byte[] samples, int[] argbOut) throws IOException {
+        int numberOfComponents = getNumberOfComponents();
+        float[] decode = getDefaultDecode(8);
+        float[] value = new float[numberOfComponents];
+        int pixelCount = Math.min(argbOut.length, samples.length / numberOfComponents);
+
+        // the colors of recent pixels, indexed by a hash of the samples, if they fit in an int
+        int[] cachedSamples = null;
+        int[] cachedColors = null;
+        if (numberOfComponents <= 4) {
+            cachedSamples = new int[COLOR_CACHE_SIZE];
+            cachedColors = new int[COLOR_CACHE_SIZE];
+        }
+        int offset = 0;
+        for (int i = 0; i < pixelCount; i++) {
+            int key = 0;
+            for (int c = 0; c < numberOfComponents; c++) {
+                key = key << 8 | samples[offset + c] & 0xff;
+            }
+            int slot = (key * 0x9E3779B9) >>> 20 & (COLOR_CACHE_SIZE - 1);
+            // the alpha of a cached color is never 0, so an empty slot doesn't match
+            if (cachedColors != null && cachedColors[slot] != 0 && cachedSamples[slot] == key) {
+                argbOut[i] = cachedColors[slot];
+            } else {
+                for (int c = 0; c < numberOfComponents; c++) {
+                    float min = decode[2 * c];
+                    float max = decode[2 * c + 1];
+                    value[c] = min + (samples[offset + c] & 0xff) * (max - min) / 255f;
+                }
+                int argb = toARGB(toRGB(value));
+                if (cachedColors != null) {
+                    cachedSamples[slot] = key;
+                    cachedColors[slot] = argb;
+                }
+                argbOut[i] = argb;
+            }
+            offset += numberOfComponents;
+        }
+    }
+
+    /**
+     * Packs an RGB value with components between 0 and 1 into an opaque ARGB value.
+     *
+     * @param rgb the red, green and blue components
+     * @return the ARGB value
+     */
+    protected static int toARGB(float[] rgb) {
+        return 0xff000000 | toByte(rgb[0]) << 16 | toByte(rgb[1]) << 8 | toByte(rgb[2]);
+    }
+
+    /**
+     * Converts a component value between 0 and 1 to 0-255, clamping values out of range.
+     *
+     * @param value the component value
+     * @return the value between 0 and 255
+     */
+    protected static int toByte(float value) {
+        int result = Math.round(value * 255);
+        return result < 0 ? 0 : result > 255 ? 255 : result;
+    }
+
 //    /**
 //     * Returns the (A)RGB equivalent of the given raster.
 //     * @param raster the source raster
@@ -0,0 +1,91 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import org.apache.pdfbox.cos.COSName;
+
+/**
+ * Allows colors to be specified according to the subtractive CMYK (cyan, magenta, yellow, black)
+ * model typical of printers and other paper-based output devices.
+ *
+ * There is no color management available, so colors are converted without an ICC profile:
+ * each of red, green and blue is the product of the inverted cyan, magenta or yellow and the
+ * inverted black. As these products only depend on two components, they are looked up in a
+ * single table of all pairs of 8-bit components instead of a four dimensional CMYK cube.
+ *
+ * @author John Hewson
+ * @author Ben Litchfield
+ */
+public final class PDDeviceCMYK extends PDDeviceColorSpace
+{
+    /** The single instance of this class. */
+    public static final PDDeviceCMYK INSTANCE = new PDDeviceCMYK();
+
+    // (255 - a) * (255 - k) / 255 for each pair of 8-bit components a and k, at a << 8 | k
+    private static final byte[] PRODUCTS = new byte[256 * 256];
+
+    static
+    {
+        for (int a = 0; a < 256; a++)
+        {
+            for (int k = 0; k < 256; k++)
+            {
+                PRODUCTS[a << 8 | k] = (byte) Math.round((255 - a) * (255 - k) / 255f);
+            }
+        }
+    }
+
+    private final PDColor initialColor = new PDColor(new float[] { 0, 0, 0, 1 }, this);
+
+    private PDDeviceCMYK()
+    {
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.DEVICECMYK.getName();
+    }
+
+    @Override
+    public int getNumberOfComponents()
+    {
+        return 4;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        return new float[] { 0, 1, 0, 1, 0, 1, 0, 1 };
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    @Override
+    public float[] toRGB(float[] value)
+    {
+        int k = toByte(value[3]);
+        return new float[] {
+                (PRODUCTS[toByte(value[0]) << 8 | k] & 0xff) / 255f,
+                (PRODUCTS[toByte(value[1]) << 8 | k] & 0xff) / 255f,
+                (PRODUCTS[toByte(value[2]) << 8 | k] & 0xff) / 255f };
+    }
+
+    @Override
+    public void toRGBImage(byte[] samples, int[] argbOut)
+    {
+        int pixelCount = Math.min(samples.length / 4, argbOut.length);
+        int offset = 0;
+        for (int i = 0; i < pixelCount; i++)
+        {
+            int k = samples[offset + 3] & 0xff;
+            int r = PRODUCTS[(samples[offset] & 0xff) << 8 | k] & 0xff;
+            int g = PRODUCTS[(samples[offset + 1] & 0xff) << 8 | k] & 0xff;
+            int b = PRODUCTS[(samples[offset + 2] & 0xff) << 8 | k] & 0xff;
+            argbOut[i] = 0xff000000 | r << 16 | g << 8 | b;
+            offset += 4;
+        }
+    }
+}
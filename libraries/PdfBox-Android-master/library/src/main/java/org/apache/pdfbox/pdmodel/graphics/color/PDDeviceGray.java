@@ -49,6 +49,16 @@ public final class PDDeviceGray extends PDDeviceColorSpace
         return new float[] { value[0], value[0], value[0] };
     }
 
+    @Override
+    public void toRGBImage(byte[] samples, int[] argbOut)
+    {
+        int pixelCount = Math.min(samples.length, argbOut.length);
+        for (int i = 0; i < pixelCount; i++)
+        {
+            argbOut[i] = 0xff000000 | (samples[i] & 0xff) * 0x010101;
+        }
+    }
+
 //    @Override
 //    public Bitmap toRGBImage(WritableRaster raster) throws IOException
 //    {
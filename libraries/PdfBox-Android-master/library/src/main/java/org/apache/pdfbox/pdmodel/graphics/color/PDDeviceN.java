@@ -0,0 +1,171 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.common.function.PDFunction;
+
+/**
+ * DeviceN colour spaces may contain an arbitrary number of colour components.
+ * DeviceN represents a colour space containing multiple components that correspond to colorants
+ * of some target device. As with Separation colour spaces, readers are likely to support
+ * only a limited number of colorants, the colors are converted with the tint transform.
+ *
+ * The tint transform of a single colorant is sampled once for each 8-bit tint. Images with
+ * several colorants convert each distinct color once, see {@link PDColorSpace#toRGBImage}.
+ *
+ * @author John Hewson
+ * @author Ben Litchfield
+ */
+public class PDDeviceN extends PDSpecialColorSpace
+{
+    // array indexes
+    private static final int COLORANT_NAMES = 1;
+    private static final int ALTERNATE_CS = 2;
+    private static final int TINT_TRANSFORM = 3;
+
+    private final int numberOfComponents;
+    private final PDColorSpace alternateColorSpace;
+    private final PDFunction tintTransform;
+    private final PDColor initialColor;
+    // the ARGB value of each 8-bit tint, if there is a single colorant
+    private final int[] tintTable;
+
+    /**
+     * Creates a new DeviceN color space from the given COS array.
+     *
+     * @param deviceN an array containing the color space information
+     * @throws IOException if the alternate color space or the tint transform can't be read
+     */
+    public PDDeviceN(COSArray deviceN) throws IOException
+    {
+        array = deviceN;
+        COSBase names = array.getObject(COLORANT_NAMES);
+        if (!(names instanceof COSArray) || ((COSArray) names).size() == 0)
+        {
+            throw new IOException("Invalid colorant names of DeviceN color space: " + names);
+        }
+        numberOfComponents = ((COSArray) names).size();
+        alternateColorSpace = PDColorSpace.create(array.getObject(ALTERNATE_CS));
+        tintTransform = PDFunction.create(array.getObject(TINT_TRANSFORM));
+        if (tintTransform == null)
+        {
+            throw new IOException("Invalid tint transform of DeviceN color space");
+        }
+
+        float[] initial = new float[numberOfComponents];
+        Arrays.fill(initial, 1);
+        initialColor = new PDColor(initial, this);
+
+        if (numberOfComponents == 1)
+        {
+            tintTable = createTintTable(tintTransform, alternateColorSpace);
+        }
+        else
+        {
+            tintTable = null;
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.DEVICEN.getName();
+    }
+
+    @Override
+    public final int getNumberOfComponents()
+    {
+        return numberOfComponents;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        float[] decode = new float[numberOfComponents * 2];
+        for (int i = 0; i < numberOfComponents; i++)
+        {
+            decode[i * 2 + 1] = 1;
+        }
+        return decode;
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    @Override
+    public float[] toRGB(float[] value) throws IOException
+    {
+        if (tintTable != null)
+        {
+            return toRGB(tintTable[toByte(value[0])]);
+        }
+        return alternateColorSpace.toRGB(tintTransform.eval(value));
+    }
+
+    @Override
+    public void toRGBImage(byte[] samples, int[] argbOut) throws IOException
+    {
+        if (tintTable == null)
+        {
+            super.toRGBImage(samples, argbOut);
+            return;
+        }
+        int pixelCount = Math.min(samples.length, argbOut.length);
+        for (int i = 0; i < pixelCount; i++)
+        {
+            argbOut[i] = tintTable[samples[i] & 0xff];
+        }
+    }
+
+    /**
+     * Returns the list of colorants.
+     *
+     * @return the list of colorants
+     */
+    public List<String> getColorantNames()
+    {
+        COSArray names = (COSArray) array.getObject(COLORANT_NAMES);
+        List<String> colorantNames = new ArrayList<String>(names.size());
+        for (int i = 0; i < names.size(); i++)
+        {
+            colorantNames.add(names.getName(i));
+        }
+        return colorantNames;
+    }
+
+    /**
+     * Returns the alternate color space.
+     *
+     * @return the alternate color space
+     */
+    public PDColorSpace getAlternateColorSpace()
+    {
+        return alternateColorSpace;
+    }
+
+    /**
+     * Returns the tint transform function.
+     *
+     * @return the tint transform function
+     */
+    public PDFunction getTintTransform()
+    {
+        return tintTransform;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getName() + "{" + getColorantNames() + " " + alternateColorSpace.getName() + " "
+                + tintTransform + "}";
+    }
+}
@@ -57,6 +57,17 @@ public final class PDDeviceRGB extends PDDeviceColorSpace {
         }
     }
 
+    @Override
+    public void toRGBImage(byte[] samples, int[] argbOut) {
+        int pixelCount = Math.min(samples.length / 3, argbOut.length);
+        int offset = 0;
+        for (int i = 0; i < pixelCount; i++) {
+            argbOut[i] = 0xff000000 | (samples[offset] & 0xff) << 16
+                    | (samples[offset + 1] & 0xff) << 8 | samples[offset + 2] & 0xff;
+            offset += 3;
+        }
+    }
+
 //    @Override
 //    public BufferedImage toRGBImage(WritableRaster raster) throws IOException
 //    {
@@ -0,0 +1,207 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+
+/**
+ * ICCBased colour spaces are based on a cross-platform colour profile as defined by the
+ * International Color Consortium (ICC).
+ *
+ * There is no color management available to apply the profile, colors are converted by the
+ * alternate color space instead. It is given by the Alternate entry, or else it is the device
+ * color space with the same number of components.
+ *
+ * @author Ben Litchfield
+ * @author John Hewson
+ */
+public final class PDICCBased extends PDCIEBasedColorSpace
+{
+    private final PDStream stream;
+    private final int numberOfComponents;
+    private final PDColorSpace alternateColorSpace;
+    private final float[] range;
+    // maps the 8-bit samples of each component from the range of this color space to the
+    // default decode range of the alternate color space, null if the ranges are the same
+    private final byte[][] alternateSampleMaps;
+    private final PDColor initialColor;
+
+    /**
+     * Creates a new ICC color space using the PDF array.
+     *
+     * @param iccArray the ICC stream object
+     * @throws IOException if there is an error reading the ICC profile or if the parameter
+     * is invalid
+     */
+    public PDICCBased(COSArray iccArray) throws IOException
+    {
+        array = iccArray;
+        COSBase base = iccArray.getObject(1);
+        if (!(base instanceof COSStream))
+        {
+            throw new IOException("ICCBased color space requires a stream: " + base);
+        }
+        stream = new PDStream((COSStream) base);
+        numberOfComponents = stream.getStream().getInt(COSName.N);
+        alternateColorSpace = createAlternateColorSpace();
+        if (alternateColorSpace.getNumberOfComponents() != numberOfComponents)
+        {
+            throw new IOException("ICCBased color space with " + numberOfComponents
+                    + " components has the alternate color space " + alternateColorSpace);
+        }
+
+        range = new float[numberOfComponents * 2];
+        COSBase rangeArray = stream.getStream().getDictionaryObject(COSName.RANGE);
+        if (rangeArray instanceof COSArray
+                && ((COSArray) rangeArray).size() == numberOfComponents * 2)
+        {
+            System.arraycopy(((COSArray) rangeArray).toFloatArray(), 0, range, 0, range.length);
+        }
+        else
+        {
+            for (int i = 0; i < numberOfComponents; i++)
+            {
+                range[i * 2 + 1] = 1;
+            }
+        }
+
+        alternateSampleMaps = createAlternateSampleMaps();
+
+        // the initial color has all components 0, adjusted to the range
+        float[] initial = new float[numberOfComponents];
+        for (int i = 0; i < numberOfComponents; i++)
+        {
+            initial[i] = Math.max(0, range[i * 2]);
+        }
+        initialColor = new PDColor(initial, this);
+    }
+
+    // the Alternate entry, or the device color space with the same number of components
+    private PDColorSpace createAlternateColorSpace() throws IOException
+    {
+        COSBase alternate = stream.getStream().getDictionaryObject(COSName.ALTERNATE);
+        if (alternate != null)
+        {
+            return PDColorSpace.create(alternate);
+        }
+        switch (numberOfComponents)
+        {
+            case 1:
+                return PDDeviceGray.INSTANCE;
+            case 3:
+                return PDDeviceRGB.INSTANCE;
+            case 4:
+                return PDDeviceCMYK.INSTANCE;
+            default:
+                throw new IOException("Unknown color space number of components: "
+                        + numberOfComponents);
+        }
+    }
+
+    private byte[][] createAlternateSampleMaps()
+    {
+        float[] alternateRange = alternateColorSpace.getDefaultDecode(8);
+        if (Arrays.equals(range, alternateRange))
+        {
+            return null;
+        }
+        byte[][] maps = new byte[numberOfComponents][256];
+        for (int c = 0; c < numberOfComponents; c++)
+        {
+            float min = range[c * 2];
+            float max = range[c * 2 + 1];
+            float alternateMin = alternateRange[c * 2];
+            float alternateMax = alternateRange[c * 2 + 1];
+            for (int sample = 0; sample < 256; sample++)
+            {
+                float value = min + sample * (max - min) / 255f;
+                int alternateSample = Math.round((value - alternateMin)
+                        / (alternateMax - alternateMin) * 255f);
+                maps[c][sample] = (byte) Math.max(0, Math.min(255, alternateSample));
+            }
+        }
+        return maps;
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.ICCBASED.getName();
+    }
+
+    /**
+     * Get the underlying ICC profile stream.
+     *
+     * @return the underlying ICC profile stream
+     */
+    public PDStream getPDStream()
+    {
+        return stream;
+    }
+
+    @Override
+    public int getNumberOfComponents()
+    {
+        return numberOfComponents;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        return range.clone();
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    /**
+     * Returns the alternate color space, which converts the colors.
+     *
+     * @return the alternate color space
+     */
+    public PDColorSpace getAlternateColorSpace()
+    {
+        return alternateColorSpace;
+    }
+
+    @Override
+    public float[] toRGB(float[] value) throws IOException
+    {
+        return alternateColorSpace.toRGB(value);
+    }
+
+    @Override
+    public void toRGBImage(byte[] samples, int[] argbOut) throws IOException
+    {
+        if (alternateSampleMaps == null)
+        {
+            alternateColorSpace.toRGBImage(samples, argbOut);
+            return;
+        }
+        // the samples are scaled to the range of this color space, not to that of the alternate
+        byte[] alternateSamples = new byte[samples.length];
+        for (int i = 0, c = 0; i < samples.length; i++)
+        {
+            alternateSamples[i] = alternateSampleMaps[c][samples[i] & 0xff];
+            if (++c == numberOfComponents)
+            {
+                c = 0;
+            }
+        }
+        alternateColorSpace.toRGBImage(alternateSamples, argbOut);
+    }
+
+    @Override
+    public String toString()
+    {
+        return getName() + "{numberOfComponents: " + numberOfComponents + "}";
+    }
+}
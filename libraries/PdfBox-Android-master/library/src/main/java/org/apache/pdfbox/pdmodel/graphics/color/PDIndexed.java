@@ -0,0 +1,166 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.IOUtils;
+
+/**
+ * An Indexed colour space specifies that an area is to be painted using a colour table
+ * of arbitrary colours from another color space.
+ *
+ * The colours of the table are converted to ARGB once, looking up the colour of a pixel is
+ * an array access.
+ *
+ * @author John Hewson
+ * @author Ben Litchfield
+ */
+public final class PDIndexed extends PDSpecialColorSpace
+{
+    private final PDColor initialColor = new PDColor(new float[] { 0 }, this);
+
+    private final PDColorSpace baseColorSpace;
+    private final int highValue;
+    // the ARGB value of each index, indexes beyond the high value have the color of the last one
+    private final int[] colorTable = new int[256];
+
+    /**
+     * Creates a new Indexed color space from the given PDF array.
+     *
+     * @param indexedArray the array containing the indexed parameters
+     * @throws IOException if the base color space or the color table can't be read
+     */
+    public PDIndexed(COSArray indexedArray) throws IOException
+    {
+        array = indexedArray;
+        baseColorSpace = PDColorSpace.create(array.getObject(1));
+        COSBase high = array.getObject(2);
+        if (!(high instanceof COSNumber))
+        {
+            throw new IOException("Invalid high value of Indexed color space: " + high);
+        }
+        highValue = Math.max(0, Math.min(255, ((COSNumber) high).intValue()));
+        readColorTable();
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.INDEXED.getName();
+    }
+
+    @Override
+    public int getNumberOfComponents()
+    {
+        return 1;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        return new float[] { 0, (float) Math.pow(2, bitsPerComponent) - 1 };
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    /**
+     * Returns the base color space.
+     *
+     * @return the base color space
+     */
+    public PDColorSpace getBaseColorSpace()
+    {
+        return baseColorSpace;
+    }
+
+    /**
+     * Returns the highest index of the color table.
+     *
+     * @return the high value, between 0 and 255
+     */
+    public int getHighValue()
+    {
+        return highValue;
+    }
+
+    @Override
+    public float[] toRGB(float[] value)
+    {
+        if (value.length > 1)
+        {
+            throw new IllegalArgumentException("Indexed color spaces must have one component");
+        }
+        int index = Math.round(value[0]);
+        index = index < 0 ? 0 : index > 255 ? 255 : index;
+        return toRGB(colorTable[index]);
+    }
+
+    @Override
+    public void toRGBImage(byte[] samples, int[] argbOut)
+    {
+        int pixelCount = Math.min(samples.length, argbOut.length);
+        for (int i = 0; i < pixelCount; i++)
+        {
+            argbOut[i] = colorTable[samples[i] & 0xff];
+        }
+    }
+
+    // converts the colors of the lookup table to ARGB, missing entries are black
+    private void readColorTable() throws IOException
+    {
+        byte[] lookupData = getLookupData();
+        int numberOfComponents = baseColorSpace.getNumberOfComponents();
+        byte[] samples = new byte[(highValue + 1) * numberOfComponents];
+        System.arraycopy(lookupData, 0, samples, 0, Math.min(lookupData.length, samples.length));
+        int[] colors = new int[highValue + 1];
+        baseColorSpace.toRGBImage(samples, colors);
+        System.arraycopy(colors, 0, colorTable, 0, colors.length);
+        for (int i = highValue + 1; i < colorTable.length; i++)
+        {
+            colorTable[i] = colors[highValue];
+        }
+    }
+
+    // returns the lookup table as a byte array
+    private byte[] getLookupData() throws IOException
+    {
+        COSBase lookupTable = array.getObject(3);
+        if (lookupTable instanceof COSString)
+        {
+            return ((COSString) lookupTable).getBytes();
+        }
+        else if (lookupTable instanceof COSStream)
+        {
+            InputStream input = ((COSStream) lookupTable).getUnfilteredStream();
+            try
+            {
+                return IOUtils.toByteArray(input);
+            }
+            finally
+            {
+                IOUtils.closeQuietly(input);
+            }
+        }
+        else if (lookupTable == null)
+        {
+            return new byte[0];
+        }
+        throw new IOException("Error: Unknown type for lookup table " + lookupTable);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Indexed{base:" + baseColorSpace + " hival:" + highValue + "}";
+    }
+}
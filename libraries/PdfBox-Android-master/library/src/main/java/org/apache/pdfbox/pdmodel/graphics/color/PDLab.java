@@ -0,0 +1,141 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+
+/**
+ * A Lab colour space is a CIE-based ABC colour space with two transformation stages.
+ *
+ * @author Ben Litchfield
+ * @author John Hewson
+ */
+public final class PDLab extends PDCIEDictionaryBasedColorSpace
+{
+    private final PDColor initialColor;
+
+    private final float aMin;
+    private final float aMax;
+    private final float bMin;
+    private final float bMax;
+
+    /**
+     * Creates a new Lab color space from a PDF array.
+     *
+     * @param lab the color space array
+     */
+    public PDLab(COSArray lab)
+    {
+        super(lab);
+        float[] range = { -100, 100, -100, 100 };
+        COSBase rangeArray = dictionary.getDictionaryObject(COSName.RANGE);
+        if (rangeArray instanceof COSArray && ((COSArray) rangeArray).size() == 4)
+        {
+            range = ((COSArray) rangeArray).toFloatArray();
+        }
+        aMin = range[0];
+        aMax = range[1];
+        bMin = range[2];
+        bMax = range[3];
+        // the initial color is 0, 0, 0 adjusted to the range of a and b
+        initialColor = new PDColor(new float[] { 0, clip(0, aMin, aMax), clip(0, bMin, bMax) },
+                this);
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.LAB.getName();
+    }
+
+    @Override
+    public int getNumberOfComponents()
+    {
+        return 3;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        return new float[] { 0, 100, aMin, aMax, bMin, bMax };
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    @Override
+    public float[] toRGB(float[] value)
+    {
+        float lstar = clip(value[0], 0, 100);
+        float astar = clip(value[1], aMin, aMax);
+        float bstar = clip(value[2], bMin, bMax);
+
+        // CIE LAB to XYZ, see http://en.wikipedia.org/wiki/Lab_color_space
+        float m = (lstar + 16) / 116;
+        float l = m + astar / 500;
+        float n = m - bstar / 200;
+        return convXYZtoRGB(whitePointX * inverse(l), whitePointY * inverse(m),
+                whitePointZ * inverse(n));
+    }
+
+    /**
+     * Returns the minimum value of the a* component.
+     *
+     * @return the minimum value of the a* component
+     */
+    public float getARangeMin()
+    {
+        return aMin;
+    }
+
+    /**
+     * Returns the maximum value of the a* component.
+     *
+     * @return the maximum value of the a* component
+     */
+    public float getARangeMax()
+    {
+        return aMax;
+    }
+
+    /**
+     * Returns the minimum value of the b* component.
+     *
+     * @return the minimum value of the b* component
+     */
+    public float getBRangeMin()
+    {
+        return bMin;
+    }
+
+    /**
+     * Returns the maximum value of the b* component.
+     *
+     * @return the maximum value of the b* component
+     */
+    public float getBRangeMax()
+    {
+        return bMax;
+    }
+
+    // reverse transformation (f^-1)
+    private static float inverse(float x)
+    {
+        if (x > 6.0 / 29.0)
+        {
+            return x * x * x;
+        }
+        else
+        {
+            return (108f / 841f) * (x - (4f / 29f));
+        }
+    }
+
+    private static float clip(float x, float min, float max)
+    {
+        return x < min ? min : x > max ? max : x;
+    }
+}
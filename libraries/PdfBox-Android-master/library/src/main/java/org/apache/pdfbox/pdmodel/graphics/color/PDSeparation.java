@@ -0,0 +1,131 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.common.function.PDFunction;
+
+/**
+ * A Separation color space used to specify either additional colorants or for isolating the
+ * control of individual colour components of a device colour space for a subtractive device.
+ * When such a space is the current colour space, the current colour shall be a single-component
+ * value, called a tint, that controls the given colorant or colour components only.
+ *
+ * The tint transform is sampled once for each 8-bit tint, converting a tint to RGB is a table
+ * lookup.
+ *
+ * @author Ben Litchfield
+ * @author John Hewson
+ */
+public class PDSeparation extends PDSpecialColorSpace
+{
+    private final PDColor initialColor = new PDColor(new float[] { 1 }, this);
+
+    // array indexes
+    private static final int COLORANT_NAMES = 1;
+    private static final int ALTERNATE_CS = 2;
+    private static final int TINT_TRANSFORM = 3;
+
+    private final PDColorSpace alternateColorSpace;
+    private final PDFunction tintTransform;
+    // the ARGB value of each 8-bit tint
+    private final int[] tintTable;
+
+    /**
+     * Creates a new Separation color space from a PDF color space array.
+     *
+     * @param separation an array containing all separation information
+     * @throws IOException if the alternate color space or the tint transform can't be read
+     */
+    public PDSeparation(COSArray separation) throws IOException
+    {
+        array = separation;
+        alternateColorSpace = PDColorSpace.create(array.getObject(ALTERNATE_CS));
+        tintTransform = PDFunction.create(array.getObject(TINT_TRANSFORM));
+        if (tintTransform == null)
+        {
+            throw new IOException("Invalid tint transform of Separation color space");
+        }
+        tintTable = createTintTable(tintTransform, alternateColorSpace);
+    }
+
+    @Override
+    public String getName()
+    {
+        return COSName.SEPARATION.getName();
+    }
+
+    @Override
+    public int getNumberOfComponents()
+    {
+        return 1;
+    }
+
+    @Override
+    public float[] getDefaultDecode(int bitsPerComponent)
+    {
+        return new float[] { 0, 1 };
+    }
+
+    @Override
+    public PDColor getInitialColor()
+    {
+        return initialColor;
+    }
+
+    @Override
+    public float[] toRGB(float[] value)
+    {
+        return toRGB(tintTable[toByte(value[0])]);
+    }
+
+    @Override
+    public void toRGBImage(byte[] samples, int[] argbOut)
+    {
+        int pixelCount = Math.min(samples.length, argbOut.length);
+        for (int i = 0; i < pixelCount; i++)
+        {
+            argbOut[i] = tintTable[samples[i] & 0xff];
+        }
+    }
+
+    /**
+     * Returns the colorant name.
+     *
+     * @return the name of the colorant
+     */
+    public String getColorantName()
+    {
+        COSBase name = array.getObject(COLORANT_NAMES);
+        return name instanceof COSName ? ((COSName) name).getName() : null;
+    }
+
+    /**
+     * Returns the alternate color space.
+     *
+     * @return the alternate color space
+     */
+    public PDColorSpace getAlternateColorSpace()
+    {
+        return alternateColorSpace;
+    }
+
+    /**
+     * Returns the tint transform function.
+     *
+     * @return the tint transform function
+     */
+    public PDFunction getTintTransform()
+    {
+        return tintTransform;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getName() + "{" + getColorantName() + " " + alternateColorSpace.getName() + " "
+                + tintTransform + "}";
+    }
+}
@@ -0,0 +1,56 @@
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.common.function.PDFunction;
+
+/**
+ * Special colour spaces add features or properties to an underlying colour space.
+ *
+ * @author John Hewson
+ */
+public abstract class PDSpecialColorSpace extends PDColorSpace
+{
+    @Override
+    public COSBase getCOSObject()
+    {
+        return array;
+    }
+
+    /**
+     * Returns the ARGB value of each 8-bit tint of a single colorant, computed by the given
+     * tint transform and alternate color space.
+     *
+     * @param tintTransform the tint transform function
+     * @param alternateColorSpace the alternate color space
+     * @return 256 ARGB values
+     * @throws IOException if the tint transform fails
+     */
+    static int[] createTintTable(PDFunction tintTransform, PDColorSpace alternateColorSpace)
+            throws IOException
+    {
+        int[] table = new int[256];
+        float[] tint = new float[1];
+        for (int i = 0; i < 256; i++)
+        {
+            tint[0] = i / 255f;
+            table[i] = toARGB(alternateColorSpace.toRGB(tintTransform.eval(tint)));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the RGB components of an ARGB value.
+     *
+     * @param argb the ARGB value
+     * @return the red, green and blue components between 0 and 1
+     */
+    static float[] toRGB(int argb)
+    {
+        return new float[] {
+                (argb >> 16 & 0xff) / 255f,
+                (argb >> 8 & 0xff) / 255f,
+                (argb & 0xff) / 255f };
+    }
+}
@@ -8,6 +8,7 @@ import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.graphics.PDXObject;
@@ -40,6 +41,8 @@ public class PDFormXObject extends PDXObject implements PDContentStream
 
 	private PDGroup group;
 
+	private final ResourceCache cache;
+
 	/**
 	 * Creates a Form XObject for reading.
 	 * @param stream The XObject stream
@@ -47,6 +50,7 @@ public class PDFormXObject extends PDXObject implements PDContentStream
 	public PDFormXObject(PDStream stream)
 	{
 		super(stream, COSName.FORM);
+		cache = null;
 	}
 
 	/**
@@ -55,9 +59,21 @@ public class PDFormXObject extends PDXObject implements PDContentStream
 	 * @param name The name of the form XObject, to prevent recursion.
 	 */
 	public PDFormXObject(PDStream stream, String name)
+	{
+		this(stream, name, null);
+	}
+
+	/**
+	 * Creates a Form XObject for reading.
+	 * @param stream The XObject stream
+	 * @param name The name of the form XObject, to prevent recursion.
+	 * @param cache The resource cache, may be null.
+	 */
+	public PDFormXObject(PDStream stream, String name, ResourceCache cache)
 	{
 		super(stream, COSName.FORM);
 		this.name = name;
+		this.cache = cache;
 	}
 
 	/**
@@ -67,6 +83,7 @@ public class PDFormXObject extends PDXObject implements PDContentStream
 	public PDFormXObject(PDDocument document)
 	{
 		super(document, COSName.FORM);
+		cache = null;
 	}
 
 	/**
@@ -123,7 +140,7 @@ public class PDFormXObject extends PDXObject implements PDContentStream
 		COSDictionary resources = (COSDictionary) getCOSStream().getDictionaryObject(COSName.RESOURCES);
 		if (resources != null)
 		{
-			return new PDResources(resources);
+			return new PDResources(resources, cache);
 		}
 		return null;
 	}
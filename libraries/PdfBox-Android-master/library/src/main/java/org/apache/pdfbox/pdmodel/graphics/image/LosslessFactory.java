@@ -18,24 +18,25 @@ package org.apache.pdfbox.pdmodel.graphics.image;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
 
-import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
-import org.apache.pdfbox.filter.Filter;
-import org.apache.pdfbox.filter.FilterFactory;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
-import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceColorSpace;
 import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
 import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
-import org.apache.pdfbox.util.awt.AWTColor;
 
 import android.graphics.Bitmap;
-import android.graphics.Color;
 
 /**
  * Factory for creating a PDImageXObject containing a lossless compressed image.
  *
+ * The image is read one row at a time and each row is compressed as soon as it is read, so
+ * that neither the pixels nor the uncompressed samples of the whole image are held in memory.
+ * The smallest format which keeps all the colors is used: an image whose pixels are all gray
+ * is stored in DeviceGray, at 1 bit per component if the pixels are all black or white. The
+ * same applies to the alpha channel, which is stored as a soft mask unless it is opaque.
+ *
  * @author Tilman Hausherr
  */
 public final class LosslessFactory
@@ -45,69 +46,116 @@ public final class LosslessFactory
     }
     
     /**
-     * Creates a new lossless encoded Image XObject from a Buffered Image.
+     * Creates a new lossless encoded Image XObject from a Bitmap.
      *
      * @param document the document where the image will be created
-     * @param image the buffered image to embed
+     * @param image the bitmap to embed
      * @return a new Image XObject
      * @throws IOException if something goes wrong
      */
     public static PDImageXObject createFromImage(PDDocument document, Bitmap image)
             throws IOException
     {
-        int bpc;
-        PDDeviceColorSpace deviceColorSpace;
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] pixels = new int[width];
+
+        // find the smallest formats of the colors and of the alpha channel
+        boolean isGray = true;
+        boolean isBilevel = true;
+        boolean isOpaque = true;
+        boolean isBilevelAlpha = true;
+        final boolean hasAlpha = image.hasAlpha();
+        for (int y = 0; y < height && (isGray || hasAlpha && isBilevelAlpha); y++)
+        {
+            image.getPixels(pixels, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++)
+            {
+                int pixel = pixels[x];
+                if (isGray)
+                {
+                    int blue = pixel & 0xff;
+                    if ((pixel >> 16 & 0xff) != blue || (pixel >> 8 & 0xff) != blue)
+                    {
+                        isGray = false;
+                    }
+                    else if (blue != 0 && blue != 0xff)
+                    {
+                        isBilevel = false;
+                    }
+                }
+                if (hasAlpha)
+                {
+                    int alpha = pixel >>> 24;
+                    if (alpha != 0xff)
+                    {
+                        isOpaque = false;
+                        if (alpha != 0)
+                        {
+                            isBilevelAlpha = false;
+                        }
+                    }
+                }
+            }
+        }
+        final boolean hasSoftMask = hasAlpha && !isOpaque;
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        int height = image.getHeight();
-        int width = image.getWidth();
+        final int bpc = isGray && isBilevel ? 1 : 8;
+        final PDColorSpace colorSpace = isGray ? PDDeviceGray.INSTANCE : PDDeviceRGB.INSTANCE;
+        final int alphaBpc = isBilevelAlpha ? 1 : 8;
 
-//        if ((image.getType() == BufferedImage.TYPE_BYTE_GRAY && image.getColorModel().getPixelSize() <= 8)
-//                || (image.getType() == BufferedImage.TYPE_BYTE_BINARY && image.getColorModel().getPixelSize() == 1))
-//        {
-//            MemoryCacheImageOutputStream mcios = new MemoryCacheImageOutputStream(bos);
-//
-//            // grayscale images need one color per sample
-//            bpc = image.getColorModel().getPixelSize();
-//            deviceColorSpace = PDDeviceGray.INSTANCE;
-//            for (int y = 0; y < height; ++y)
-//            {
-//                for (int x = 0; x < width; ++x)
-//                {
-//                    mcios.writeBits(image.getRGB(x, y) & 0xFF, bpc);
-//                }
-//                while (mcios.getBitOffset() != 0)
-//                {
-//                    mcios.writeBit(0);
-//                }
-//            }
-//            mcios.flush();
-//            mcios.close();
-//        }
-//        else
-//        {
-            // RGB
-            bpc = 8;
-            deviceColorSpace = PDDeviceRGB.INSTANCE;
-            for (int y = 0; y < height; ++y)
+        // rows are padded to the nearest byte
+        byte[] row = new byte[(width * colorSpace.getNumberOfComponents() * bpc + 7) / 8];
+        byte[] alphaRow = hasSoftMask ? new byte[(width * alphaBpc + 7) / 8] : null;
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ByteArrayOutputStream alphaBos = hasSoftMask ? new ByteArrayOutputStream() : null;
+        DeflaterOutputStream out = new DeflaterOutputStream(bos);
+        DeflaterOutputStream alphaOut = hasSoftMask ? new DeflaterOutputStream(alphaBos) : null;
+        try
+        {
+            for (int y = 0; y < height; y++)
             {
-                for (int x = 0; x < width; ++x)
+                image.getPixels(pixels, 0, width, 0, y, width, 1);
+                if (!isGray)
                 {
-                    AWTColor color = new AWTColor(image.getPixel(x, y));
-                    bos.write(color.getRed());
-                    bos.write(color.getGreen());
-                    bos.write(color.getBlue());
+                    for (int x = 0, i = 0; x < width; x++)
+                    {
+                        int pixel = pixels[x];
+                        row[i++] = (byte) (pixel >> 16);
+                        row[i++] = (byte) (pixel >> 8);
+                        row[i++] = (byte) pixel;
+                    }
+                }
+                else
+                {
+                    // the blue component of a gray pixel is its gray value
+                    packSamples(pixels, width, 0, bpc, row);
+                }
+                out.write(row);
+                if (hasSoftMask)
+                {
+                    packSamples(pixels, width, 24, alphaBpc, alphaRow);
+                    alphaOut.write(alphaRow);
                 }
             }
-//        } TODO
+        }
+        finally
+        {
+            out.close();
+            if (alphaOut != null)
+            {
+                alphaOut.close();
+            }
+        }
 
         PDImageXObject pdImage = prepareImageXObject(document, bos.toByteArray(), 
-                image.getWidth(), image.getHeight(), bpc, deviceColorSpace);
+                width, height, bpc, colorSpace);
 
         // alpha -> soft mask
-        PDImage xAlpha = createAlphaFromARGBImage(document, image);
-        if (xAlpha != null)
+        if (hasSoftMask)
         {
+            PDImageXObject xAlpha = prepareImageXObject(document, alphaBos.toByteArray(),
+                    width, height, alphaBpc, PDDeviceGray.INSTANCE);
             pdImage.getCOSStream().setItem(COSName.SMASK, xAlpha);
         }
 
@@ -115,154 +163,54 @@ public final class LosslessFactory
     }
 
     /**
-     * Creates a grayscale Flate encoded PDImageXObject from the alpha channel
-     * of an image.
-     *
-     * @param document the document where the image will be created.
-     * @param image an ARGB image.
+     * Packs the 8-bit values at the given shift of a row of pixels into a row of samples. A
+     * 1-bit sample is the lowest bit of the value, which must be either 0 or 255.
      *
-     * @return the alpha channel of an image as a grayscale image.
-     *
-     * @throws IOException if something goes wrong
+     * @param pixels the pixels of the row
+     * @param width the number of pixels
+     * @param shift the position of the value within a pixel
+     * @param bitsPerComponent 1 or 8
+     * @param row receives the samples, padded to the nearest byte
      */
-    private static PDImageXObject createAlphaFromARGBImage(PDDocument document, Bitmap image)
-            throws IOException
+    private static void packSamples(int[] pixels, int width, int shift, int bitsPerComponent,
+            byte[] row)
     {
-        // this implementation makes the assumption that the raster uses 
-        // SinglePixelPackedSampleModel, i.e. the values can be used 1:1 for
-        // the stream. 
-        // Sadly the type of the databuffer is TYPE_INT and not TYPE_BYTE.
-        if (!image.hasAlpha())
+        if (bitsPerComponent == 8)
         {
-            return null;
+            for (int x = 0; x < width; x++)
+            {
+                row[x] = (byte) (pixels[x] >>> shift);
+            }
+            return;
         }
-        
-        // extract the alpha information
-//        WritableRaster alphaRaster = image.getAlphaRaster();
-//        if (alphaRaster == null)
-//        {
-//            // happens sometimes (PDFBOX-2654) despite colormodel claiming to have alpha
-//            return createAlphaFromARGBImage2(document, image);
-//        }
-
-//        int[] pixels = alphaRaster.getPixels(0, 0,
-//                alphaRaster.getSampleModel().getWidth(),
-//                alphaRaster.getSampleModel().getHeight(),
-//                (int[]) null);
-        int[] pixels = new int[image.getHeight() * image.getWidth()];
-        
-//        image.getPixels(pixels, 0, image.getWidth(), 0, 0, image.getHeight(), image.getWidth());
-        for(int y = 0; y < image.getHeight(); y++) {
-        	for(int x = 0; x < image.getWidth(); x++) {
-        		pixels[x + y * image.getWidth()] = image.getPixel(x, y);
-        	}
-        } 
-        
-        
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        int bpc;
-//        if (image.getTransparency() == Transparency.BITMASK)
-//        {
-//            bpc = 1;
-//            MemoryCacheImageOutputStream mcios = new MemoryCacheImageOutputStream(bos);
-//            int width = alphaRaster.getSampleModel().getWidth();
-//            int p = 0;
-//            for (int pixel : pixels)
-//            {
-//                mcios.writeBit(pixel);
-//                ++p;
-//                if (p % width == 0)
-//                {
-//                    while (mcios.getBitOffset() != 0)
-//                    {
-//                        mcios.writeBit(0);
-//                    }
-//                }
-//            }
-//            mcios.flush();
-//            mcios.close();
-//        }
-//        else
-//        {
-            bpc = 8;
-            for (int pixel : pixels)
+        for (int i = 0, x = 0; i < row.length; i++)
+        {
+            int bits = 0;
+            for (int bit = 7; bit >= 0 && x < width; bit--, x++)
             {
-                bos.write(Color.alpha(pixel));
+                bits |= (pixels[x] >>> shift & 1) << bit;
             }
-//        }
-
-        PDImageXObject pdImage = prepareImageXObject(document, bos.toByteArray(), 
-                image.getWidth(), image.getHeight(), bpc, PDDeviceGray.INSTANCE);
-        return pdImage;
+            row[i] = (byte) bits;
+        }
     }
 
-    // create alpha image the hard way: get the alpha through getRGB()
-//    private static PDImageXObject createAlphaFromARGBImage2(PDDocument document, Bitmap bi)
-//            throws IOException
-//    {
-//        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-//        int bpc;
-//        if (bi.getTransparency() == Transparency.BITMASK)
-//        {
-//            bpc = 1;
-//            MemoryCacheImageOutputStream mcios = new MemoryCacheImageOutputStream(bos);
-//            for (int y = 0, h = bi.getHeight(); y < h; ++y)
-//            {
-//                for (int x = 0, w = bi.getWidth(); x < w; ++x)
-//                {
-//                    int alpha = bi.getRGB(x, y) >>> 24;
-//                    mcios.writeBit(alpha);
-//                }
-//                while (mcios.getBitOffset() != 0)
-//                {
-//                    mcios.writeBit(0);
-//                }
-//            }
-//            mcios.flush();
-//            mcios.close();
-//        }
-//        else
-//        {
-//            bpc = 8;
-//            for (int y = 0, h = bi.getHeight(); y < h; ++y)
-//            {
-//                for (int x = 0, w = bi.getWidth(); x < w; ++x)
-//                {
-//                    int alpha = Color.alpha(bi.getPixel(x, y));
-//                    bos.write(alpha);
-//                }
-//            }
-//        }
-//
-//        PDImageXObject pdImage = prepareImageXObject(document, bos.toByteArray(), 
-//                bi.getWidth(), bi.getHeight(), bpc, PDDeviceGray.INSTANCE);
-//
-//        return pdImage;
-//    }            
-
     /**
-     * Create a PDImageXObject while making a decision whether not to 
-     * compress, use Flate filter only, or Flate and LZW filters.
+     * Creates a Flate encoded PDImageXObject.
      * 
      * @param document The document.
-     * @param byteArray array with data.
+     * @param encodedArray the Flate encoded samples.
      * @param width the image width
      * @param height the image height
      * @param bitsPerComponent the bits per component
      * @param initColorSpace the color space
-     * @return the newly created PDImageXObject with the data compressed.
+     * @return the newly created PDImageXObject.
      * @throws IOException 
      */
     private static PDImageXObject prepareImageXObject(PDDocument document, 
-            byte [] byteArray, int width, int height, int bitsPerComponent, 
+            byte [] encodedArray, int width, int height, int bitsPerComponent, 
             PDColorSpace initColorSpace) throws IOException
     {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
-        filter.encode(new ByteArrayInputStream(byteArray), baos, new COSDictionary(), 0);
-
-        ByteArrayInputStream filteredByteStream = new ByteArrayInputStream(baos.toByteArray());
+        ByteArrayInputStream filteredByteStream = new ByteArrayInputStream(encodedArray);
         return new PDImageXObject(document, filteredByteStream, COSName.FLATE_DECODE, 
                 width, height, bitsPerComponent, initColorSpace);
     }
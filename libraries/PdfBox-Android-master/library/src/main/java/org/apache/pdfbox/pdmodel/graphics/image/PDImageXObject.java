@@ -161,14 +161,37 @@ public final class PDImageXObject extends PDXObject implements PDImage
             return cachedImage;
         }
 
+        cachedImage = getImage(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        return cachedImage;
+    }
+
+    /**
+     * Returns the contents of the image as a bitmap no larger than the given size. A larger
+     * image is subsampled while it is decoded, so that huge images can be shown without
+     * allocating a bitmap of their full size.
+     * The returned images are not cached, unless the cached image already fits.
+     * @param maxWidth the maximum width of the bitmap
+     * @param maxHeight the maximum height of the bitmap
+     * @return the image as a bitmap
+     * @throws IOException if the image cannot be read
+     */
+    public Bitmap getImage(int maxWidth, int maxHeight) throws IOException
+    {
+        if (cachedImage != null && cachedImage.getWidth() <= maxWidth
+                && cachedImage.getHeight() <= maxHeight)
+        {
+            return cachedImage;
+        }
+
         // get image as RGB
-        Bitmap image = SampledImageReader.getRGBImage(this, getColorKeyMask());
+        Bitmap image = SampledImageReader.getRGBImage(this, getColorKeyMask(), maxWidth,
+                maxHeight);
 
         // soft mask (overrides explicit mask)
         PDImageXObject softMask = getSoftMask();
         if (softMask != null)
         {
-            image = applyMask(image, softMask.getOpaqueImage(), true);
+            image = applyMask(image, softMask.getOpaqueImage(maxWidth, maxHeight), true);
         }
         else
         {
@@ -176,11 +199,10 @@ public final class PDImageXObject extends PDXObject implements PDImage
             PDImageXObject mask = getMask();
             if (mask != null)
             {
-                image = applyMask(image, mask.getOpaqueImage(), false);
+                image = applyMask(image, mask.getOpaqueImage(maxWidth, maxHeight), false);
             }
         }
 
-        cachedImage = image;
         return image;
     }
 
@@ -209,6 +231,19 @@ public final class PDImageXObject extends PDXObject implements PDImage
         return SampledImageReader.getRGBImage(this, null);
     }
 
+    /**
+     * Returns the opaque image stream without any masks applied, subsampled to be no larger
+     * than the given size.
+     * @param maxWidth the maximum width of the bitmap
+     * @param maxHeight the maximum height of the bitmap
+     * @return the image without any masks applied
+     * @throws IOException if the image cannot be read
+     */
+    public Bitmap getOpaqueImage(int maxWidth, int maxHeight) throws IOException
+    {
+        return SampledImageReader.getRGBImage(this, null, maxWidth, maxHeight);
+    }
+
     // explicit mask: RGB + Binary -> ARGB
     // soft mask: RGB + Gray -> ARGB
     private Bitmap applyMask(Bitmap image, Bitmap mask, boolean isSoft)
@@ -232,21 +267,24 @@ public final class PDImageXObject extends PDXObject implements PDImage
         	mask = Bitmap.createScaledBitmap(mask, width, height, true);
         }
 
-        int alphaPixel;
+        // the mask is gray, its value is the alpha of a soft mask and the inverted alpha of
+        // an explicit mask
+        int[] pixels = new int[width];
+        int[] alphaPixels = new int[width];
         for (int y = 0; y < height; y++)
         {
+            image.getPixels(pixels, 0, width, 0, y, width, 1);
+            mask.getPixels(alphaPixels, 0, width, 0, y, width, 1);
             for (int x = 0; x < width; x++)
             {
-                int color = image.getPixel(x, y);
-                
-                alphaPixel = Color.alpha(mask.getPixel(x, y));
+                int alphaPixel = Color.red(alphaPixels[x]);
                 if (!isSoft)
                 {
                     alphaPixel = 255 - alphaPixel;
                 }
-
-                masked.setPixel(x, y, Color.argb(alphaPixel, Color.red(color), Color.green(color), Color.blue(color)));
+                pixels[x] = alphaPixel << 24 | pixels[x] & 0x00ffffff;
             }
+            masked.setPixels(pixels, 0, width, 0, y, width, 1);
         }
 
         return masked;
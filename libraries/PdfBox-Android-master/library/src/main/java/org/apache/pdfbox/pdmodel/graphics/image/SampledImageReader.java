@@ -2,10 +2,14 @@ package org.apache.pdfbox.pdmodel.graphics.image;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.common.PDMemoryStream;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
@@ -17,6 +21,9 @@ import android.util.Log;
  */
 final class SampledImageReader
 {
+    // the number of pixels converted by the color space at once
+    private static final int CHUNK_PIXELS = 65536;
+
 	private SampledImageReader()
 	{
 	}
@@ -71,17 +78,37 @@ final class SampledImageReader
 //    }TODO
 
     /**
-     * Returns the content of the given image as an AWT buffered image with an RGB color space.
-     * If a color key mask is provided then an ARGB image is returned instead.
+     * Returns the content of the given image as a bitmap with an RGB color space.
+     * If a color key mask is provided then the masked pixels are transparent.
      * This method never returns null.
      * @param pdImage the image to read
      * @param colorKey an optional color key mask
-     * @return content of this image as an RGB buffered image
+     * @return content of this image as a bitmap
      * @throws IOException if the image cannot be read
      */
     public static Bitmap getRGBImage(PDImage pdImage, COSArray colorKey) throws IOException
     {
-    	Log.e("PdfBoxAndroid", "getting image");
+        return getRGBImage(pdImage, colorKey, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the content of the given image as a bitmap with an RGB color space, no larger
+     * than the given size. A larger image is subsampled while it is decoded: only every n-th
+     * pixel of every n-th row is converted, n being the smallest number which makes the image
+     * fit, so that no bitmap of the full size is allocated. JPEG images are subsampled by the
+     * platform decoder, which rounds n down to a power of 2.
+     * If a color key mask is provided then the masked pixels are transparent.
+     * This method never returns null.
+     * @param pdImage the image to read
+     * @param colorKey an optional color key mask
+     * @param maxWidth the maximum width of the bitmap
+     * @param maxHeight the maximum height of the bitmap
+     * @return content of this image as a bitmap
+     * @throws IOException if the image cannot be read
+     */
+    public static Bitmap getRGBImage(PDImage pdImage, COSArray colorKey, int maxWidth,
+            int maxHeight) throws IOException
+    {
         if (pdImage.getStream() instanceof PDMemoryStream)
         {
             // for inline images
@@ -95,305 +122,377 @@ final class SampledImageReader
             throw new IOException("Image stream is empty");
         }
 
+        final int width = pdImage.getWidth();
+        final int height = pdImage.getHeight();
+        if (width <= 0 || height <= 0)
+        {
+            throw new IOException("Invalid image size " + width + "x" + height);
+        }
+        final int subsampling = getSubsampling(width, height, maxWidth, maxHeight);
+
+        String suffix = pdImage.getSuffix();
+        if ("jpg".equals(suffix) || "jpx".equals(suffix))
+        {
+            // the filters leave JPEG images encoded
+            return fromEncoded(pdImage, subsampling);
+        }
+
         // get parameters, they must be valid or have been repaired
-//        final PDColorSpace colorSpace = pdImage.getColorSpace(); TODO
-//        final int numComponents = 3; // colorSpace.getNumberOfComponents(); TODO
-//        final int width = pdImage.getWidth();
-//        final int height = pdImage.getHeight();
-//        final int bitsPerComponent = pdImage.getBitsPerComponent();
-//        final float[] decode = getDecodeArray(pdImage);
+        final PDColorSpace colorSpace = pdImage.getColorSpace();
+        final int numComponents = colorSpace.getNumberOfComponents();
+        final int bitsPerComponent = pdImage.getBitsPerComponent();
+        if (bitsPerComponent != 1 && bitsPerComponent != 2 && bitsPerComponent != 4
+                && bitsPerComponent != 8 && bitsPerComponent != 16)
+        {
+            throw new IOException("Unsupported bits per component " + bitsPerComponent);
+        }
+        final byte[][] sampleMaps = getSampleMaps(colorSpace, getDecodeArray(pdImage),
+                bitsPerComponent);
+        final int[] colorKeyRanges = getColorKeyRanges(colorKey, numComponents);
 
-        //
-        // An AWT raster must use 8/16/32 bits per component. Images with < 8bpc
-        // will be unpacked into a byte-backed raster. Images with 16bpc will be reduced
-        // in depth to 8bpc as they will be drawn to TYPE_INT_RGB images anyway. All code
-        // in PDColorSpace#toRGBImage expects and 8-bit range, i.e. 0-255.
-        //
-//        LOG.error("getting raster");
-//        WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, width, height,
-//                numComponents, new Point(0, 0));
-//        LOG.error("got raster");
-        // convert image, faster path for non-decoded, non-colormasked 8-bit images
-        //final float[] defaultDecode = pdImage.getColorSpace().getDefaultDecode(8);
-//        final float[] defaultDecode = { 0, 1, 0, 1, 0, 1 }; // TODO: For RGB
-//        if (bitsPerComponent == 8 && Arrays.equals(decode, defaultDecode) && colorKey == null)
-//        {
-//            return from8bit(pdImage, raster);
-        
-        // Other code probably not necessary
+        Bitmap bitmap = Bitmap.createBitmap((width + subsampling - 1) / subsampling,
+                (height + subsampling - 1) / subsampling, Bitmap.Config.ARGB_8888);
         InputStream input = pdImage.getStream().createInputStream();
-        
-        return BitmapFactory.decodeStream(input);
-//        }
-//        else if (bitsPerComponent == 1 && colorKey == null)
-//        {
-//            return from1Bit(pdImage, raster);
-//        }
-//        else
-//        {
-//            return fromAny(pdImage, raster, colorKey);
-//        }
+        try
+        {
+            if (numComponents == 1 && bitsPerComponent <= 8)
+            {
+                fromPalette(input, pdImage, colorSpace, sampleMaps[0], colorKeyRanges,
+                        subsampling, bitmap);
+            }
+            else if (bitsPerComponent == 8 && colorKeyRanges == null && subsampling == 1
+                    && isIdentity(sampleMaps))
+            {
+                from8bit(input, pdImage, colorSpace, bitmap);
+            }
+            else
+            {
+                fromAny(input, pdImage, colorSpace, sampleMaps, colorKeyRanges, subsampling,
+                        bitmap);
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+        }
+        return bitmap;
+    }
+
+    // the smallest subsampling which makes the image fit the given size
+    private static int getSubsampling(int width, int height, int maxWidth, int maxHeight)
+    {
+        int subsampling = 1;
+        if (maxWidth > 0 && width > maxWidth)
+        {
+            subsampling = (width + maxWidth - 1) / maxWidth;
+        }
+        if (maxHeight > 0 && height > maxHeight)
+        {
+            subsampling = Math.max(subsampling, (height + maxHeight - 1) / maxHeight);
+        }
+        return subsampling;
+    }
+
+    // JPEG images are decoded by the platform
+    private static Bitmap fromEncoded(PDImage pdImage, int subsampling) throws IOException
+    {
+        InputStream input = pdImage.getStream().createInputStream();
+        try
+        {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = subsampling;
+            Bitmap bitmap = BitmapFactory.decodeStream(input, null, options);
+            if (bitmap == null)
+            {
+                throw new IOException("Image could not be decoded");
+            }
+            return bitmap;
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    // images with a single component of up to 8 bits, e.g. stencils, gray and indexed images:
+    // all possible samples are converted at once into a palette
+    private static void fromPalette(InputStream input, PDImage pdImage, PDColorSpace colorSpace,
+            byte[] sampleMap, int[] colorKeyRanges, int subsampling, Bitmap bitmap)
+            throws IOException
+    {
+        final int width = pdImage.getWidth();
+        final int height = pdImage.getHeight();
+        final int bitsPerComponent = pdImage.getBitsPerComponent();
+        final int outputWidth = bitmap.getWidth();
+        final int sampleMask = (1 << bitsPerComponent) - 1;
+
+        int[] palette = new int[sampleMap.length];
+        colorSpace.toRGBImage(sampleMap, palette);
+        if (colorKeyRanges != null)
+        {
+            // the bounds come from the PDF, only the possible samples are masked
+            int maxValue = Math.min(colorKeyRanges[1], sampleMask);
+            for (int value = Math.max(colorKeyRanges[0], 0); value <= maxValue; value++)
+            {
+                palette[value] &= 0x00ffffff;
+            }
+        }
+
+        // rows are padded to the nearest byte
+        byte[] row = new byte[(width * bitsPerComponent + 7) / 8];
+        int rowsPerChunk = getRowsPerChunk(outputWidth);
+        int[] pixels = new int[outputWidth * rowsPerChunk];
+        int chunkRow = 0;
+        int outputRow = 0;
+        for (int y = 0; y < height; y += subsampling)
+        {
+            skipRows(input, row, y == 0 ? 0 : subsampling - 1);
+            readFully(input, row, 0, row.length);
+            int offset = chunkRow * outputWidth;
+            if (bitsPerComponent == 8)
+            {
+                for (int x = 0; x < outputWidth; x++)
+                {
+                    pixels[offset + x] = palette[row[x * subsampling] & 0xff];
+                }
+            }
+            else
+            {
+                for (int x = 0; x < outputWidth; x++)
+                {
+                    int bit = x * subsampling * bitsPerComponent;
+                    int value = row[bit >> 3] >> 8 - bitsPerComponent - (bit & 7) & sampleMask;
+                    pixels[offset + x] = palette[value];
+                }
+            }
+            if (++chunkRow == rowsPerChunk)
+            {
+                bitmap.setPixels(pixels, 0, outputWidth, 0, outputRow, outputWidth, chunkRow);
+                outputRow += chunkRow;
+                chunkRow = 0;
+            }
+        }
+        if (chunkRow > 0)
+        {
+            bitmap.setPixels(pixels, 0, outputWidth, 0, outputRow, outputWidth, chunkRow);
+        }
+    }
+
+    // faster, 8-bit non-decoded, non-colormasked image conversion: the rows are passed to the
+    // color space as they are
+    private static void from8bit(InputStream input, PDImage pdImage, PDColorSpace colorSpace,
+            Bitmap bitmap) throws IOException
+    {
+        final int width = pdImage.getWidth();
+        final int height = pdImage.getHeight();
+        final int rowLength = width * colorSpace.getNumberOfComponents();
+
+        int rowsPerChunk = getRowsPerChunk(width);
+        byte[] samples = new byte[rowLength * rowsPerChunk];
+        int[] pixels = new int[width * rowsPerChunk];
+        for (int y = 0; y < height; y += rowsPerChunk)
+        {
+            int rows = Math.min(rowsPerChunk, height - y);
+            if (rows < rowsPerChunk)
+            {
+                samples = new byte[rowLength * rows];
+                pixels = new int[width * rows];
+            }
+            readFully(input, samples, 0, samples.length);
+            colorSpace.toRGBImage(samples, pixels);
+            bitmap.setPixels(pixels, 0, width, 0, y, width, rows);
+        }
     }
-    
-//    private static BufferedImage from1Bit(PDImage pdImage, WritableRaster raster)
-//            throws IOException
-//    {
-//        final PDColorSpace colorSpace = pdImage.getColorSpace();
-//        final int width = pdImage.getWidth();
-//        final int height = pdImage.getHeight();
-//        final float[] decode = getDecodeArray(pdImage);
-//        byte[] output = ((DataBufferByte) raster.getDataBuffer()).getData();
-//
-//        // read bit stream
-//        InputStream iis = null;
-//        try
-//        {
-//            // create stream
-//            iis = pdImage.getStream().createInputStream();
-//            final boolean isIndexed = colorSpace instanceof PDIndexed;
-//
-//            int rowLen = width / 8;
-//            if (width % 8 > 0)
-//            {
-//                rowLen++;
-//            }
-//
-//            // read stream
-//            byte value0;
-//            byte value1;
-//            if (isIndexed || decode[0] < decode[1])
-//            {
-//                value0 = 0;
-//                value1 = (byte) 255;
-//            }
-//            else
-//            {
-//                value0 = (byte) 255;
-//                value1 = 0;
-//            }
-//            byte[] buff = new byte[rowLen];
-//            int idx = 0;
-//            for (int y = 0; y < height; y++)
-//            {
-//                int x = 0;
-//                iis.read(buff);
-//                for (int r = 0; r < rowLen; r++)
-//                {
-//                    int value = buff[r];
-//                    int mask = 128;
-//                    for (int i = 0; i < 8; i++)
-//                    {
-//                        int bit = value & mask;
-//                        mask >>= 1;
-//                        output[idx++] = bit == 0 ? value0 : value1;
-//                        x++;
-//                        if (x == width)
-//                        {
-//                            break;
-//                        }
-//                    }
-//                }
-//            }
-//
-//            // use the color space to convert the image to RGB
-//            BufferedImage rgbImage = colorSpace.toRGBImage(raster);
-//
-//            return rgbImage;
-//        }
-//        finally
-//        {
-//            if (iis != null)
-//            {
-//                iis.close();
-//            }
-//        }
-//    }TODO
 
-    // faster, 8-bit non-decoded, non-colormasked image conversion
-//    private static Bitmap from8bit(PDImage pdImage, WritableRaster raster)
-//            throws IOException
-//    {
-//        InputStream input = pdImage.getStream().createInputStream();
-//        try
-//        {
-//            // get the raster's underlying byte buffer
-//            byte[][] banks = ((DataBufferByte) raster.getDataBuffer()).getBankData();
-//            byte[] source = IOUtils.toByteArray(input);
-//
-//            final int width = pdImage.getWidth();
-//            final int height = pdImage.getHeight();
-//            final int numComponents = 8; //pdImage.getColorSpace().getNumberOfComponents(); TODO
-//            int max = width * height;
-//
-//            for (int c = 0; c < numComponents; c++)
-//            {
-//                int sourceOffset = c;
-//                for (int i = 0; i < max; i++)
-//                {
-//                    banks[c][i] = source[sourceOffset];
-//                    sourceOffset += numComponents;
-//                }
-//            }
-//
-////            // use the color space to convert the image to RGB
-////            return pdImage.getColorSpace().toRGBImage(raster);
-//        	return BitmapFactory.decodeStream(input);
-//        }
-//        finally
-//        {
-//            IOUtils.closeQuietly(input);
-//        }
-//    } TODO : Not at all correct
-    
     // slower, general-purpose image conversion from any image format
-//    private static BufferedImage fromAny(PDImage pdImage, WritableRaster raster, COSArray colorKey)
-//            throws IOException
-//    {
-//        final PDColorSpace colorSpace = pdImage.getColorSpace();
-//        final int numComponents = colorSpace.getNumberOfComponents();
-//        final int width = pdImage.getWidth();
-//        final int height = pdImage.getHeight();
-//        final int bitsPerComponent = pdImage.getBitsPerComponent();
-//        final float[] decode = getDecodeArray(pdImage);
-//
-//        // read bit stream
-//        ImageInputStream iis = null;
-//        try
-//        {
-//            // create stream
-//            iis = new MemoryCacheImageInputStream(pdImage.getStream().createInputStream());
-//            final float sampleMax = (float)Math.pow(2, bitsPerComponent) - 1f;
-//            final boolean isIndexed = colorSpace instanceof PDIndexed;
-//
-//            // init color key mask
-//            float[] colorKeyRanges = null;
-//            BufferedImage colorKeyMask = null;
-//            if (colorKey != null)
-//            {
-//                colorKeyRanges = colorKey.toFloatArray();
-//                colorKeyMask = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
-//            }
-//
-//            // calculate row padding
-//            int padding = 0;
-//            if (width * numComponents * bitsPerComponent % 8 > 0)
-//            {
-//                padding = 8 - (width * numComponents * bitsPerComponent % 8);
-//            }
-//
-//            // read stream
-//            byte[] srcColorValues = new byte[numComponents];
-//            byte[] alpha = new byte[1];
-//            for (int y = 0; y < height; y++)
-//            {
-//                for (int x = 0; x < width; x++)
-//                {
-//                    boolean isMasked = true;
-//                    for (int c = 0; c < numComponents; c++)
-//                    {
-//                        int value = (int)iis.readBits(bitsPerComponent);
-//
-//                        // color key mask requires values before they are decoded
-//                        if (colorKeyRanges != null)
-//                        {
-//                            isMasked &= value >= colorKeyRanges[c * 2] &&
-//                                        value <= colorKeyRanges[c * 2 + 1];
-//                        }
-//
-//                        // decode array
-//                        final float dMin = decode[c * 2];
-//                        final float dMax = decode[(c * 2) + 1];
-//
-//                        // interpolate to domain
-//                        float output = dMin + (value * ((dMax - dMin) / sampleMax));
-//
-//                        if (isIndexed)
-//                        {
-//                            // indexed color spaces get the raw value, because the TYPE_BYTE
-//                            // below cannot be reversed by the color space without it having
-//                            // knowledge of the number of bits per component
-//                            srcColorValues[c] = (byte)Math.round(output);
-//                        }
-//                        else
-//                        {
-//                            // interpolate to TYPE_BYTE
-//                            int outputByte = Math.round(((output - Math.min(dMin, dMax)) /
-//                                    Math.abs(dMax - dMin)) * 255f);
-//
-//                            srcColorValues[c] = (byte)outputByte;
-//                        }
-//                    }
-//                    raster.setDataElements(x, y, srcColorValues);
-//
-//                    // set alpha channel in color key mask, if any
-//                    if (colorKeyMask != null)
-//                    {
-//                        alpha[0] = (byte)(isMasked ? 255 : 0);
-//                        colorKeyMask.getRaster().setDataElements(x, y, alpha);
-//                    }
-//                }
-//
-//                // rows are padded to the nearest byte
-//                iis.readBits(padding);
-//            }
-//
-//            // use the color space to convert the image to RGB
-//            BufferedImage rgbImage = colorSpace.toRGBImage(raster);
-//
-//            // apply color mask, if any
-//            if (colorKeyMask != null)
-//            {
-//                return applyColorKeyMask(rgbImage, colorKeyMask);
-//            }
-//            else
-//            {
-//                return rgbImage;
-//            }
-//        }
-//        finally
-//        {
-//            if (iis != null)
-//            {
-//                iis.close();
-//            }
-//        }
-//    }TODO
+    private static void fromAny(InputStream input, PDImage pdImage, PDColorSpace colorSpace,
+            byte[][] sampleMaps, int[] colorKeyRanges, int subsampling, Bitmap bitmap)
+            throws IOException
+    {
+        final int width = pdImage.getWidth();
+        final int height = pdImage.getHeight();
+        final int bitsPerComponent = pdImage.getBitsPerComponent();
+        final int numComponents = colorSpace.getNumberOfComponents();
+        final int outputWidth = bitmap.getWidth();
+        final int sampleMask = (1 << bitsPerComponent) - 1;
 
-    // color key mask: RGB + Binary -> ARGB
-//    private static BufferedImage applyColorKeyMask(BufferedImage image, BufferedImage mask)
-//            throws IOException
-//    {
-//        int width = image.getWidth();
-//        int height = image.getHeight();
-//
-//        // compose to ARGB
-//        BufferedImage masked = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-//
-//        WritableRaster src = image.getRaster();
-//        WritableRaster dest = masked.getRaster();
-//        WritableRaster alpha = mask.getRaster();
-//
-//        float[] rgb = new float[3];
-//        float[] rgba = new float[4];
-//        float[] alphaPixel = null;
-//        for (int y = 0; y < height; y++)
-//        {
-//            for (int x = 0; x < width; x++)
-//            {
-//                src.getPixel(x, y, rgb);
-//
-//                rgba[0] = rgb[0];
-//                rgba[1] = rgb[1];
-//                rgba[2] = rgb[2];
-//                alphaPixel = alpha.getPixel(x, y, alphaPixel);
-//                rgba[3] = 255 - alphaPixel[0];
-//
-//                dest.setPixel(x, y, rgba);
-//            }
-//        }
-//
-//        return masked;
-//    }TODO
+        // rows are padded to the nearest byte
+        byte[] row = new byte[(int) (((long) width * numComponents * bitsPerComponent + 7) / 8)];
+        int rowsPerChunk = getRowsPerChunk(outputWidth);
+        byte[] samples = new byte[outputWidth * rowsPerChunk * numComponents];
+        int[] pixels = new int[outputWidth * rowsPerChunk];
+        boolean[] masked = colorKeyRanges != null ? new boolean[pixels.length] : null;
+        int chunkRow = 0;
+        int outputRow = 0;
+        for (int y = 0; y < height; y += subsampling)
+        {
+            skipRows(input, row, y == 0 ? 0 : subsampling - 1);
+            readFully(input, row, 0, row.length);
+            int pixel = chunkRow * outputWidth;
+            int sampleOffset = pixel * numComponents;
+            for (int x = 0; x < outputWidth; x++)
+            {
+                boolean isMasked = masked != null;
+                int component = x * subsampling * numComponents;
+                for (int c = 0; c < numComponents; c++)
+                {
+                    int value;
+                    if (bitsPerComponent == 8)
+                    {
+                        value = row[component] & 0xff;
+                    }
+                    else if (bitsPerComponent == 16)
+                    {
+                        value = (row[2 * component] & 0xff) << 8
+                                | row[2 * component + 1] & 0xff;
+                    }
+                    else
+                    {
+                        int bit = component * bitsPerComponent;
+                        value = row[bit >> 3] >> 8 - bitsPerComponent - (bit & 7) & sampleMask;
+                    }
+                    // color key mask requires values before they are decoded
+                    if (isMasked)
+                    {
+                        isMasked = value >= colorKeyRanges[c * 2]
+                                && value <= colorKeyRanges[c * 2 + 1];
+                    }
+                    samples[sampleOffset++] = sampleMaps[c][value];
+                    component++;
+                }
+                if (masked != null)
+                {
+                    masked[pixel + x] = isMasked;
+                }
+            }
+            if (++chunkRow == rowsPerChunk || y + subsampling >= height)
+            {
+                int count = chunkRow * outputWidth;
+                if (count < pixels.length)
+                {
+                    byte[] lastSamples = new byte[count * numComponents];
+                    System.arraycopy(samples, 0, lastSamples, 0, lastSamples.length);
+                    samples = lastSamples;
+                    pixels = new int[count];
+                }
+                colorSpace.toRGBImage(samples, pixels);
+                if (masked != null)
+                {
+                    for (int i = 0; i < count; i++)
+                    {
+                        if (masked[i])
+                        {
+                            pixels[i] &= 0x00ffffff;
+                        }
+                    }
+                }
+                bitmap.setPixels(pixels, 0, outputWidth, 0, outputRow, outputWidth, chunkRow);
+                outputRow += chunkRow;
+                chunkRow = 0;
+            }
+        }
+    }
+
+    // the number of rows converted at once
+    private static int getRowsPerChunk(int width)
+    {
+        return Math.max(1, CHUNK_PIXELS / width);
+    }
+
+    // reads the given number of rows which aren't used
+    private static void skipRows(InputStream input, byte[] row, int count) throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            readFully(input, row, 0, row.length);
+        }
+    }
+
+    // fills the buffer, the part beyond the end of the stream is filled with zeroes
+    private static void readFully(InputStream input, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        int end = offset + length;
+        while (offset < end)
+        {
+            int bytesRead = input.read(buffer, offset, end - offset);
+            if (bytesRead < 0)
+            {
+                Arrays.fill(buffer, offset, end, (byte) 0);
+                return;
+            }
+            offset += bytesRead;
+        }
+    }
+
+    /**
+     * Returns for each component the 8-bit value passed to
+     * {@link PDColorSpace#toRGBImage(byte[], int[])} for each possible sample. The sample is
+     * mapped by the decode array, then scaled from the range of the component to 0-255.
+     */
+    private static byte[][] getSampleMaps(PDColorSpace colorSpace, float[] decode,
+            int bitsPerComponent)
+    {
+        final int numComponents = colorSpace.getNumberOfComponents();
+        final float[] range = colorSpace.getDefaultDecode(8);
+        final int sampleCount = 1 << bitsPerComponent;
+        final float sampleMax = sampleCount - 1;
+        byte[][] sampleMaps = new byte[numComponents][sampleCount];
+        for (int c = 0; c < numComponents; c++)
+        {
+            final float dMin = decode[c * 2];
+            final float dMax = decode[c * 2 + 1];
+            final float rangeMin = range[c * 2];
+            final float rangeMax = range[c * 2 + 1];
+            for (int value = 0; value < sampleCount; value++)
+            {
+                // interpolate to domain
+                float output = dMin + value * ((dMax - dMin) / sampleMax);
+                // interpolate to 0-255
+                int outputByte = Math.round((output - rangeMin) / (rangeMax - rangeMin) * 255f);
+                sampleMaps[c][value] = (byte) Math.max(0, Math.min(255, outputByte));
+            }
+        }
+        return sampleMaps;
+    }
+
+    // returns true if the samples are passed on as they are
+    private static boolean isIdentity(byte[][] sampleMaps)
+    {
+        for (byte[] sampleMap : sampleMaps)
+        {
+            for (int value = 0; value < sampleMap.length; value++)
+            {
+                if ((sampleMap[value] & 0xff) != value)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // returns the minimum and maximum sample of each component of the color key mask
+    private static int[] getColorKeyRanges(COSArray colorKey, int numComponents)
+    {
+        if (colorKey == null)
+        {
+            return null;
+        }
+        if (colorKey.size() < numComponents * 2)
+        {
+            Log.w("PdfBoxAndroid", "color key mask " + colorKey
+                    + " not compatible with color space, ignoring it");
+            return null;
+        }
+        int[] ranges = new int[numComponents * 2];
+        for (int i = 0; i < ranges.length; i++)
+        {
+            COSBase value = colorKey.getObject(i);
+            ranges[i] = value instanceof COSNumber ? ((COSNumber) value).intValue() : 0;
+        }
+        return ranges;
+    }
 
     // gets decode array from dictionary or returns default
     private static float[] getDecodeArray(PDImage pdImage) throws IOException
@@ -403,7 +502,7 @@ final class SampledImageReader
 
         if (cosDecode != null)
         {
-            int numberOfComponents = 8; //pdImage.getColorSpace().getNumberOfComponents();
+            int numberOfComponents = pdImage.getColorSpace().getNumberOfComponents();
             if (cosDecode.size() != numberOfComponents * 2)
             {
                 if (pdImage.isStencil() && cosDecode.size() >= 2
@@ -434,8 +533,7 @@ final class SampledImageReader
         // use color space default
         if (decode == null)
         {
-        	 return new float[] { 0, 1, 0, 1, 0, 1 }; // for RGB TODO
-            //return pdImage.getColorSpace().getDefaultDecode(pdImage.getBitsPerComponent());
+            return pdImage.getColorSpace().getDefaultDecode(pdImage.getBitsPerComponent());
         }
 
         return decode;
@@ -1,10 +1,10 @@
 package org.apache.pdfbox.rendering;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.fontbox.cff.Type2CharString;
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.fontbox.util.GlyphOutlineCache;
 import org.apache.pdfbox.pdmodel.font.PDCIDFontType0;
 
 import android.graphics.Path;
@@ -17,7 +17,7 @@ import android.util.Log;
  */
 final class CIDType0Glyph2D implements Glyph2D
 {
-	private final Map<Integer, Path> cache = new HashMap<Integer, Path>();
+	private final GlyphOutlineCache cache = GlyphOutlineCache.getInstance();
 	private final PDCIDFontType0 font;
 	private final String fontName;
 	/**
@@ -34,21 +34,22 @@ final class CIDType0Glyph2D implements Glyph2D
 	public Path getPathForCharacterCode(int code)
 	{
 		int cid = font.getParent().codeToCID(code);
-		if (cache.containsKey(code))
-		{
-			return cache.get(code);
-		}
 		try
 		{
-			Type2CharString charString = font.getType2CharString(cid);
-			if (charString.getGID() == 0)
+			Object fontProgram = font.getCFFFont();
+			GlyphOutline outline = cache.get(fontProgram, cid);
+			if (outline == null)
 			{
-				String cidHex = String.format("%04x", cid);
-				Log.w("PdfBoxAndroid", "No glyph for " + code + " (CID " + cidHex + ") in font " + fontName);
+				Type2CharString charString = font.getType2CharString(cid);
+				if (charString.getGID() == 0)
+				{
+					String cidHex = String.format("%04x", cid);
+					Log.w("PdfBoxAndroid", "No glyph for " + code + " (CID " + cidHex + ") in font " + fontName);
+				}
+				outline = charString.getOutline();
+				cache.put(fontProgram, cid, outline);
 			}
-			Path path = charString.getPath();
-			cache.put(code, path);
-			return path;
+			return GlyphPaths.toPath(outline);
 		}
 		catch (IOException e)
 		{
@@ -60,6 +61,6 @@ final class CIDType0Glyph2D implements Glyph2D
 	@Override
 	public void dispose()
 	{
-		cache.clear();
+		// the outlines are kept by the shared cache
 	}
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package org.apache.pdfbox.rendering;
+
+import org.apache.fontbox.util.GlyphOutline;
+
+import android.graphics.Path;
+
+/**
+ * Converts the platform independent glyph outlines of fontbox into paths which can be drawn.
+ */
+public final class GlyphPaths
+{
+	private GlyphPaths()
+	{
+	}
+
+	/**
+	 * Creates a new path with the segments of the given outline.
+	 *
+	 * @param outline the glyph outline
+	 * @return the path
+	 */
+	public static Path toPath(GlyphOutline outline)
+	{
+		Path path = new Path();
+		float[] coordinates = outline.getCoordinates();
+		int c = 0;
+		for (int i = 0, count = outline.getSegmentCount(); i < count; i++)
+		{
+			switch (outline.getSegmentType(i))
+			{
+			case GlyphOutline.MOVE_TO:
+				path.moveTo(coordinates[c], coordinates[c + 1]);
+				c += 2;
+				break;
+			case GlyphOutline.LINE_TO:
+				path.lineTo(coordinates[c], coordinates[c + 1]);
+				c += 2;
+				break;
+			case GlyphOutline.QUAD_TO:
+				path.quadTo(coordinates[c], coordinates[c + 1], coordinates[c + 2],
+						coordinates[c + 3]);
+				c += 4;
+				break;
+			case GlyphOutline.CURVE_TO:
+				path.cubicTo(coordinates[c], coordinates[c + 1], coordinates[c + 2],
+						coordinates[c + 3], coordinates[c + 4], coordinates[c + 5]);
+				c += 6;
+				break;
+			default:
+				path.close();
+				break;
+			}
+		}
+		return path;
+	}
+}
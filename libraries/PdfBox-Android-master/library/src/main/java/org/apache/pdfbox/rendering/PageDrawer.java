@@ -15,6 +15,7 @@ import org.apache.pdfbox.pdmodel.font.PDTrueTypeFont;
 import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.apache.pdfbox.pdmodel.font.PDType1CFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.PDType3Font;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
@@ -253,6 +254,13 @@ public final class PageDrawer extends PDFGraphicsStreamEngine
         }
     }
 
+    @Override
+    protected boolean isGlyphStateSaved(PDFont font)
+    {
+        // a Type 3 glyph is drawn by a content stream of its own
+        return font instanceof PDType3Font;
+    }
+
     @Override
     protected void showFontGlyph(Matrix textRenderingMatrix, PDFont font, int code, String unicode,
                                  Vector displacement) throws IOException
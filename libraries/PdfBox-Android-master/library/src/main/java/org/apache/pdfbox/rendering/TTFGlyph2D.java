@@ -1,17 +1,16 @@
 package org.apache.pdfbox.rendering;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.fontbox.ttf.GlyphData;
 import org.apache.fontbox.ttf.HeaderTable;
 import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.fontbox.util.GlyphOutlineCache;
 import org.apache.pdfbox.pdmodel.font.PDCIDFontType2;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDTrueTypeFont;
 import org.apache.pdfbox.pdmodel.font.PDType0Font;
-import org.apache.pdfbox.util.awt.AffineTransform;
 
 import android.graphics.Path;
 import android.util.Log;
@@ -25,7 +24,7 @@ final class TTFGlyph2D implements Glyph2D
 	private final TrueTypeFont ttf;
 	private float scale = 1.0f;
 	private boolean hasScaling;
-	private final Map<Integer, Path> glyphs = new HashMap<Integer, Path>();
+	private final GlyphOutlineCache cache = GlyphOutlineCache.getInstance();
 	private final boolean isCIDFont;
 	/**
 	 * Constructor.
@@ -89,12 +88,10 @@ final class TTFGlyph2D implements Glyph2D
 	 */
 	public Path getPathForGID(int gid, int code) throws IOException
 	{
-		Path glyphPath;
-		if (glyphs.containsKey(gid))
-		{
-			glyphPath = glyphs.get(gid);
-		}
-		else
+		// Acrobat only draws GID 0 for embedded or "Standard 14" fonts, see PDFBOX-2372
+		boolean drawsNotdef = font.isEmbedded() || font.isStandard14();
+		GlyphOutline outline = gid == 0 && !drawsNotdef ? null : cache.get(ttf, gid);
+		if (outline == null)
 		{
 			if (gid == 0 || gid >= ttf.getMaximumProfile().getNumGlyphs())
 			{
@@ -110,34 +107,31 @@ final class TTFGlyph2D implements Glyph2D
 					Log.w("PdfBoxAndroid", "No glyph for " + code + " in font " + font.getName());
 				}
 			}
-			GlyphData glyph = ttf.getGlyph().getGlyph(gid);
-			// Acrobat only draws GID 0 for embedded or "Standard 14" fonts, see PDFBOX-2372
-			if (gid == 0 && !font.isEmbedded() && !font.isStandard14())
+			if (gid == 0 && !drawsNotdef)
 			{
-				glyph = null;
+				return new Path();
 			}
+			GlyphData glyph = ttf.getGlyph().getGlyph(gid);
 			if (glyph == null)
 			{
 				// empty glyph (e.g. space, newline)
-				glyphPath = new Path();
-				glyphs.put(gid, glyphPath);
+				outline = new GlyphOutline();
 			}
 			else
 			{
-				glyphPath = glyph.getPath();
+				outline = glyph.getOutline();
 				if (hasScaling)
 				{
-					AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
-					glyphPath.transform(atScale.toMatrix());
+					outline.scale(scale);
 				}
-				glyphs.put(gid, glyphPath);
 			}
+			cache.put(ttf, gid, outline);
 		}
-		return glyphPath != null ? new Path(glyphPath) : null; // todo: expensive
+		return GlyphPaths.toPath(outline);
 	}
 	@Override
 	public void dispose()
 	{
-		glyphs.clear();
+		// the outlines are kept by the shared cache
 	}
 }
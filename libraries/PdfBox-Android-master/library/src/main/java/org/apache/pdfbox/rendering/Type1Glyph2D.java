@@ -1,9 +1,9 @@
 package org.apache.pdfbox.rendering;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
+import org.apache.fontbox.util.GlyphOutline;
+import org.apache.fontbox.util.GlyphOutlineCache;
 import org.apache.pdfbox.pdmodel.font.PDType1Equivalent;
 
 import android.graphics.Path;
@@ -14,7 +14,7 @@ import android.util.Log;
  */
 final class Type1Glyph2D implements Glyph2D
 {
-	private final Map<Integer, Path> cache = new HashMap<Integer, Path>();
+	private final GlyphOutlineCache cache = GlyphOutlineCache.getInstance();
 	private final PDType1Equivalent font;
 	/**
 	 * Constructor.
@@ -28,27 +28,30 @@ final class Type1Glyph2D implements Glyph2D
 	@Override
 	public Path getPathForCharacterCode(int code)
 	{
-		// cache
-		if (cache.containsKey(code))
-		{
-			return cache.get(code);
-		}
-		// fetch
 		try
 		{
 			String name = font.codeToName(code);
 			if (name.equals(".notdef"))
 			{
+				// whether .notdef is drawn depends on the font, not only on the font program
 				Log.w("PdfBoxAndroid", "No glyph for " + code + " (" + name + ") in font " + font.getName());
+				return GlyphPaths.toPath(font.getOutline(name));
 			}
-			// todo: can this happen? should it be encapsulated?
-			Path path = font.getPath(name);
-			if (path == null)
+			// cache
+			Object fontProgram = font.getType1Equivalent();
+			GlyphOutline outline = cache.get(fontProgram, name);
+			if (outline == null)
 			{
-				path = font.getPath(".notdef");
+				// fetch
+				// todo: can this happen? should it be encapsulated?
+				outline = font.getOutline(name);
+				if (outline == null)
+				{
+					outline = font.getOutline(".notdef");
+				}
+				cache.put(fontProgram, name, outline);
 			}
-			cache.put(code, path);
-			return path;
+			return GlyphPaths.toPath(outline);
 		}
 		catch (IOException e)
 		{
@@ -59,6 +62,6 @@ final class Type1Glyph2D implements Glyph2D
 	@Override
 	public void dispose()
 	{
-		cache.clear();
+		// the outlines are kept by the shared cache
 	}
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package org.apache.pdfbox.text;
+
+/**
+ * The positions of the characters with the same text which have been shown on a page. The
+ * positions are hashed into the cells of a uniform grid, so that finding the characters close
+ * to a position only has to look at a few cells instead of all characters.
+ *
+ * A position (px, py) is near (x, y) if x - tolerance &lt;= px &lt; x + tolerance and the same
+ * holds for py, compared the way {@link Float#compare(float, float)} does.
+ */
+final class CharacterGrid
+{
+    private static final int MIN_CELL_SIZE = 1;
+
+    // the positions, and for each position the index + 1 of the next one in the same cell
+    private float[] xs = new float[16];
+    private float[] ys = new float[16];
+    private int[] next = new int[16];
+    private int count;
+
+    // open addressing hash table of the cells, a head is the index + 1 of the last position
+    // added to the cell, 0 marks an unused slot
+    private long[] cellKeys = new long[16];
+    private int[] cellHeads = new int[16];
+    private int cellCount;
+
+    private final float cellSize;
+
+    /**
+     * Constructor.
+     *
+     * @param tolerance the tolerance of the first lookup, the cells are sized so that a lookup
+     * with the same tolerance has to look at no more than 4 cells
+     */
+    CharacterGrid(float tolerance)
+    {
+        float size = 2 * tolerance;
+        cellSize = size >= MIN_CELL_SIZE && !Float.isInfinite(size) ? size : MIN_CELL_SIZE;
+    }
+
+    /**
+     * Returns true if a position lies within the tolerance of the given position.
+     */
+    boolean containsNear(float x, float y, float tolerance)
+    {
+        float minX = x - tolerance;
+        float maxX = x + tolerance;
+        float minY = y - tolerance;
+        float maxY = y + tolerance;
+        if (count == 0 || Float.isNaN(minX) || Float.isNaN(maxX) || Float.isNaN(minY)
+                || Float.isNaN(maxY))
+        {
+            // no position lies within a range bounded by NaN
+            return false;
+        }
+        long minCellX = cell(minX);
+        long maxCellX = cell(maxX);
+        long minCellY = cell(minY);
+        long maxCellY = cell(maxY);
+        double cells = ((double) maxCellX - minCellX + 1) * ((double) maxCellY - minCellY + 1);
+        if (cells > count || maxCellX == Long.MAX_VALUE || maxCellY == Long.MAX_VALUE)
+        {
+            // a huge range, looking at the positions is cheaper than looking at the cells
+            for (int i = 0; i < count; i++)
+            {
+                if (isWithin(i, minX, maxX, minY, maxY))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (long cx = minCellX; cx <= maxCellX; cx++)
+        {
+            for (long cy = minCellY; cy <= maxCellY; cy++)
+            {
+                int slot = findSlot(cellKey(cx, cy));
+                for (int i = cellHeads[slot] - 1; i >= 0; i = next[i] - 1)
+                {
+                    if (isWithin(i, minX, maxX, minY, maxY))
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a position.
+     */
+    void add(float x, float y)
+    {
+        if (count == xs.length)
+        {
+            int capacity = count * 2;
+            xs = copyOf(xs, capacity);
+            ys = copyOf(ys, capacity);
+            int[] newNext = new int[capacity];
+            System.arraycopy(next, 0, newNext, 0, count);
+            next = newNext;
+        }
+        if (2 * (cellCount + 1) > cellKeys.length)
+        {
+            rehash(cellKeys.length * 2);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        long key = cellKey(cell(x), cell(y));
+        int slot = findSlot(key);
+        if (cellHeads[slot] == 0)
+        {
+            cellKeys[slot] = key;
+            cellCount++;
+        }
+        next[count] = cellHeads[slot];
+        cellHeads[slot] = ++count;
+    }
+
+    private boolean isWithin(int i, float minX, float maxX, float minY, float maxY)
+    {
+        return Float.compare(xs[i], minX) >= 0 && Float.compare(xs[i], maxX) < 0
+                && Float.compare(ys[i], minY) >= 0 && Float.compare(ys[i], maxY) < 0;
+    }
+
+    // the cell index along one axis, monotonic in the coordinate, NaN ends up in cell 0
+    private long cell(float value)
+    {
+        return (long) Math.floor(value / cellSize);
+    }
+
+    // cells beyond the int range share a key, the positions are compared exactly anyway
+    private static long cellKey(long cx, long cy)
+    {
+        long x = Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, cx));
+        long y = Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, cy));
+        return x << 32 | y & 0xffffffffL;
+    }
+
+    // returns the slot of the given cell, or the unused slot where it is to be added
+    private int findSlot(long key)
+    {
+        int mask = cellKeys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ h >>> 32) & mask;
+        while (cellHeads[slot] != 0 && cellKeys[slot] != key)
+        {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        cellKeys = new long[capacity];
+        cellHeads = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldHeads[i] != 0)
+            {
+                int slot = findSlot(oldKeys[i]);
+                cellKeys[slot] = oldKeys[i];
+                cellHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private static float[] copyOf(float[] array, int length)
+    {
+        float[] copy = new float[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+}
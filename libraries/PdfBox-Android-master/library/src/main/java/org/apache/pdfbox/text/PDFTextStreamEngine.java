@@ -224,7 +224,7 @@ class PDFTextStreamEngine extends PDFStreamEngine
 		}
 
 		processTextPosition(new TextPosition(pageRotation, pageSize.getWidth(),
-				pageSize.getHeight(), textRenderingMatrix, nextX, nextY,
+				pageSize.getHeight(), textRenderingMatrix.clone(), nextX, nextY,
 				dyDisplay, dxDisplay,
 				spaceWidthDisplay, unicode, new int[] { code } , font, fontSize,
 				(int)(fontSize * textRenderingMatrix.getScalingFactorX())));
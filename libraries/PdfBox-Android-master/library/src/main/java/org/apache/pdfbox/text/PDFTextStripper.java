@@ -1,31 +1,33 @@
 package org.apache.pdfbox.text;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.text.Normalizer;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.SortedSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageTree;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import org.apache.pdfbox.pdmodel.interactive.pagenavigation.PDThreadBead;
-import org.apache.pdfbox.util.QuickSort;
 
 /**
  * This class will take a pdf document and strip out all of the text and ignore the
@@ -43,7 +45,8 @@ public class PDFTextStripper extends PDFTextStreamEngine
 	private static float defaultIndentThreshold = 2.0f;
 	private static float defaultDropThreshold = 2.5f;
 
-	private static final boolean useCustomQuickSort;
+	// the number of pages per processor handed to the executor ahead of the page being written
+	private static final int MAX_PAGES_IN_FLIGHT_PER_PROCESSOR = 4;
 
 	// enable the ability to set the default indent/drop thresholds
 	// with -D system properties:
@@ -87,25 +90,6 @@ public class PDFTextStripper extends PDFTextStreamEngine
 				// ignore and use default
 			}
 		}
-
-		// We can't get a Java version, so we'll assume its higher and use quicksort
-		//		// check if we need to use the custom quicksort algorithm as a
-		//		// workaround to the transitivity issue of TextPositionComparator:
-		//		// https://issues.apache.org/jira/browse/PDFBOX-1512
-		//		boolean is16orLess = false;
-		//		try
-		//		{
-		//			String[] versionComponents = System.getProperty("java.version").split("\\.");
-		//			int javaMajorVersion = Integer.parseInt(versionComponents[0]);
-		//			int javaMinorVersion = Integer.parseInt(versionComponents[1]);
-		//			is16orLess = javaMajorVersion == 1 && javaMinorVersion <= 6;
-		//		}
-		//		catch (SecurityException x)
-		//		{
-		//			// when run in an applet ignore and use default
-		//			// assume 1.7 or higher so that quicksort is used
-		//		}
-		useCustomQuickSort = true;	// !is16orLess;
 	}
 
 	/**
@@ -160,8 +144,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
 	 */
 	protected Vector<List<TextPosition>> charactersByArticle = new Vector<List<TextPosition>>();
 
-	private Map<String, TreeMap<Float, TreeSet<Float>>> characterListMapping =
-			new HashMap<String, TreeMap<Float, TreeSet<Float>>>();
+	private Map<String, CharacterGrid> characterListMapping = new HashMap<String, CharacterGrid>();
 
 	protected PDDocument document;
 	protected Writer output;
@@ -171,6 +154,9 @@ public class PDFTextStripper extends PDFTextStreamEngine
 	 */
 	private boolean inParagraph;
 
+	// the resource cache of a page stripper, shared by the pages it extracts
+	private ResourceCache pageResourceCache;
+
 	/**
 	 * Instantiate a new PDFTextStripper object.
 	 *
@@ -236,6 +222,245 @@ public class PDFTextStripper extends PDFTextStreamEngine
 		endDocument(document);
 	}
 
+	/**
+	 * This will return the text of a document, extracting the pages in parallel.
+	 * See {@link #writeText(PDDocument, Writer, Executor)}.
+	 *
+	 * @param doc The document to get the text from.
+	 * @param executor The executor the pages are extracted on.
+	 * @return The text of the PDF document.
+	 * @throws IOException if the doc state is invalid or it is encrypted.
+	 */
+	public String getText(PDDocument doc, Executor executor) throws IOException
+	{
+		StringWriter outputStream = new StringWriter();
+		writeText(doc, outputStream, executor);
+		return outputStream.toString();
+	}
+
+	/**
+	 * This will take a PDDocument and write the text of that document to the print writer,
+	 * extracting the pages in parallel. Each thread extracting pages uses a stripper of its
+	 * own, created by {@link #createPageStripper()} with the settings of this stripper. The
+	 * text of the pages is written in page order, {@link #startDocument(PDDocument)} and
+	 * {@link #endDocument(PDDocument)} are called on this stripper, the page related methods
+	 * are called on the page strippers. Only a limited number of pages is handed to the
+	 * executor ahead of the page being written.
+	 *
+	 * A subclass which doesn't override {@link #createPageStripper()} can't be copied for the
+	 * pages, its text is extracted on the calling thread as by
+	 * {@link #writeText(PDDocument, Writer)}.
+	 *
+	 * The resources of the pages are cached per thread, so that fonts aren't shared between
+	 * threads. The document must not be modified while its text is extracted.
+	 *
+	 * @param doc The document to get the data from.
+	 * @param outputStream The location to put the text.
+	 * @param executor The executor the pages are extracted on, null to extract them on the
+	 * calling thread.
+	 *
+	 * @throws IOException If the doc is in an invalid state.
+	 */
+	public void writeText(PDDocument doc, Writer outputStream, Executor executor)
+			throws IOException
+	{
+		if (executor == null || getClass() != PDFTextStripper.class
+				&& !overridesCreatePageStripper(getClass()))
+		{
+			writeText(doc, outputStream);
+			return;
+		}
+		resetEngine();
+		document = doc;
+		output = outputStream;
+		if (getAddMoreFormatting()) 
+		{
+			paragraphEnd = lineSeparator;
+			pageStart = lineSeparator;
+			articleStart = lineSeparator;
+			articleEnd = lineSeparator;
+		}
+		startDocument(document);
+		LinkedList<FutureTask<String>> tasks = new LinkedList<FutureTask<String>>();
+		try
+		{
+			// the page tree is walked on this thread, the pages are extracted on the executor
+			final int maxPagesInFlight = MAX_PAGES_IN_FLIGHT_PER_PROCESSOR
+					* Runtime.getRuntime().availableProcessors();
+			final Map<Thread, PDFTextStripper> pageStrippers = new HashMap<Thread, PDFTextStripper>();
+			for (PDPage page : document.getPages())
+			{
+				currentPageNo++;
+				if (page.getStream() != null && isPageInRange())
+				{
+					if (tasks.size() >= maxPagesInFlight)
+					{
+						output.write(finishPageTask(tasks.removeFirst()));
+					}
+					FutureTask<String> task = createPageTask(page.getCOSObject(), currentPageNo,
+							pageStrippers);
+					tasks.add(task);
+					executor.execute(task);
+				}
+			}
+			while (!tasks.isEmpty())
+			{
+				output.write(finishPageTask(tasks.removeFirst()));
+			}
+		}
+		finally
+		{
+			for (FutureTask<String> task : tasks)
+			{
+				task.cancel(false);
+			}
+		}
+		endDocument(document);
+	}
+
+	/**
+	 * Creates a stripper which extracts pages in {@link #writeText(PDDocument, Writer, Executor)}.
+	 * It is called once for each thread extracting pages, the stripper extracts all pages of
+	 * that thread. The settings of this stripper are copied to it afterwards. Subclasses which
+	 * customize the extraction have to override this to return an instance of their own class.
+	 *
+	 * @return A new stripper.
+	 * @throws IOException If the stripper can't be created.
+	 */
+	protected PDFTextStripper createPageStripper() throws IOException
+	{
+		return new PDFTextStripper();
+	}
+
+	private boolean isPageInRange()
+	{
+		return currentPageNo >= startPage && currentPageNo <= endPage &&
+				(startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber) &&
+				(endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber);
+	}
+
+	// returns true if the given subclass overrides createPageStripper()
+	private static boolean overridesCreatePageStripper(Class<?> stripperClass)
+	{
+		for (Class<?> c = stripperClass; c != PDFTextStripper.class; c = c.getSuperclass())
+		{
+			try
+			{
+				c.getDeclaredMethod("createPageStripper");
+				return true;
+			}
+			catch (NoSuchMethodException e)
+			{
+				// look at the superclass
+			}
+			catch (SecurityException e)
+			{
+				return false;
+			}
+		}
+		return false;
+	}
+
+	// creates the task which extracts the text of the given page with the stripper of the
+	// thread running it
+	private FutureTask<String> createPageTask(final COSDictionary pageDictionary,
+			final int pageNo, final Map<Thread, PDFTextStripper> pageStrippers)
+	{
+		return new FutureTask<String>(new Callable<String>()
+		{
+			@Override
+			public String call() throws IOException
+			{
+				PDFTextStripper stripper = getPageStripper(pageStrippers);
+				stripper.currentPageNo = pageNo;
+				stripper.inParagraph = false;
+				StringWriter pageOutput = new StringWriter();
+				stripper.output = pageOutput;
+				stripper.processPage(new PDPage(pageDictionary, stripper.pageResourceCache));
+				return pageOutput.toString();
+			}
+		});
+	}
+
+	// returns the page stripper of the current thread, creating it for the first page
+	private PDFTextStripper getPageStripper(Map<Thread, PDFTextStripper> pageStrippers)
+			throws IOException
+	{
+		synchronized (pageStrippers)
+		{
+			PDFTextStripper stripper = pageStrippers.get(Thread.currentThread());
+			if (stripper == null)
+			{
+				stripper = createPageStripper();
+				stripper.copySettings(this);
+				stripper.document = document;
+				if (document.getResourceCache() != null)
+				{
+					stripper.pageResourceCache = new DefaultResourceCache();
+				}
+				pageStrippers.put(Thread.currentThread(), stripper);
+			}
+			return stripper;
+		}
+	}
+
+	// returns the text of the page, extracting it right away if the executor didn't start yet
+	private String finishPageTask(FutureTask<String> task) throws IOException
+	{
+		task.run();
+		try
+		{
+			return task.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while extracting the text of a page");
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+			{
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	// copies the settings which affect the text of a page
+	private void copySettings(PDFTextStripper other)
+	{
+		lineSeparator = other.lineSeparator;
+		wordSeparator = other.wordSeparator;
+		paragraphStart = other.paragraphStart;
+		paragraphEnd = other.paragraphEnd;
+		pageStart = other.pageStart;
+		pageEnd = other.pageEnd;
+		articleStart = other.articleStart;
+		articleEnd = other.articleEnd;
+		startPage = other.startPage;
+		endPage = other.endPage;
+		startBookmarkPageNumber = other.startBookmarkPageNumber;
+		endBookmarkPageNumber = other.endBookmarkPageNumber;
+		suppressDuplicateOverlappingText = other.suppressDuplicateOverlappingText;
+		shouldSeparateByBeads = other.shouldSeparateByBeads;
+		sortByPosition = other.sortByPosition;
+		addMoreFormatting = other.addMoreFormatting;
+		indentThreshold = other.indentThreshold;
+		dropThreshold = other.dropThreshold;
+		spacingTolerance = other.spacingTolerance;
+		averageCharTolerance = other.averageCharTolerance;
+	}
+
 	/**
 	 * This will process all of the pages and the text that is in them.
 	 *
@@ -306,9 +531,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
 	@Override
 	public void processPage(PDPage page) throws IOException
 	{
-		if (currentPageNo >= startPage && currentPageNo <= endPage &&
-				(startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber) &&
-				(endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber))
+		if (isPageInRange())
 		{
 			startPage(page);
 			pageArticles = page.getThreadBeads();
@@ -438,19 +661,10 @@ public class PDFTextStripper extends PDFTextStreamEngine
 		{
 			if (getSortByPosition())
 			{
-				TextPositionComparator comparator = new TextPositionComparator();
-
-				// because the TextPositionComparator is not transitive, but 
-				// JDK7+ enforces transitivity on comparators, we need to use
-				// a custom quicksort implementation (which is slower, unfortunately).
-				if(useCustomQuickSort) 
-				{
-					QuickSort.sort( textList, comparator );
-				}
-				else 
-				{
-					Collections.sort( textList, comparator );
-				}
+				// the positions are grouped into lines and sorted on primitive keys, this
+				// falls back to sorting with the TextPositionComparator if the comparator
+				// isn't transitive for them
+				TextPositionSorter.sort(textList);
 			}
 			Iterator<TextPosition> textIter = textList.iterator();
 			// Before we can display the text, we need to do some normalizing.
@@ -774,13 +988,6 @@ public class PDFTextStripper extends PDFTextStreamEngine
 			String textCharacter = text.getUnicode();
 			float textX = text.getX();
 			float textY = text.getY();
-			TreeMap<Float, TreeSet<Float>> sameTextCharacters =
-					characterListMapping.get(textCharacter);
-			if (sameTextCharacters == null)
-			{
-				sameTextCharacters = new TreeMap<Float, TreeSet<Float>>();
-				characterListMapping.put(textCharacter, sameTextCharacters);
-			}
 			// RDD - Here we compute the value that represents the end of the rendered
 			// text.  This value is used to determine whether subsequent text rendered
 			// on the same line overwrites the current text.
@@ -791,29 +998,16 @@ public class PDFTextStripper extends PDFTextStreamEngine
 			// the TJ just backs up to compensate after each character).  Also, we subtract
 			// an amount to allow for kerning (a percentage of the width of the last
 			// character).
-			boolean suppressCharacter = false;
 			float tolerance = text.getWidth()/textCharacter.length() / 3.0f;
-
-			SortedMap<Float, TreeSet<Float>> xMatches = sameTextCharacters.subMap(textX - tolerance,
-					textX + tolerance);
-			for (TreeSet<Float> xMatch : xMatches.values()) 
+			CharacterGrid sameTextCharacters = characterListMapping.get(textCharacter);
+			if (sameTextCharacters == null)
 			{
-				SortedSet<Float> yMatches = xMatch.subSet(textY - tolerance , textY + tolerance);
-				if (!yMatches.isEmpty()) 
-				{
-					suppressCharacter = true;
-					break;
-				}
+				sameTextCharacters = new CharacterGrid(tolerance);
+				characterListMapping.put(textCharacter, sameTextCharacters);
 			}
-			if (!suppressCharacter)
+			if (!sameTextCharacters.containsNear(textX, textY, tolerance))
 			{
-				TreeSet<Float> ySet = sameTextCharacters.get(textX);
-				if (ySet == null) 
-				{
-					ySet = new TreeSet<Float>();
-					sameTextCharacters.put(textX,  ySet);
-				}
-				ySet.add(textY);
+				sameTextCharacters.add(textX, textY);
 				showCharacter = true;
 			}
 		}
@@ -0,0 +1,149 @@
+package org.apache.pdfbox.text;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pdfbox.util.QuickSort;
+
+/**
+ * Sorts text positions into reading order, the order defined by {@link TextPositionComparator}.
+ * The positions of each direction are sorted by their baseline and grouped into lines, then
+ * each line is sorted by x. Both sorts work on primitive keys.
+ *
+ * As the comparator isn't transitive this only gives its order if the comparator is
+ * consistent for the given positions: the baselines of a line are less than 0.1 apart, each
+ * line is at least 0.1 below the previous one and its positions don't reach up to the
+ * baselines above, and no two positions of a line have the same x. Then the comparator defines
+ * a total order which every sort gives. Otherwise, e.g. for rotated or overlapping text, the
+ * result depends on the sort algorithm and the positions are sorted with the comparator and
+ * {@link QuickSort} as before.
+ */
+final class TextPositionSorter
+{
+    private TextPositionSorter()
+    {
+    }
+
+    /**
+     * Sorts the given list.
+     *
+     * @param textList the text positions to be sorted
+     */
+    static void sort(List<TextPosition> textList)
+    {
+        int size = textList.size();
+        if (size < 2)
+        {
+            return;
+        }
+        TextPosition[] positions = textList.toArray(new TextPosition[size]);
+        int[] order = sortByLines(positions);
+        if (order == null)
+        {
+            QuickSort.sort(textList, new TextPositionComparator());
+            return;
+        }
+        for (int i = 0; i < size; i++)
+        {
+            textList.set(i, positions[order[i]]);
+        }
+    }
+
+    /**
+     * Returns the indices of the positions in reading order, or null if the comparator isn't
+     * consistent for the positions.
+     */
+    private static int[] sortByLines(TextPosition[] positions)
+    {
+        int size = positions.length;
+        float[] x = new float[size];
+        float[] yBottom = new float[size];
+        float[] yTop = new float[size];
+
+        // order by direction, then baseline, then index
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++)
+        {
+            TextPosition position = positions[i];
+            int direction = (int) position.getDir() / 90;
+            x[i] = position.getXDirAdj();
+            yBottom[i] = position.getYDirAdj();
+            yTop[i] = yBottom[i] - position.getHeightDir();
+            keys[i] = (long) direction << 61 | sortableBits(yBottom[i]) << 29 | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[size];
+        long[] lineKeys = new long[size];
+        int lineStart = 0;
+        while (lineStart < size)
+        {
+            long direction = keys[lineStart] >>> 61;
+            boolean firstLine = lineStart == 0 || keys[lineStart - 1] >>> 61 != direction;
+            // the lowest baseline of the previous lines is the one before this line
+            float previousYBottom = firstLine ? 0 : yBottom[index(keys[lineStart - 1])];
+            int first = index(keys[lineStart]);
+
+            // a line ends where the next baseline is 0.1 or more further down
+            int lineEnd = lineStart + 1;
+            while (lineEnd < size && keys[lineEnd] >>> 61 == direction
+                    && !isBelow(yBottom[index(keys[lineEnd - 1])], yBottom[index(keys[lineEnd])]))
+            {
+                lineEnd++;
+            }
+            int last = index(keys[lineEnd - 1]);
+            if (!(Math.abs(yBottom[last] - yBottom[first]) < .1))
+            {
+                return null;
+            }
+
+            // order the line by x, then index
+            int count = lineEnd - lineStart;
+            for (int i = 0; i < count; i++)
+            {
+                int index = index(keys[lineStart + i]);
+                if (!firstLine && !(yTop[index] > previousYBottom))
+                {
+                    return null;
+                }
+                lineKeys[i] = sortableBits(x[index]) << 31 | index;
+            }
+            Arrays.sort(lineKeys, 0, count);
+            for (int i = 0; i < count; i++)
+            {
+                int index = (int) (lineKeys[i] & 0x7fffffff);
+                if (i > 0 && !(x[order[lineStart + i - 1]] < x[index]))
+                {
+                    return null;
+                }
+                order[lineStart + i] = index;
+            }
+            lineStart = lineEnd;
+        }
+        return order;
+    }
+
+    /**
+     * Returns true if the second baseline is so far below the first one that the comparator
+     * doesn't consider them the same line by their distance.
+     */
+    private static boolean isBelow(float yBottom, float nextYBottom)
+    {
+        return nextYBottom - yBottom >= .1;
+    }
+
+    private static int index(long key)
+    {
+        return (int) (key & 0x1fffffff);
+    }
+
+    /**
+     * Returns the bits of a float as an unsigned 32 bit number with the same order as the float.
+     */
+    private static long sortableBits(float value)
+    {
+        int bits = Float.floatToIntBits(value);
+        bits ^= bits >> 31 & 0x7fffffff;
+        return (bits ^ 0x80000000) & 0xffffffffL;
+    }
+}
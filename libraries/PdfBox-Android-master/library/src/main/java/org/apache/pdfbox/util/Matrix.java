@@ -90,6 +90,23 @@ public final class Matrix implements Cloneable
 		System.arraycopy(DEFAULT_SINGLE, 0, single, 0, DEFAULT_SINGLE.length);
 	}
 
+	/**
+	 * Sets the values of this matrix to those of a matrix constructed from the given values,
+	 * see {@link #Matrix(float, float, float, float, float, float)}.
+	 */
+	public void setValues(float a, float b, float c, float d, float e, float f)
+	{
+		single[0] = a;
+		single[1] = b;
+		single[2] = 0;
+		single[3] = c;
+		single[4] = d;
+		single[5] = 0;
+		single[6] = e;
+		single[7] = f;
+		single[8] = 1;
+	}
+
 	/**
      * Create an affine transform from this matrix's values.
      *
@@ -205,8 +222,7 @@ public final class Matrix implements Cloneable
 	 */
 	public void translate(Vector vector)
 	{
-		Matrix m = Matrix.getTranslateInstance(vector.getX(), vector.getY());
-		concatenate(m);
+		translate(vector.getX(), vector.getY());
 	}
 	
 	/**
@@ -217,8 +233,17 @@ public final class Matrix implements Cloneable
 	 */
 	public void translate(float tx, float ty)
 	{
-		Matrix m = Matrix.getTranslateInstance(tx, ty);
-		concatenate(m);
+		// same products as concatenate(getTranslateInstance(tx, ty)), but computed in place:
+		// each column of the result only depends on the same column of this matrix
+		for (int i = 0; i < 3; i++)
+		{
+			float m0 = single[i];
+			float m1 = single[3 + i];
+			float m2 = single[6 + i];
+			single[i] = m0;
+			single[3 + i] = m1;
+			single[6 + i] = tx * m0 + ty * m1 + m2;
+		}
 	}
 
 	/**
@@ -0,0 +1,121 @@
+package org.apache.pdfbox.util;
+
+/**
+ * Formats numbers as ASCII bytes without creating intermediate objects. The output is the
+ * same as the one of a {@link java.text.NumberFormat} for {@link java.util.Locale#US} without
+ * grouping.
+ */
+public final class NumberFormatUtil
+{
+	private NumberFormatUtil() {}
+
+	/** The maximum number of fraction digits supported by {@link #formatFloatFast}. */
+	public static final int MAX_FRACTION_DIGITS = 10;
+
+	// up to this value the integer digits of a float are exact
+	private static final float MAX_FAST_VALUE = 1e15f;
+
+	private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L,
+		1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L };
+
+	/**
+	 * Formats the given float with the given maximum number of fraction digits. Trailing
+	 * zeros are omitted, the value is rounded half even.
+	 *
+	 * @param value the value to be formatted
+	 * @param maxFractionDigits the maximum number of fraction digits, at most
+	 * {@link #MAX_FRACTION_DIGITS}
+	 * @param asciiBuffer the buffer receiving the bytes, at least 32 bytes long
+	 * @return the number of bytes written, or -1 if the value can't be formatted, e.g. because
+	 * it is too large or not finite
+	 */
+	public static int formatFloatFast(float value, int maxFractionDigits, byte[] asciiBuffer)
+	{
+		if (maxFractionDigits < 0 || maxFractionDigits > MAX_FRACTION_DIGITS ||
+				!(Math.abs(value) < MAX_FAST_VALUE))
+		{
+			return -1;
+		}
+		double abs = Math.abs((double) value);
+		long integerPart = (long) abs;
+		long scale = POWERS_OF_TEN[maxFractionDigits];
+		// a float has 24 significant bits and 5^10 needs 23 bits, so this product is exact
+		double scaledFraction = (abs - integerPart) * scale;
+		long fractionPart = (long) scaledFraction;
+		double remainder = scaledFraction - fractionPart;
+		long lastDigit = maxFractionDigits > 0 ? fractionPart : integerPart;
+		if (remainder > 0.5 || remainder == 0.5 && (lastDigit & 1) != 0)
+		{
+			fractionPart++;
+			if (fractionPart == scale)
+			{
+				integerPart++;
+				fractionPart = 0;
+			}
+		}
+
+		int offset = 0;
+		if (Float.floatToRawIntBits(value) < 0)
+		{
+			asciiBuffer[offset++] = '-';
+		}
+		offset = formatDigits(integerPart, 1, asciiBuffer, offset);
+		if (fractionPart > 0)
+		{
+			asciiBuffer[offset++] = '.';
+			int digits = maxFractionDigits;
+			while (fractionPart % 10 == 0)
+			{
+				fractionPart /= 10;
+				digits--;
+			}
+			offset = formatDigits(fractionPart, digits, asciiBuffer, offset);
+		}
+		return offset;
+	}
+
+	/**
+	 * Formats the given long, padded with leading zeros to the given minimum number of digits.
+	 *
+	 * @param value the value to be formatted
+	 * @param minDigits the minimum number of digits
+	 * @param asciiBuffer the buffer receiving the bytes, long enough for the number, i.e. at
+	 * least 20 bytes or one more than the minimum number of digits
+	 * @return the number of bytes written
+	 */
+	public static int formatLong(long value, int minDigits, byte[] asciiBuffer)
+	{
+		int offset = 0;
+		if (value < 0)
+		{
+			asciiBuffer[offset++] = '-';
+			if (value == Long.MIN_VALUE)
+			{
+				// the absolute value doesn't fit into a long, format the last digit separately
+				offset = formatDigits(-(value / 10), minDigits - 1, asciiBuffer, offset);
+				asciiBuffer[offset++] = (byte) ('0' - value % 10);
+				return offset;
+			}
+			value = -value;
+		}
+		return formatDigits(value, minDigits, asciiBuffer, offset);
+	}
+
+	// writes a non-negative value with at least the given number of digits
+	private static int formatDigits(long value, int minDigits, byte[] asciiBuffer, int offset)
+	{
+		int digits = 1;
+		for (long rest = value / 10; rest > 0; rest /= 10)
+		{
+			digits++;
+		}
+		digits = Math.max(digits, minDigits);
+		int end = offset + digits;
+		for (int i = end - 1; i >= offset; i--)
+		{
+			asciiBuffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		return end;
+	}
+}
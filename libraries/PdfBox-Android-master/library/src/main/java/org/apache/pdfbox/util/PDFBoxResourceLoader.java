@@ -1,5 +1,6 @@
 package org.apache.pdfbox.util;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -48,6 +49,15 @@ public class PDFBoxResourceLoader {
     	return ASSET_MANAGER != null;
     }
 
+    /**
+     * Returns the cache directory of the main app
+     * 
+     * @return the cache directory, or null if the loader has not been initialized
+     */
+    public static File getCacheDir() {
+        return CONTEXT != null ? CONTEXT.getCacheDir() : null;
+    }
+
     /**
      * Loads a resource file located in the assets folder
      * 